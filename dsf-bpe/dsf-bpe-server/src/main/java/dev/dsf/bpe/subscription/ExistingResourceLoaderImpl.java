@@ -1,5 +1,7 @@
 package dev.dsf.bpe.subscription;
 
+import static org.hl7.fhir.instance.model.api.IBaseBundle.LINK_NEXT;
+
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -12,9 +14,12 @@ import java.util.Optional;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleLinkComponent;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
 import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import dev.dsf.bpe.dao.LastEventTimeDao;
@@ -28,7 +33,9 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 	private static final String PARAM_LAST_UPDATED = "_lastUpdated";
 	private static final String PARAM_COUNT = "_count";
 	private static final String PARAM_PAGE = "_page";
+	private static final String PARAM_CURSOR = "_cursor";
 	private static final String PARAM_SORT = "_sort";
+	private static final String PARAM_TOTAL = "_total";
 	private static final int RESULT_PAGE_COUNT = 20;
 
 	private final LastEventTimeDao lastEventTimeDao;
@@ -51,35 +58,66 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 	public void readExistingResources(Map<String, List<String>> searchCriteriaQueryParameters)
 	{
 		// executing search until call results in no more found tasks
-		while (doReadExistingResources(searchCriteriaQueryParameters))
-			;
+		Optional<LocalDateTime> lastEventTime = readLastEventTime();
+		String cursor = null;
+		while (true)
+		{
+			Bundle bundle = search(searchCriteriaQueryParameters, lastEventTime, cursor);
+			if (!handleMatches(bundle))
+				return;
+
+			// (last_updated, id) cursor of next link also returns resources with same last updated as the last event
+			cursor = getCursor(bundle);
+			if (cursor == null)
+				lastEventTime = readLastEventTime();
+		}
+	}
+
+	private String getCursor(Bundle bundle)
+	{
+		BundleLinkComponent next = bundle.getLink(LINK_NEXT);
+		if (next == null || !next.hasUrl())
+			return null;
+
+		return UriComponentsBuilder.fromUriString(next.getUrl()).build().getQueryParams().getFirst(PARAM_CURSOR);
 	}
 
-	private boolean doReadExistingResources(Map<String, List<String>> searchCriteriaQueryParameters)
+	private Bundle search(Map<String, List<String>> searchCriteriaQueryParameters,
+			Optional<LocalDateTime> readLastEventTime, String cursor)
 	{
 		Map<String, List<String>> queryParams = new HashMap<>(searchCriteriaQueryParameters);
-		Optional<LocalDateTime> readLastEventTime = readLastEventTime();
 
 		readLastEventTime.ifPresent(lastEventTime -> queryParams.put(PARAM_LAST_UPDATED,
 				Collections.singletonList("gt" + lastEventTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
 
 		queryParams.put(PARAM_COUNT, Collections.singletonList(String.valueOf(RESULT_PAGE_COUNT)));
 		queryParams.put(PARAM_PAGE, Collections.singletonList("1"));
+		if (cursor != null)
+			queryParams.put(PARAM_CURSOR, Collections.singletonList(cursor));
 		queryParams.put(PARAM_SORT, Collections.singletonList(PARAM_LAST_UPDATED));
+		queryParams.put(PARAM_TOTAL, Collections.singletonList("none"));
 
 		UriBuilder builder = UriBuilder.fromPath(resourceName);
 		queryParams.forEach((k, v) -> builder.replaceQueryParam(k, v.toArray()));
 
 		logger.debug("Executing search {}", builder.toString());
-		Bundle bundle = webserviceClient.searchWithStrictHandling(resourceClass, queryParams);
+		return webserviceClient.searchWithStrictHandling(resourceClass, queryParams);
+	}
+
+	private boolean handleMatches(Bundle bundle)
+	{
+		// bundle may contain OperationOutcome or included resources, continue only if matches found
+		List<BundleEntryComponent> matches = bundle.getEntry().stream()
+				.filter(e -> e.hasSearch() && SearchEntryMode.MATCH.equals(e.getSearch().getMode())).toList();
 
-		if (bundle.getTotal() <= 0)
+		if (matches.isEmpty())
 		{
-			logger.debug("Result bundle.total <= 0");
+			logger.debug("Result bundle.entry contains no matches");
 			return false;
 		}
 
-		for (BundleEntryComponent entry : bundle.getEntry())
+		boolean lastEventTimeWritten = false;
+		for (BundleEntryComponent entry : matches)
 		{
 			if (entry.hasResource())
 			{
@@ -89,6 +127,7 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 					R resource = (R) entry.getResource();
 					handler.onResource(resource);
 					writeLastEventTime(resource.getMeta().getLastUpdated());
+					lastEventTimeWritten = true;
 				}
 				else
 				{
@@ -102,7 +141,8 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 			}
 		}
 
-		return true;
+		// without new last event time the next search would return the same page
+		return lastEventTimeWritten;
 	}
 
 	private Optional<LocalDateTime> readLastEventTime()
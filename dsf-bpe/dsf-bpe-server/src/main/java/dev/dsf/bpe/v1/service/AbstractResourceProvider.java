@@ -12,11 +12,13 @@ import java.util.function.Predicate;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleLinkComponent;
 import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Resource;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.web.util.UriComponentsBuilder;
 
 public abstract class AbstractResourceProvider implements InitializingBean
 {
@@ -54,27 +56,43 @@ public abstract class AbstractResourceProvider implements InitializingBean
 
 		boolean hasMore = true;
 		int page = 1;
+		String cursor = null;
 		while (hasMore)
 		{
-			Bundle resultBundle = search(searchType, searchParameters, page++);
+			Bundle resultBundle = search(searchType, searchParameters, page++, cursor);
 
 			organizations.addAll(resultBundle.getEntry().stream().filter(BundleEntryComponent::hasSearch)
 					.filter(e -> targetMode.equals(e.getSearch().getMode())).filter(BundleEntryComponent::hasResource)
 					.map(BundleEntryComponent::getResource).filter(targetType::isInstance).map(targetType::cast)
 					.filter(filter).toList());
 
-			hasMore = resultBundle.getLink(LINK_NEXT) != null;
+			BundleLinkComponent next = resultBundle.getLink(LINK_NEXT);
+			hasMore = next != null;
+			cursor = hasMore ? getCursor(next) : null;
 		}
 
 		return organizations;
 	}
 
-	private Bundle search(Class<? extends Resource> searchType, Map<String, List<String>> parameters, int page)
+	private String getCursor(BundleLinkComponent next)
+	{
+		if (!next.hasUrl())
+			return null;
+
+		return UriComponentsBuilder.fromUriString(next.getUrl()).build().getQueryParams().getFirst("_cursor");
+	}
+
+	private Bundle search(Class<? extends Resource> searchType, Map<String, List<String>> parameters, int page,
+			String cursor)
 	{
 		Map<String, List<String>> parametersAndPage = new HashMap<>(parameters);
 		parametersAndPage.put("_page", Collections.singletonList(String.valueOf(page)));
+		if (cursor != null)
+			parametersAndPage.put("_cursor", Collections.singletonList(cursor));
 		if (!parameters.containsKey("_sort"))
 			parametersAndPage.put("_sort", Collections.singletonList("_id"));
+		if (!parameters.containsKey("_total"))
+			parametersAndPage.put("_total", Collections.singletonList("none"));
 
 		return clientProvider.getLocalWebserviceClient().searchWithStrictHandling(searchType, parametersAndPage);
 	}
@@ -0,0 +1,138 @@
+package dev.dsf.bpe.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import dev.dsf.bpe.dao.LastEventTimeDao;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExistingResourceLoaderImplTest
+{
+	@Mock
+	private LastEventTimeDao lastEventTimeDao;
+
+	@Mock
+	private ResourceHandler<Task> handler;
+
+	@Mock
+	private FhirWebserviceClient webserviceClient;
+
+	private ExistingResourceLoaderImpl<Task> createLoader() throws Exception
+	{
+		when(lastEventTimeDao.readLastEventTime()).thenReturn(Optional.empty());
+
+		return new ExistingResourceLoaderImpl<>(lastEventTimeDao, handler, webserviceClient, "Task", Task.class);
+	}
+
+	private static Bundle searchSet()
+	{
+		Bundle bundle = new Bundle();
+		bundle.setType(Bundle.BundleType.SEARCHSET);
+		return bundle;
+	}
+
+	@Test
+	public void testStopsOnPageWithoutMatches() throws Exception
+	{
+		Bundle bundle = searchSet();
+		bundle.addEntry().setResource(new OperationOutcome()).getSearch().setMode(SearchEntryMode.OUTCOME);
+		bundle.addEntry().setResource(new Organization()).getSearch().setMode(SearchEntryMode.INCLUDE);
+
+		when(webserviceClient.searchWithStrictHandling(eq(Task.class), anyMap())).thenReturn(bundle);
+
+		createLoader().readExistingResources(Collections.emptyMap());
+
+		verify(webserviceClient, times(1)).searchWithStrictHandling(eq(Task.class), anyMap());
+		verify(handler, never()).onResource(any());
+		verify(lastEventTimeDao, never()).writeLastEventTime(any(Date.class));
+	}
+
+	@Test
+	public void testReadsPagesUntilNoMatches() throws Exception
+	{
+		Task task = new Task();
+		task.getMeta().setLastUpdated(new Date());
+
+		Bundle page1 = searchSet();
+		page1.addEntry().setResource(task).getSearch().setMode(SearchEntryMode.MATCH);
+		page1.addEntry().setResource(new Organization()).getSearch().setMode(SearchEntryMode.INCLUDE);
+
+		when(webserviceClient.searchWithStrictHandling(eq(Task.class), anyMap())).thenReturn(page1, searchSet());
+
+		createLoader().readExistingResources(Collections.emptyMap());
+
+		verify(webserviceClient, times(2)).searchWithStrictHandling(eq(Task.class), anyMap());
+		verify(handler, times(1)).onResource(task);
+		verify(lastEventTimeDao, times(1)).writeLastEventTime(task.getMeta().getLastUpdated());
+	}
+
+	@Test
+	public void testStopsIfNoMatchHandled() throws Exception
+	{
+		Bundle bundle = searchSet();
+		bundle.addEntry().setResource(new Organization()).getSearch().setMode(SearchEntryMode.MATCH);
+
+		when(webserviceClient.searchWithStrictHandling(eq(Task.class), anyMap())).thenReturn(bundle);
+
+		createLoader().readExistingResources(Collections.emptyMap());
+
+		verify(webserviceClient, times(1)).searchWithStrictHandling(eq(Task.class), anyMap());
+		verify(handler, never()).onResource(any());
+	}
+
+	@Test
+	public void testFollowsCursorOfNextLink() throws Exception
+	{
+		Task task1 = new Task();
+		task1.getMeta().setLastUpdated(new Date());
+		Task task2 = new Task();
+		task2.getMeta().setLastUpdated(task1.getMeta().getLastUpdated());
+
+		Bundle page1 = searchSet();
+		page1.addLink().setRelation("next").setUrl("https://localhost/fhir/Task?_cursor=abc&_page=2");
+		page1.addEntry().setResource(task1).getSearch().setMode(SearchEntryMode.MATCH);
+
+		Bundle page2 = searchSet();
+		page2.addEntry().setResource(task2).getSearch().setMode(SearchEntryMode.MATCH);
+
+		when(webserviceClient.searchWithStrictHandling(eq(Task.class), anyMap())).thenReturn(page1, page2, searchSet());
+
+		createLoader().readExistingResources(Collections.emptyMap());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Map<String, List<String>>> parameters = ArgumentCaptor.forClass(Map.class);
+		verify(webserviceClient, times(3)).searchWithStrictHandling(eq(Task.class), parameters.capture());
+
+		assertFalse(parameters.getAllValues().get(0).containsKey("_cursor"));
+		assertEquals(List.of("abc"), parameters.getAllValues().get(1).get("_cursor"));
+		assertFalse(parameters.getAllValues().get(2).containsKey("_cursor"));
+
+		verify(handler, times(1)).onResource(task1);
+		verify(handler, times(1)).onResource(task2);
+	}
+}
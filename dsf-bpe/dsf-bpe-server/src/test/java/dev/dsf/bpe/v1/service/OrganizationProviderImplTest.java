@@ -4,6 +4,7 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hl7.fhir.instance.model.api.IBaseBundle.LINK_NEXT;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -253,4 +254,34 @@ public class OrganizationProviderImplTest
 		assertThat(organizations.size(), is(countOrganizations));
 	}
 
+	@Test
+	public void getOrganizationsOnMultiplePagesFollowsNextLinkCursor() throws Exception
+	{
+		Identifier identifier = new Identifier().setSystem("foo").setValue("bar");
+		Organization org = new Organization().setActive(true);
+		OrganizationAffiliation affiliation = new OrganizationAffiliation().setActive(true);
+		Bundle firstPageResults = new Bundle();
+		Bundle secondPageResults = new Bundle();
+		BundleLinkComponent nextLink = new BundleLinkComponent().setRelation(LINK_NEXT)
+				.setUrl("https://foo.bar/fhir/OrganizationAffiliation?_count=1&_page=2&_cursor=Y3Vyc29y");
+		firstPageResults.addEntry().setSearch(MATCH_MODE).setResource(affiliation);
+		firstPageResults.addEntry().setSearch(INCLUDE_MODE).setResource(org);
+		secondPageResults.addEntry().setSearch(MATCH_MODE).setResource(affiliation);
+		secondPageResults.addEntry().setSearch(INCLUDE_MODE).setResource(org);
+		firstPageResults.setTotal(2);
+		secondPageResults.setTotal(2);
+		firstPageResults.setLink(List.of(nextLink));
+		when(clientProvider.getLocalWebserviceClient()).thenReturn(client);
+		when(client.searchWithStrictHandling(Mockito.eq(OrganizationAffiliation.class), parametersCaptor.capture()))
+				.thenReturn(firstPageResults, secondPageResults);
+
+		List<Organization> organizations = organizationProvider.getOrganizations(identifier);
+
+		assertThat(parametersCaptor.getAllValues().size(), is(2));
+		assertFalse(parametersCaptor.getAllValues().get(0).containsKey("_cursor"));
+		assertThat(parametersCaptor.getAllValues().get(0).get("_total"), is(List.of("none")));
+		assertThat(parametersCaptor.getAllValues().get(1).get("_page").get(0), is("2"));
+		assertThat(parametersCaptor.getAllValues().get(1).get("_cursor"), is(List.of("Y3Vyc29y")));
+		assertThat(organizations.size(), is(2));
+	}
 }
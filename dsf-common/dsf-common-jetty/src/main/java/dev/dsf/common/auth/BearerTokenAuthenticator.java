@@ -30,11 +30,28 @@ public class BearerTokenAuthenticator extends LoginAuthenticator
 	private static final Logger logger = LoggerFactory.getLogger(BearerTokenAuthenticator.class);
 
 	private final DsfOpenIdConfiguration openIdConfiguration;
-
-	public BearerTokenAuthenticator(DsfOpenIdConfiguration openIdConfiguration)
+	private final VerifiedTokenCache verifiedTokenCache;
+
+	/**
+	 * @param openIdConfiguration
+	 *            not <code>null</code>
+	 * @param verifiedTokenCacheSize
+	 *            <code>&gt;= 0</code>, maximum number of cached verified access tokens, <code>0</code> to disable
+	 *            caching
+	 */
+	public BearerTokenAuthenticator(DsfOpenIdConfiguration openIdConfiguration, int verifiedTokenCacheSize)
 	{
 		Objects.requireNonNull(openIdConfiguration, "openIdConfiguration");
 		this.openIdConfiguration = openIdConfiguration;
+		this.verifiedTokenCache = new VerifiedTokenCache(verifiedTokenCacheSize);
+
+		// cache entries depend on the keys of the configuration, start and stop with the configuration
+		openIdConfiguration.addBean(verifiedTokenCache);
+	}
+
+	public VerifiedTokenCache getVerifiedTokenCache()
+	{
+		return verifiedTokenCache;
 	}
 
 	@Override
@@ -60,15 +77,12 @@ public class BearerTokenAuthenticator extends LoginAuthenticator
 				return Authentication.SEND_FAILURE;
 			}
 
-			Algorithm algorithm = Algorithm.RSA256(openIdConfiguration.getRsaKeyProvider());
-			JWTVerifier verifier = JWT.require(algorithm).withIssuer(openIdConfiguration.getIssuer()).acceptLeeway(1)
-					.build();
-
 			String accessToken = authorizationHeader.substring(7, authorizationHeader.length());
 
 			try
 			{
-				DecodedJWT jwt = verifier.verify(accessToken);
+				DecodedJWT jwt = verifiedTokenCache.verify(accessToken, openIdConfiguration.getJwksVersion(),
+						this::verify);
 				if (!jwt.getClaims().containsKey("sub") && !jwt.getClaims().containsKey("sid"))
 				{
 					logger.warn("Access token has no sub and no sid claim");
@@ -105,6 +119,15 @@ public class BearerTokenAuthenticator extends LoginAuthenticator
 		}
 	}
 
+	private DecodedJWT verify(String accessToken)
+	{
+		Algorithm algorithm = Algorithm.RSA256(openIdConfiguration.getRsaKeyProvider());
+		JWTVerifier verifier = JWT.require(algorithm).withIssuer(openIdConfiguration.getIssuer()).acceptLeeway(1)
+				.build();
+
+		return verifier.verify(accessToken);
+	}
+
 	@Override
 	public boolean secureResponse(ServletRequest request, ServletResponse response, boolean mandatory,
 			User validatedUser) throws ServerAuthException
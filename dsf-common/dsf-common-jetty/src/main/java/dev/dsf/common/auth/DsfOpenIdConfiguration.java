@@ -5,9 +5,17 @@ import java.security.interfaces.RSAPublicKey;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.security.openid.OpenIdConfiguration;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.slf4j.Logger;
@@ -15,24 +23,93 @@ import org.slf4j.LoggerFactory;
 
 import com.auth0.jwt.interfaces.RSAKeyProvider;
 
+import dev.dsf.common.auth.jwk.Jwk;
 import dev.dsf.common.auth.jwk.Jwks;
 
 public class DsfOpenIdConfiguration extends OpenIdConfiguration
 {
 	private static final Logger logger = LoggerFactory.getLogger(DsfOpenIdConfiguration.class);
 
+	/**
+	 * Minimum time between two JWKS refreshes triggered by unknown key ids, protects the OIDC provider from requests
+	 * with random key ids
+	 */
+	public static final long UNKNOWN_KEY_REFRESH_INTERVAL_MILLIS = 10_000;
+
 	private final boolean backChannelLogoutEnabled;
 	private final boolean bearerTokenEnabled;
+	private final long jwksRefreshIntervalMillis;
+
+	private final AtomicLong jwksVersion = new AtomicLong();
+	private final AtomicBoolean jwksRefreshPending = new AtomicBoolean();
+	private final LongAdder jwksRefreshes = new LongAdder();
+	private final LongAdder jwksRefreshFailures = new LongAdder();
+
+	private String jwksUri;
+	private String jwksJson;
+	private volatile Jwks jwks;
+	private volatile long lastJwksRefresh;
 
 	private RSAKeyProvider rsaKeyProvider;
+	private ScheduledExecutorService jwksRefreshExecutor;
 
+	/**
+	 * @param issuer
+	 * @param clientId
+	 * @param clientSecret
+	 * @param httpClient
+	 * @param backChannelLogoutEnabled
+	 * @param bearerTokenEnabled
+	 * @param jwksRefreshIntervalMillis
+	 *            <code>&gt;= 0</code>, interval for the background refresh of the JWKS, <code>0</code> to disable
+	 *            scheduled refreshes, unknown key ids always trigger a background refresh
+	 */
 	public DsfOpenIdConfiguration(String issuer, String clientId, String clientSecret, HttpClient httpClient,
-			boolean backChannelLogoutEnabled, boolean bearerTokenEnabled)
+			boolean backChannelLogoutEnabled, boolean bearerTokenEnabled, long jwksRefreshIntervalMillis)
 	{
 		super(issuer, null, null, clientId, clientSecret, httpClient);
 
+		if (jwksRefreshIntervalMillis < 0)
+			throw new IllegalArgumentException("jwksRefreshIntervalMillis < 0");
+
 		this.backChannelLogoutEnabled = backChannelLogoutEnabled;
 		this.bearerTokenEnabled = bearerTokenEnabled;
+		this.jwksRefreshIntervalMillis = jwksRefreshIntervalMillis;
+	}
+
+	@Override
+	protected void doStart() throws Exception
+	{
+		super.doStart();
+
+		if (jwksUri != null)
+		{
+			jwksRefreshExecutor = Executors.newSingleThreadScheduledExecutor(r ->
+			{
+				Thread thread = new Thread(r, "jwks-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+			if (jwksRefreshIntervalMillis > 0)
+				jwksRefreshExecutor.scheduleWithFixedDelay(this::refreshJwks, jwksRefreshIntervalMillis,
+						jwksRefreshIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	protected void doStop() throws Exception
+	{
+		if (jwksRefreshExecutor != null)
+		{
+			jwksRefreshExecutor.shutdownNow();
+			jwksRefreshExecutor = null;
+
+			logger.info("JWKS statistics: version {}, refreshes {}, failed {}", getJwksVersion(), getJwksRefreshCount(),
+					getJwksRefreshFailureCount());
+		}
+
+		super.doStop();
 	}
 
 	@Override
@@ -46,6 +123,7 @@ public class DsfOpenIdConfiguration extends OpenIdConfiguration
 			if (jwksUri == null)
 				throw new IllegalStateException("jwks_uri");
 
+			this.jwksUri = jwksUri;
 			this.rsaKeyProvider = createRsaKeyProvider(jwksUri);
 		}
 	}
@@ -56,6 +134,9 @@ public class DsfOpenIdConfiguration extends OpenIdConfiguration
 	}
 
 	/**
+	 * Keys are read from the current JWKS, unknown key ids trigger a background refresh of the JWKS. The request thread
+	 * does not wait for the refresh.
+	 *
 	 * @return <code>null</code> if {@link #isBackChannelLogoutEnabled()} returns false, or this ({@link LifeCycle})
 	 *         object was not initialized
 	 * @see #start()
@@ -65,22 +146,45 @@ public class DsfOpenIdConfiguration extends OpenIdConfiguration
 		return rsaKeyProvider;
 	}
 
+	/**
+	 * @return version of the JWKS, incremented if a refresh returned a modified key set
+	 */
+	public long getJwksVersion()
+	{
+		return jwksVersion.get();
+	}
+
+	public long getJwksRefreshCount()
+	{
+		return jwksRefreshes.sum();
+	}
+
+	public long getJwksRefreshFailureCount()
+	{
+		return jwksRefreshFailures.sum();
+	}
+
 	private RSAKeyProvider createRsaKeyProvider(String jwksUri)
 	{
 		try
 		{
-			Jwks jwks = Jwks.from(getHttpClient().GET(jwksUri).getContentAsString());
+			ContentResponse response = getHttpClient().GET(jwksUri);
+			setJwks(response.getContentAsString());
+			jwksRefreshes.increment();
+
 			return new RSAKeyProvider()
 			{
 				@Override
 				public RSAPublicKey getPublicKeyById(String kid)
 				{
-					Optional<RSAPublicKey> key = jwks.getKey(kid).getPublicKey();
+					Jwk jwk = jwks.getKey(kid);
+					Optional<RSAPublicKey> key = jwk == null ? Optional.empty() : jwk.getPublicKey();
 					if (key.isPresent())
 						return key.get();
 					else
 					{
 						logger.warn("Unable to retrieve key with id {}", kid);
+						requestJwksRefresh();
 						return null;
 					}
 				}
@@ -106,4 +210,81 @@ public class DsfOpenIdConfiguration extends OpenIdConfiguration
 			throw new RuntimeException(e);
 		}
 	}
+
+	private void setJwks(String json)
+	{
+		if (!json.equals(jwksJson))
+		{
+			jwks = Jwks.from(json);
+			jwksJson = json;
+			jwksVersion.incrementAndGet();
+		}
+
+		lastJwksRefresh = System.currentTimeMillis();
+	}
+
+	private void requestJwksRefresh()
+	{
+		ScheduledExecutorService executor = jwksRefreshExecutor;
+
+		if (executor != null && System.currentTimeMillis() - lastJwksRefresh >= UNKNOWN_KEY_REFRESH_INTERVAL_MILLIS
+				&& jwksRefreshPending.compareAndSet(false, true))
+		{
+			try
+			{
+				executor.execute(() ->
+				{
+					try
+					{
+						refreshJwks();
+					}
+					finally
+					{
+						jwksRefreshPending.set(false);
+					}
+				});
+			}
+			catch (RuntimeException e)
+			{
+				jwksRefreshPending.set(false);
+				logger.debug("Unable to request JWKS refresh", e);
+			}
+		}
+	}
+
+	/**
+	 * Fetches the JWKS from the OIDC provider, keeps the current keys if the request fails. Only called from the
+	 * refresh thread.
+	 */
+	private void refreshJwks()
+	{
+		try
+		{
+			ContentResponse response = getHttpClient().GET(jwksUri);
+			if (response.getStatus() != HttpStatus.OK_200)
+			{
+				jwksRefreshFailures.increment();
+				logger.warn("Unable to refresh keys from {}: status {}", jwksUri, response.getStatus());
+				return;
+			}
+
+			long version = getJwksVersion();
+			setJwks(response.getContentAsString());
+			jwksRefreshes.increment();
+
+			if (version != getJwksVersion())
+				logger.info("Keys from {} changed, {} keys", jwksUri, jwks.getAllKeys().size());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (Exception e)
+		{
+			jwksRefreshFailures.increment();
+
+			logger.debug("Unable to refresh keys from {}", jwksUri, e);
+			logger.warn("Unable to refresh keys from {}: {} - {}", jwksUri, e.getClass().getName(), e.getMessage());
+		}
+	}
 }
@@ -0,0 +1,251 @@
+package dev.dsf.common.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+/**
+ * Bounded LRU cache for successfully verified access tokens keyed by the SHA-256 hash of the token. Entries are valid
+ * until the <code>exp</code> claim of the token and only for the JWKS version the token was verified with, tokens
+ * without <code>exp</code> claim are not cached. Failed verifications are never cached.
+ * <p>
+ * Collects hit, miss and eviction counts as well as the number and duration of signature verifications.
+ */
+public class VerifiedTokenCache extends AbstractLifeCycle
+{
+	private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+	private static final class Entry
+	{
+		final DecodedJWT jwt;
+		final long jwksVersion;
+		final Instant expiresAt;
+
+		Entry(DecodedJWT jwt, long jwksVersion, Instant expiresAt)
+		{
+			this.jwt = jwt;
+			this.jwksVersion = jwksVersion;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isValid(long jwksVersion, Instant now)
+		{
+			return this.jwksVersion == jwksVersion && now.isBefore(expiresAt);
+		}
+	}
+
+	private final int maxSize;
+	private final Map<String, Entry> tokens;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder verifications = new LongAdder();
+	private final LongAdder verificationFailures = new LongAdder();
+	private final LongAdder verificationNanos = new LongAdder();
+
+	/**
+	 * @param maxSize
+	 *            <code>&gt;= 0</code>, maximum number of cached tokens, <code>0</code> to disable caching
+	 */
+	public VerifiedTokenCache(int maxSize)
+	{
+		if (maxSize < 0)
+			throw new IllegalArgumentException("maxSize < 0");
+		this.maxSize = maxSize;
+
+		tokens = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+			{
+				if (size() > VerifiedTokenCache.this.maxSize)
+				{
+					evictions.increment();
+					return true;
+				}
+				else
+					return false;
+			}
+		};
+	}
+
+	/**
+	 * @param token
+	 *            not <code>null</code>
+	 * @param jwksVersion
+	 *            version of the key set used by the given verifier, cached tokens verified with a different version are
+	 *            verified again
+	 * @param verifier
+	 *            not <code>null</code>, called outside of the cache lock if no valid entry is cached for the given
+	 *            token
+	 * @return cached or verified token
+	 * @throws JWTVerificationException
+	 *             if the verifier throws a {@link JWTVerificationException}
+	 */
+	public DecodedJWT verify(String token, long jwksVersion, Function<String, DecodedJWT> verifier)
+			throws JWTVerificationException
+	{
+		Objects.requireNonNull(token, "token");
+		Objects.requireNonNull(verifier, "verifier");
+
+		if (maxSize == 0)
+			return timedVerify(token, verifier);
+
+		String key = hash(token);
+		synchronized (this)
+		{
+			Entry entry = tokens.get(key);
+			if (entry != null)
+			{
+				if (entry.isValid(jwksVersion, Instant.now()))
+				{
+					hits.increment();
+					return entry.jwt;
+				}
+				else
+					tokens.remove(key);
+			}
+		}
+
+		misses.increment();
+		DecodedJWT jwt = timedVerify(token, verifier);
+
+		Instant expiresAt = jwt.getExpiresAtAsInstant();
+		if (expiresAt != null && Instant.now().isBefore(expiresAt))
+		{
+			synchronized (this)
+			{
+				tokens.put(key, new Entry(jwt, jwksVersion, expiresAt));
+			}
+		}
+
+		return jwt;
+	}
+
+	private DecodedJWT timedVerify(String token, Function<String, DecodedJWT> verifier)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			return verifier.apply(token);
+		}
+		catch (JWTVerificationException e)
+		{
+			verificationFailures.increment();
+			throw e;
+		}
+		finally
+		{
+			verificationNanos.add(System.nanoTime() - start);
+			verifications.increment();
+		}
+	}
+
+	private static String hash(String token)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	public synchronized void clear()
+	{
+		tokens.clear();
+	}
+
+	public synchronized int getSize()
+	{
+		return tokens.size();
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), <code>0</code> if the cache was not used
+	 */
+	public double getHitRate()
+	{
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total == 0 ? 0d : (double) hits / total;
+	}
+
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
+	public long getVerificationCount()
+	{
+		return verifications.sum();
+	}
+
+	public long getVerificationFailureCount()
+	{
+		return verificationFailures.sum();
+	}
+
+	/**
+	 * @return average duration of token verifications in milliseconds, <code>0</code> if no token was verified
+	 */
+	public double getAverageVerificationTime()
+	{
+		long count = getVerificationCount();
+		return count == 0 ? 0d : (double) verificationNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	protected void doStop() throws Exception
+	{
+		logger.info("Verified token cache statistics: {}", this);
+		clear();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "VerifiedTokenCache [size: " + getSize() + "/" + maxSize + ", hits: " + getHitCount() + ", misses: "
+				+ getMissCount() + ", hit rate: " + String.format(Locale.ROOT, "%.2f", getHitRate()) + ", evictions: "
+				+ getEvictionCount() + ", verifications: " + getVerificationCount() + ", failed: "
+				+ getVerificationFailureCount() + ", average verification time: "
+				+ String.format(Locale.ROOT, "%.3f", getAverageVerificationTime()) + " ms]";
+	}
+}
@@ -131,6 +131,10 @@ public abstract class AbstractJettyConfig
 	@Value("${dev.dsf.server.auth.oidc.bearer.token:false}")
 	private boolean oidcBearerTokenEnabled;
 
+	@Documentation(description = "Maximum number of verified OIDC bearer tokens cached until expiration, `0` to disable the cache", recommendation = "Cached tokens are not verified again until the `exp` claim is reached or the keys of the OIDC provider change")
+	@Value("${dev.dsf.server.auth.oidc.bearer.token.cache.size:1000}")
+	private int oidcBearerTokenCacheSize;
+
 	@Documentation(description = "OIDC provider realm base url", example = "https://keycloak.test.com:8443/realms/example-realm-name")
 	@Value("${dev.dsf.server.auth.oidc.provider.realm.base.url:#{null}}")
 	private String oidcProviderRealmBaseUrl;
@@ -143,6 +147,10 @@ public abstract class AbstractJettyConfig
 	@Value("${dev.dsf.server.auth.oidc.provider.client.idleTimeout:30000}")
 	private long oidcProviderClientIdleTimeout;
 
+	@Documentation(description = "Interval in milliseconds for the background refresh of the OIDC provider JWKS, `0` to disable scheduled refreshes", recommendation = "Unknown key ids always trigger a background refresh, at most every 10 seconds")
+	@Value("${dev.dsf.server.auth.oidc.provider.jwks.refresh.interval:300000}")
+	private long oidcProviderJwksRefreshInterval;
+
 	@Documentation(description = "PEM encoded file with one or more trusted root certificates to validate server certificates for https connections to the OIDC provider", recommendation = "Use docker secret file to configure", example = "/run/secrets/oidc_provider_trust_certificates.pem")
 	@Value("${dev.dsf.server.auth.oidc.provider.client.trust.server.certificate.cas:#{null}}")
 	private String oidcProviderClientTrustCertificatesFile;
@@ -334,7 +342,8 @@ public abstract class AbstractJettyConfig
 		if (oidcAuthorizationCodeFlowEnabled || oidcBearerTokenEnabled || oidcBackChannelLogoutEnabled)
 		{
 			openIdConfiguration = new DsfOpenIdConfiguration(oidcProviderRealmBaseUrl, oidcClientId, oidcClientSecret,
-					createOidcClient(), oidcBackChannelLogoutEnabled, oidcBearerTokenEnabled);
+					createOidcClient(), oidcBackChannelLogoutEnabled, oidcBearerTokenEnabled,
+					oidcProviderJwksRefreshInterval);
 
 			if (oidcAuthorizationCodeFlowEnabled)
 			{
@@ -357,7 +366,8 @@ public abstract class AbstractJettyConfig
 					throw propertyNotDefined("dev.dsf.server.auth.oidc.provider.realm.base.url").get();
 				else
 				{
-					bearerTokenAuthenticator = new BearerTokenAuthenticator(openIdConfiguration);
+					bearerTokenAuthenticator = new BearerTokenAuthenticator(openIdConfiguration,
+							oidcBearerTokenCacheSize);
 					logger.info("OIDC bearer token enabled");
 				}
 			}
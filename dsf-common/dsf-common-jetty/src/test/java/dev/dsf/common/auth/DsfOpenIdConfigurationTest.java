@@ -0,0 +1,249 @@
+package dev.dsf.common.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class DsfOpenIdConfigurationTest
+{
+	private static final class StubIssuer extends AbstractHandler
+	{
+		volatile String issuer;
+		volatile String jwks;
+		volatile int jwksStatus = HttpServletResponse.SC_OK;
+
+		@Override
+		public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+				throws IOException
+		{
+			baseRequest.setHandled(true);
+
+			if ("/realm/.well-known/openid-configuration".equals(target))
+			{
+				write(response, HttpServletResponse.SC_OK,
+						"{\"issuer\":\"" + issuer + "\",\"authorization_endpoint\":\"" + issuer
+								+ "/auth\",\"token_endpoint\":\"" + issuer + "/token\",\"jwks_uri\":\"" + issuer
+								+ "/certs\"}");
+			}
+			else if ("/realm/certs".equals(target))
+				write(response, jwksStatus, jwks);
+			else
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+		}
+
+		private void write(HttpServletResponse response, int status, String body) throws IOException
+		{
+			response.setStatus(status);
+			response.setContentType("application/json");
+			response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static KeyPair createKeyPair() throws Exception
+	{
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+
+	private static String jwks(String kid, KeyPair keyPair)
+	{
+		RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+		return "{\"keys\":[{\"kid\":\"" + kid + "\",\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"n\":\""
+				+ base64Url(publicKey.getModulus()) + "\",\"e\":\"" + base64Url(publicKey.getPublicExponent())
+				+ "\"}]}";
+	}
+
+	private static String base64Url(BigInteger value)
+	{
+		byte[] bytes = value.toByteArray();
+		if (bytes[0] == 0)
+			bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException
+	{
+		for (int i = 0; i < 100 && !condition.getAsBoolean(); i++)
+			Thread.sleep(50);
+	}
+
+	private final StubIssuer stubIssuer = new StubIssuer();
+
+	private Server server;
+	private KeyPair keyPair1;
+	private KeyPair keyPair2;
+
+	@Before
+	public void before() throws Exception
+	{
+		keyPair1 = createKeyPair();
+		keyPair2 = createKeyPair();
+
+		server = new Server(0);
+		server.setHandler(stubIssuer);
+		server.start();
+
+		stubIssuer.issuer = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort()
+				+ "/realm";
+		stubIssuer.jwks = jwks("k1", keyPair1);
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		server.stop();
+	}
+
+	private DsfOpenIdConfiguration createConfiguration(long jwksRefreshIntervalMillis)
+	{
+		return new DsfOpenIdConfiguration(stubIssuer.issuer, "client", "secret", new HttpClient(), false, true,
+				jwksRefreshIntervalMillis);
+	}
+
+	private DsfOpenIdConfiguration startConfiguration(long jwksRefreshIntervalMillis) throws Exception
+	{
+		DsfOpenIdConfiguration configuration = createConfiguration(jwksRefreshIntervalMillis);
+		configuration.start();
+		return configuration;
+	}
+
+	private String token(String kid, KeyPair keyPair)
+	{
+		return JWT.create().withKeyId(kid).withIssuer(stubIssuer.issuer).withSubject("test")
+				.withExpiresAt(Instant.now().plus(5, ChronoUnit.MINUTES))
+				.sign(Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()));
+	}
+
+	private DecodedJWT verify(DsfOpenIdConfiguration configuration, String token)
+	{
+		return JWT.require(Algorithm.RSA256(configuration.getRsaKeyProvider())).withIssuer(configuration.getIssuer())
+				.build().verify(token);
+	}
+
+	@Test
+	public void testKeyRotation() throws Exception
+	{
+		DsfOpenIdConfiguration configuration = startConfiguration(100);
+		try
+		{
+			assertEquals(1, configuration.getJwksVersion());
+			assertNotNull(configuration.getRsaKeyProvider().getPublicKeyById("k1"));
+			assertNull(configuration.getRsaKeyProvider().getPublicKeyById("k2"));
+			assertEquals("test", verify(configuration, token("k1", keyPair1)).getSubject());
+
+			stubIssuer.jwks = jwks("k2", keyPair2);
+			await(() -> configuration.getJwksVersion() == 2);
+
+			assertEquals(2, configuration.getJwksVersion());
+			assertNull(configuration.getRsaKeyProvider().getPublicKeyById("k1"));
+			assertNotNull(configuration.getRsaKeyProvider().getPublicKeyById("k2"));
+			assertEquals("test", verify(configuration, token("k2", keyPair2)).getSubject());
+
+			// unchanged key set does not change the version
+			long refreshes = configuration.getJwksRefreshCount();
+			await(() -> configuration.getJwksRefreshCount() > refreshes + 1);
+			assertEquals(2, configuration.getJwksVersion());
+		}
+		finally
+		{
+			configuration.stop();
+		}
+	}
+
+	@Test
+	public void testRefreshFailureKeepsKeys() throws Exception
+	{
+		DsfOpenIdConfiguration configuration = startConfiguration(100);
+		try
+		{
+			stubIssuer.jwksStatus = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+			stubIssuer.jwks = "{}";
+			await(() -> configuration.getJwksRefreshFailureCount() > 0);
+
+			assertTrue(configuration.getJwksRefreshFailureCount() > 0);
+			assertEquals(1, configuration.getJwksVersion());
+			assertNotNull(configuration.getRsaKeyProvider().getPublicKeyById("k1"));
+		}
+		finally
+		{
+			configuration.stop();
+		}
+	}
+
+	@Test
+	public void testVerifiedTokenCacheInvalidatedByKeyRotation() throws Exception
+	{
+		DsfOpenIdConfiguration configuration = createConfiguration(100);
+		VerifiedTokenCache cache = new BearerTokenAuthenticator(configuration, 10).getVerifiedTokenCache();
+		configuration.start();
+		try
+		{
+			assertTrue(cache.isStarted());
+
+			String token = token("k1", keyPair1);
+			cache.verify(token, configuration.getJwksVersion(), t -> verify(configuration, t));
+			cache.verify(token, configuration.getJwksVersion(), t -> verify(configuration, t));
+			assertEquals(1, cache.getVerificationCount());
+
+			stubIssuer.jwks = jwks("k2", keyPair2);
+			await(() -> configuration.getJwksVersion() == 2);
+
+			try
+			{
+				cache.verify(token, configuration.getJwksVersion(), t -> verify(configuration, t));
+				fail("JWTVerificationException expected, key k1 removed");
+			}
+			catch (JWTVerificationException e)
+			{
+				assertEquals(2, cache.getVerificationCount());
+				assertEquals(1, cache.getVerificationFailureCount());
+			}
+		}
+		finally
+		{
+			configuration.stop();
+		}
+
+		assertTrue(cache.isStopped());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidRefreshInterval() throws Exception
+	{
+		new DsfOpenIdConfiguration("http://localhost/realm", "client", "secret", new HttpClient(), false, true, -1);
+	}
+}
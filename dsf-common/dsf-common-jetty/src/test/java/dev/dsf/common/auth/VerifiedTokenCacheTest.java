@@ -0,0 +1,141 @@
+package dev.dsf.common.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+public class VerifiedTokenCacheTest
+{
+	private static final Algorithm ALGORITHM = Algorithm.HMAC256("test");
+
+	private static String token(String subject, Instant expiresAt)
+	{
+		return JWT.create().withSubject(subject).withExpiresAt(expiresAt).sign(ALGORITHM);
+	}
+
+	private static String token(String subject)
+	{
+		return token(subject, Instant.now().plus(5, ChronoUnit.MINUTES));
+	}
+
+	private static DecodedJWT verify(String token, AtomicInteger verifications)
+	{
+		verifications.incrementAndGet();
+		return JWT.require(ALGORITHM).build().verify(token);
+	}
+
+	@Test
+	public void testVerify() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		AtomicInteger verifications = new AtomicInteger();
+		String token = token("a");
+
+		DecodedJWT jwt = cache.verify(token, 1, t -> verify(t, verifications));
+		assertSame(jwt, cache.verify(token, 1, t -> verify(t, verifications)));
+
+		assertEquals(1, verifications.get());
+		assertEquals(1, cache.getVerificationCount());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.5d, cache.getHitRate(), 0d);
+	}
+
+	@Test
+	public void testJwksVersionChange() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		AtomicInteger verifications = new AtomicInteger();
+		String token = token("a");
+
+		cache.verify(token, 1, t -> verify(t, verifications));
+		cache.verify(token, 2, t -> verify(t, verifications));
+		cache.verify(token, 2, t -> verify(t, verifications));
+
+		assertEquals(2, verifications.get());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void testExpiredTokenNotCached() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+		AtomicInteger verifications = new AtomicInteger();
+		String token = token("a", Instant.now().minus(1, ChronoUnit.MINUTES));
+
+		cache.verify(token, 1, t -> JWT.decode(t));
+		assertEquals(0, cache.getSize());
+
+		try
+		{
+			cache.verify(token, 1, t -> verify(t, verifications));
+			fail("JWTVerificationException expected");
+		}
+		catch (JWTVerificationException e)
+		{
+			assertEquals(1, verifications.get());
+			assertEquals(1, cache.getVerificationFailureCount());
+		}
+	}
+
+	@Test
+	public void testTokenWithoutExpirationNotCached() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+		cache.verify(JWT.create().withSubject("a").sign(ALGORITHM), 1, t -> JWT.decode(t));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testEviction() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(2);
+		AtomicInteger verifications = new AtomicInteger();
+		String a = token("a");
+
+		cache.verify(a, 1, t -> verify(t, verifications));
+		cache.verify(token("b"), 1, t -> verify(t, verifications));
+		cache.verify(a, 1, t -> verify(t, verifications));
+		cache.verify(token("c"), 1, t -> verify(t, verifications));
+
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(3, verifications.get());
+
+		cache.verify(a, 1, t -> verify(t, verifications));
+		assertEquals(3, verifications.get());
+	}
+
+	@Test
+	public void testDisabled() throws Exception
+	{
+		VerifiedTokenCache cache = new VerifiedTokenCache(0);
+		AtomicInteger verifications = new AtomicInteger();
+		String token = token("a");
+
+		cache.verify(token, 1, t -> verify(t, verifications));
+		cache.verify(token, 1, t -> verify(t, verifications));
+
+		assertEquals(2, verifications.get());
+		assertEquals(0, cache.getSize());
+		assertEquals(2, cache.getVerificationCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() throws Exception
+	{
+		new VerifiedTokenCache(-1);
+	}
+}
@@ -1,17 +1,29 @@
 package dev.dsf.fhir.adapter;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.hl7.fhir.r4.model.BaseResource;
+import org.hl7.fhir.r4.model.Basic;
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Resource;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.IParser;
@@ -33,6 +45,13 @@ import jakarta.ws.rs.ext.Provider;
 public class FhirAdapter extends AbstractAdapter
 		implements MessageBodyReader<BaseResource>, MessageBodyWriter<BaseResource>
 {
+	private static final List<String> JSON_MEDIA_TYPES = List.of(Constants.CT_FHIR_JSON_NEW, Constants.CT_FHIR_JSON,
+			MediaType.APPLICATION_JSON);
+
+	private static final String STREAMED_BUNDLE_PREFIX = "{\"resourceType\":\"Bundle\"";
+	private static final String STREAMED_ENTRY_PREFIX = STREAMED_BUNDLE_PREFIX + ",\"entry\":[";
+	private static final String STREAMED_ENTRY_SUFFIX = "]}";
+
 	private final FhirContext fhirContext;
 
 	public FhirAdapter(FhirContext fhirContext)
@@ -63,7 +82,154 @@ public class FhirAdapter extends AbstractAdapter
 			MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
 			throws IOException, WebApplicationException
 	{
-		getParser(mediaType).encodeResourceToWriter(t, new OutputStreamWriter(entityStream));
+		// parsers write to the stream while serializing, the serialized resource is not held in memory
+		Writer writer = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8));
+
+		if (t instanceof Bundle bundle && StreamedBundleEntries.get(bundle).isPresent())
+		{
+			if (isJsonPassthroughSupported(mediaType))
+				writeStreamedBundle(bundle, getParser(mediaType), writer);
+			else
+				getParser(mediaType).encodeResourceToWriter(StreamedBundleEntries.readAll(bundle), writer);
+		}
+		else if (isJsonPassthroughSupported(mediaType))
+			writeJsonPassthrough(t, getParser(mediaType), writer);
+		else
+			getParser(mediaType).encodeResourceToWriter(t, writer);
+
+		writer.flush();
+	}
+
+	/**
+	 * @param mediaType
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if bundles with {@link StreamedBundleEntries} are written while entries are read for
+	 *         the given media type, if <code>false</code> all entries are read before the bundle is written
+	 */
+	public static boolean isStreamingSupported(MediaType mediaType)
+	{
+		return isJsonPassthroughSupported(mediaType);
+	}
+
+	private static boolean isJsonPassthroughSupported(MediaType mediaType)
+	{
+		return mediaType != null && JSON_MEDIA_TYPES.contains(mediaType.getType() + "/" + mediaType.getSubtype())
+				&& !"true".equals(mediaType.getParameters().getOrDefault(PRETTY, "false"))
+				&& !mediaType.getParameters().containsKey(SUMMARY);
+	}
+
+	/**
+	 * Writes resources with {@link JsonPassthrough} JSON as is, {@link Bundle} entry resources with JSON are written as
+	 * is within the serialized bundle.
+	 */
+	private void writeJsonPassthrough(BaseResource resource, IParser parser, Writer writer) throws IOException
+	{
+		Optional<String> json = JsonPassthrough.get(resource);
+		if (json.isPresent())
+			writer.write(json.get());
+		else if (resource instanceof Bundle bundle
+				&& bundle.getEntry().stream().anyMatch(e -> JsonPassthrough.get(e.getResource()).isPresent()))
+		{
+			writeBundleJsonPassthrough(bundle, parser, writer);
+		}
+		else
+			parser.encodeResourceToWriter(resource, writer);
+	}
+
+	/**
+	 * Entry resources with JSON are replaced by placeholders while serializing the bundle, placeholders are replaced
+	 * with the JSON by a {@link PlaceholderReplacingWriter} while the serialized bundle is written.
+	 */
+	private void writeBundleJsonPassthrough(Bundle bundle, IParser parser, Writer writer) throws IOException
+	{
+		String placeholderPrefix = "passthrough-" + UUID.randomUUID().toString() + "-";
+		String encodedPlaceholder = parser
+				.encodeResourceToString(new Basic().setIdElement(new IdType(placeholderPrefix + "0")));
+		int indexPosition = encodedPlaceholder.indexOf(placeholderPrefix) + placeholderPrefix.length();
+
+		List<String> entryJson = new ArrayList<>();
+		List<Resource> entryResources = new ArrayList<>();
+
+		try
+		{
+			for (BundleEntryComponent entry : bundle.getEntry())
+			{
+				Optional<String> json = JsonPassthrough.get(entry.getResource());
+				if (json.isPresent())
+				{
+					entryResources.add(entry.getResource());
+					entry.setResource(new Basic().setIdElement(new IdType(placeholderPrefix + entryJson.size())));
+					entryJson.add(json.get());
+				}
+				else
+					entryResources.add(entry.getResource());
+			}
+
+			PlaceholderReplacingWriter placeholderWriter = new PlaceholderReplacingWriter(writer,
+					encodedPlaceholder.substring(0, indexPosition), encodedPlaceholder.substring(indexPosition + 1),
+					i -> i < entryJson.size() ? entryJson.get(i) : null, entryJson.size());
+
+			parser.encodeResourceToWriter(bundle, placeholderWriter);
+			placeholderWriter.finish();
+		}
+		finally
+		{
+			for (int i = 0; i < entryResources.size(); i++)
+				bundle.getEntry().get(i).setResource(entryResources.get(i));
+		}
+	}
+
+	/**
+	 * Writes the bundle with entries of its {@link StreamedBundleEntries.EntrySource} while the entries are read. The
+	 * bundle is written without entries, entries are written one at a time, total and links after the last entry. The
+	 * order of JSON properties is not significant, in contrast to the XML format. The source is closed after the last
+	 * entry was read or if writing the bundle failed before.
+	 */
+	private void writeStreamedBundle(Bundle bundle, IParser parser, Writer writer) throws IOException
+	{
+		StreamedBundleEntries.EntrySource source = StreamedBundleEntries.remove(bundle).get();
+
+		AtomicBoolean entriesWritten = new AtomicBoolean(false);
+		Bundle totalAndLinks = new Bundle();
+		try (source)
+		{
+			String envelope = parser.encodeResourceToString(bundle);
+			if (!envelope.startsWith(STREAMED_BUNDLE_PREFIX) || !envelope.endsWith("}"))
+				throw new IllegalStateException("Unexpected bundle JSON");
+
+			writer.write(envelope, 0, envelope.length() - 1);
+
+			source.read(entry -> writeStreamedEntry(entry, parser, writer, !entriesWritten.getAndSet(true)),
+					totalAndLinks);
+		}
+
+		for (BundleEntryComponent entry : totalAndLinks.getEntry())
+			writeStreamedEntry(entry, parser, writer, !entriesWritten.getAndSet(true));
+
+		if (entriesWritten.get())
+			writer.write(']');
+
+		totalAndLinks.setEntry(null);
+		String tail = parser.encodeResourceToString(totalAndLinks);
+		if (!tail.startsWith(STREAMED_BUNDLE_PREFIX))
+			throw new IllegalStateException("Unexpected bundle JSON");
+
+		writer.write(tail, STREAMED_BUNDLE_PREFIX.length(), tail.length() - STREAMED_BUNDLE_PREFIX.length());
+	}
+
+	private void writeStreamedEntry(BundleEntryComponent entry, IParser parser, Writer writer, boolean first)
+			throws IOException
+	{
+		StringWriter entryWriter = new StringWriter();
+		writeJsonPassthrough(new Bundle().addEntry(entry), parser, entryWriter);
+
+		String entryBundle = entryWriter.toString();
+		if (!entryBundle.startsWith(STREAMED_ENTRY_PREFIX) || !entryBundle.endsWith(STREAMED_ENTRY_SUFFIX))
+			throw new IllegalStateException("Unexpected bundle entry JSON");
+
+		writer.write(first ? ",\"entry\":[" : ",");
+		writer.write(entryBundle, STREAMED_ENTRY_PREFIX.length(),
+				entryBundle.length() - STREAMED_ENTRY_PREFIX.length() - STREAMED_ENTRY_SUFFIX.length());
 	}
 
 	@Override
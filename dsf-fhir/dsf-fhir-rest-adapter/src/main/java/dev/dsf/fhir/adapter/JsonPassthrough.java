@@ -0,0 +1,62 @@
+package dev.dsf.fhir.adapter;
+
+import java.util.Optional;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Stores the JSON a resource was parsed from as user data, allowing the {@link FhirAdapter} to write the JSON as is
+ * instead of serializing the resource again. The JSON must be removed if the resource is modified after parsing.
+ */
+public final class JsonPassthrough
+{
+	private static final String USER_DATA_JSON = JsonPassthrough.class.getName() + ".json";
+
+	private JsonPassthrough()
+	{
+	}
+
+	/**
+	 * {@link Binary} resources are not supported, the data of Binary resources is not stored as JSON.
+	 *
+	 * @param <R>
+	 *            the resource type
+	 * @param resource
+	 *            may be <code>null</code>
+	 * @param json
+	 *            may be <code>null</code>, JSON the given resource was parsed from
+	 * @return the given resource
+	 */
+	public static <R extends Resource> R set(R resource, String json)
+	{
+		if (resource != null && json != null && !(resource instanceof Binary))
+			resource.setUserData(USER_DATA_JSON, json);
+
+		return resource;
+	}
+
+	/**
+	 * @param resource
+	 *            may be <code>null</code>
+	 * @return JSON the given resource was parsed from, {@link Optional#empty()} if not known or removed
+	 */
+	public static Optional<String> get(IBaseResource resource)
+	{
+		if (resource instanceof Resource r && r.getUserData(USER_DATA_JSON) instanceof String json)
+			return Optional.of(json);
+		else
+			return Optional.empty();
+	}
+
+	/**
+	 * @param resource
+	 *            may be <code>null</code>, modified resource
+	 */
+	public static void remove(Resource resource)
+	{
+		if (resource != null)
+			resource.clearUserData(USER_DATA_JSON);
+	}
+}
@@ -0,0 +1,199 @@
+package dev.dsf.fhir.adapter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Replaces placeholders of the form <code>prefix + index + suffix</code> while writing to the delegate writer, only
+ * characters of a possible placeholder are buffered. Used to write serialized bundles with entry resources replaced by
+ * placeholders without holding the serialized bundle in memory.
+ * <p>
+ * {@link #flush()} does not write characters of an incomplete placeholder, {@link #finish()} must be called after the
+ * last character has been written. {@link #finish()} fails if fewer placeholders than expected have been replaced, e.g.
+ * if the placeholder was encoded differently within the serialized bundle.
+ */
+final class PlaceholderReplacingWriter extends Writer
+{
+	private static final int MAX_INDEX_DIGITS = 9;
+
+	private final Writer delegate;
+	private final String prefix;
+	private final String suffix;
+	private final IntFunction<String> replacements;
+	private final int expectedReplacements;
+
+	private final StringBuilder pending = new StringBuilder();
+	private int replacementCount;
+
+	/**
+	 * @param delegate
+	 *            not <code>null</code>
+	 * @param prefix
+	 *            not <code>null</code>, not empty
+	 * @param suffix
+	 *            not <code>null</code>, not empty
+	 * @param replacements
+	 *            not <code>null</code>, returns the replacement for a placeholder index or <code>null</code> if the
+	 *            placeholder should be written as is
+	 * @param expectedReplacements
+	 *            <code>&gt;= 0</code>, minimum number of placeholders to be replaced before {@link #finish()} is called
+	 */
+	PlaceholderReplacingWriter(Writer delegate, String prefix, String suffix, IntFunction<String> replacements,
+			int expectedReplacements)
+	{
+		this.delegate = Objects.requireNonNull(delegate, "delegate");
+		this.prefix = Objects.requireNonNull(prefix, "prefix");
+		this.suffix = Objects.requireNonNull(suffix, "suffix");
+		this.replacements = Objects.requireNonNull(replacements, "replacements");
+		this.expectedReplacements = expectedReplacements;
+
+		if (prefix.isEmpty())
+			throw new IllegalArgumentException("prefix empty");
+		if (suffix.isEmpty())
+			throw new IllegalArgumentException("suffix empty");
+		if (expectedReplacements < 0)
+			throw new IllegalArgumentException("expectedReplacements < 0");
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException
+	{
+		char first = prefix.charAt(0);
+		int end = off + len;
+		int runStart = off;
+
+		for (int i = off; i < end; i++)
+		{
+			if (pending.length() == 0 && cbuf[i] != first)
+				continue;
+
+			delegate.write(cbuf, runStart, i - runStart);
+			process(cbuf[i]);
+			runStart = i + 1;
+		}
+
+		delegate.write(cbuf, runStart, end - runStart);
+	}
+
+	private void process(char c) throws IOException
+	{
+		pending.append(c);
+
+		while (pending.length() > 0)
+		{
+			int index = getPlaceholderIndex();
+			if (index >= 0)
+			{
+				String replacement = replacements.apply(index);
+				if (replacement != null)
+				{
+					delegate.write(replacement);
+					replacementCount++;
+				}
+				else
+					delegate.write(pending.toString());
+				pending.setLength(0);
+			}
+			else if (!isPlaceholderStart())
+			{
+				delegate.write(pending.charAt(0));
+				pending.deleteCharAt(0);
+			}
+			else
+				return;
+		}
+	}
+
+	private boolean startsWith(int prefixLength)
+	{
+		for (int i = 0; i < prefixLength; i++)
+			if (pending.charAt(i) != prefix.charAt(i))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * @return number of index digits after the prefix, <code>-1</code> if pending does not contain the complete prefix
+	 */
+	private int getDigits()
+	{
+		if (pending.length() <= prefix.length() || !startsWith(prefix.length()))
+			return -1;
+
+		int digits = 0;
+		while (prefix.length() + digits < pending.length()
+				&& Character.isDigit(pending.charAt(prefix.length() + digits)))
+			digits++;
+
+		return digits;
+	}
+
+	private boolean isPlaceholderStart()
+	{
+		if (pending.length() <= prefix.length())
+			return startsWith(pending.length());
+
+		int digits = getDigits();
+		if (digits < 0 || digits > MAX_INDEX_DIGITS)
+			return false;
+
+		int suffixStart = prefix.length() + digits;
+		return suffixStart == pending.length() || (digits > 0 && suffix.startsWith(pending.substring(suffixStart)));
+	}
+
+	private int getPlaceholderIndex()
+	{
+		int digits = getDigits();
+		if (digits <= 0 || digits > MAX_INDEX_DIGITS)
+			return -1;
+
+		int suffixStart = prefix.length() + digits;
+		if (!suffix.contentEquals(pending.subSequence(suffixStart, pending.length())))
+			return -1;
+
+		return Integer.parseInt(pending, prefix.length(), suffixStart, 10);
+	}
+
+	/**
+	 * @return number of placeholders replaced
+	 */
+	public int getReplacementCount()
+	{
+		return replacementCount;
+	}
+
+	/**
+	 * Writes characters of an incomplete placeholder and flushes the delegate writer.
+	 *
+	 * @throws IOException
+	 *             if writing fails
+	 * @throws IllegalStateException
+	 *             if fewer placeholders than expected have been replaced
+	 */
+	public void finish() throws IOException
+	{
+		delegate.write(pending.toString());
+		pending.setLength(0);
+		delegate.flush();
+
+		if (replacementCount < expectedReplacements)
+			throw new IllegalStateException(
+					"Only " + replacementCount + " of " + expectedReplacements + " placeholders replaced");
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		delegate.flush();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		finish();
+		delegate.close();
+	}
+}
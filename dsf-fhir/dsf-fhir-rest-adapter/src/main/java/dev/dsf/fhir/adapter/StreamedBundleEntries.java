@@ -0,0 +1,139 @@
+package dev.dsf.fhir.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+
+/**
+ * Stores an {@link EntrySource} as user data of a {@link Bundle}, allowing the {@link FhirAdapter} to write entries
+ * while they are read, e.g. from a database result set, instead of adding all entries to the bundle before the bundle
+ * is written. Only the entry currently written is held in memory.
+ * <p>
+ * Bundles with an entry source must not contain entries, total and links are set by the source after the last entry was
+ * read, see {@link EntrySource#read(EntryConsumer, Bundle)}.
+ */
+public final class StreamedBundleEntries
+{
+	private static final String USER_DATA_ENTRY_SOURCE = StreamedBundleEntries.class.getName() + ".source";
+
+	@FunctionalInterface
+	public interface EntryConsumer
+	{
+		/**
+		 * @param entry
+		 *            not <code>null</code>
+		 * @throws IOException
+		 *             if the entry could not be written, aborts reading entries
+		 */
+		void accept(BundleEntryComponent entry) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface EntrySource extends Closeable
+	{
+		/**
+		 * Passes entries to the given consumer while they are read and sets total and links of the given bundle after
+		 * the last entry was read. Entries added to the given bundle are written after the entries passed to the
+		 * consumer. Called once, when the bundle is written.
+		 *
+		 * @param consumer
+		 *            not <code>null</code>
+		 * @param bundle
+		 *            not <code>null</code>, bundle to set total and links and to add entries read last, e.g. include
+		 *            resources
+		 * @throws IOException
+		 *             if entries could not be read or written
+		 */
+		void read(EntryConsumer consumer, Bundle bundle) throws IOException;
+
+		/**
+		 * Releases resources held by the source, e.g. a database connection. Called once after entries were read, also
+		 * if reading failed.
+		 *
+		 * @throws IOException
+		 *             if resources could not be released
+		 */
+		@Override
+		default void close() throws IOException
+		{
+		}
+	}
+
+	private StreamedBundleEntries()
+	{
+	}
+
+	/**
+	 * @param bundle
+	 *            not <code>null</code>, must not contain entries
+	 * @param source
+	 *            not <code>null</code>
+	 * @return the given bundle
+	 */
+	public static Bundle set(Bundle bundle, EntrySource source)
+	{
+		Objects.requireNonNull(bundle, "bundle");
+		Objects.requireNonNull(source, "source");
+
+		if (bundle.hasEntry())
+			throw new IllegalArgumentException("bundle has entries");
+
+		bundle.setUserData(USER_DATA_ENTRY_SOURCE, source);
+		return bundle;
+	}
+
+	/**
+	 * @param bundle
+	 *            may be <code>null</code>
+	 * @return entry source of the given bundle, {@link Optional#empty()} if not set or already removed
+	 */
+	public static Optional<EntrySource> get(Bundle bundle)
+	{
+		if (bundle != null && bundle.getUserData(USER_DATA_ENTRY_SOURCE) instanceof EntrySource source)
+			return Optional.of(source);
+		else
+			return Optional.empty();
+	}
+
+	/**
+	 * Removes the entry source from the given bundle, entries are read only once.
+	 *
+	 * @param bundle
+	 *            may be <code>null</code>
+	 * @return removed entry source, {@link Optional#empty()} if not set or already removed
+	 */
+	public static Optional<EntrySource> remove(Bundle bundle)
+	{
+		Optional<EntrySource> source = get(bundle);
+		source.ifPresent(s -> bundle.clearUserData(USER_DATA_ENTRY_SOURCE));
+		return source;
+	}
+
+	/**
+	 * Reads all entries of the bundles entry source into the bundle. Used if the bundle can not be written while
+	 * entries are read, e.g. for formats other than JSON.
+	 *
+	 * @param bundle
+	 *            may be <code>null</code>
+	 * @return the given bundle
+	 * @throws IOException
+	 *             if entries could not be read
+	 */
+	public static Bundle readAll(Bundle bundle) throws IOException
+	{
+		Optional<EntrySource> source = remove(bundle);
+		if (source.isPresent())
+		{
+			try (EntrySource s = source.get())
+			{
+				s.read(bundle::addEntry, bundle);
+			}
+		}
+
+		return bundle;
+	}
+}
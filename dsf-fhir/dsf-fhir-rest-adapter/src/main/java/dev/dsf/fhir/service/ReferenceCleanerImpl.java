@@ -1,5 +1,6 @@
 package dev.dsf.fhir.service;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -12,6 +13,8 @@ import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.dsf.fhir.adapter.JsonPassthrough;
+
 public class ReferenceCleanerImpl implements ReferenceCleaner
 {
 	private static final Logger logger = LoggerFactory.getLogger(ReferenceCleanerImpl.class);
@@ -29,20 +32,17 @@ public class ReferenceCleanerImpl implements ReferenceCleaner
 		if (resource == null)
 			return null;
 
-		Stream<ResourceReference> references = referenceExtractor.getReferences(resource);
-		references.forEach(this::cleanupReference);
-
-		return resource;
-	}
+		List<Reference> literalAndConditional = referenceExtractor.getReferences(resource)
+				.filter(ResourceReference::hasReference).map(ResourceReference::getReference)
+				.filter(ref -> ref.hasIdentifier() && ref.hasReference()).toList();
 
-	private void cleanupReference(ResourceReference resourceReference)
-	{
-		if (resourceReference.hasReference())
+		if (!literalAndConditional.isEmpty())
 		{
-			Reference ref = resourceReference.getReference();
-			if (ref.hasIdentifier() && ref.hasReference())
-				ref.setReferenceElement((IdType) null);
+			literalAndConditional.forEach(ref -> ref.setReferenceElement((IdType) null));
+			JsonPassthrough.remove(resource);
 		}
+
+		return resource;
 	}
 
 	@Override
@@ -73,6 +73,7 @@ public class ReferenceCleanerImpl implements ReferenceCleaner
 			{
 				logger.warn("{} has contained resources, removing resources", resource.getClass().getName());
 				d.setContained(null);
+				JsonPassthrough.remove(resource);
 			}
 		}
 	}
@@ -0,0 +1,116 @@
+package dev.dsf.fhir.adapter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Resource;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.context.FhirContext;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Compares the throughput of writing search bundles with entry resources serialized by HAPI against writing the same
+ * bundles with entry JSON passed through as stored. Number of entries per bundle and written bundles can be configured
+ * via the system properties <code>dev.dsf.fhir.adapter.benchmark.entries</code> and
+ * <code>dev.dsf.fhir.adapter.benchmark.bundles</code>.
+ */
+public class FhirAdapterBenchmarkIntegrationTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(FhirAdapterBenchmarkIntegrationTest.class);
+
+	private static final int ENTRIES = Integer.getInteger("dev.dsf.fhir.adapter.benchmark.entries", 1_000);
+	private static final int BUNDLES = Integer.getInteger("dev.dsf.fhir.adapter.benchmark.bundles", 200);
+	private static final int WARMUP_BUNDLES = 50;
+
+	private static final MediaType FHIR_JSON = new MediaType("application", "fhir+json");
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final FhirAdapter adapter = new FhirAdapter(fhirContext);
+
+	private Bundle createSearchBundle(boolean withJson)
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTotal(ENTRIES);
+		bundle.addLink().setRelation("self").setUrl("https://localhost/fhir/Organization");
+		for (int i = 0; i < ENTRIES; i++)
+		{
+			Organization organization = new Organization();
+			organization.setIdElement(new IdType("Organization", "id" + i, "1"));
+			organization.getMeta().setVersionId("1");
+			organization.setActive(true);
+			organization.setName("Organization " + i);
+			organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("org" + i);
+			organization.addEndpoint().setReference("Endpoint/" + i);
+
+			// JSON as written by the parser, output of both variants identical
+			if (withJson)
+				JsonPassthrough.set(organization, fhirContext.newJsonParser().encodeResourceToString(organization));
+
+			bundle.addEntry().setFullUrl("https://localhost/fhir/Organization/id" + i).setResource(organization)
+					.getSearch().setMode(SearchEntryMode.MATCH);
+		}
+		return bundle;
+	}
+
+	private String write(Bundle bundle, ByteArrayOutputStream out) throws Exception
+	{
+		out.reset();
+		adapter.writeTo(bundle, Bundle.class, null, null, FHIR_JSON, null, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private double run(String name, Bundle bundle, String expected) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		for (int i = 0; i < WARMUP_BUNDLES; i++)
+			assertEquals(expected, write(bundle, out));
+
+		long start = System.nanoTime();
+		for (int i = 0; i < BUNDLES; i++)
+		{
+			out.reset();
+			adapter.writeTo(bundle, Bundle.class, null, null, FHIR_JSON, null, out);
+		}
+		long nanos = System.nanoTime() - start;
+
+		assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+
+		double perSecond = BUNDLES / (nanos / 1_000_000_000d);
+		logger.info("{}: {} bundles with {} entries in {} ms, {} bundles/s, {} entries/s", name, BUNDLES, ENTRIES,
+				nanos / 1_000_000, String.format(Locale.ROOT, "%.1f", perSecond),
+				String.format(Locale.ROOT, "%.0f", perSecond * ENTRIES));
+
+		return perSecond;
+	}
+
+	@Test
+	public void testWriteBundleThroughput() throws Exception
+	{
+		Bundle withoutJson = createSearchBundle(false);
+		Bundle withJson = createSearchBundle(true);
+
+		String expected = fhirContext.newJsonParser().encodeResourceToString(withoutJson);
+		for (int i = 0; i < ENTRIES; i++)
+		{
+			Resource resource = withJson.getEntry().get(i).getResource();
+			assertEquals(fhirContext.newJsonParser().encodeResourceToString(resource),
+					JsonPassthrough.get(resource).get());
+		}
+
+		double serialized = run("HAPI serialization", withoutJson, expected);
+		double passthrough = run("JSON passthrough", withJson, expected);
+
+		logger.info("JSON passthrough speedup: {}", String.format(Locale.ROOT, "%.1f", passthrough / serialized));
+	}
+}
@@ -0,0 +1,376 @@
+package dev.dsf.fhir.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.hl7.fhir.r4.model.BaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Resource;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import jakarta.ws.rs.core.MediaType;
+
+public class FhirAdapterTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(FhirAdapterTest.class);
+
+	private static final MediaType FHIR_JSON = new MediaType("application", "fhir+json");
+	private static final MediaType FHIR_XML = new MediaType("application", "fhir+xml");
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final FhirAdapter adapter = new FhirAdapter(fhirContext);
+
+	private Organization createOrganization(int i)
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", "id" + i, "1"));
+		organization.getMeta().setVersionId("1");
+		organization.setActive(true);
+		organization.setName("Organization " + i);
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("org" + i);
+		organization.addEndpoint().setReference("Endpoint/" + i);
+		return organization;
+	}
+
+	private <R extends Resource> R withJson(R resource)
+	{
+		// different key order than HAPI output, similar to JSON returned by the database
+		String json = fhirContext.newJsonParser().encodeResourceToString(resource).replace("{\"resourceType\":",
+				"{ \"resourceType\" :");
+		return JsonPassthrough.set(resource, json);
+	}
+
+	private String write(BaseResource resource, MediaType mediaType) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		adapter.writeTo(resource, resource.getClass(), null, null, mediaType, null, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private Bundle createSearchBundle(int count, boolean withJson)
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTotal(count);
+		bundle.addLink().setRelation("self").setUrl("https://localhost/fhir/Organization");
+		for (int i = 0; i < count; i++)
+		{
+			Organization organization = createOrganization(i);
+			bundle.addEntry().setFullUrl("https://localhost/fhir/Organization/id" + i)
+					.setResource(withJson ? withJson(organization) : organization).getSearch()
+					.setMode(SearchEntryMode.MATCH);
+		}
+		return bundle;
+	}
+
+	@Test
+	public void testWriteResourceWithJson() throws Exception
+	{
+		Organization organization = withJson(createOrganization(0));
+
+		String written = write(organization, FHIR_JSON);
+		assertEquals(JsonPassthrough.get(organization).get(), written);
+	}
+
+	@Test
+	public void testWriteResourceWithJsonNotUsedForXmlPrettyOrSummary() throws Exception
+	{
+		Organization organization = withJson(createOrganization(0));
+		String json = JsonPassthrough.get(organization).get();
+
+		assertTrue(write(organization, new MediaType("application", "fhir+xml")).startsWith("<Organization"));
+		assertFalse(json.equals(write(organization,
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.PRETTY, "true")))));
+		assertFalse(json.equals(write(organization,
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.SUMMARY, "text")))));
+	}
+
+	@Test
+	public void testWriteBundleWithEntryJson() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+		Organization notPassthrough = createOrganization(3);
+		bundle.addEntry().setResource(notPassthrough).getSearch().setMode(SearchEntryMode.INCLUDE);
+
+		String written = write(bundle, FHIR_JSON);
+
+		for (int i = 0; i < 3; i++)
+			assertTrue(written.contains(JsonPassthrough.get(bundle.getEntry().get(i).getResource()).get()));
+		assertFalse(written.contains("passthrough-"));
+
+		Bundle parsed = fhirContext.newJsonParser().parseResource(Bundle.class, written);
+		assertEquals(4, parsed.getEntry().size());
+		for (int i = 0; i < 4; i++)
+		{
+			assertNotNull(parsed.getEntry().get(i).getResource());
+			assertEquals(fhirContext.newJsonParser().encodeResourceToString(bundle.getEntry().get(i).getResource()),
+					fhirContext.newJsonParser().encodeResourceToString(parsed.getEntry().get(i).getResource()));
+			assertEquals(bundle.getEntry().get(i).getSearch().getMode(),
+					parsed.getEntry().get(i).getSearch().getMode());
+		}
+
+		assertSame(notPassthrough, bundle.getEntry().get(3).getResource());
+		assertTrue(bundle.getEntry().get(0).getResource() instanceof Organization);
+	}
+
+	@Test
+	public void testWriteBundleWithEntryJsonIdenticalToParserOutput() throws Exception
+	{
+		Bundle bundle = createSearchBundle(200, false);
+		String expected = fhirContext.newJsonParser().encodeResourceToString(bundle);
+
+		// JSON as written by the parser, passthrough must not change the output
+		for (int i = 0; i < bundle.getEntry().size(); i++)
+		{
+			Resource resource = bundle.getEntry().get(i).getResource();
+			JsonPassthrough.set(resource, fhirContext.newJsonParser().encodeResourceToString(resource));
+		}
+
+		assertEquals(expected, write(bundle, FHIR_JSON));
+	}
+
+	@Test
+	public void testWriteBundle() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, false);
+
+		assertEquals(fhirContext.newJsonParser().encodeResourceToString(bundle), write(bundle, FHIR_JSON));
+		assertEquals(fhirContext.newXmlParser().encodeResourceToString(bundle), write(bundle, FHIR_XML));
+	}
+
+	@Test
+	public void testWriteBundlePretty() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+
+		assertEquals(fhirContext.newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle),
+				write(bundle, new MediaType("application", "fhir+json", Map.of(AbstractAdapter.PRETTY, "true"))));
+		assertEquals(fhirContext.newXmlParser().setPrettyPrint(true).encodeResourceToString(bundle),
+				write(bundle, new MediaType("application", "fhir+xml", Map.of(AbstractAdapter.PRETTY, "true"))));
+	}
+
+	@Test
+	public void testWriteBundleWithSummary() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+
+		String written = write(bundle,
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.SUMMARY, "true")));
+		assertEquals(fhirContext.newJsonParser().setSummaryMode(true).encodeResourceToString(bundle), written);
+	}
+
+	private static class ListEntrySource implements StreamedBundleEntries.EntrySource
+	{
+		final List<BundleEntryComponent> entries;
+		final Bundle totalAndLinks;
+		int read;
+		int closed;
+
+		ListEntrySource(Bundle bundle)
+		{
+			entries = bundle.getEntry().stream().filter(e -> SearchEntryMode.MATCH.equals(e.getSearch().getMode()))
+					.toList();
+			totalAndLinks = new Bundle().setTotalElement(bundle.getTotalElement()).setLink(bundle.getLink())
+					.setEntry(bundle.getEntry().stream()
+							.filter(e -> !SearchEntryMode.MATCH.equals(e.getSearch().getMode())).toList());
+		}
+
+		@Override
+		public void read(StreamedBundleEntries.EntryConsumer consumer, Bundle bundle) throws IOException
+		{
+			read++;
+			for (BundleEntryComponent entry : entries)
+				consumer.accept(entry);
+
+			bundle.setTotalElement(totalAndLinks.getTotalElement());
+			totalAndLinks.getLink().forEach(bundle::addLink);
+			totalAndLinks.getEntry().forEach(bundle::addEntry);
+		}
+
+		@Override
+		public void close()
+		{
+			closed++;
+		}
+	}
+
+	private Bundle createStreamedBundle(Bundle bundle, ListEntrySource source)
+	{
+		return StreamedBundleEntries.set(new Bundle().setType(bundle.getType()), source);
+	}
+
+	@Test
+	public void testWriteStreamedBundle() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+		Organization notPassthrough = createOrganization(3);
+		bundle.addEntry().setResource(notPassthrough).getSearch().setMode(SearchEntryMode.INCLUDE);
+
+		ListEntrySource source = new ListEntrySource(bundle);
+		String written = write(createStreamedBundle(bundle, source), FHIR_JSON);
+
+		assertEquals(1, source.read);
+		assertEquals(1, source.closed);
+		for (int i = 0; i < 3; i++)
+			assertTrue(written.contains(JsonPassthrough.get(bundle.getEntry().get(i).getResource()).get()));
+		assertFalse(written.contains("passthrough-"));
+
+		// entries written before total and links, same bundle after parsing
+		assertTrue(written.indexOf("\"entry\":[") < written.indexOf("\"total\":"));
+		Bundle parsed = fhirContext.newJsonParser().parseResource(Bundle.class, written);
+		assertEquals(fhirContext.newJsonParser().encodeResourceToString(bundle),
+				fhirContext.newJsonParser().encodeResourceToString(parsed));
+	}
+
+	@Test
+	public void testWriteStreamedBundleWithoutEntries() throws Exception
+	{
+		Bundle bundle = createSearchBundle(0, true);
+		ListEntrySource source = new ListEntrySource(bundle);
+
+		String written = write(createStreamedBundle(bundle, source), FHIR_JSON);
+		assertEquals(1, source.read);
+		assertFalse(written.contains("\"entry\""));
+		assertEquals(fhirContext.newJsonParser().encodeResourceToString(bundle), fhirContext.newJsonParser()
+				.encodeResourceToString(fhirContext.newJsonParser().parseResource(Bundle.class, written)));
+	}
+
+	@Test
+	public void testWriteStreamedBundleXmlAndPretty() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+		bundle.addEntry().setResource(createOrganization(3)).getSearch().setMode(SearchEntryMode.INCLUDE);
+
+		ListEntrySource xmlSource = new ListEntrySource(bundle);
+		assertEquals(fhirContext.newXmlParser().encodeResourceToString(bundle),
+				write(createStreamedBundle(bundle, xmlSource), FHIR_XML));
+		assertEquals(1, xmlSource.read);
+		assertEquals(1, xmlSource.closed);
+
+		ListEntrySource prettySource = new ListEntrySource(bundle);
+		assertEquals(fhirContext.newJsonParser().setPrettyPrint(true).encodeResourceToString(bundle),
+				write(createStreamedBundle(bundle, prettySource),
+						new MediaType("application", "fhir+json", Map.of(AbstractAdapter.PRETTY, "true"))));
+		assertEquals(1, prettySource.read);
+	}
+
+	@Test
+	public void testWriteStreamedBundleReadFailure() throws Exception
+	{
+		Bundle bundle = createSearchBundle(3, true);
+		ListEntrySource source = new ListEntrySource(bundle)
+		{
+			@Override
+			public void read(StreamedBundleEntries.EntryConsumer consumer, Bundle bundle) throws IOException
+			{
+				read++;
+				consumer.accept(entries.get(0));
+				throw new IOException("read failed");
+			}
+		};
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try
+		{
+			adapter.writeTo(createStreamedBundle(bundle, source), Bundle.class, null, null, FHIR_JSON, null, out);
+			fail("IOException expected");
+		}
+		catch (IOException e)
+		{
+			assertEquals("read failed", e.getMessage());
+		}
+
+		// source closed, incomplete bundle not finished
+		assertEquals(1, source.read);
+		assertEquals(1, source.closed);
+		assertFalse(out.toString(StandardCharsets.UTF_8).contains("\"total\":"));
+	}
+
+	private static final class CountingOutputStream extends OutputStream
+	{
+		long count;
+		int maxWrite;
+
+		@Override
+		public void write(int b)
+		{
+			count++;
+			maxWrite = Math.max(maxWrite, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			count += len;
+			maxWrite = Math.max(maxWrite, len);
+		}
+	}
+
+	private long allocatedBytes(ThreadMXBean threads, Bundle bundle, boolean streaming) throws Exception
+	{
+		CountingOutputStream out = new CountingOutputStream();
+
+		long start = threads.getCurrentThreadAllocatedBytes();
+		if (streaming)
+			adapter.writeTo(bundle, Bundle.class, null, null, FHIR_JSON, null, out);
+		else
+			out.write(fhirContext.newJsonParser().encodeResourceToString(bundle).getBytes(StandardCharsets.UTF_8));
+		long allocated = threads.getCurrentThreadAllocatedBytes() - start;
+
+		// written in buffer sized chunks while serializing, not as a whole
+		if (streaming)
+			assertTrue(out.maxWrite < out.count / 10);
+
+		return allocated;
+	}
+
+	@Test
+	public void testWriteAllocationPerResponse() throws Exception
+	{
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		Bundle withoutJson = createSearchBundle(1000, false);
+		Bundle withJson = createSearchBundle(1000, true);
+
+		for (int i = 0; i < 10; i++)
+		{
+			allocatedBytes(threads, withoutJson, false);
+			allocatedBytes(threads, withoutJson, true);
+			allocatedBytes(threads, withJson, true);
+		}
+
+		long inMemory = allocatedBytes(threads, withoutJson, false);
+		long streaming = allocatedBytes(threads, withoutJson, true);
+		long streamingPassthrough = allocatedBytes(threads, withJson, true);
+
+		logger.info(
+				"Allocated bytes per search bundle with 1000 entries: serialized to String {}, written by adapter {}, written by adapter with JSON passthrough {}",
+				inMemory, streaming, streamingPassthrough);
+
+		assertTrue(streaming < inMemory);
+		assertTrue(streamingPassthrough < streaming);
+	}
+}
@@ -0,0 +1,86 @@
+package dev.dsf.fhir.adapter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PlaceholderReplacingWriterTest
+{
+	private static final String PREFIX = "{\"id\":\"placeholder-";
+	private static final String SUFFIX = "\"}";
+
+	private static final List<String> REPLACEMENTS = List.of("{\"a\":1}", "{\"b\":2}");
+
+	private String write(String text, int chunkSize) throws Exception
+	{
+		return write(text, chunkSize, 0);
+	}
+
+	private String write(String text, int chunkSize, int expectedReplacements) throws Exception
+	{
+		StringWriter out = new StringWriter();
+		PlaceholderReplacingWriter writer = new PlaceholderReplacingWriter(out, PREFIX, SUFFIX,
+				i -> i < REPLACEMENTS.size() ? REPLACEMENTS.get(i) : null, expectedReplacements);
+
+		for (int i = 0; i < text.length(); i += chunkSize)
+			writer.write(text, i, Math.min(chunkSize, text.length() - i));
+
+		writer.finish();
+		return out.toString();
+	}
+
+	private void assertWritten(String expected, String text) throws Exception
+	{
+		for (int chunkSize : new int[] { 1, 2, 3, 7, text.length() })
+			assertEquals("chunk size " + chunkSize, expected, write(text, chunkSize));
+	}
+
+	@Test
+	public void testReplace() throws Exception
+	{
+		assertWritten("[{\"a\":1},{\"b\":2}]", "[" + PREFIX + "0" + SUFFIX + "," + PREFIX + "1" + SUFFIX + "]");
+	}
+
+	@Test
+	public void testNoPlaceholder() throws Exception
+	{
+		assertWritten("{\"id\":\"other\",\"x\":{}}", "{\"id\":\"other\",\"x\":{}}");
+	}
+
+	@Test
+	public void testPartialPlaceholders() throws Exception
+	{
+		String text = "{{\"id\":\"placeholder-x\"}" + PREFIX + SUFFIX + PREFIX + "1\"]" + "{" + PREFIX + "0" + SUFFIX;
+		assertWritten("{{\"id\":\"placeholder-x\"}" + PREFIX + SUFFIX + PREFIX + "1\"]" + "{" + "{\"a\":1}", text);
+	}
+
+	@Test
+	public void testUnknownIndex() throws Exception
+	{
+		assertWritten(PREFIX + "2" + SUFFIX + "{\"b\":2}", PREFIX + "2" + SUFFIX + PREFIX + "1" + SUFFIX);
+	}
+
+	@Test
+	public void testIncompletePlaceholderAtEnd() throws Exception
+	{
+		assertWritten("[" + PREFIX + "1", "[" + PREFIX + "1");
+	}
+
+	@Test
+	public void testExpectedReplacements() throws Exception
+	{
+		String text = "[" + PREFIX + "0" + SUFFIX + "," + PREFIX + "1" + SUFFIX + "]";
+		assertEquals("[{\"a\":1},{\"b\":2}]", write(text, 3, REPLACEMENTS.size()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFewerReplacementsThanExpected() throws Exception
+	{
+		// second placeholder encoded differently, not replaced
+		String text = "[" + PREFIX + "0" + SUFFIX + "," + PREFIX.replace("\"", "\\\"") + "1" + SUFFIX + "]";
+		write(text, 3, REPLACEMENTS.size());
+	}
+}
@@ -141,11 +141,18 @@ public class SearchBundleHtmlGenerator extends AbstractHtmlAdapter implements Ht
 		{
 			int page = getPage(resourceUri);
 			int count = getCount(resourceUri);
-			int max = (int) Math.ceil((double) resource.getTotal() / count);
 			int firstResource = ((page - 1) * count) + 1;
 			int lastResource = ((page - 1) * count) + resource.getEntry().size();
-			out.write("<span id=\"resources\">Resources " + firstResource + " - " + lastResource + " / "
-					+ resource.getTotal() + "</span><span id=\"page\">Page " + page + " / " + max + "</span>");
+
+			if (resource.hasTotal())
+			{
+				int max = (int) Math.ceil((double) resource.getTotal() / count);
+				out.write("<span id=\"resources\">Resources " + firstResource + " - " + lastResource + " / "
+						+ resource.getTotal() + "</span><span id=\"page\">Page " + page + " / " + max + "</span>");
+			}
+			else
+				out.write("<span id=\"resources\">Resources " + firstResource + " - " + lastResource
+						+ "</span><span id=\"page\">Page " + page + "</span>");
 		}
 		out.write("</td><td>");
 
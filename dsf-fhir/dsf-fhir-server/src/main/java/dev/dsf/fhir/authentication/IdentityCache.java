@@ -0,0 +1,231 @@
+package dev.dsf.fhir.authentication;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+
+/**
+ * Bounded LRU cache for identities resolved from client certificates keyed by certificate thumbprint and for the local
+ * organization. Identities include the organization read from the database or the practitioner with roles from the role
+ * config. Unknown certificates are not cached.
+ * <p>
+ * All entries are invalidated by create, update and delete events for {@link Organization} and
+ * {@link OrganizationAffiliation} resources. Values resolved from the database are only added if no invalidation
+ * happened while resolving.
+ */
+public class IdentityCache implements EventHandler, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(IdentityCache.class);
+
+	private final int maxSize;
+	private final Map<String, Identity> identities;
+	private Organization localOrganization;
+	private long generation;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * @param maxSize
+	 *            <code>&gt;= 0</code>, maximum number of cached identities, <code>0</code> to disable caching of
+	 *            identities and the local organization
+	 */
+	public IdentityCache(int maxSize)
+	{
+		if (maxSize < 0)
+			throw new IllegalArgumentException("maxSize < 0");
+		this.maxSize = maxSize;
+
+		identities = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Identity> eldest)
+			{
+				if (size() > IdentityCache.this.maxSize)
+				{
+					evictions.increment();
+					return true;
+				}
+				else
+					return false;
+			}
+		};
+	}
+
+	/**
+	 * @param thumbprint
+	 *            not <code>null</code>
+	 * @param identityResolver
+	 *            not <code>null</code>, called outside of the cache lock if no identity is cached for the given
+	 *            thumbprint, may return <code>null</code>
+	 * @return cached or resolved identity, <code>null</code> if the identity resolver returned <code>null</code>
+	 */
+	public Identity getIdentity(String thumbprint, Supplier<Identity> identityResolver)
+	{
+		Objects.requireNonNull(thumbprint, "thumbprint");
+		Objects.requireNonNull(identityResolver, "identityResolver");
+
+		if (maxSize == 0)
+			return identityResolver.get();
+
+		long generation;
+		synchronized (this)
+		{
+			Identity identity = identities.get(thumbprint);
+			if (identity != null)
+			{
+				hits.increment();
+				return identity;
+			}
+
+			generation = this.generation;
+		}
+
+		misses.increment();
+		Identity identity = identityResolver.get();
+
+		if (identity != null)
+		{
+			synchronized (this)
+			{
+				if (this.generation == generation)
+					identities.put(thumbprint, identity);
+			}
+		}
+
+		return identity;
+	}
+
+	/**
+	 * @param localOrganizationResolver
+	 *            not <code>null</code>, called outside of the cache lock if the local organization is not cached
+	 * @return copy of the cached or resolved local organization
+	 */
+	public Optional<Organization> getLocalOrganization(Supplier<Optional<Organization>> localOrganizationResolver)
+	{
+		Objects.requireNonNull(localOrganizationResolver, "localOrganizationResolver");
+
+		if (maxSize == 0)
+			return localOrganizationResolver.get();
+
+		long generation;
+		synchronized (this)
+		{
+			if (localOrganization != null)
+			{
+				hits.increment();
+				return Optional.of(localOrganization.copy());
+			}
+
+			generation = this.generation;
+		}
+
+		misses.increment();
+		Optional<Organization> organization = localOrganizationResolver.get();
+
+		if (organization.isPresent())
+		{
+			synchronized (this)
+			{
+				if (this.generation == generation)
+					localOrganization = organization.get().copy();
+			}
+		}
+
+		return organization;
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null || !(Organization.class.equals(event.getResourceType())
+				|| OrganizationAffiliation.class.equals(event.getResourceType())))
+			return;
+
+		logger.trace("Invalidating identity cache, {} with IdPart {} changed", event.getResourceType().getSimpleName(),
+				event.getId());
+
+		invalidations.increment();
+		clear();
+	}
+
+	public synchronized void clear()
+	{
+		generation++;
+		identities.clear();
+		localOrganization = null;
+	}
+
+	public synchronized int getSize()
+	{
+		return identities.size();
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), <code>0</code> if the cache was not used
+	 */
+	public double getHitRate()
+	{
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total == 0 ? 0d : (double) hits / total;
+	}
+
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
+	public long getInvalidationCount()
+	{
+		return invalidations.sum();
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		if (maxSize > 0)
+			logger.info("Identity cache statistics: {}", this);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "IdentityCache [size: " + getSize() + "/" + maxSize + ", hits: " + getHitCount() + ", misses: "
+				+ getMissCount() + ", hit rate: " + String.format(Locale.ROOT, "%.2f", getHitRate()) + ", evictions: "
+				+ getEvictionCount() + ", invalidations: " + getInvalidationCount() + "]";
+	}
+}
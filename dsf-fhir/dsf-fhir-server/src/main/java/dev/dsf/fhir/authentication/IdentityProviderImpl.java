@@ -34,14 +34,16 @@ public class IdentityProviderImpl extends AbstractProvider implements IdentityPr
 	private final PractitionerProvider practitionerProvider;
 	private final String localOrganizationIdentifierValue;
 	private final RoleConfig roleConfig;
+	private final IdentityCache identityCache;
 
 	public IdentityProviderImpl(OrganizationProvider organizationProvider, PractitionerProvider practitionerProvider,
-			String localOrganizationIdentifierValue, RoleConfig roleConfig)
+			String localOrganizationIdentifierValue, RoleConfig roleConfig, IdentityCache identityCache)
 	{
 		this.organizationProvider = organizationProvider;
 		this.practitionerProvider = practitionerProvider;
 		this.localOrganizationIdentifierValue = localOrganizationIdentifierValue;
 		this.roleConfig = roleConfig;
+		this.identityCache = identityCache;
 	}
 
 	@Override
@@ -51,6 +53,7 @@ public class IdentityProviderImpl extends AbstractProvider implements IdentityPr
 		Objects.requireNonNull(practitionerProvider, "practitionerProvider");
 		Objects.requireNonNull(localOrganizationIdentifierValue, "localOrganizationIdentifierValue");
 		Objects.requireNonNull(roleConfig, "roleConfig");
+		Objects.requireNonNull(identityCache, "identityCache");
 	}
 
 	@Override
@@ -151,34 +154,39 @@ public class IdentityProviderImpl extends AbstractProvider implements IdentityPr
 
 		String thumbprint = getThumbprint(certificates[0]);
 
-		Optional<Organization> organization = organizationProvider.getOrganization(certificates[0]);
+		return identityCache.getIdentity(thumbprint, () -> getIdentity(certificates[0], thumbprint));
+	}
+
+	private Identity getIdentity(X509Certificate certificate, String thumbprint)
+	{
+		Optional<Organization> organization = organizationProvider.getOrganization(certificate);
 		if (organization.isPresent())
 		{
 			boolean localOrganization = isLocalOrganization(organization.get());
 
 			if (localOrganization)
 				return new OrganizationIdentityImpl(true, organization.get(), FhirServerRole.LOCAL_ORGANIZATION,
-						certificates[0]);
+						certificate);
 			else
 				return new OrganizationIdentityImpl(false, organization.get(), FhirServerRole.REMOTE_ORGANIZATION,
-						certificates[0]);
+						certificate);
 		}
 
-		Optional<Practitioner> practitioner = practitionerProvider.getPractitioner(certificates[0]);
+		Optional<Practitioner> practitioner = practitionerProvider.getPractitioner(certificate);
 		Optional<Organization> localOrganization = organizationProvider.getLocalOrganization();
 		if (practitioner.isPresent() && localOrganization.isPresent())
 		{
 			Practitioner p = practitioner.get();
 			Organization o = localOrganization.get();
 
-			return new PractitionerIdentityImpl(o, getDsfRolesFor(p, thumbprint, null, null), certificates[0], p,
+			return new PractitionerIdentityImpl(o, getDsfRolesFor(p, thumbprint, null, null), certificate, p,
 					getPractitionerRolesFor(p, thumbprint, null, null), null);
 		}
 		else
 		{
 			logger.warn(
 					"Certificate with thumbprint '{}' for '{}' unknown, not part of allowlist and not configured as local user or local organization",
-					thumbprint, getDn(certificates[0]));
+					thumbprint, getDn(certificate));
 			return null;
 		}
 	}
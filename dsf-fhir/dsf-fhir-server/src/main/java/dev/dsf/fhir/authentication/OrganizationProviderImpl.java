@@ -17,13 +17,15 @@ public class OrganizationProviderImpl extends AbstractProvider implements Organi
 	private final OrganizationDao dao;
 	private final ExceptionHandler exceptionHandler;
 	private final String localOrganizationIdentifierValue;
+	private final IdentityCache identityCache;
 
 	public OrganizationProviderImpl(OrganizationDao dao, ExceptionHandler exceptionHandler,
-			String localOrganizationIdentifierValue)
+			String localOrganizationIdentifierValue, IdentityCache identityCache)
 	{
 		this.dao = dao;
 		this.exceptionHandler = exceptionHandler;
 		this.localOrganizationIdentifierValue = localOrganizationIdentifierValue;
+		this.identityCache = identityCache;
 	}
 
 	@Override
@@ -32,6 +34,7 @@ public class OrganizationProviderImpl extends AbstractProvider implements Organi
 		Objects.requireNonNull(dao, "dao");
 		Objects.requireNonNull(exceptionHandler, "exceptionHandler");
 		Objects.requireNonNull(localOrganizationIdentifierValue, "localOrganizationIdentifierValue");
+		Objects.requireNonNull(identityCache, "identityCache");
 	}
 
 	private Optional<Organization> getOrganization(String thumbprint)
@@ -53,8 +56,8 @@ public class OrganizationProviderImpl extends AbstractProvider implements Organi
 	@Override
 	public Optional<Organization> getLocalOrganization()
 	{
-		return exceptionHandler.catchAndLogSqlExceptionAndIfReturn(
-				() -> dao.readActiveNotDeletedByIdentifier(localOrganizationIdentifierValue), Optional::empty);
+		return identityCache.getLocalOrganization(() -> exceptionHandler.catchAndLogSqlExceptionAndIfReturn(
+				() -> dao.readActiveNotDeletedByIdentifier(localOrganizationIdentifierValue), Optional::empty));
 	}
 
 	@Override
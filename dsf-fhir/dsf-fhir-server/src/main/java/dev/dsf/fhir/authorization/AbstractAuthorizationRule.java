@@ -129,6 +129,38 @@ public abstract class AbstractAuthorizationRule<R extends Resource, D extends Re
 		}
 	}
 
+	@Override
+	public final List<Optional<String>> reasonsReadAllowed(Identity identity, List<R> existingResources)
+	{
+		try (Connection connection = daoProvider.newReadOnlyAutoCommitTransaction())
+		{
+			return reasonsReadAllowed(connection, identity, existingResources);
+		}
+		catch (SQLException e)
+		{
+			logger.debug("Error while accessing database", e);
+			logger.warn("Error while accessing database: {} - {}", e.getClass().getName(), e.getMessage());
+
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public final List<Optional<String>> reasonsReadAllowed(List<Identity> identities, R existingResource)
+	{
+		try (Connection connection = daoProvider.newReadOnlyAutoCommitTransaction())
+		{
+			return reasonsReadAllowed(connection, identities, existingResource);
+		}
+		catch (SQLException e)
+		{
+			logger.debug("Error while accessing database", e);
+			logger.warn("Error while accessing database: {} - {}", e.getClass().getName(), e.getMessage());
+
+			throw new RuntimeException(e);
+		}
+	}
+
 	protected List<OrganizationAffiliation> getAffiliations(Connection connection, String organizationIdentifierValue)
 	{
 		if (organizationIdentifierValue == null)
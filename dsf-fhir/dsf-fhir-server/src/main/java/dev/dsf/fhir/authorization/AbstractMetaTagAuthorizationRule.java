@@ -2,6 +2,8 @@ package dev.dsf.fhir.authorization;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -90,9 +92,18 @@ public abstract class AbstractMetaTagAuthorizationRule<R extends Resource, D ext
 	@Override
 	public final Optional<String> reasonReadAllowed(Connection connection, Identity identity, R existingResource)
 	{
-		final UUID resourceId = parameterConverter.toUuid(getResourceTypeName(),
-				existingResource.getIdElement().getIdPart());
-		final long resourceVersion = existingResource.getIdElement().getVersionIdPartAsLong();
+		return reasonsReadAllowed(connection, identity, List.of(existingResource)).get(0);
+	}
+
+	@Override
+	public final List<Optional<String>> reasonsReadAllowed(Connection connection, Identity identity,
+			List<R> existingResources)
+	{
+		final List<UUID> resourceIds = existingResources.stream()
+				.map(r -> parameterConverter.toUuid(getResourceTypeName(), r.getIdElement().getIdPart()))
+				.collect(Collectors.toList());
+		final List<Long> resourceVersions = existingResources.stream()
+				.map(r -> r.getIdElement().getVersionIdPartAsLong()).collect(Collectors.toList());
 
 		if (identity.hasDsfRole(FhirServerRole.READ))
 		{
@@ -101,27 +112,14 @@ public abstract class AbstractMetaTagAuthorizationRule<R extends Resource, D ext
 				UUID organizationId = parameterConverter.toUuid("Organization",
 						identity.getOrganization().getIdElement().getIdPart());
 
-				List<String> accessTypes = readAccessDao.getAccessTypes(connection, resourceId, resourceVersion,
+				List<List<String>> accessTypes = readAccessDao.getAccessTypes(connection, resourceIds, resourceVersions,
 						identity.isLocalIdentity(), organizationId);
 
-				if (accessTypes.isEmpty())
-				{
-					logger.warn("Read of {}/{}/_history/{} unauthorized for identity '{}', no matching access tags",
-							getResourceTypeName(), resourceId.toString(), resourceVersion, identity.getName());
-
-					return Optional.empty();
-				}
-				else
-				{
-					String tags = accessTypes.stream().collect(Collectors.joining(", ", "{", "}"));
-
-					logger.info("Read of {}/{}/_history/{} authorized for identity '{}', matching access {} {}",
-							getResourceTypeName(), resourceId.toString(), resourceVersion, identity.getName(),
-							accessTypes.size() == 1 ? "tag" : "tags", tags);
-
-					return Optional.of("Identity has role " + FhirServerRole.READ + ", matching access "
-							+ (accessTypes.size() == 1 ? "tag" : "tags") + " " + tags);
-				}
+				List<Optional<String>> reasons = new ArrayList<>(existingResources.size());
+				for (int i = 0; i < existingResources.size(); i++)
+					reasons.add(reasonReadAllowed(identity, resourceIds.get(i), resourceVersions.get(i),
+							accessTypes.get(i)));
+				return reasons;
 			}
 			catch (SQLException e)
 			{
@@ -133,11 +131,101 @@ public abstract class AbstractMetaTagAuthorizationRule<R extends Resource, D ext
 		}
 		else
 		{
-			logger.warn("Read of {}/{}/_history/{} unauthorized for identity '{}', no role {}", getResourceTypeName(),
-					resourceId.toString(), resourceVersion, identity.getName(), FhirServerRole.READ);
+			List<Optional<String>> reasons = new ArrayList<>(existingResources.size());
+			for (int i = 0; i < existingResources.size(); i++)
+			{
+				logger.warn("Read of {}/{}/_history/{} unauthorized for identity '{}', no role {}",
+						getResourceTypeName(), resourceIds.get(i).toString(), resourceVersions.get(i),
+						identity.getName(), FhirServerRole.READ);
+
+				reasons.add(Optional.empty());
+			}
+			return reasons;
+		}
+	}
+
+	@Override
+	public final List<Optional<String>> reasonsReadAllowed(Connection connection, List<Identity> identities,
+			R existingResource)
+	{
+		final UUID resourceId = parameterConverter.toUuid(getResourceTypeName(),
+				existingResource.getIdElement().getIdPart());
+		final long resourceVersion = existingResource.getIdElement().getVersionIdPartAsLong();
+
+		List<Optional<String>> reasons = new ArrayList<>(Collections.nCopies(identities.size(), Optional.empty()));
+
+		try
+		{
+			// one query for local and one for remote identities with role READ
+			for (boolean localIdentity : new boolean[] { true, false })
+			{
+				List<Integer> indices = new ArrayList<>();
+				List<UUID> organizationIds = new ArrayList<>();
+				for (int i = 0; i < identities.size(); i++)
+				{
+					Identity identity = identities.get(i);
+					if (identity.isLocalIdentity() == localIdentity && identity.hasDsfRole(FhirServerRole.READ))
+					{
+						indices.add(i);
+						organizationIds.add(parameterConverter.toUuid("Organization",
+								identity.getOrganization().getIdElement().getIdPart()));
+					}
+				}
+
+				if (indices.isEmpty())
+					continue;
+
+				List<List<String>> accessTypes = readAccessDao.getAccessTypes(connection, resourceId, resourceVersion,
+						localIdentity, organizationIds);
+
+				for (int i = 0; i < indices.size(); i++)
+				{
+					int index = indices.get(i);
+					reasons.set(index,
+							reasonReadAllowed(identities.get(index), resourceId, resourceVersion, accessTypes.get(i)));
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.debug("Error while checking read access", e);
+			logger.warn("Error while checking read access: {} - {}", e.getClass().getName(), e.getMessage());
+
+			throw new RuntimeException(e);
+		}
+
+		for (Identity identity : identities)
+		{
+			if (!identity.hasDsfRole(FhirServerRole.READ))
+				logger.warn("Read of {}/{}/_history/{} unauthorized for identity '{}', no role {}",
+						getResourceTypeName(), resourceId.toString(), resourceVersion, identity.getName(),
+						FhirServerRole.READ);
+		}
+
+		return reasons;
+	}
+
+	private Optional<String> reasonReadAllowed(Identity identity, UUID resourceId, long resourceVersion,
+			List<String> accessTypes)
+	{
+		if (accessTypes.isEmpty())
+		{
+			logger.warn("Read of {}/{}/_history/{} unauthorized for identity '{}', no matching access tags",
+					getResourceTypeName(), resourceId.toString(), resourceVersion, identity.getName());
 
 			return Optional.empty();
 		}
+		else
+		{
+			String tags = accessTypes.stream().collect(Collectors.joining(", ", "{", "}"));
+
+			logger.info("Read of {}/{}/_history/{} authorized for identity '{}', matching access {} {}",
+					getResourceTypeName(), resourceId.toString(), resourceVersion, identity.getName(),
+					accessTypes.size() == 1 ? "tag" : "tags", tags);
+
+			return Optional.of("Identity has role " + FhirServerRole.READ + ", matching access "
+					+ (accessTypes.size() == 1 ? "tag" : "tags") + " " + tags);
+		}
 	}
 
 	protected abstract Optional<String> newResourceOkForUpdate(Connection connection, Identity identity, R newResource);
@@ -1,7 +1,9 @@
 package dev.dsf.fhir.authorization;
 
 import java.sql.Connection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.hl7.fhir.r4.model.Resource;
 
@@ -35,6 +37,18 @@ public interface AuthorizationRule<R extends Resource>
 	 */
 	Optional<String> reasonCreateAllowed(Connection connection, Identity identity, R newResource);
 
+	/**
+	 * Override this method for non default behavior. Default: <code>true</code>.
+	 *
+	 * @return <code>true</code> if {@link #reasonCreateAllowed(Connection, Identity, Resource)} reads stored resources
+	 *         of type {@link #getResourceType()}, e.g. to check unique criteria, <code>false</code> if creates of this
+	 *         type within one transaction may be inserted after all of them have been checked
+	 */
+	default boolean isCreateCheckDependentOnStoredResources()
+	{
+		return true;
+	}
+
 	/**
 	 * Override this method for non default behavior. Default: Not allowed.
 	 *
@@ -59,6 +73,68 @@ public interface AuthorizationRule<R extends Resource>
 	 */
 	Optional<String> reasonReadAllowed(Connection connection, Identity identity, R existingResource);
 
+	/**
+	 * Batch variant of {@link #reasonReadAllowed(Identity, Resource)} evaluating all resources with one database
+	 * connection.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param existingResources
+	 *            not <code>null</code>
+	 * @return Reasons as String in {@link Optional#of(Object)} if read allowed, in order of the given resources
+	 */
+	List<Optional<String>> reasonsReadAllowed(Identity identity, List<R> existingResources);
+
+	/**
+	 * Batch variant of {@link #reasonReadAllowed(Connection, Identity, Resource)}. Default: Evaluates every resource
+	 * with {@link #reasonReadAllowed(Connection, Identity, Resource)}.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param existingResources
+	 *            not <code>null</code>
+	 * @return Reasons as String in {@link Optional#of(Object)} if read allowed, in order of the given resources
+	 */
+	default List<Optional<String>> reasonsReadAllowed(Connection connection, Identity identity,
+			List<R> existingResources)
+	{
+		return existingResources.stream().map(r -> reasonReadAllowed(connection, identity, r))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Batch variant of {@link #reasonReadAllowed(Identity, Resource)} evaluating all identities with one database
+	 * connection.
+	 *
+	 * @param identities
+	 *            not <code>null</code>
+	 * @param existingResource
+	 *            not <code>null</code>
+	 * @return Reasons as String in {@link Optional#of(Object)} if read allowed, in order of the given identities
+	 */
+	List<Optional<String>> reasonsReadAllowed(List<Identity> identities, R existingResource);
+
+	/**
+	 * Batch variant of {@link #reasonReadAllowed(Connection, Identity, Resource)}. Default: Evaluates every identity
+	 * with {@link #reasonReadAllowed(Connection, Identity, Resource)}.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param identities
+	 *            not <code>null</code>
+	 * @param existingResource
+	 *            not <code>null</code>
+	 * @return Reasons as String in {@link Optional#of(Object)} if read allowed, in order of the given identities
+	 */
+	default List<Optional<String>> reasonsReadAllowed(Connection connection, List<Identity> identities,
+			R existingResource)
+	{
+		return identities.stream().map(i -> reasonReadAllowed(connection, i, existingResource))
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Override this method for non default behavior. Default: Not allowed.
 	 *
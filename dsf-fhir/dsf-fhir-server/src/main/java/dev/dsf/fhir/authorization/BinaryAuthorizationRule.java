@@ -96,6 +96,13 @@ public class BinaryAuthorizationRule extends AbstractMetaTagAuthorizationRule<Bi
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Binary
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Binary oldResource, Binary newResource)
 	{
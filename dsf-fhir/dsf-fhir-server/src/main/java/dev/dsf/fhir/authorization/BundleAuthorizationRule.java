@@ -60,6 +60,13 @@ public class BundleAuthorizationRule extends AbstractMetaTagAuthorizationRule<Bu
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Bundle
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Bundle oldResource, Bundle newResource)
 	{
@@ -63,6 +63,13 @@ public class DocumentReferenceAuthorizationRule
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for DocumentReference
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, DocumentReference oldResource,
 			DocumentReference newResource)
@@ -60,6 +60,13 @@ public class GroupAuthorizationRule extends AbstractMetaTagAuthorizationRule<Gro
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Group
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Group oldResource, Group newResource)
 	{
@@ -63,6 +63,13 @@ public class HealthcareServiceAuthorizationRule
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for HealthcareService
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, HealthcareService oldResource,
 			HealthcareService newResource)
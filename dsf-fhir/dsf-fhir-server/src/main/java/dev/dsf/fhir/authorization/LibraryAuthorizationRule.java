@@ -60,6 +60,13 @@ public class LibraryAuthorizationRule extends AbstractMetaTagAuthorizationRule<L
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Library
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Library oldResource, Library newResource)
 	{
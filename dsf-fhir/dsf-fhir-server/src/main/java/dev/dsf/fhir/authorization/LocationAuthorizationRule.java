@@ -60,6 +60,13 @@ public class LocationAuthorizationRule extends AbstractMetaTagAuthorizationRule<
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Location
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Location oldResource, Location newResource)
 	{
@@ -60,6 +60,13 @@ public class MeasureAuthorizationRule extends AbstractMetaTagAuthorizationRule<M
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Measure
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Measure oldResource, Measure newResource)
 	{
@@ -62,6 +62,13 @@ public class MeasureReportAuthorizationRule extends AbstractMetaTagAuthorization
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for MeasureReport
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, MeasureReport oldResource, MeasureReport newResource)
 	{
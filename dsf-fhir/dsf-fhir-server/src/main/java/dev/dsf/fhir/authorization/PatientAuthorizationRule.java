@@ -60,6 +60,13 @@ public class PatientAuthorizationRule extends AbstractMetaTagAuthorizationRule<P
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Patient
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Patient oldResource, Patient newResource)
 	{
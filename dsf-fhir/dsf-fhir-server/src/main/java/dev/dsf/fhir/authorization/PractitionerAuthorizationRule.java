@@ -62,6 +62,13 @@ public class PractitionerAuthorizationRule extends AbstractMetaTagAuthorizationR
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Practitioner
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Practitioner oldResource, Practitioner newResource)
 	{
@@ -87,6 +87,13 @@ public class PractitionerRoleAuthorizationRule
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for PractitionerRole
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, PractitionerRole oldResource, PractitionerRole newResource)
 	{
@@ -0,0 +1,433 @@
+package dev.dsf.fhir.authorization;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import dev.dsf.fhir.authorization.process.Recipient;
+import dev.dsf.fhir.authorization.process.Requester;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+
+/**
+ * Index of process authorizations used to authorize Task create and update requests without database reads. Requester
+ * and recipient matchers of draft or active {@link ActivityDefinition} resources are compiled once per process-url,
+ * process-version, message-name and Task profiles. Active {@link OrganizationAffiliation} resources are indexed by
+ * member organization identifier, to be used with {@link Requester#isRequesterAuthorized} and
+ * {@link Recipient#isRecipientAuthorized}.
+ * <p>
+ * Processes are invalidated by create, update and delete events for {@link ActivityDefinition} resources, affiliations
+ * by events for {@link Organization} and {@link OrganizationAffiliation} resources. Connections without auto-commit may
+ * see uncommitted changes not yet published as events, the index is bypassed for these connections.
+ */
+public class ProcessAuthorizationIndex implements EventHandler, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ProcessAuthorizationIndex.class);
+
+	private static final int MAX_AUTHORIZATIONS_PER_PROCESS = 64;
+
+	public static final class Authorization
+	{
+		private final List<Requester> requesters;
+		private final List<Recipient> recipients;
+
+		private Authorization(List<Requester> requesters, List<Recipient> recipients)
+		{
+			this.requesters = requesters;
+			this.recipients = recipients;
+		}
+
+		public List<Requester> getRequesters()
+		{
+			return requesters;
+		}
+
+		public List<Recipient> getRecipients()
+		{
+			return recipients;
+		}
+	}
+
+	private static final class AuthorizationKey
+	{
+		final String messageName;
+		final List<String> taskProfiles;
+
+		AuthorizationKey(String messageName, List<String> taskProfiles)
+		{
+			this.messageName = messageName;
+			this.taskProfiles = taskProfiles;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(messageName, taskProfiles);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			AuthorizationKey other = (AuthorizationKey) obj;
+			return Objects.equals(messageName, other.messageName) && Objects.equals(taskProfiles, other.taskProfiles);
+		}
+	}
+
+	private static final class Process
+	{
+		final String processUrl;
+		final String processVersion;
+		final ActivityDefinition activityDefinition;
+		final Map<AuthorizationKey, Authorization> authorizations = new ConcurrentHashMap<>();
+
+		Process(String processUrl, String processVersion, ActivityDefinition activityDefinition)
+		{
+			this.processUrl = processUrl;
+			this.processVersion = processVersion;
+			this.activityDefinition = activityDefinition;
+		}
+
+		boolean isActivityDefinition(String id)
+		{
+			return activityDefinition != null && id.equals(activityDefinition.getIdElement().getIdPart());
+		}
+	}
+
+	private final DaoProvider daoProvider;
+	private final ProcessAuthorizationHelper processAuthorizationHelper;
+	private final int maxSize;
+
+	private final Map<String, Process> processes;
+	private final Map<String, List<OrganizationAffiliation>> affiliations;
+	private long generation;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param processAuthorizationHelper
+	 *            not <code>null</code>
+	 * @param maxSize
+	 *            <code>&gt;= 0</code>, maximum number of indexed processes and organizations with affiliations,
+	 *            <code>0</code> to disable the index
+	 */
+	public ProcessAuthorizationIndex(DaoProvider daoProvider, ProcessAuthorizationHelper processAuthorizationHelper,
+			int maxSize)
+	{
+		if (maxSize < 0)
+			throw new IllegalArgumentException("maxSize < 0");
+
+		this.daoProvider = daoProvider;
+		this.processAuthorizationHelper = processAuthorizationHelper;
+		this.maxSize = maxSize;
+
+		processes = newLruMap();
+		affiliations = newLruMap();
+	}
+
+	private <V> Map<String, V> newLruMap()
+	{
+		return new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest)
+			{
+				if (size() > maxSize)
+				{
+					evictions.increment();
+					return true;
+				}
+				else
+					return false;
+			}
+		};
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(processAuthorizationHelper, "processAuthorizationHelper");
+	}
+
+	private boolean useIndex(Connection connection) throws SQLException
+	{
+		return maxSize > 0 && connection.getAutoCommit();
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param processUrl
+	 *            not <code>null</code>, not blank
+	 * @param processVersion
+	 *            not <code>null</code>, not blank
+	 * @param messageName
+	 *            not <code>null</code>
+	 * @param taskProfiles
+	 *            not <code>null</code>
+	 * @return {@link Optional#empty()} if no draft or active {@link ActivityDefinition} exists for the given
+	 *         process-url and process-version, authorization without requesters and recipients if the
+	 *         {@link ActivityDefinition} does not authorize the given message-name and Task profiles
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	public Optional<Authorization> getAuthorization(Connection connection, String processUrl, String processVersion,
+			String messageName, List<String> taskProfiles) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(messageName, "messageName");
+		Objects.requireNonNull(taskProfiles, "taskProfiles");
+
+		Process process = getProcess(connection, processUrl, processVersion);
+		if (process.activityDefinition == null)
+			return Optional.empty();
+
+		AuthorizationKey key = new AuthorizationKey(messageName, List.copyOf(taskProfiles));
+		Authorization authorization = process.authorizations.get(key);
+		if (authorization != null)
+			return Optional.of(authorization);
+
+		authorization = new Authorization(
+				processAuthorizationHelper.getRequesters(process.activityDefinition, processUrl, processVersion,
+						messageName, key.taskProfiles).collect(Collectors.toUnmodifiableList()),
+				processAuthorizationHelper.getRecipients(process.activityDefinition, processUrl, processVersion,
+						messageName, key.taskProfiles).collect(Collectors.toUnmodifiableList()));
+
+		// message-name and Task profiles are client controlled, keep number of compiled authorizations bounded
+		if (process.authorizations.size() < MAX_AUTHORIZATIONS_PER_PROCESS)
+			process.authorizations.putIfAbsent(key, authorization);
+
+		return Optional.of(authorization);
+	}
+
+	private Process getProcess(Connection connection, String processUrl, String processVersion) throws SQLException
+	{
+		if (!useIndex(connection))
+			return readProcess(connection, processUrl, processVersion);
+
+		String key = processUrl + "|" + processVersion;
+
+		long generation;
+		synchronized (this)
+		{
+			Process process = processes.get(key);
+			if (process != null)
+			{
+				hits.increment();
+				return process;
+			}
+
+			generation = this.generation;
+		}
+
+		misses.increment();
+		Process process = readProcess(connection, processUrl, processVersion);
+
+		synchronized (this)
+		{
+			if (this.generation == generation)
+				processes.put(key, process);
+		}
+
+		return process;
+	}
+
+	private Process readProcess(Connection connection, String processUrl, String processVersion) throws SQLException
+	{
+		Optional<ActivityDefinition> activityDefinition = daoProvider.getActivityDefinitionDao()
+				.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection, processUrl, processVersion);
+
+		return new Process(processUrl, processVersion, activityDefinition.orElse(null));
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param organizationIdentifierValue
+	 *            may be <code>null</code>
+	 * @return unmodifiable list of active affiliations with the given organization as active participating organization
+	 *         and organization identifiers of parent and participating organization set, empty if the given identifier
+	 *         value is <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	public List<OrganizationAffiliation> getAffiliations(Connection connection, String organizationIdentifierValue)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+
+		if (organizationIdentifierValue == null)
+			return Collections.emptyList();
+
+		if (!useIndex(connection))
+			return readAffiliations(connection, organizationIdentifierValue);
+
+		long generation;
+		synchronized (this)
+		{
+			List<OrganizationAffiliation> cached = affiliations.get(organizationIdentifierValue);
+			if (cached != null)
+			{
+				hits.increment();
+				return cached;
+			}
+
+			generation = this.generation;
+		}
+
+		misses.increment();
+		List<OrganizationAffiliation> read = readAffiliations(connection, organizationIdentifierValue);
+
+		synchronized (this)
+		{
+			if (this.generation == generation)
+				affiliations.put(organizationIdentifierValue, read);
+		}
+
+		return read;
+	}
+
+	private List<OrganizationAffiliation> readAffiliations(Connection connection, String organizationIdentifierValue)
+			throws SQLException
+	{
+		return Collections.unmodifiableList(daoProvider.getOrganizationAffiliationDao()
+				.readActiveNotDeletedByMemberOrganizationIdentifierIncludingOrganizationIdentifiersWithTransaction(
+						connection, organizationIdentifierValue));
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null)
+			return;
+
+		if (ActivityDefinition.class.equals(event.getResourceType()))
+		{
+			logger.trace("Invalidating processes, ActivityDefinition with IdPart {} changed", event.getId());
+
+			invalidations.increment();
+			invalidateProcesses(event);
+		}
+		else if (Organization.class.equals(event.getResourceType())
+				|| OrganizationAffiliation.class.equals(event.getResourceType()))
+		{
+			logger.trace("Invalidating affiliations, {} with IdPart {} changed",
+					event.getResourceType().getSimpleName(), event.getId());
+
+			invalidations.increment();
+			invalidateAffiliations();
+		}
+	}
+
+	private synchronized void invalidateProcesses(Event event)
+	{
+		generation++;
+
+		// removes processes of the previous version, url and version may have changed
+		processes.values().removeIf(p -> p.isActivityDefinition(event.getId()));
+
+		// removes negative entries for url and version of the new version
+		if (event.getResource() instanceof ActivityDefinition a)
+			processes.values().removeIf(
+					p -> Objects.equals(p.processUrl, a.getUrl()) && Objects.equals(p.processVersion, a.getVersion()));
+	}
+
+	private synchronized void invalidateAffiliations()
+	{
+		generation++;
+		affiliations.clear();
+	}
+
+	public synchronized void clear()
+	{
+		generation++;
+		processes.clear();
+		affiliations.clear();
+	}
+
+	public synchronized int getProcessCount()
+	{
+		return processes.size();
+	}
+
+	public synchronized int getAffiliationsCount()
+	{
+		return affiliations.size();
+	}
+
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), <code>0</code> if the index was not used
+	 */
+	public double getHitRate()
+	{
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total == 0 ? 0d : (double) hits / total;
+	}
+
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
+	public long getInvalidationCount()
+	{
+		return invalidations.sum();
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		if (maxSize > 0)
+			logger.info("Process authorization index statistics: {}", this);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ProcessAuthorizationIndex [processes: " + getProcessCount() + "/" + maxSize + ", affiliations: "
+				+ getAffiliationsCount() + "/" + maxSize + ", hits: " + getHitCount() + ", misses: " + getMissCount()
+				+ ", hit rate: " + String.format(Locale.ROOT, "%.2f", getHitRate()) + ", evictions: "
+				+ getEvictionCount() + ", invalidations: " + getInvalidationCount() + "]";
+	}
+}
@@ -60,6 +60,13 @@ public class ProvenanceAuthorizationRule extends AbstractMetaTagAuthorizationRul
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Provenance
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Provenance oldResource, Provenance newResource)
 	{
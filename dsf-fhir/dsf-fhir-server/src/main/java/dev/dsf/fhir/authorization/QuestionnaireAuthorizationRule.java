@@ -62,6 +62,13 @@ public class QuestionnaireAuthorizationRule extends AbstractMetaTagAuthorization
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for Questionnaire
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, Questionnaire oldResource, Questionnaire newResource)
 	{
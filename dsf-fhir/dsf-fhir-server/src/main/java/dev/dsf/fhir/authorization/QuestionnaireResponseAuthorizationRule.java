@@ -140,6 +140,13 @@ public class QuestionnaireResponseAuthorizationRule
 		return Optional.of(value.getValue());
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// create checks do not read stored QuestionnaireResponse resources
+		return false;
+	}
+
 	@Override
 	public Optional<String> reasonReadAllowed(Connection connection, Identity identity,
 			QuestionnaireResponse existingResource)
@@ -62,6 +62,13 @@ public class ResearchStudyAuthorizationRule extends AbstractMetaTagAuthorization
 		return false;
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// no unique criteria for ResearchStudy
+		return false;
+	}
+
 	@Override
 	protected boolean modificationsOk(Connection connection, ResearchStudy oldResource, ResearchStudy newResource)
 	{
@@ -1,6 +1,7 @@
 package dev.dsf.fhir.authorization;
 
 import java.sql.Connection;
+import java.util.List;
 import java.util.Optional;
 
 import org.hl7.fhir.r4.model.Resource;
@@ -44,6 +45,18 @@ public class RootAuthorizationRule implements AuthorizationRule<Resource>
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public List<Optional<String>> reasonsReadAllowed(Identity identity, List<Resource> existingResources)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public List<Optional<String>> reasonsReadAllowed(List<Identity> identities, Resource existingResource)
+	{
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public Optional<String> reasonUpdateAllowed(Identity identity, Resource oldResource, Resource newResource)
 	{
@@ -12,10 +12,10 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.hl7.fhir.r4.model.ActivityDefinition;
 import org.hl7.fhir.r4.model.CanonicalType;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.StringType;
 import org.hl7.fhir.r4.model.Task;
@@ -29,7 +29,7 @@ import dev.dsf.common.auth.conf.Identity;
 import dev.dsf.common.auth.conf.OrganizationIdentity;
 import dev.dsf.fhir.authentication.FhirServerRole;
 import dev.dsf.fhir.authentication.OrganizationProvider;
-import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import dev.dsf.fhir.authorization.ProcessAuthorizationIndex.Authorization;
 import dev.dsf.fhir.authorization.read.ReadAccessHelper;
 import dev.dsf.fhir.dao.TaskDao;
 import dev.dsf.fhir.dao.provider.DaoProvider;
@@ -52,18 +52,18 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 
 	private static final String NAMING_SYSTEM_TASK_IDENTIFIER = "http://dsf.dev/sid/task-identifier";
 
-	private final ProcessAuthorizationHelper processAuthorizationHelper;
+	private final ProcessAuthorizationIndex processAuthorizationIndex;
 	private final FhirContext fhirContext;
 
 	public TaskAuthorizationRule(DaoProvider daoProvider, String serverBase, ReferenceResolver referenceResolver,
 			OrganizationProvider organizationProvider, ReadAccessHelper readAccessHelper,
-			ParameterConverter parameterConverter, ProcessAuthorizationHelper processAuthorizationHelper,
+			ParameterConverter parameterConverter, ProcessAuthorizationIndex processAuthorizationIndex,
 			FhirContext fhirContext)
 	{
 		super(Task.class, daoProvider, serverBase, referenceResolver, organizationProvider, readAccessHelper,
 				parameterConverter);
 
-		this.processAuthorizationHelper = processAuthorizationHelper;
+		this.processAuthorizationIndex = processAuthorizationIndex;
 		this.fhirContext = fhirContext;
 	}
 
@@ -72,7 +72,7 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 	{
 		super.afterPropertiesSet();
 
-		Objects.requireNonNull(processAuthorizationHelper, "processAuthorizationHelper");
+		Objects.requireNonNull(processAuthorizationIndex, "processAuthorizationIndex");
 		Objects.requireNonNull(fhirContext, "fhirContext");
 	}
 
@@ -417,11 +417,14 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 
 			try
 			{
-				Optional<ActivityDefinition> activityDefinitionOpt = daoProvider.getActivityDefinitionDao()
-						.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection, processUrl,
-								processVersion);
+				List<String> taskProfiles = newResource.getMeta().getProfile().stream().filter(CanonicalType::hasValue)
+						.map(CanonicalType::getValueAsString).collect(Collectors.toList());
+				String messageName = getMessageNames(newResource).findFirst().get();
 
-				if (activityDefinitionOpt.isEmpty())
+				Optional<Authorization> authorizationOpt = processAuthorizationIndex.getAuthorization(connection,
+						processUrl, processVersion, messageName, taskProfiles);
+
+				if (authorizationOpt.isEmpty())
 				{
 					logger.warn("No ActivityDefinition with process-url '{}' and process-version '{}'", processUrl,
 							processVersion);
@@ -430,23 +433,12 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 				}
 				else
 				{
-					ActivityDefinition activityDefinition = activityDefinitionOpt.get();
+					Authorization authorization = authorizationOpt.get();
 					Identity recipient = recipientOpt.get();
 
-					List<String> taskProfiles = newResource.getMeta().getProfile().stream()
-							.filter(CanonicalType::hasValue).map(CanonicalType::getValueAsString)
-							.collect(Collectors.toList());
-					String messageName = getMessageNames(newResource).findFirst().get();
-
-					boolean okForRecipient = processAuthorizationHelper
-							.getRecipients(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
-							.anyMatch(r -> r.isRecipientAuthorized(recipient, getAffiliations(connection,
-									organizationProvider.getLocalOrganizationIdentifierValue())));
+					boolean okForRecipient = isRecipientAuthorized(connection, authorization, recipient);
 
-					boolean okForRequester = processAuthorizationHelper
-							.getRequesters(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
-							.anyMatch(r -> r.isRequesterAuthorized(requester, getAffiliations(connection,
-									requester.getOrganizationIdentifierValue().orElse(null))));
+					boolean okForRequester = isRequesterAuthorized(connection, authorization, requester);
 
 					if (!okForRecipient && !okForRequester)
 						logger.warn("Task not allowed for requester and recipient");
@@ -460,8 +452,9 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 			}
 			catch (SQLException e)
 			{
-				logger.debug("Error while reading ActivityDefinitions", e);
-				logger.warn("Error while reading ActivityDefinitions: {} - {}", e.getClass().getName(), e.getMessage());
+				logger.debug("Error while reading ActivityDefinitions or OrganizationAffiliations", e);
+				logger.warn("Error while reading ActivityDefinitions or OrganizationAffiliations: {} - {}",
+						e.getClass().getName(), e.getMessage());
 
 				return false;
 			}
@@ -474,6 +467,28 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 		}
 	}
 
+	private boolean isRecipientAuthorized(Connection connection, Authorization authorization, Identity recipient)
+			throws SQLException
+	{
+		if (authorization.getRecipients().isEmpty())
+			return false;
+
+		List<OrganizationAffiliation> affiliations = processAuthorizationIndex.getAffiliations(connection,
+				organizationProvider.getLocalOrganizationIdentifierValue());
+		return authorization.getRecipients().stream().anyMatch(r -> r.isRecipientAuthorized(recipient, affiliations));
+	}
+
+	private boolean isRequesterAuthorized(Connection connection, Authorization authorization, Identity requester)
+			throws SQLException
+	{
+		if (authorization.getRequesters().isEmpty())
+			return false;
+
+		List<OrganizationAffiliation> affiliations = processAuthorizationIndex.getAffiliations(connection,
+				requester.getOrganizationIdentifierValue().orElse(null));
+		return authorization.getRequesters().stream().anyMatch(r -> r.isRequesterAuthorized(requester, affiliations));
+	}
+
 	private boolean taskAllowedForRecipient(Connection connection, Task newResource)
 	{
 		Optional<Identity> recipientOpt = organizationProvider.getLocalOrganizationAsIdentity();
@@ -492,11 +507,14 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 
 			try
 			{
-				Optional<ActivityDefinition> activityDefinitionOpt = daoProvider.getActivityDefinitionDao()
-						.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection, processUrl,
-								processVersion);
+				List<String> taskProfiles = newResource.getMeta().getProfile().stream().filter(CanonicalType::hasValue)
+						.map(CanonicalType::getValueAsString).collect(Collectors.toList());
+				String messageName = getMessageNames(newResource).findFirst().get();
 
-				if (activityDefinitionOpt.isEmpty())
+				Optional<Authorization> authorizationOpt = processAuthorizationIndex.getAuthorization(connection,
+						processUrl, processVersion, messageName, taskProfiles);
+
+				if (authorizationOpt.isEmpty())
 				{
 					logger.warn("No ActivityDefinition with process-url '{}' and process-version '{}'", processUrl,
 							processVersion);
@@ -505,18 +523,10 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 				}
 				else
 				{
-					ActivityDefinition activityDefinition = activityDefinitionOpt.get();
+					Authorization authorization = authorizationOpt.get();
 					Identity recipient = recipientOpt.get();
 
-					List<String> taskProfiles = newResource.getMeta().getProfile().stream()
-							.filter(CanonicalType::hasValue).map(CanonicalType::getValueAsString)
-							.collect(Collectors.toList());
-					String messageName = getMessageNames(newResource).findFirst().get();
-
-					boolean okForRecipient = processAuthorizationHelper
-							.getRecipients(activityDefinition, processUrl, processVersion, messageName, taskProfiles)
-							.anyMatch(r -> r.isRecipientAuthorized(recipient, getAffiliations(connection,
-									organizationProvider.getLocalOrganizationIdentifierValue())));
+					boolean okForRecipient = isRecipientAuthorized(connection, authorization, recipient);
 
 					if (!okForRecipient)
 						logger.warn("Task not allowed for recipient");
@@ -526,8 +536,9 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 			}
 			catch (SQLException e)
 			{
-				logger.debug("Error while reading ActivityDefinitions", e);
-				logger.warn("Error while reading ActivityDefinitions: {} - {}", e.getClass().getName(), e.getMessage());
+				logger.debug("Error while reading ActivityDefinitions or OrganizationAffiliations", e);
+				logger.warn("Error while reading ActivityDefinitions or OrganizationAffiliations: {} - {}",
+						e.getClass().getName(), e.getMessage());
 
 				return false;
 			}
@@ -540,6 +551,13 @@ public class TaskAuthorizationRule extends AbstractAuthorizationRule<Task, TaskD
 		}
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources()
+	{
+		// create checks do not read stored Task resources
+		return false;
+	}
+
 	@Override
 	public Optional<String> reasonReadAllowed(Connection connection, Identity identity, Task existingResource)
 	{
@@ -1,7 +1,56 @@
 package dev.dsf.fhir.dao;
 
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
 import org.hl7.fhir.r4.model.Binary;
 
+import dev.dsf.fhir.dao.exception.ResourceDeletedException;
+
 public interface BinaryDao extends ResourceDao<Binary>
 {
+	/**
+	 * {@link Binary#getUserData(String)} key for an {@link InputStream} to be stored as data on create and update if
+	 * the resource has no {@link Binary#getData()}. The stream is consumed, not closed, while executing the insert
+	 * statement, the stored resource returned by the dao will not contain the data.
+	 */
+	String USER_DATA_DATA_INPUT_STREAM = BinaryDao.class.getName() + ".dataInputStream";
+
+	/**
+	 * {@link Binary#getUserData(String)} key for the {@link BinaryDataStream} of resources read via
+	 * {@link #readWithoutData(UUID)} or {@link #readVersionWithoutData(UUID, long)}.
+	 */
+	String USER_DATA_DATA_STREAM = BinaryDao.class.getName() + ".dataStream";
+
+	/**
+	 * Same as {@link #read(UUID)}, but without loading the data. The data can be streamed via the
+	 * {@link BinaryDataStream} set as user data with key {@link #USER_DATA_DATA_STREAM}.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if not found
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if resource is found but marked as deleted
+	 */
+	Optional<Binary> readWithoutData(UUID uuid) throws SQLException, ResourceDeletedException;
+
+	/**
+	 * Same as {@link #readVersion(UUID, long)}, but without loading the data. The data can be streamed via the
+	 * {@link BinaryDataStream} set as user data with key {@link #USER_DATA_DATA_STREAM}.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @param version
+	 *            may be <code>&lt; {@link ResourceDao#FIRST_VERSION}</code>
+	 * @return {@link Optional#empty()} if not found
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if resource is found but marked as deleted
+	 */
+	Optional<Binary> readVersionWithoutData(UUID uuid, long version) throws SQLException, ResourceDeletedException;
 }
@@ -0,0 +1,54 @@
+package dev.dsf.fhir.dao;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Access to the data of a stored Binary resource without loading the whole payload into memory.
+ */
+public interface BinaryDataStream
+{
+	/**
+	 * @return length of the data in bytes
+	 */
+	long getLength();
+
+	/**
+	 * @param out
+	 *            not <code>null</code>
+	 * @param offset
+	 *            <code>&gt;= 0</code>, position of the first byte to write
+	 * @param length
+	 *            <code>&gt;= 0</code>, number of bytes to write, <code>offset + length</code> may not exceed
+	 *            {@link #getLength()}
+	 * @throws IOException
+	 *             if the data could not be read or written
+	 */
+	void write(OutputStream out, long offset, long length) throws IOException;
+
+	/**
+	 * @param data
+	 *            not <code>null</code>
+	 * @return stream backed by the given byte array
+	 */
+	static BinaryDataStream of(byte[] data)
+	{
+		Objects.requireNonNull(data, "data");
+
+		return new BinaryDataStream()
+		{
+			@Override
+			public long getLength()
+			{
+				return data.length;
+			}
+
+			@Override
+			public void write(OutputStream out, long offset, long length) throws IOException
+			{
+				out.write(data, Math.toIntExact(offset), Math.toIntExact(length));
+			}
+		};
+	}
+}
@@ -0,0 +1,57 @@
+package dev.dsf.fhir.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
+
+/**
+ * Collects INSERTs of resources of one type created within one transaction. Allows bundles with many creates of the
+ * same type to replace the INSERTs per created resource with one JDBC batch per table. Collected resources are not
+ * stored until {@link #execute(Connection)} is called, searches and reads do not find collected resources before.
+ *
+ * @param <R>
+ *            resource type
+ */
+public interface DeferredInserts<R extends Resource>
+{
+	Class<R> getResourceType();
+
+	boolean isEmpty();
+
+	/**
+	 * @return number of collected resources
+	 */
+	int size();
+
+	/**
+	 * Removes resources collected after this collection had the given size, to be used if the creation of these
+	 * resources was rolled back to a savepoint.
+	 *
+	 * @param size
+	 *            <code>&gt;= 0</code>
+	 */
+	void truncate(int size);
+
+	/**
+	 * Executes the INSERTs of all collected resources and removes them from this collection. The INSERTs are rolled
+	 * back to a savepoint if they fail.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not auto commit, connection used to create the collected resources
+	 * @throws DeferredInsertException
+	 *             if the INSERT of one collected resource failed, only this resource is removed from the collection,
+	 *             the remaining resources can be inserted by calling this method again
+	 * @throws SQLException
+	 *             if database access errors occur, all resources are removed
+	 */
+	void execute(Connection connection) throws SQLException;
+
+	/**
+	 * Removes all collected resources without inserting them, to be used if the transaction creating the resources was
+	 * rolled back.
+	 */
+	void clear();
+}
@@ -0,0 +1,61 @@
+package dev.dsf.fhir.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Collects <code>read_access</code> maintenance of resources created within one transaction. Allows bundles with many
+ * creates to replace the update per created resource with one set based update of all collected resources. Entries of
+ * collected resources are missing until {@link #execute(Connection)} is called, identity filtered searches and read
+ * authorization checks do not find collected resources before.
+ */
+public interface DeferredReadAccessUpdates
+{
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the created resource
+	 * @return <code>false</code> if <code>read_access</code> maintenance of the given resource can not be deferred and
+	 *         must be executed immediately, e.g. for organizations and organization affiliations
+	 */
+	boolean add(Resource resource, UUID id, long version);
+
+	boolean isEmpty();
+
+	/**
+	 * @return number of collected resources
+	 */
+	int size();
+
+	/**
+	 * Removes resources collected after this collection had the given size, to be used if the creation of these
+	 * resources was rolled back to a savepoint.
+	 *
+	 * @param size
+	 *            <code>&gt;= 0</code>
+	 */
+	void truncate(int size);
+
+	/**
+	 * Updates <code>read_access</code> entries of all collected resources and removes them from this collection, all
+	 * resources are removed if the update fails.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, connection used to create the collected resources
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	void execute(Connection connection) throws SQLException;
+
+	/**
+	 * Removes all collected resources without updating <code>read_access</code> entries, to be used if the transaction
+	 * creating the resources was rolled back.
+	 */
+	void clear();
+}
@@ -1,5 +1,6 @@
 package dev.dsf.fhir.dao;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.UUID;
@@ -8,12 +9,25 @@ import org.hl7.fhir.r4.model.Resource;
 
 import dev.dsf.fhir.history.AtParameter;
 import dev.dsf.fhir.history.History;
+import dev.dsf.fhir.history.HistoryEntry;
 import dev.dsf.fhir.history.SinceParameter;
 import dev.dsf.fhir.history.filter.HistoryIdentityFilter;
 import dev.dsf.fhir.search.PageAndCount;
 
 public interface HistoryDao
 {
+	@FunctionalInterface
+	interface HistoryEntryConsumer
+	{
+		/**
+		 * @param entry
+		 *            not <code>null</code>
+		 * @throws IOException
+		 *             if the entry could not be written, aborts reading the history
+		 */
+		void accept(HistoryEntry entry) throws IOException;
+	}
+
 	History readHistory(List<HistoryIdentityFilter> filters, PageAndCount pageAndCount, List<AtParameter> atParameters,
 			SinceParameter sinceParameter) throws SQLException;
 
@@ -22,4 +36,41 @@ public interface HistoryDao
 
 	History readHistory(HistoryIdentityFilter filter, PageAndCount pageAndCount, List<AtParameter> atParameters,
 			SinceParameter sinceParameter, Class<? extends Resource> resource, UUID id) throws SQLException;
+
+	/**
+	 * Reads the history with a database cursor, entries are passed to the given consumer while they are read from the
+	 * database and are not held in memory.
+	 *
+	 * @param filters
+	 *            not <code>null</code>
+	 * @param pageAndCount
+	 *            not <code>null</code>
+	 * @param atParameters
+	 *            not <code>null</code>
+	 * @param sinceParameter
+	 *            not <code>null</code>
+	 * @param consumer
+	 *            not <code>null</code>
+	 * @return {@link History} with total and next cursor of the page, without entries
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the consumer could not write an entry
+	 */
+	History readHistory(List<HistoryIdentityFilter> filters, PageAndCount pageAndCount, List<AtParameter> atParameters,
+			SinceParameter sinceParameter, HistoryEntryConsumer consumer) throws SQLException, IOException;
+
+	/**
+	 * @see #readHistory(List, PageAndCount, List, SinceParameter, HistoryEntryConsumer)
+	 */
+	History readHistory(HistoryIdentityFilter filter, PageAndCount pageAndCount, List<AtParameter> atParameters,
+			SinceParameter sinceParameter, Class<? extends Resource> resource, HistoryEntryConsumer consumer)
+			throws SQLException, IOException;
+
+	/**
+	 * @see #readHistory(List, PageAndCount, List, SinceParameter, HistoryEntryConsumer)
+	 */
+	History readHistory(HistoryIdentityFilter filter, PageAndCount pageAndCount, List<AtParameter> atParameters,
+			SinceParameter sinceParameter, Class<? extends Resource> resource, UUID id, HistoryEntryConsumer consumer)
+			throws SQLException, IOException;
 }
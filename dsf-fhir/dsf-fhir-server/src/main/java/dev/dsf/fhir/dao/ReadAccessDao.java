@@ -24,4 +24,54 @@ public interface ReadAccessDao
 	 */
 	List<String> getAccessTypes(Connection connection, UUID resourceId, long version, boolean localIdentity,
 			UUID organizationId) throws SQLException;
+
+	/**
+	 * Set based variant of {@link #getAccessTypes(Connection, UUID, long, boolean, UUID)} for multiple resources, uses
+	 * one query.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resourceIds
+	 *            not <code>null</code>
+	 * @param versions
+	 *            not <code>null</code>, same size as resourceIds, values <code>&gt; 0</code>
+	 * @param localIdentity
+	 *            <code>true</code> if query for local identity
+	 * @param organizationId
+	 *            not <code>null</code>
+	 * @return Distinct lists of access types found for the given parameters in order of the given resources, empty list
+	 *         means no read access
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	List<List<String>> getAccessTypes(Connection connection, List<UUID> resourceIds, List<Long> versions,
+			boolean localIdentity, UUID organizationId) throws SQLException;
+
+	/**
+	 * Set based variant of {@link #getAccessTypes(Connection, UUID, long, boolean, UUID)} for multiple organizations,
+	 * uses one query.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resourceId
+	 *            not <code>null</code>
+	 * @param version
+	 *            <code>&gt; 0</code>
+	 * @param localIdentity
+	 *            <code>true</code> if query for local identities
+	 * @param organizationIds
+	 *            not <code>null</code>
+	 * @return Distinct lists of access types found for the given parameters in order of the given organizations, empty
+	 *         list means no read access
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	List<List<String>> getAccessTypes(Connection connection, UUID resourceId, long version, boolean localIdentity,
+			List<UUID> organizationIds) throws SQLException;
+
+	/**
+	 * @return new empty collection for deferred <code>read_access</code> maintenance of resources created within one
+	 *         transaction
+	 */
+	DeferredReadAccessUpdates createDeferredUpdates();
 }
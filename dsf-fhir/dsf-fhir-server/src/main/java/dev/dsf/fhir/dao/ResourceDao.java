@@ -1,11 +1,16 @@
 package dev.dsf.fhir.dao;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
+import javax.sql.DataSource;
+
 import org.hl7.fhir.r4.model.Resource;
 
 import dev.dsf.common.auth.conf.Identity;
@@ -13,12 +18,93 @@ import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceNotFoundException;
 import dev.dsf.fhir.dao.exception.ResourceNotMarkedDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
+import dev.dsf.fhir.history.SinceParameter;
 import dev.dsf.fhir.search.DbSearchQuery;
 import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.SearchQuery;
 
 public interface ResourceDao<R extends Resource>
 {
+	@FunctionalInterface
+	interface ExportJson
+	{
+		/**
+		 * Writes the single line JSON representation of a resource, large values may be read from the database while
+		 * writing.
+		 *
+		 * @param writer
+		 *            not <code>null</code>
+		 * @throws IOException
+		 *             if the JSON could not be read or written
+		 */
+		void writeTo(Writer writer) throws IOException;
+
+		/**
+		 * @param json
+		 *            not <code>null</code>, single line JSON representation of a resource
+		 * @return export JSON writing the given string
+		 */
+		static ExportJson of(String json)
+		{
+			Objects.requireNonNull(json, "json");
+
+			return writer -> writer.write(json);
+		}
+	}
+
+	@FunctionalInterface
+	interface ExportConsumer
+	{
+		/**
+		 * @param json
+		 *            not <code>null</code>, valid only while this method is executed
+		 * @throws IOException
+		 *             if the JSON could not be written, aborts the export
+		 */
+		void accept(ExportJson json) throws IOException;
+	}
+
+	@FunctionalInterface
+	interface SearchMatchConsumer<R extends Resource>
+	{
+		/**
+		 * @param match
+		 *            not <code>null</code>
+		 * @throws IOException
+		 *             if the match could not be written, aborts the search
+		 */
+		void accept(R match) throws IOException;
+	}
+
+	/**
+	 * Search opened by {@link ResourceDao#openSearch(DbSearchQuery)}, holds a database connection until closed.
+	 */
+	interface SearchMatches<R extends Resource> extends AutoCloseable
+	{
+		/**
+		 * Passes matches to the given consumer while they are read from the database. Called once.
+		 *
+		 * @param consumer
+		 *            not <code>null</code>
+		 * @return {@link PartialResult} with total, include resources and next cursor of the page, without matches
+		 * @throws SQLException
+		 *             if database access errors occur, the database connection is aborted on close
+		 * @throws IOException
+		 *             if the consumer could not write a match, the database connection is aborted on close
+		 */
+		PartialResult<R> read(SearchMatchConsumer<R> consumer) throws SQLException, IOException;
+
+		/**
+		 * Rolls back the read only transaction and releases the database connection, aborts the connection if reading
+		 * matches failed.
+		 *
+		 * @throws SQLException
+		 *             if database access errors occur
+		 */
+		@Override
+		void close() throws SQLException;
+	}
+
 	int FIRST_VERSION = 1;
 	String FIRST_VERSION_STRING = String.valueOf(FIRST_VERSION);
 
@@ -63,6 +149,58 @@ public interface ResourceDao<R extends Resource>
 	 */
 	R createWithTransactionAndId(Connection connection, R resource, UUID uuid) throws SQLException;
 
+	/**
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param readAccessUpdates
+	 *            may be <code>null</code>, <code>read_access</code> maintenance is added to the given collection if
+	 *            possible instead of being executed immediately
+	 * @return the stored resource, not the same object as the given resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IllegalArgumentException
+	 *             if the given connection is {@link Connection#isReadOnly()}
+	 * @see DeferredReadAccessUpdates
+	 */
+	R createWithTransactionAndId(Connection connection, R resource, UUID uuid,
+			DeferredReadAccessUpdates readAccessUpdates) throws SQLException;
+
+	/**
+	 * @param readAccessUpdates
+	 *            may be <code>null</code>, <code>read_access</code> maintenance of resources inserted by the returned
+	 *            collection is added to the given collection if possible instead of being executed immediately
+	 * @return new empty collection for deferred INSERTs of resources created within one transaction
+	 * @see #createWithTransactionAndId(Connection, Resource, UUID, DeferredInserts)
+	 */
+	DeferredInserts<R> createDeferredInserts(DeferredReadAccessUpdates readAccessUpdates);
+
+	/**
+	 * Sets id, version and last updated of the created resource, the INSERT is added to the given collection and
+	 * executed by {@link DeferredInserts#execute(Connection)}.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param inserts
+	 *            not <code>null</code>, created by {@link #createDeferredInserts(DeferredReadAccessUpdates)} of this
+	 *            dao
+	 * @return the resource to be stored, not the same object as the given resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IllegalArgumentException
+	 *             if the given connection is {@link Connection#isReadOnly()} or the given collection was not created by
+	 *             this dao
+	 */
+	R createWithTransactionAndId(Connection connection, R resource, UUID uuid, DeferredInserts<R> inserts)
+			throws SQLException;
+
 	/**
 	 * @param uuid
 	 *            may be <code>null</code>
@@ -355,10 +493,71 @@ public interface ResourceDao<R extends Resource>
 	 */
 	PartialResult<R> searchWithTransaction(Connection connection, DbSearchQuery query) throws SQLException;
 
+	/**
+	 * @param dataSource
+	 *            may be <code>null</code>, connections used by {@link #openSearch(DbSearchQuery)}, search streaming
+	 *            disabled if <code>null</code>
+	 */
+	void setSearchStreamingDataSource(DataSource dataSource);
+
+	/**
+	 * @param query
+	 *            not <code>null</code>
+	 * @return <code>true</code> if matches of the given query can be read with {@link #openSearch(DbSearchQuery)}
+	 */
+	boolean isSearchStreamingSupported(DbSearchQuery query);
+
+	/**
+	 * Executes the count and search statements of the given query with a connection of the search streaming data source
+	 * and fetches the first rows of the result with a database cursor. Remaining matches are read by
+	 * {@link SearchMatches#read(SearchMatchConsumer)} while they are written and are not held in memory. Include
+	 * resources are returned with the result.
+	 *
+	 * @param query
+	 *            not <code>null</code>, {@link #isSearchStreamingSupported(DbSearchQuery)} must be <code>true</code>
+	 * @return opened search, {@link Optional#empty()} if all connections of the search streaming data source are in use
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IllegalArgumentException
+	 *             if streaming is not supported for the given query
+	 */
+	Optional<SearchMatches<R>> openSearch(DbSearchQuery query) throws SQLException;
+
 	SearchQuery<R> createSearchQuery(Identity identity, int page, int count);
 
 	SearchQuery<R> createSearchQueryWithoutUserFilter(int page, int count);
 
+	/**
+	 * Streams the JSON of all current, not deleted resources readable by the given identity to the given consumer,
+	 * resources are fetched from the database in chunks.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param since
+	 *            may be <code>null</code>, only resources with last updated after or equal to the given parameter are
+	 *            exported if defined
+	 * @param consumer
+	 *            not <code>null</code>
+	 * @return number of exported resources
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IOException
+	 *             if the consumer throws an {@link IOException}
+	 */
+	long export(Identity identity, SinceParameter since, ExportConsumer consumer) throws SQLException, IOException;
+
+	/**
+	 * Removes all cached versions of the resource with the given <b>uuid</b>. The methods
+	 * {@link #updateWithTransaction(Connection, Resource, Long)}, {@link #deleteWithTransaction(Connection, UUID)} and
+	 * {@link #deletePermanentlyWithTransaction(Connection, UUID)} do not modify the cache, callers have to invoke this
+	 * method after the DB transaction was committed. Until the commit concurrent reads still see the unmodified
+	 * resource and may add it to the cache.
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 */
+	void invalidateCache(UUID uuid);
+
 	/**
 	 * Permanently delete a resource that was previously marked as deleted.
 	 *
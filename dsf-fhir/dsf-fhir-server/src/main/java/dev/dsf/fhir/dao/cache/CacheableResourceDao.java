@@ -0,0 +1,23 @@
+package dev.dsf.fhir.dao.cache;
+
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import dev.dsf.fhir.dao.ResourceDao;
+
+/**
+ * {@link ResourceDao} able to answer {@link ResourceDao#read(UUID)} and {@link ResourceDao#readVersion(UUID, long)}
+ * from a {@link ResourceCache}. Reads with a given connection are not cached.
+ *
+ * @param <R>
+ *            resource type
+ */
+public interface CacheableResourceDao<R extends Resource> extends ResourceDao<R>
+{
+	/**
+	 * @param resourceCache
+	 *            may be <code>null</code> to disable caching
+	 */
+	void setResourceCache(ResourceCache<R> resourceCache);
+}
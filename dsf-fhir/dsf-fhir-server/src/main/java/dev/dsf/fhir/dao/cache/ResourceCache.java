@@ -0,0 +1,279 @@
+package dev.dsf.fhir.dao.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+
+/**
+ * Bounded LRU cache for parsed resources keyed by id and version. The cache does not copy resources, callers are
+ * expected to put and take defensive copies.
+ * <p>
+ * Entries of a resource are invalidated by create, update and delete events for the resource. Values read from the
+ * database are only added if no invalidation happened since the read started, see {@link #getGeneration()}.
+ *
+ * @param <R>
+ *            resource type
+ */
+public class ResourceCache<R extends Resource> implements EventHandler
+{
+	private static final Logger logger = LoggerFactory.getLogger(ResourceCache.class);
+
+	private static final class Key
+	{
+		final UUID id;
+		final long version;
+
+		Key(UUID id, long version)
+		{
+			this.id = id;
+			this.version = version;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(id, version);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return Objects.equals(id, other.id) && version == other.version;
+		}
+	}
+
+	private final Class<R> resourceType;
+	private final int maxSize;
+
+	private final Map<Key, R> entries;
+	private final Map<UUID, Long> latestVersions = new HashMap<>();
+	private long generation;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @param maxSize
+	 *            <code>&gt; 0</code>
+	 */
+	public ResourceCache(Class<R> resourceType, int maxSize)
+	{
+		this.resourceType = Objects.requireNonNull(resourceType, "resourceType");
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize <= 0");
+		this.maxSize = maxSize;
+
+		entries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, R> eldest)
+			{
+				if (size() > ResourceCache.this.maxSize)
+				{
+					latestVersions.remove(eldest.getKey().id, eldest.getKey().version);
+					evictions.increment();
+					return true;
+				}
+				else
+					return false;
+			}
+		};
+	}
+
+	public Class<R> getResourceType()
+	{
+		return resourceType;
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * @param id
+	 *            may be <code>null</code>
+	 * @return cached latest version, <code>null</code> if not cached
+	 */
+	public synchronized R getLatest(UUID id)
+	{
+		Long version = id == null ? null : latestVersions.get(id);
+		return count(version == null ? null : entries.get(new Key(id, version)));
+	}
+
+	/**
+	 * @param id
+	 *            may be <code>null</code>
+	 * @param version
+	 *            resource version
+	 * @return cached version, <code>null</code> if not cached
+	 */
+	public synchronized R get(UUID id, long version)
+	{
+		return count(id == null ? null : entries.get(new Key(id, version)));
+	}
+
+	private R count(R resource)
+	{
+		if (resource == null)
+			misses.increment();
+		else
+			hits.increment();
+
+		return resource;
+	}
+
+	/**
+	 * @return current generation, to be used with {@link #putLatest(UUID, Resource, long)} and
+	 *         {@link #put(UUID, Resource, long)}
+	 */
+	public synchronized long getGeneration()
+	{
+		return generation;
+	}
+
+	/**
+	 * Adds the given resource as the latest version, ignored if an invalidation happened after the given generation was
+	 * retrieved.
+	 *
+	 * @param id
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>, latest version of the resource read from the database
+	 * @param generation
+	 *            value of {@link #getGeneration()} before the resource was read from the database
+	 */
+	public synchronized void putLatest(UUID id, R resource, long generation)
+	{
+		if (put(id, resource, generation))
+			latestVersions.put(id, resource.getIdElement().getVersionIdPartAsLong());
+	}
+
+	/**
+	 * Adds the given resource version, ignored if an invalidation happened after the given generation was retrieved.
+	 *
+	 * @param id
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>, version of the resource read from the database
+	 * @param generation
+	 *            value of {@link #getGeneration()} before the resource was read from the database
+	 * @return <code>true</code> if added
+	 */
+	public synchronized boolean put(UUID id, R resource, long generation)
+	{
+		Objects.requireNonNull(id, "id");
+		Objects.requireNonNull(resource, "resource");
+
+		if (this.generation != generation || !resource.getIdElement().hasVersionIdPart())
+			return false;
+
+		entries.put(new Key(id, resource.getIdElement().getVersionIdPartAsLong()), resource);
+		return true;
+	}
+
+	/**
+	 * Removes all versions of the given resource
+	 *
+	 * @param id
+	 *            may be <code>null</code>
+	 */
+	public synchronized void invalidate(UUID id)
+	{
+		generation++;
+
+		if (id == null)
+			return;
+
+		invalidations.increment();
+		latestVersions.remove(id);
+
+		for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext();)
+		{
+			if (id.equals(it.next().id))
+				it.remove();
+		}
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null || !resourceType.equals(event.getResourceType()))
+			return;
+
+		logger.trace("Invalidating {} with IdPart {}", resourceType.getSimpleName(), event.getId());
+
+		try
+		{
+			invalidate(UUID.fromString(event.getId()));
+		}
+		catch (IllegalArgumentException e)
+		{
+			logger.debug("Event for {} with non UUID IdPart {}, invalidating cache", resourceType.getSimpleName(),
+					event.getId());
+			clear();
+		}
+	}
+
+	public synchronized void clear()
+	{
+		generation++;
+		entries.clear();
+		latestVersions.clear();
+	}
+
+	public synchronized int getSize()
+	{
+		return entries.size();
+	}
+
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+
+	public long getInvalidationCount()
+	{
+		return invalidations.sum();
+	}
+
+	@Override
+	public String toString()
+	{
+		return resourceType.getSimpleName() + " [size: " + getSize() + "/" + maxSize + ", hits: " + getHitCount()
+				+ ", misses: " + getMissCount() + ", evictions: " + getEvictionCount() + ", invalidations: "
+				+ getInvalidationCount() + "]";
+	}
+}
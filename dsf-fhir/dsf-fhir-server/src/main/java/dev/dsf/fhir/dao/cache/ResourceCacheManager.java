@@ -0,0 +1,111 @@
+package dev.dsf.fhir.dao.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+
+/**
+ * Creates {@link ResourceCache}s for {@link CacheableResourceDao}s with a configured maximum size per resource type and
+ * forwards events to all created caches.
+ */
+public class ResourceCacheManager implements EventHandler, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ResourceCacheManager.class);
+
+	private final Map<String, Integer> maxSizesByResourceType = new HashMap<>();
+	private final List<ResourceCache<?>> caches = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * @param maxSizes
+	 *            may be <code>null</code>, entries in the form <code>ResourceType:maxSize</code>, for example
+	 *            <code>Organization:500</code>
+	 * @throws IllegalArgumentException
+	 *             if an entry is not valid
+	 */
+	public ResourceCacheManager(List<String> maxSizes)
+	{
+		if (maxSizes != null)
+			maxSizes.stream().filter(s -> s != null && !s.isBlank()).map(String::trim).forEach(this::addMaxSize);
+	}
+
+	private void addMaxSize(String entry)
+	{
+		String[] typeAndSize = entry.split(":");
+		if (typeAndSize.length != 2 || typeAndSize[0].isBlank())
+			throw new IllegalArgumentException("Resource cache size '" + entry + "' not valid, expected 'Type:size'");
+
+		try
+		{
+			maxSizesByResourceType.put(typeAndSize[0].trim(), Integer.parseInt(typeAndSize[1].trim()));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Resource cache size '" + entry + "' not valid, expected 'Type:size'",
+					e);
+		}
+	}
+
+	/**
+	 * Configures a {@link ResourceCache} for the given dao if a maximum size <code>&gt; 0</code> is configured for the
+	 * dao's resource type. {@link Binary} resources are not cached.
+	 *
+	 * @param <R>
+	 *            resource type
+	 * @param <D>
+	 *            dao type
+	 * @param dao
+	 *            not <code>null</code>
+	 * @return the given dao
+	 */
+	public <R extends Resource, D extends CacheableResourceDao<R>> D configure(D dao)
+	{
+		Objects.requireNonNull(dao, "dao");
+
+		int maxSize = maxSizesByResourceType.getOrDefault(dao.getResourceTypeName(), 0);
+		if (maxSize > 0 && !Binary.class.equals(dao.getResourceType()))
+		{
+			ResourceCache<R> cache = new ResourceCache<>(dao.getResourceType(), maxSize);
+			dao.setResourceCache(cache);
+			caches.add(cache);
+
+			logger.info("Resource cache for {} enabled, max size {}", dao.getResourceTypeName(), maxSize);
+		}
+
+		return dao;
+	}
+
+	/**
+	 * @return created caches, for statistics
+	 */
+	public List<ResourceCache<?>> getCaches()
+	{
+		synchronized (caches)
+		{
+			return List.copyOf(caches);
+		}
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		getCaches().forEach(c -> c.handleEvent(event));
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		getCaches().forEach(c -> logger.info("Resource cache statistics: {}", c));
+	}
+}
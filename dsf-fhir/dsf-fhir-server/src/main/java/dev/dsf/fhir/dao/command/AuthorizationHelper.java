@@ -11,6 +11,14 @@ public interface AuthorizationHelper
 {
 	void checkCreateAllowed(int index, Connection connection, Identity identity, Resource newResource);
 
+	/**
+	 * @param newResource
+	 *            not <code>null</code>
+	 * @return <code>true</code> if the create check of the given resource reads stored resources of the same type or no
+	 *         authorization rule exists for the resource type
+	 */
+	boolean isCreateCheckDependentOnStoredResources(Resource newResource);
+
 	void checkReadAllowed(int index, Connection connection, Identity identity, Resource existingResource);
 
 	void checkUpdateAllowed(int index, Connection connection, Identity identity, Resource oldResource,
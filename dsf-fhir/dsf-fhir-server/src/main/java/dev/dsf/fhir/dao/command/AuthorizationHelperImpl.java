@@ -1,8 +1,13 @@
 package dev.dsf.fhir.dao.command;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.hl7.fhir.r4.model.Bundle;
@@ -70,6 +75,13 @@ public class AuthorizationHelperImpl implements AuthorizationHelper
 		});
 	}
 
+	@Override
+	public boolean isCreateCheckDependentOnStoredResources(Resource newResource)
+	{
+		return getAuthorizationRule(newResource.getClass())
+				.map(AuthorizationRule::isCreateCheckDependentOnStoredResources).orElse(true);
+	}
+
 	private String getResourceTypeName(Resource resource)
 	{
 		return resource.getResourceType().name();
@@ -158,32 +170,49 @@ public class AuthorizationHelperImpl implements AuthorizationHelper
 	@Override
 	public void filterIncludeResults(int index, Connection connection, Identity identity, Bundle multipleResult)
 	{
+		// read access evaluated per resource type using the given connection
+		Set<Resource> allowed = Collections.newSetFromMap(new IdentityHashMap<>());
+		multipleResult.getEntry().stream().filter(c -> SearchEntryMode.INCLUDE.equals(c.getSearch().getMode()))
+				.map(BundleEntryComponent::getResource)
+				.collect(Collectors.groupingBy(Resource::getClass, LinkedHashMap::new, Collectors.toList()))
+				.forEach((type, includes) -> allowed
+						.addAll(filterIncludeResources(index, connection, identity, type, includes)));
+
 		List<BundleEntryComponent> filteredEntries = multipleResult.getEntry().stream()
 				.filter(c -> SearchEntryMode.MATCH.equals(c.getSearch().getMode())
 						|| (SearchEntryMode.INCLUDE.equals(c.getSearch().getMode())
-								&& filterIncludeResource(index, identity, c.getResource())))
+								&& allowed.contains(c.getResource())))
 				.collect(Collectors.toList());
 		multipleResult.setEntry(filteredEntries);
 	}
 
-	private boolean filterIncludeResource(int index, Identity identity, Resource include)
+	private List<Resource> filterIncludeResources(int index, Connection connection, Identity identity,
+			Class<? extends Resource> type, List<Resource> includes)
 	{
-		final String resourceTypeName = getResourceTypeName(include);
-		final String resourceId = include.getIdElement().getIdPart();
-		final long resourceVersion = include.getIdElement().getVersionIdPartAsLong();
+		List<Optional<String>> reasons = getAuthorizationRule(type)
+				.map(rule -> rule.reasonsReadAllowed(connection, identity, includes))
+				.orElseGet(() -> Collections.nCopies(includes.size(), Optional.empty()));
 
-		Optional<AuthorizationRule<Resource>> optRule = getAuthorizationRule(include.getClass());
-		return optRule.flatMap(rule -> rule.reasonReadAllowed(identity, include)).map(reason ->
-		{
-			logger.debug("Inclusion of {}/{}/_history/{} allowed for identity '{}' via bundle at index {}: {}",
-					resourceTypeName, resourceId, resourceVersion, identity.getName(), index, reason);
-			return true;
-		}).orElseGet(() ->
+		List<Resource> allowed = new ArrayList<>();
+		for (int i = 0; i < includes.size(); i++)
 		{
-			logger.debug(
-					"Inclusion of {}/{}/_history/{} denied for identity '{} via bundle at index {}: read not allowed",
-					resourceTypeName, resourceId, resourceVersion, identity.getName(), index);
-			return false;
-		});
+			final Resource include = includes.get(i);
+			final String resourceTypeName = getResourceTypeName(include);
+			final String resourceId = include.getIdElement().getIdPart();
+			final long resourceVersion = include.getIdElement().getVersionIdPartAsLong();
+
+			if (reasons.get(i).isPresent())
+			{
+				logger.debug("Inclusion of {}/{}/_history/{} allowed for identity '{}' via bundle at index {}: {}",
+						resourceTypeName, resourceId, resourceVersion, identity.getName(), index, reasons.get(i).get());
+				allowed.add(include);
+			}
+			else
+				logger.debug(
+						"Inclusion of {}/{}/_history/{} denied for identity '{} via bundle at index {}: read not allowed",
+						resourceTypeName, resourceId, resourceVersion, identity.getName(), index);
+		}
+
+		return allowed;
 	}
 }
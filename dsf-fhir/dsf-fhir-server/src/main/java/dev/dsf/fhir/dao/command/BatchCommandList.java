@@ -2,12 +2,19 @@ package dev.dsf.fhir.dao.command;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import javax.sql.DataSource;
@@ -19,6 +26,8 @@ import org.hl7.fhir.r4.model.IdType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.dsf.fhir.dao.ReadAccessDao;
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
 import dev.dsf.fhir.event.EventHandler;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.validation.SnapshotGenerator;
@@ -31,15 +40,38 @@ public class BatchCommandList extends AbstractCommandList implements CommandList
 	private final ValidationHelper validationHelper;
 	private final SnapshotGenerator snapshotGenerator;
 	private final EventHandler eventHandler;
+	private final ExecutorService readExecutor;
+	private final int readParallelism;
+	private final ReadAccessDao readAccessDao;
 
 	public BatchCommandList(DataSource dataSource, ExceptionHandler exceptionHandler, List<? extends Command> commands,
 			ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator, EventHandler eventHandler)
+	{
+		this(dataSource, exceptionHandler, commands, validationHelper, snapshotGenerator, eventHandler, null, 1, null);
+	}
+
+	/**
+	 * @param readExecutor
+	 *            may be <code>null</code>, executor for parallel execution of {@link ReadCommand}s
+	 * @param readParallelism
+	 *            maximum number of {@link ReadCommand}s executed in parallel, <code>1</code> or no executor to execute
+	 *            all commands sequentially
+	 * @param readAccessDao
+	 *            may be <code>null</code>, used to execute consecutive {@link CreateCommand}s within one DB transaction
+	 *            with one set based <code>read_access</code> update
+	 */
+	public BatchCommandList(DataSource dataSource, ExceptionHandler exceptionHandler, List<? extends Command> commands,
+			ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator, EventHandler eventHandler,
+			ExecutorService readExecutor, int readParallelism, ReadAccessDao readAccessDao)
 	{
 		super(dataSource, exceptionHandler, commands);
 
 		this.validationHelper = validationHelper;
 		this.snapshotGenerator = snapshotGenerator;
 		this.eventHandler = eventHandler;
+		this.readExecutor = readExecutor;
+		this.readParallelism = readParallelism;
+		this.readAccessDao = readAccessDao;
 	}
 
 	@Override
@@ -55,7 +87,7 @@ public class BatchCommandList extends AbstractCommandList implements CommandList
 					initialReadOnly, initialAutoCommit,
 					getTransactionIsolationLevelString(initialTransactionIsolationLevel));
 
-			Map<Integer, Exception> caughtExceptions = new HashMap<>((int) (commands.size() / 0.75) + 1);
+			Map<Integer, Exception> caughtExceptions = new ConcurrentHashMap<>((int) (commands.size() / 0.75) + 1);
 			Map<String, IdType> idTranslationTable = new HashMap<>();
 
 			if (hasModifyingCommands)
@@ -71,7 +103,7 @@ public class BatchCommandList extends AbstractCommandList implements CommandList
 
 			commands.forEach(preExecute(idTranslationTable, connection, caughtExceptions));
 
-			commands.forEach(execute(idTranslationTable, connection, caughtExceptions));
+			executeCommands(idTranslationTable, connection, caughtExceptions);
 
 			if (hasModifyingCommands)
 			{
@@ -157,6 +189,277 @@ public class BatchCommandList extends AbstractCommandList implements CommandList
 		};
 	}
 
+	/**
+	 * Modifying commands are executed sequentially. Consecutive {@link ReadCommand}s between modifying commands are
+	 * executed in parallel if enabled, they do not depend on each other and see all changes of previous modifying
+	 * commands. Consecutive {@link CreateCommand}s are executed within one DB transaction if enabled, see
+	 * {@link #executeCreateCommand(CreateCommand, Map, Connection, Map, DeferredCreates, List)}.
+	 */
+	private void executeCommands(Map<String, IdType> idTranslationTable, Connection connection,
+			Map<Integer, Exception> caughtExceptions) throws InterruptedException
+	{
+		List<Command> readCommands = new ArrayList<>();
+		List<Command> createCommands = new ArrayList<>();
+		DeferredCreates deferredCreates = hasModifyingCommands && readAccessDao != null
+				? new DeferredCreates(readAccessDao.createDeferredUpdates())
+				: null;
+
+		for (Command command : commands)
+		{
+			if (readExecutor != null && readParallelism > 1 && command instanceof ReadCommand)
+			{
+				commitCreateCommands(createCommands, connection, caughtExceptions, deferredCreates);
+				readCommands.add(command);
+			}
+			else
+			{
+				executeReadCommands(readCommands, idTranslationTable, connection, caughtExceptions);
+				readCommands.clear();
+
+				if (deferredCreates != null && command instanceof CreateCommand<?, ?> create)
+					executeCreateCommand(create, idTranslationTable, connection, caughtExceptions, deferredCreates,
+							createCommands);
+				else
+				{
+					commitCreateCommands(createCommands, connection, caughtExceptions, deferredCreates);
+					execute(idTranslationTable, connection, caughtExceptions).accept(command);
+				}
+			}
+		}
+
+		commitCreateCommands(createCommands, connection, caughtExceptions, deferredCreates);
+		executeReadCommands(readCommands, idTranslationTable, connection, caughtExceptions);
+	}
+
+	/**
+	 * Executes the given command within the DB transaction of previous consecutive {@link CreateCommand}s, the
+	 * <code>read_access</code> maintenance and if possible the INSERT of the created resource are deferred. A failing
+	 * command is rolled back to a savepoint taken before the command, errors are reported for the failing entry only.
+	 * Failed INSERTs of deferred resources are reported for the entry of the resource.
+	 */
+	private void executeCreateCommand(CreateCommand<?, ?> command, Map<String, IdType> idTranslationTable,
+			Connection connection, Map<Integer, Exception> caughtExceptions, DeferredCreates deferredCreates,
+			List<Command> createCommands)
+	{
+		if (caughtExceptions.containsKey(command.getIndex()))
+		{
+			logger.info("Skipping execute of command {} for entry at index {}, caught exception {}",
+					command.getClass().getName(), command.getIndex(),
+					caughtExceptions.get(command.getIndex()).getClass().getName() + ": "
+							+ caughtExceptions.get(command.getIndex()).getMessage());
+			return;
+		}
+
+		try
+		{
+			deferredCreates.prepare(command, connection, failedInsertHandler(createCommands, caughtExceptions));
+		}
+		catch (SQLException e)
+		{
+			handleDeferredCreatesError(createCommands, connection, caughtExceptions, deferredCreates, e);
+		}
+
+		int collectedReadAccessUpdates = deferredCreates.readAccessUpdatesSize();
+		int collectedInserts = deferredCreates.insertsSize();
+		Savepoint savepoint = null;
+		try
+		{
+			savepoint = connection.setSavepoint();
+
+			logger.debug("Running execute of command {} for entry at index {}", command.getClass().getName(),
+					command.getIndex());
+			command.execute(idTranslationTable, connection, validationHelper, snapshotGenerator);
+
+			connection.releaseSavepoint(savepoint);
+			createCommands.add(command);
+			deferredCreates.executed(command);
+		}
+		catch (Exception e)
+		{
+			logger.debug("Error while executing command {}, rolling back to savepoint for entry at index {}",
+					command.getClass().getName(), command.getIndex(), e);
+			logger.warn("Error while executing command {}, rolling back to savepoint for entry at index {}: {} - {}",
+					command.getClass().getName(), command.getIndex(), e.getClass().getName(), e.getMessage());
+
+			caughtExceptions.put(command.getIndex(), e);
+			deferredCreates.truncate(collectedReadAccessUpdates, collectedInserts);
+
+			if (savepoint == null)
+				return;
+
+			try
+			{
+				connection.rollback(savepoint);
+			}
+			catch (SQLException e1)
+			{
+				logger.debug(
+						"Error while executing command {}, error while rolling back to savepoint for entry at index {}",
+						command.getClass().getName(), command.getIndex(), e1);
+				logger.warn(
+						"Error while executing command {}, error while rolling back to savepoint for entry at index {}: {} - {}",
+						command.getClass().getName(), command.getIndex(), e1.getClass().getName(), e1.getMessage());
+
+				caughtExceptions.put(command.getIndex(), e1);
+			}
+		}
+	}
+
+	/**
+	 * Executes deferred INSERTs and <code>read_access</code> maintenance and commits the DB transaction of the given
+	 * consecutive {@link CreateCommand}s.
+	 */
+	private void commitCreateCommands(List<Command> createCommands, Connection connection,
+			Map<Integer, Exception> caughtExceptions, DeferredCreates deferredCreates)
+	{
+		if (deferredCreates == null || createCommands.isEmpty())
+			return;
+
+		if (executeDeferredCreates(createCommands, connection, caughtExceptions, deferredCreates))
+		{
+			try
+			{
+				connection.commit();
+				createCommands.forEach(Command::postCommit);
+			}
+			catch (SQLException e)
+			{
+				logger.debug("Error while committing transaction of {} create commands", createCommands.size(), e);
+				logger.warn("Error while committing transaction of {} create commands: {} - {}", createCommands.size(),
+						e.getClass().getName(), e.getMessage());
+
+				createCommands.forEach(c -> caughtExceptions.put(c.getIndex(), e));
+				rollback(createCommands, connection, caughtExceptions);
+			}
+		}
+
+		createCommands.clear();
+	}
+
+	/**
+	 * @return <code>false</code> if the deferred INSERTs or the <code>read_access</code> update failed, the DB
+	 *         transaction of the given {@link CreateCommand}s was rolled back and errors reported for all entries
+	 */
+	private boolean executeDeferredCreates(List<Command> createCommands, Connection connection,
+			Map<Integer, Exception> caughtExceptions, DeferredCreates deferredCreates)
+	{
+		try
+		{
+			deferredCreates.execute(connection, failedInsertHandler(createCommands, caughtExceptions));
+			return true;
+		}
+		catch (SQLException e)
+		{
+			handleDeferredCreatesError(createCommands, connection, caughtExceptions, deferredCreates, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Removes the command of a failed deferred INSERT from the given {@link CreateCommand}s, the error is reported for
+	 * the entry of the command only.
+	 */
+	private BiConsumer<CreateCommand<?, ?>, DeferredInsertException> failedInsertHandler(List<Command> createCommands,
+			Map<Integer, Exception> caughtExceptions)
+	{
+		return (command, e) ->
+		{
+			createCommands.remove(command);
+			caughtExceptions.put(command.getIndex(), e);
+		};
+	}
+
+	private void handleDeferredCreatesError(List<Command> createCommands, Connection connection,
+			Map<Integer, Exception> caughtExceptions, DeferredCreates deferredCreates, SQLException e)
+	{
+		logger.debug("Error while executing deferred creates of {} create commands, rolling back transaction",
+				createCommands.size(), e);
+		logger.warn("Error while executing deferred creates of {} create commands, rolling back transaction: {} - {}",
+				createCommands.size(), e.getClass().getName(), e.getMessage());
+
+		createCommands.forEach(c -> caughtExceptions.put(c.getIndex(), e));
+		rollback(createCommands, connection, caughtExceptions);
+		createCommands.clear();
+		deferredCreates.clear();
+	}
+
+	private void rollback(List<Command> createCommands, Connection connection, Map<Integer, Exception> caughtExceptions)
+	{
+		try
+		{
+			connection.rollback();
+		}
+		catch (SQLException e)
+		{
+			logger.debug("Error while rolling back transaction of {} create commands", createCommands.size(), e);
+			logger.warn("Error while rolling back transaction of {} create commands: {} - {}", createCommands.size(),
+					e.getClass().getName(), e.getMessage());
+
+			createCommands.forEach(c -> caughtExceptions.put(c.getIndex(), e));
+		}
+	}
+
+	/**
+	 * Read commands are executed by the calling thread using the batch connection and by up to
+	 * <code>readParallelism - 1</code> helpers using separate read-only connections. Helpers take commands only after
+	 * obtaining a connection, the calling thread does not wait for helpers waiting for a pooled connection.
+	 */
+	private void executeReadCommands(List<Command> readCommands, Map<String, IdType> idTranslationTable,
+			Connection connection, Map<Integer, Exception> caughtExceptions) throws InterruptedException
+	{
+		if (readCommands.size() <= 1)
+		{
+			readCommands.forEach(execute(idTranslationTable, connection, caughtExceptions));
+			return;
+		}
+
+		AtomicInteger next = new AtomicInteger();
+		CountDownLatch executed = new CountDownLatch(readCommands.size());
+		Consumer<Connection> worker = c ->
+		{
+			Consumer<Command> execute = execute(idTranslationTable, c, caughtExceptions);
+			for (int i = next.getAndIncrement(); i < readCommands.size(); i = next.getAndIncrement())
+			{
+				try
+				{
+					execute.accept(readCommands.get(i));
+				}
+				finally
+				{
+					executed.countDown();
+				}
+			}
+		};
+
+		int helpers = Math.min(readParallelism - 1, readCommands.size() - 1);
+		logger.debug("Executing {} read commands with up to {} additional DB connections", readCommands.size(),
+				helpers);
+
+		for (int h = 0; h < helpers; h++)
+		{
+			readExecutor.execute(() ->
+			{
+				if (next.get() >= readCommands.size())
+					return;
+
+				try (Connection readConnection = dataSource.getConnection())
+				{
+					readConnection.setReadOnly(true);
+					worker.accept(readConnection);
+				}
+				catch (SQLException e)
+				{
+					logger.debug("Error while getting DB connection for parallel read commands", e);
+					logger.warn("Error while getting DB connection for parallel read commands: {} - {}",
+							e.getClass().getName(), e.getMessage());
+				}
+			});
+		}
+
+		worker.accept(connection);
+		executed.await();
+	}
+
 	private Consumer<Command> execute(Map<String, IdType> idTranslationTable, Connection connection,
 			Map<Integer, Exception> caughtExceptions)
 	{
@@ -180,6 +483,9 @@ public class BatchCommandList extends AbstractCommandList implements CommandList
 
 				if (!connection.getAutoCommit())
 					connection.commit();
+
+				if (!caughtExceptions.containsKey(command.getIndex()))
+					command.postCommit();
 			}
 			catch (Exception e)
 			{
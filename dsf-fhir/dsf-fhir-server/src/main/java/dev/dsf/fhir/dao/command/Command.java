@@ -35,6 +35,14 @@ public interface Command
 		return Optional.empty();
 	}
 
+	/**
+	 * Called after the DB transaction of a successfully executed command was committed, used to invalidate cached
+	 * resources modified by the command. Not called if the DB transaction was rolled back.
+	 */
+	default void postCommit()
+	{
+	}
+
 	Identity getIdentity();
 
 	String getResourceTypeName();
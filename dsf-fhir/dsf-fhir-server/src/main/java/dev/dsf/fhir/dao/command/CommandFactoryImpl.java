@@ -4,6 +4,9 @@ import java.sql.Connection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -16,6 +19,9 @@ import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
 import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.StructureDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 import dev.dsf.common.auth.conf.Identity;
@@ -35,8 +41,10 @@ import dev.dsf.fhir.service.ReferenceExtractor;
 import dev.dsf.fhir.service.ReferenceResolver;
 import dev.dsf.fhir.validation.SnapshotGenerator;
 
-public class CommandFactoryImpl implements InitializingBean, CommandFactory
+public class CommandFactoryImpl implements InitializingBean, DisposableBean, CommandFactory
 {
+	private static final Logger logger = LoggerFactory.getLogger(CommandFactoryImpl.class);
+
 	private final String serverBase;
 	private final int defaultPageCount;
 	private final DataSource dataSource;
@@ -53,13 +61,17 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 	private final ValidationHelper validationHelper;
 	private final SnapshotGenerator snapshotGenerator;
 	private final Function<Connection, TransactionResources> transactionResourcesFactory;
+	private final int batchReadParallelism;
+
+	private ExecutorService batchReadExecutor;
 
 	public CommandFactoryImpl(String serverBase, int defaultPageCount, DataSource dataSource, DaoProvider daoProvider,
 			ReferenceExtractor referenceExtractor, ReferenceResolver referenceResolver,
 			ReferenceCleaner referenceCleaner, ResponseGenerator responseGenerator, ExceptionHandler exceptionHandler,
 			ParameterConverter parameterConverter, EventHandler eventHandler, EventGenerator eventGenerator,
 			AuthorizationHelper authorizationHelper, ValidationHelper validationHelper,
-			SnapshotGenerator snapshotGenerator, Function<Connection, TransactionResources> transactionResourcesFactory)
+			SnapshotGenerator snapshotGenerator, Function<Connection, TransactionResources> transactionResourcesFactory,
+			int batchReadParallelism)
 	{
 		this.serverBase = serverBase;
 		this.defaultPageCount = defaultPageCount;
@@ -77,6 +89,7 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 		this.validationHelper = validationHelper;
 		this.snapshotGenerator = snapshotGenerator;
 		this.transactionResourcesFactory = transactionResourcesFactory;
+		this.batchReadParallelism = batchReadParallelism;
 	}
 
 	@Override
@@ -97,6 +110,30 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 		Objects.requireNonNull(validationHelper, "validationHelper");
 		Objects.requireNonNull(snapshotGenerator, "snapshotGenerator");
 		Objects.requireNonNull(transactionResourcesFactory, "transactionResourcesFactory");
+		if (batchReadParallelism <= 0)
+			throw new IllegalArgumentException("batchReadParallelism <= 0");
+
+		// calling threads execute read commands too, executor threads only used for additional DB connections
+		if (batchReadParallelism > 1)
+			batchReadExecutor = Executors.newFixedThreadPool(batchReadParallelism - 1);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		if (batchReadExecutor != null)
+		{
+			batchReadExecutor.shutdown();
+			try
+			{
+				if (!batchReadExecutor.awaitTermination(60, TimeUnit.SECONDS))
+					logger.warn("Batch read executor did not terminate");
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 	// head
@@ -209,11 +246,12 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 
 			return switch (bundle.getType())
 			{
-				case BATCH -> new BatchCommandList(dataSource, exceptionHandler, commands, validationHelper,
-						snapshotGenerator, eventHandler);
+				case BATCH ->
+					new BatchCommandList(dataSource, exceptionHandler, commands, validationHelper, snapshotGenerator,
+							eventHandler, batchReadExecutor, batchReadParallelism, daoProvider.getReadAccessDao());
 
-				case TRANSACTION ->
-					new TransactionCommandList(dataSource, exceptionHandler, commands, transactionResourcesFactory);
+				case TRANSACTION -> new TransactionCommandList(dataSource, exceptionHandler, commands,
+						transactionResourcesFactory, daoProvider.getReadAccessDao());
 
 				default -> throw new BadBundleException("Unsupported bundle type " + bundle.getType());
 			};
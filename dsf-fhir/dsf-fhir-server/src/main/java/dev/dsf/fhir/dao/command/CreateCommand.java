@@ -24,6 +24,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.validation.ValidationResult;
 import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.DeferredInserts;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
 import dev.dsf.fhir.dao.ResourceDao;
 import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceNotFoundException;
@@ -55,6 +57,9 @@ public class CreateCommand<R extends Resource, D extends ResourceDao<R>> extends
 	protected final ReferenceCleaner referenceCleaner;
 	protected final EventGenerator eventGenerator;
 
+	protected DeferredReadAccessUpdates readAccessUpdates;
+	protected DeferredInserts<R> inserts;
+
 	protected R createdResource;
 	protected Response responseResult;
 	protected ValidationResult validationResult;
@@ -151,9 +156,76 @@ public class CreateCommand<R extends Resource, D extends ResourceDao<R>> extends
 		}
 	}
 
+	/**
+	 * @param readAccessUpdates
+	 *            may be <code>null</code>, collection for deferred <code>read_access</code> maintenance of the created
+	 *            resource
+	 */
+	void setReadAccessUpdates(DeferredReadAccessUpdates readAccessUpdates)
+	{
+		this.readAccessUpdates = readAccessUpdates;
+	}
+
+	/**
+	 * @return <code>true</code> if deferred <code>read_access</code> maintenance of previously created resources must
+	 *         be executed before this command, conditional and logical references are resolved via identity filtered
+	 *         searches
+	 */
+	boolean isReadAccessUpdateRequired()
+	{
+		return referencesHelper.hasConditionalOrLogicalReferences();
+	}
+
+	/**
+	 * @return <code>true</code> if the INSERT of the created resource can be deferred until after subsequent creates of
+	 *         the same resource type, <code>false</code> for conditional creates and resource types with create checks
+	 *         reading stored resources of the same type
+	 */
+	protected boolean isInsertDeferrable()
+	{
+		return !entry.getRequest().hasIfNoneExist()
+				&& !authorizationHelper.isCreateCheckDependentOnStoredResources(resource);
+	}
+
+	/**
+	 * @param readAccessUpdates
+	 *            may be <code>null</code>
+	 * @return <code>null</code> if the INSERT of the created resource can not be deferred
+	 * @see #isInsertDeferrable()
+	 */
+	DeferredInserts<R> createDeferredInserts(DeferredReadAccessUpdates readAccessUpdates)
+	{
+		return isInsertDeferrable() ? dao.createDeferredInserts(readAccessUpdates) : null;
+	}
+
+	/**
+	 * @param inserts
+	 *            may be <code>null</code>, collection for the deferred INSERT of the created resource
+	 * @return <code>true</code> if the INSERT of the created resource will be added to the given collection,
+	 *         <code>false</code> if the collection is <code>null</code>, for another resource type or the INSERT can
+	 *         not be deferred
+	 */
+	@SuppressWarnings("unchecked")
+	boolean setDeferredInserts(DeferredInserts<?> inserts)
+	{
+		if (inserts != null && isInsertDeferrable() && inserts.getResourceType().equals(resource.getClass()))
+		{
+			this.inserts = (DeferredInserts<R>) inserts;
+			return true;
+		}
+		else
+		{
+			this.inserts = null;
+			return false;
+		}
+	}
+
 	protected R createWithTransactionAndId(Connection connection, R resource, UUID uuid) throws SQLException
 	{
-		return dao.createWithTransactionAndId(connection, resource, uuid);
+		if (inserts != null)
+			return dao.createWithTransactionAndId(connection, resource, uuid, inserts);
+		else
+			return dao.createWithTransactionAndId(connection, resource, uuid, readAccessUpdates);
 	}
 
 	private UUID getId(Map<String, IdType> idTranslationTable)
@@ -0,0 +1,200 @@
+package dev.dsf.fhir.dao.command;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.dao.DeferredInserts;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
+
+/**
+ * Collects <code>read_access</code> maintenance and INSERTs of consecutive {@link CreateCommand}s executed within one
+ * DB transaction. INSERTs of consecutive creates of the same resource type are executed with one JDBC batch per table.
+ */
+class DeferredCreates
+{
+	private static final Logger logger = LoggerFactory.getLogger(DeferredCreates.class);
+
+	/**
+	 * Thrown if the INSERT of a resource created by a command failed and no handler for failed INSERTs was given.
+	 */
+	static final class FailedInsertException extends SQLException
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final transient CreateCommand<?, ?> command;
+
+		FailedInsertException(CreateCommand<?, ?> command, DeferredInsertException cause)
+		{
+			super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+
+			this.command = command;
+		}
+
+		CreateCommand<?, ?> getCommand()
+		{
+			return command;
+		}
+	}
+
+	private final DeferredReadAccessUpdates readAccessUpdates;
+	private final List<CreateCommand<?, ?>> insertCommands = new ArrayList<>();
+
+	private DeferredInserts<?> inserts;
+
+	/**
+	 * @param readAccessUpdates
+	 *            not <code>null</code>
+	 */
+	DeferredCreates(DeferredReadAccessUpdates readAccessUpdates)
+	{
+		this.readAccessUpdates = Objects.requireNonNull(readAccessUpdates, "readAccessUpdates");
+	}
+
+	/**
+	 * Configures the given command to defer <code>read_access</code> maintenance and if possible the INSERT of the
+	 * created resource. Collected INSERTs are executed if the given command creates a resource of another type or can
+	 * not defer its INSERT, collected INSERTs and <code>read_access</code> maintenance are executed if the command
+	 * resolves references via identity filtered searches.
+	 *
+	 * @param command
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param failedInsertHandler
+	 *            may be <code>null</code>, see {@link #execute(Connection, BiConsumer)}
+	 * @throws SQLException
+	 *             if executing collected INSERTs or <code>read_access</code> maintenance failed
+	 */
+	void prepare(CreateCommand<?, ?> command, Connection connection,
+			BiConsumer<CreateCommand<?, ?>, DeferredInsertException> failedInsertHandler) throws SQLException
+	{
+		if (command.isReadAccessUpdateRequired())
+			execute(connection, failedInsertHandler);
+
+		command.setReadAccessUpdates(readAccessUpdates);
+
+		if (!command.setDeferredInserts(inserts))
+		{
+			executeInserts(connection, failedInsertHandler);
+
+			inserts = command.createDeferredInserts(readAccessUpdates);
+			command.setDeferredInserts(inserts);
+		}
+	}
+
+	/**
+	 * @param command
+	 *            not <code>null</code>, successfully executed command configured via
+	 *            {@link #prepare(CreateCommand, Connection, BiConsumer)}
+	 */
+	void executed(CreateCommand<?, ?> command)
+	{
+		if (inserts != null && inserts.size() > insertCommands.size())
+			insertCommands.add(command);
+	}
+
+	int readAccessUpdatesSize()
+	{
+		return readAccessUpdates.size();
+	}
+
+	int insertsSize()
+	{
+		return inserts == null ? 0 : inserts.size();
+	}
+
+	/**
+	 * Removes <code>read_access</code> maintenance and INSERTs collected after the given sizes, to be used if a command
+	 * was rolled back to a savepoint.
+	 *
+	 * @param readAccessUpdatesSize
+	 *            <code>&gt;= 0</code>
+	 * @param insertsSize
+	 *            <code>&gt;= 0</code>
+	 */
+	void truncate(int readAccessUpdatesSize, int insertsSize)
+	{
+		readAccessUpdates.truncate(readAccessUpdatesSize);
+
+		if (inserts != null)
+			inserts.truncate(insertsSize);
+	}
+
+	/**
+	 * Executes collected INSERTs followed by collected <code>read_access</code> maintenance.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param failedInsertHandler
+	 *            may be <code>null</code>, called with the command of a failed INSERT, remaining INSERTs are executed
+	 *            afterwards, if <code>null</code> a {@link FailedInsertException} is thrown
+	 * @throws SQLException
+	 *             if executing INSERTs or <code>read_access</code> maintenance failed, collected INSERTs and
+	 *             <code>read_access</code> maintenance removed
+	 */
+	void execute(Connection connection, BiConsumer<CreateCommand<?, ?>, DeferredInsertException> failedInsertHandler)
+			throws SQLException
+	{
+		executeInserts(connection, failedInsertHandler);
+		readAccessUpdates.execute(connection);
+	}
+
+	private void executeInserts(Connection connection,
+			BiConsumer<CreateCommand<?, ?>, DeferredInsertException> failedInsertHandler) throws SQLException
+	{
+		if (inserts == null)
+			return;
+
+		try
+		{
+			while (!inserts.isEmpty())
+			{
+				try
+				{
+					inserts.execute(connection);
+				}
+				catch (DeferredInsertException e)
+				{
+					CreateCommand<?, ?> failed = insertCommands.remove(e.getIndex());
+
+					logger.debug("Error while inserting resource of entry at index {}", failed.getIndex(), e);
+					logger.warn("Error while inserting resource of entry at index {}: {} - {}", failed.getIndex(),
+							e.getClass().getName(), e.getMessage());
+
+					if (failedInsertHandler == null)
+						throw new FailedInsertException(failed, e);
+
+					failedInsertHandler.accept(failed, e);
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			clear();
+			throw e;
+		}
+
+		insertCommands.clear();
+	}
+
+	/**
+	 * Removes all collected <code>read_access</code> maintenance and INSERTs, to be used if the DB transaction was
+	 * rolled back.
+	 */
+	void clear()
+	{
+		readAccessUpdates.clear();
+		insertCommands.clear();
+
+		if (inserts != null)
+			inserts.clear();
+	}
+}
@@ -53,6 +53,9 @@ public class DeleteCommand extends AbstractCommand implements ModifyingCommand
 	private Class<? extends Resource> resourceType;
 	private String id;
 
+	private ResourceDao<?> deletedDao;
+	private UUID deletedUuid;
+
 	public DeleteCommand(int index, Identity identity, PreferReturnType returnType, Bundle bundle,
 			BundleEntryComponent entry, String serverBase, AuthorizationHelper authorizationHelper,
 			ResponseGenerator responseGenerator, DaoProvider daoProvider, ExceptionHandler exceptionHandler,
@@ -153,7 +156,12 @@ public class DeleteCommand extends AbstractCommand implements ModifyingCommand
 	protected boolean deleteWithTransaction(ResourceDao<?> dao, Connection connection, UUID uuid)
 			throws SQLException, ResourceNotFoundException
 	{
-		return dao.deleteWithTransaction(connection, uuid);
+		boolean deleted = dao.deleteWithTransaction(connection, uuid);
+
+		deletedDao = dao;
+		deletedUuid = uuid;
+
+		return deleted;
 	}
 
 	private Optional<Resource> search(Connection connection, ResourceDao<?> dao,
@@ -228,6 +236,13 @@ public class DeleteCommand extends AbstractCommand implements ModifyingCommand
 		return Optional.of(resultEntry);
 	}
 
+	@Override
+	public void postCommit()
+	{
+		if (deleted)
+			deletedDao.invalidateCache(deletedUuid);
+	}
+
 	@Override
 	public String getResourceTypeName()
 	{
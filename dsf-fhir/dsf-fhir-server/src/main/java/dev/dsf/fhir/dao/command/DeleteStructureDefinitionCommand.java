@@ -26,6 +26,8 @@ public class DeleteStructureDefinitionCommand extends DeleteCommand
 
 	private final StructureDefinitionDao snapshotDao;
 
+	private UUID snapshotUuid;
+
 	public DeleteStructureDefinitionCommand(int index, Identity identity, PreferReturnType returnType, Bundle bundle,
 			BundleEntryComponent entry, String serverBase, AuthorizationHelper authorizationHelper,
 			ResponseGenerator responseGenerator, DaoProvider daoProvider, ExceptionHandler exceptionHandler,
@@ -46,6 +48,7 @@ public class DeleteStructureDefinitionCommand extends DeleteCommand
 		try
 		{
 			snapshotDao.deleteWithTransaction(connection, uuid);
+			snapshotUuid = uuid;
 		}
 		catch (SQLException | ResourceNotFoundException e)
 		{
@@ -58,4 +61,13 @@ public class DeleteStructureDefinitionCommand extends DeleteCommand
 
 		return deleted;
 	}
+
+	@Override
+	public void postCommit()
+	{
+		super.postCommit();
+
+		if (snapshotUuid != null)
+			snapshotDao.invalidateCache(snapshotUuid);
+	}
 }
@@ -17,6 +17,12 @@ public interface ReferencesHelper<R extends Resource>
 
 	void resolveLogicalReferences(Connection connection) throws WebApplicationException;
 
+	/**
+	 * @return <code>true</code> if the resource contains conditional or logical references, resolved via identity
+	 *         filtered searches
+	 */
+	boolean hasConditionalOrLogicalReferences();
+
 	void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
 			Predicate<ResourceReference> checkReference) throws WebApplicationException;
 }
\ No newline at end of file
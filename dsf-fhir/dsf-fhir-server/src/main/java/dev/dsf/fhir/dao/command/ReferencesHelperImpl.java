@@ -1,6 +1,7 @@
 package dev.dsf.fhir.dao.command;
 
 import java.sql.Connection;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -28,6 +29,10 @@ import jakarta.ws.rs.core.Response.Status;
 
 public final class ReferencesHelperImpl<R extends Resource> implements ReferencesHelper<R>
 {
+	private static final EnumSet<ReferenceType> CONDITIONAL_OR_LOGICAL = EnumSet.of(ReferenceType.CONDITIONAL,
+			ReferenceType.RELATED_ARTEFACT_CONDITIONAL_URL, ReferenceType.ATTACHMENT_CONDITIONAL_URL,
+			ReferenceType.LOGICAL);
+
 	private final int index;
 	private final Identity identity;
 	private final R resource;
@@ -195,6 +200,13 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 					.of(responseGenerator.referenceTargetNotFoundLocallyByIdentifier(index, resource, reference));
 	}
 
+	@Override
+	public boolean hasConditionalOrLogicalReferences()
+	{
+		return referenceExtractor.getReferences(resource).map(ref -> ref.getType(serverBase))
+				.anyMatch(CONDITIONAL_OR_LOGICAL::contains);
+	}
+
 	@Override
 	public void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
 			Predicate<ResourceReference> checkReference) throws WebApplicationException
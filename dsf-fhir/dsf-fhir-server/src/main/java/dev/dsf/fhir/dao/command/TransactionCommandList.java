@@ -1,6 +1,7 @@
 package dev.dsf.fhir.dao.command;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -19,6 +20,7 @@ import org.hl7.fhir.r4.model.IdType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.dsf.fhir.dao.ReadAccessDao;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.validation.SnapshotGenerator;
 import jakarta.ws.rs.WebApplicationException;
@@ -30,18 +32,46 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 	private static final Logger logger = LoggerFactory.getLogger(TransactionCommandList.class);
 
 	private final Function<Connection, TransactionResources> transactionResourceFactory;
+	private final ReadAccessDao readAccessDao;
 
 	public TransactionCommandList(DataSource dataSource, ExceptionHandler exceptionHandler,
 			List<? extends Command> commands, Function<Connection, TransactionResources> transactionResourceFactory)
+	{
+		this(dataSource, exceptionHandler, commands, transactionResourceFactory, null);
+	}
+
+	/**
+	 * @param readAccessDao
+	 *            may be <code>null</code>, used to defer <code>read_access</code> maintenance of consecutive
+	 *            {@link CreateCommand}s to one set based update
+	 */
+	public TransactionCommandList(DataSource dataSource, ExceptionHandler exceptionHandler,
+			List<? extends Command> commands, Function<Connection, TransactionResources> transactionResourceFactory,
+			ReadAccessDao readAccessDao)
 	{
 		super(dataSource, exceptionHandler, commands);
 
 		this.transactionResourceFactory = transactionResourceFactory;
+		this.readAccessDao = readAccessDao;
 
 		Collections.sort(this.commands,
 				Comparator.comparing(Command::getTransactionPriority).thenComparing(Command::getIndex));
 	}
 
+	/**
+	 * Consecutive {@link CreateCommand}s collect <code>read_access</code> maintenance of created resources, consecutive
+	 * creates of the same resource type collect INSERTs if possible. Collected INSERTs and updates are executed before
+	 * all other commands and before creates resolving references via identity filtered searches.
+	 */
+	private void deferCreates(DeferredCreates deferredCreates, Command command, Connection connection)
+			throws SQLException
+	{
+		if (command instanceof CreateCommand<?, ?> create)
+			deferredCreates.prepare(create, connection, null);
+		else
+			deferredCreates.execute(connection, null);
+	}
+
 	@Override
 	public Bundle execute() throws WebApplicationException
 	{
@@ -49,7 +79,9 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 		try
 		{
 			TransactionEventHandler transactionEventHandler;
-			try (Connection connection = dataSource.getConnection())
+			// transaction resources are closed before the connection, pooled validators are released
+			try (Connection connection = dataSource.getConnection();
+					TransactionResources transactionResources = transactionResourceFactory.apply(connection))
 			{
 				if (hasModifyingCommands)
 				{
@@ -58,7 +90,6 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 					connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
 				}
 
-				TransactionResources transactionResources = transactionResourceFactory.apply(connection);
 				transactionEventHandler = transactionResources.getTransactionEventHandler();
 				ValidationHelper validationHelper = transactionResources.getValidationHelper();
 				SnapshotGenerator snapshotGenerator = transactionResources.getSnapshotGenerator();
@@ -97,21 +128,39 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 					}
 				}
 
-				for (Command c : commands)
+				DeferredCreates deferredCreates = hasModifyingCommands && readAccessDao != null
+						? new DeferredCreates(readAccessDao.createDeferredUpdates())
+						: null;
+
+				for (int i = 0; i < commands.size(); i++)
 				{
+					Command c = commands.get(i);
 					try
 					{
+						if (deferredCreates != null)
+							deferCreates(deferredCreates, c, connection);
+
 						logger.debug("Running execute of command {} for entry at index {}", c.getClass().getName(),
 								c.getIndex());
 						c.execute(idTranslationTable, connection, validationHelper, snapshotGenerator);
+
+						if (deferredCreates != null && c instanceof CreateCommand<?, ?> create)
+							deferredCreates.executed(create);
+
+						if (deferredCreates != null && i == commands.size() - 1)
+							deferredCreates.execute(connection, null);
 					}
 					catch (Exception e)
 					{
+						// deferred INSERTs fail after the command creating the resource was executed
+						Command failed = e instanceof DeferredCreates.FailedInsertException f ? f.getCommand() : c;
+
 						logger.debug("Error while executing command {} for entry at index {}, rolling back transaction",
-								c.getClass().getSimpleName(), c.getIndex(), e);
+								failed.getClass().getSimpleName(), failed.getIndex(), e);
 						logger.warn(
 								"Error while executing command {} for entry at index {}, rolling back transaction: {} - {}",
-								c.getClass().getSimpleName(), c.getIndex(), e.getClass().getName(), e.getMessage());
+								failed.getClass().getSimpleName(), failed.getIndex(), e.getClass().getName(),
+								e.getMessage());
 
 						if (hasModifyingCommands)
 						{
@@ -121,8 +170,8 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 
 						try
 						{
-							commands.stream().limit(c.getIndex()).forEach(this::auditLogAbbort);
-							auditLogResult(c, toEntry(e));
+							commands.stream().limit(failed.getIndex()).forEach(this::auditLogAbbort);
+							auditLogResult(failed, toEntry(e));
 						}
 						catch (Exception e1)
 						{
@@ -180,6 +229,9 @@ public class TransactionCommandList extends AbstractCommandList implements Comma
 					logger.debug("Committing DB transaction");
 					connection.commit();
 				}
+
+				commands.forEach(Command::postCommit);
+				transactionResources.setCompleted();
 			}
 
 			try
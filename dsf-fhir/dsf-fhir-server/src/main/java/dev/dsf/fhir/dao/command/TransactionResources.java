@@ -1,19 +1,42 @@
 package dev.dsf.fhir.dao.command;
 
+import java.util.function.Consumer;
+
 import dev.dsf.fhir.validation.SnapshotGenerator;
 
-public class TransactionResources
+public class TransactionResources implements AutoCloseable
 {
+	private static final Consumer<Boolean> NOOP = completed ->
+	{};
+
 	private final ValidationHelper validationHelper;
 	private final SnapshotGenerator snapshotGenerator;
 	private final TransactionEventHandler transactionEventHandler;
+	private final Consumer<Boolean> onClose;
+
+	private boolean completed;
 
 	public TransactionResources(ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator,
 			TransactionEventHandler transactionEventHandler)
+	{
+		this(validationHelper, snapshotGenerator, transactionEventHandler, NOOP);
+	}
+
+	/**
+	 * @param validationHelper
+	 * @param snapshotGenerator
+	 * @param transactionEventHandler
+	 * @param onClose
+	 *            not <code>null</code>, called by {@link #close()} with <code>true</code> if {@link #setCompleted()}
+	 *            was called, used to release pooled resources
+	 */
+	public TransactionResources(ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator,
+			TransactionEventHandler transactionEventHandler, Consumer<Boolean> onClose)
 	{
 		this.validationHelper = validationHelper;
 		this.snapshotGenerator = snapshotGenerator;
 		this.transactionEventHandler = transactionEventHandler;
+		this.onClose = onClose;
 	}
 
 	public ValidationHelper getValidationHelper()
@@ -30,4 +53,18 @@ public class TransactionResources
 	{
 		return transactionEventHandler;
 	}
+
+	/**
+	 * Marks the transaction as committed or completed without modifications
+	 */
+	public void setCompleted()
+	{
+		completed = true;
+	}
+
+	@Override
+	public void close()
+	{
+		onClose.accept(completed);
+	}
 }
@@ -402,6 +402,13 @@ public class UpdateCommand<R extends Resource, D extends ResourceDao<R>> extends
 		return Optional.of(resultEntry);
 	}
 
+	@Override
+	public void postCommit()
+	{
+		if (updatedResource != null)
+			dao.invalidateCache(UUID.fromString(updatedResource.getIdElement().getIdPart()));
+	}
+
 	private R latestOrErrorIfDeletedOrNotFound(Connection connection, Resource resource)
 	{
 		try
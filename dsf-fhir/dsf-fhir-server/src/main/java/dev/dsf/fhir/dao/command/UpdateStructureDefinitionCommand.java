@@ -130,4 +130,13 @@ public class UpdateStructureDefinitionCommand extends UpdateCommand<StructureDef
 
 		return updated;
 	}
+
+	@Override
+	public void postCommit()
+	{
+		super.postCommit();
+
+		if (updatedResource != null && resourceWithSnapshot != null)
+			snapshotDao.invalidateCache(UUID.fromString(updatedResource.getIdElement().getIdPart()));
+	}
 }
@@ -0,0 +1,30 @@
+package dev.dsf.fhir.dao.exception;
+
+import java.sql.SQLException;
+
+import dev.dsf.fhir.dao.DeferredInserts;
+
+/**
+ * Thrown by {@link DeferredInserts#execute(java.sql.Connection)} if the INSERT of one collected resource failed.
+ */
+public final class DeferredInsertException extends SQLException
+{
+	private static final long serialVersionUID = 1L;
+
+	private final int index;
+
+	public DeferredInsertException(int index, SQLException cause)
+	{
+		super(cause.getMessage(), cause.getSQLState(), cause.getErrorCode(), cause);
+
+		this.index = index;
+	}
+
+	/**
+	 * @return index of the failed resource within the collection, before the resource was removed
+	 */
+	public int getIndex()
+	{
+		return index;
+	}
+}
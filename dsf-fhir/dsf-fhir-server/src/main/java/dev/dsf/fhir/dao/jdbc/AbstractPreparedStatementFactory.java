@@ -1,6 +1,7 @@
 package dev.dsf.fhir.dao.jdbc;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -78,6 +79,20 @@ abstract class AbstractPreparedStatementFactory<R extends Resource> implements P
 		}
 	}
 
+	/**
+	 * @param resource
+	 *            may be <code>null</code>
+	 * @return <code>null</code> if the given resource is <code>null</code> or has no <code>meta.lastUpdated</code>
+	 *         value
+	 */
+	protected final Timestamp lastUpdatedToTimestamp(R resource)
+	{
+		if (resource == null || !resource.hasMeta() || resource.getMeta().getLastUpdated() == null)
+			return null;
+
+		return new Timestamp(resource.getMeta().getLastUpdated().getTime());
+	}
+
 	@Override
 	public final PGobject uuidToPgObject(UUID uuid)
 	{
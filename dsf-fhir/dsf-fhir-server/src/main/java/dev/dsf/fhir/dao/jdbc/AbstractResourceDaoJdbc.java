@@ -1,21 +1,30 @@
 package dev.dsf.fhir.dao.jdbc;
 
+import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -25,38 +34,59 @@ import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.adapter.JsonPassthrough;
+import dev.dsf.fhir.dao.DeferredInserts;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
 import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.cache.CacheableResourceDao;
+import dev.dsf.fhir.dao.cache.ResourceCache;
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
 import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceNotFoundException;
 import dev.dsf.fhir.dao.exception.ResourceNotMarkedDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
+import dev.dsf.fhir.history.SinceParameter;
 import dev.dsf.fhir.search.DbSearchQuery;
+import dev.dsf.fhir.search.PageAndCount;
 import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.SearchQuery;
 import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
 import dev.dsf.fhir.search.SearchQueryIdentityFilter;
 import dev.dsf.fhir.search.SearchQueryIncludeParameter;
+import dev.dsf.fhir.search.SearchQueryIncludeParameterConfiguration;
 import dev.dsf.fhir.search.SearchQueryParameter;
 import dev.dsf.fhir.search.SearchQueryParameterFactory;
+import dev.dsf.fhir.search.SearchQueryProjection;
 import dev.dsf.fhir.search.SearchQueryRevIncludeParameter;
 import dev.dsf.fhir.search.SearchQueryRevIncludeParameterFactory;
+import dev.dsf.fhir.search.SearchQuerySqlCache;
+import dev.dsf.fhir.search.TotalMode;
 import dev.dsf.fhir.search.parameters.ResourceId;
 import dev.dsf.fhir.search.parameters.ResourceLastUpdated;
 import dev.dsf.fhir.search.parameters.ResourceProfile;
+import dev.dsf.fhir.service.ReferenceExtractorImpl;
 
-abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDao<R>, InitializingBean
+abstract class AbstractResourceDaoJdbc<R extends Resource>
+		implements CacheableResourceDao<R>, InitializingBean, DisposableBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(AbstractResourceDaoJdbc.class);
 
+	private static final int EXPORT_FETCH_SIZE = 500;
+	private static final int SEARCH_STREAMING_FETCH_SIZE = 100;
+	private static final int SEARCH_SQL_CACHE_SIZE = 256;
+
 	protected static <R extends Resource> SearchQueryParameterFactory<R> factory(String parameterName,
 			Supplier<SearchQueryParameter<R>> supplier)
 	{
@@ -118,6 +148,15 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 	private final SearchQueryParameterFactory<R> resourceLastUpdatedFactory;
 	private final SearchQueryParameterFactory<R> resourceProfileFactory;
 
+	private final ResourceReferenceIndex referenceIndex = new ResourceReferenceIndex(new ReferenceExtractorImpl());
+	private final ResourceTokenIndex tokenIndex = new ResourceTokenIndex();
+	private final ReadAccessIndex readAccessIndex = new ReadAccessIndex();
+
+	private final SearchQuerySqlCache searchSqlCache;
+
+	private ResourceCache<R> resourceCache;
+	private DataSource searchStreamingDataSource;
+
 	protected static SearchQueryRevIncludeParameterFactory factory(
 			Supplier<SearchQueryRevIncludeParameter> revIncludeSupplier, List<String> revIncludeParameterValues)
 	{
@@ -188,10 +227,12 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (searchRevIncludeParameterFactories != null)
 			this.searchRevIncludeParameterFactories.addAll(searchRevIncludeParameterFactories);
 
+		searchSqlCache = new SearchQuerySqlCache(resourceTypeName, SEARCH_SQL_CACHE_SIZE);
+
 		resourceIdFactory = new SearchQueryParameterFactory<>(ResourceId.PARAMETER_NAME,
 				() -> new ResourceId<>(resourceType, resourceIdColumn));
 		resourceLastUpdatedFactory = new SearchQueryParameterFactory<>(ResourceLastUpdated.PARAMETER_NAME,
-				() -> new ResourceLastUpdated<>(resourceType, resourceColumn));
+				() -> new ResourceLastUpdated<>(resourceType));
 		resourceProfileFactory = new SearchQueryParameterFactory<>(ResourceProfile.PARAMETER_NAME,
 				() -> new ResourceProfile<>(resourceType, resourceColumn), ResourceProfile.getNameModifiers());
 	}
@@ -209,6 +250,13 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		Objects.requireNonNull(identityFilter, "userFilter");
 	}
 
+	@Override
+	public void destroy() throws Exception
+	{
+		if (searchSqlCache.getHitCount() + searchSqlCache.getMissCount() > 0)
+			logger.info("Search SQL cache statistics: {}", searchSqlCache);
+	}
+
 	protected DataSource getDataSource()
 	{
 		return dataSource;
@@ -234,6 +282,12 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		return preparedStatementFactory;
 	}
 
+	@Override
+	public void setResourceCache(ResourceCache<R> resourceCache)
+	{
+		this.resourceCache = resourceCache;
+	}
+
 	@Override
 	public String getResourceTypeName()
 	{
@@ -274,12 +328,33 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		try (Connection connection = dataSource.getConnection())
 		{
 			connection.setReadOnly(false);
-			return createWithTransactionAndId(connection, resource, uuid);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				R createdResource = createWithTransactionAndId(connection, resource, uuid);
+
+				connection.commit();
+
+				return createdResource;
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
 		}
 	}
 
 	@Override
 	public R createWithTransactionAndId(Connection connection, R resource, UUID uuid) throws SQLException
+	{
+		return createWithTransactionAndId(connection, resource, uuid, (DeferredReadAccessUpdates) null);
+	}
+
+	@Override
+	public R createWithTransactionAndId(Connection connection, R resource, UUID uuid,
+			DeferredReadAccessUpdates readAccessUpdates) throws SQLException
 	{
 		Objects.requireNonNull(connection, "connection");
 		Objects.requireNonNull(resource, "resource");
@@ -287,28 +362,224 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (connection.isReadOnly())
 			throw new IllegalArgumentException("Connection is read-only");
 
-		R inserted = create(connection, resource, uuid);
+		R inserted = create(connection, resource, uuid, readAccessUpdates);
 
 		logger.debug("{} with ID {} created", resourceTypeName, inserted.getId());
 		return inserted;
 	}
 
-	private R create(Connection connection, R resource, UUID uuid) throws SQLException
+	@Override
+	public DeferredInserts<R> createDeferredInserts(DeferredReadAccessUpdates readAccessUpdates)
+	{
+		return new DeferredInsertsJdbc(readAccessUpdates);
+	}
+
+	@Override
+	public R createWithTransactionAndId(Connection connection, R resource, UUID uuid, DeferredInserts<R> inserts)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(uuid, "uuid");
+		Objects.requireNonNull(inserts, "inserts");
+		if (connection.isReadOnly())
+			throw new IllegalArgumentException("Connection is read-only");
+		if (!(inserts instanceof AbstractResourceDaoJdbc<?>.DeferredInsertsJdbc i) || i.getDao() != this)
+			throw new IllegalArgumentException("Deferred inserts not created by this dao");
+
+		R prepared = prepareCreate(resource, uuid);
+		((DeferredInsertsJdbc) inserts).add(prepared, uuid);
+
+		logger.debug("{} with ID {} prepared for deferred insert", resourceTypeName, prepared.getId());
+		return prepared;
+	}
+
+	private R create(Connection connection, R resource, UUID uuid, DeferredReadAccessUpdates readAccessUpdates)
+			throws SQLException
+	{
+		R prepared = prepareCreate(resource, uuid);
+
+		try
+		{
+			insert(connection, List.of(prepared), List.of(uuid), readAccessUpdates);
+		}
+		catch (DeferredInsertException e)
+		{
+			throw (SQLException) e.getCause();
+		}
+
+		return prepared;
+	}
+
+	private R prepareCreate(R resource, UUID uuid)
 	{
 		resource = copy(resource); // XXX defensive copy, might want to remove this call
 		resource.setIdElement(new IdType(resourceTypeName, uuid.toString(), FIRST_VERSION_STRING));
 		resource.getMeta().setVersionId(FIRST_VERSION_STRING);
 		resource.getMeta().setLastUpdated(new Date());
 
+		return resource;
+	}
+
+	/**
+	 * Inserts the given prepared resources, resource and <code>history_entries</code> rows as well as index entries are
+	 * written with one JDBC batch per table.
+	 *
+	 * @throws DeferredInsertException
+	 *             if the INSERT of one resource or history entry failed, index relative to the given lists
+	 */
+	private void insert(Connection connection, List<R> resources, List<UUID> uuids,
+			DeferredReadAccessUpdates readAccessUpdates) throws SQLException
+	{
 		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getCreateSql()))
 		{
-			preparedStatementFactory.configureCreateStatement(statement, resource, uuid);
+			for (int i = 0; i < resources.size(); i++)
+			{
+				preparedStatementFactory.configureCreateStatement(statement, resources.get(i), uuids.get(i));
+				statement.addBatch();
+			}
+
+			logger.trace("Executing query '{}' for {} resources", preparedStatementFactory.getCreateSql(),
+					resources.size());
+			executeBatch(statement, resources.size());
+		}
+
+		insertHistoryEntries(connection, resources, uuids);
+
+		if (isReferenceIndexEnabled())
+			referenceIndex.create(connection, resources, uuids, FIRST_VERSION);
+
+		if (isTokenIndexEnabled())
+			tokenIndex.create(connection, resources, uuids, FIRST_VERSION);
+
+		if (isReadAccessIndexEnabled())
+		{
+			for (int i = 0; i < resources.size(); i++)
+			{
+				if (readAccessUpdates == null || !readAccessUpdates.add(resources.get(i), uuids.get(i), FIRST_VERSION))
+					readAccessIndex.update(connection, resources.get(i), uuids.get(i), FIRST_VERSION);
+			}
+		}
+	}
+
+	private void executeBatch(PreparedStatement statement, int size) throws SQLException
+	{
+		try
+		{
+			statement.executeBatch();
+		}
+		catch (BatchUpdateException e)
+		{
+			int failedIndex = getFailedIndex(e, size);
+			if (failedIndex >= 0)
+				throw new DeferredInsertException(failedIndex, e.getNextException() != null ? e.getNextException() : e);
+			else
+				throw e;
+		}
+	}
+
+	private int getFailedIndex(BatchUpdateException e, int size)
+	{
+		int[] updateCounts = e.getUpdateCounts();
+		if (updateCounts == null)
+			return size == 1 ? 0 : -1;
+
+		for (int i = 0; i < updateCounts.length && i < size; i++)
+		{
+			if (updateCounts[i] == Statement.EXECUTE_FAILED)
+				return i;
+		}
+
+		// driver stopped processing after the failed statement
+		return updateCounts.length < size ? updateCounts.length : -1;
+	}
+
+	/**
+	 * Override this method to exclude resources stored by this dao from the <code>resource_references</code> table.
+	 * Resources not stored in the table can not be found via reference search parameters, includes or revincludes.
+	 *
+	 * @return <code>true</code> if literal references should be recorded on create and update
+	 */
+	protected boolean isReferenceIndexEnabled()
+	{
+		return true;
+	}
+
+	/**
+	 * Override this method to exclude resources stored by this dao from the <code>resource_tokens</code> table.
+	 * Resources not stored in the table can not be found via identifier and coding token search parameters.
+	 *
+	 * @return <code>true</code> if identifiers and codings should be recorded on create and update
+	 */
+	protected boolean isTokenIndexEnabled()
+	{
+		return true;
+	}
+
+	/**
+	 * Override this method to exclude resources stored by this dao from the <code>read_access</code> table. Resources
+	 * not stored in the table can only be read by identities with access not based on read access tags.
+	 *
+	 * @return <code>true</code> if read access tags and security contexts should be recorded and
+	 *         <code>read_access</code> entries maintained on create, update and delete
+	 */
+	protected boolean isReadAccessIndexEnabled()
+	{
+		return true;
+	}
+
+	/**
+	 * Override this method to exclude resources stored by this dao from the history.
+	 *
+	 * @return <code>true</code> if create, update and delete operations should be recorded in the
+	 *         <code>history_entries</code> table
+	 */
+	protected boolean isHistoryEnabled()
+	{
+		return true;
+	}
+
+	private void insertHistoryEntry(Connection connection, UUID uuid, long version, String method,
+			Timestamp lastUpdated) throws SQLException
+	{
+		if (!isHistoryEnabled())
+			return;
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO history_entries (id, version, type, method, last_updated) VALUES (?, ?, ?, ?, ?)"))
+		{
+			statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuid));
+			statement.setLong(2, version);
+			statement.setString(3, resourceTypeName);
+			statement.setString(4, method);
+			statement.setTimestamp(5, lastUpdated);
 
 			logger.trace("Executing query '{}'", statement);
 			statement.execute();
 		}
+	}
 
-		return resource;
+	private void insertHistoryEntries(Connection connection, List<R> resources, List<UUID> uuids) throws SQLException
+	{
+		if (!isHistoryEnabled())
+			return;
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO history_entries (id, version, type, method, last_updated) VALUES (?, ?, ?, ?, ?)"))
+		{
+			for (int i = 0; i < resources.size(); i++)
+			{
+				statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuids.get(i)));
+				statement.setLong(2, FIRST_VERSION);
+				statement.setString(3, resourceTypeName);
+				statement.setString(4, "POST");
+				statement.setTimestamp(5, new Timestamp(resources.get(i).getMeta().getLastUpdated().getTime()));
+				statement.addBatch();
+			}
+
+			logger.trace("Executing history entries insert for {} resources", resources.size());
+			executeBatch(statement, resources.size());
+		}
 	}
 
 	protected abstract R copy(R resource);
@@ -325,17 +596,49 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (uuid == null)
 			return Optional.empty();
 
+		if (resourceCache == null)
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				return readWithTransaction(connection, uuid);
+			}
+		}
+
+		R cached = resourceCache.getLatest(uuid);
+		if (cached != null)
+		{
+			logger.debug("{} with IdPart {} found in cache", resourceTypeName, uuid);
+			return Optional.of(copyWithJson(cached));
+		}
+
+		long generation = resourceCache.getGeneration();
 		try (Connection connection = dataSource.getConnection())
 		{
-			return readWithTransaction(connection, uuid);
+			Optional<R> read = readWithTransaction(connection, uuid);
+			read.ifPresent(r -> resourceCache.putLatest(uuid, copyWithJson(r), generation));
+			return read;
 		}
 	}
 
+	private R copyWithJson(R resource)
+	{
+		R copy = copy(resource);
+		JsonPassthrough.get(resource).ifPresent(json -> JsonPassthrough.set(copy, json));
+		return copy;
+	}
+
 	@Override
 	public Optional<R> readWithTransaction(Connection connection, UUID uuid)
 			throws SQLException, ResourceDeletedException
+	{
+		return readWithTransaction(connection, uuid, preparedStatementFactory);
+	}
+
+	protected final Optional<R> readWithTransaction(Connection connection, UUID uuid,
+			PreparedStatementFactory<R> preparedStatementFactory) throws SQLException, ResourceDeletedException
 	{
 		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(preparedStatementFactory, "preparedStatementFactory");
 		if (uuid == null)
 			return Optional.empty();
 
@@ -382,17 +685,49 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (uuid == null || version < FIRST_VERSION)
 			return Optional.empty();
 
+		if (resourceCache == null)
+		{
+			try (Connection connection = dataSource.getConnection())
+			{
+				return readVersionWithTransaction(connection, uuid, version);
+			}
+		}
+
+		R cached = resourceCache.get(uuid, version);
+		if (cached != null)
+		{
+			logger.debug("{} with IdPart {} and Version {} found in cache", resourceTypeName, uuid, version);
+			return Optional.of(copyWithJson(cached));
+		}
+
+		long generation = resourceCache.getGeneration();
 		try (Connection connection = dataSource.getConnection())
 		{
-			return readVersionWithTransaction(connection, uuid, version);
+			Optional<R> read = readVersionWithTransaction(connection, uuid, version);
+			read.ifPresent(r -> resourceCache.put(uuid, copyWithJson(r), generation));
+			return read;
 		}
 	}
 
+	@Override
+	public void invalidateCache(UUID uuid)
+	{
+		if (resourceCache != null)
+			resourceCache.invalidate(uuid);
+	}
+
 	@Override
 	public Optional<R> readVersionWithTransaction(Connection connection, UUID uuid, long version)
 			throws SQLException, ResourceDeletedException
+	{
+		return readVersionWithTransaction(connection, uuid, version, preparedStatementFactory);
+	}
+
+	protected final Optional<R> readVersionWithTransaction(Connection connection, UUID uuid, long version,
+			PreparedStatementFactory<R> preparedStatementFactory) throws SQLException, ResourceDeletedException
 	{
 		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(preparedStatementFactory, "preparedStatementFactory");
 		if (uuid == null || version < FIRST_VERSION)
 			return Optional.empty();
 
@@ -532,7 +867,7 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (versionString == null || versionString.isBlank())
 		{
 			try (PreparedStatement statement = connection.prepareStatement("SELECT deleted IS NOT NULL FROM "
-					+ resourceTable + " WHERE " + resourceIdColumn + " = ? ORDER BY version DESC LIMIT 1"))
+					+ resourceTable + " WHERE " + resourceIdColumn + " = ? AND latest"))
 			{
 				statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuid));
 
@@ -582,6 +917,7 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 				R updatedResource = updateWithTransaction(connection, resource, expectedVersion);
 
 				connection.commit();
+				invalidateCache(toUuid(updatedResource.getIdElement().getIdPart()));
 
 				return updatedResource;
 			}
@@ -673,6 +1009,15 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		resource.getMeta().setVersionId(versionAsString);
 		resource.getMeta().setLastUpdated(new Date());
 
+		try (PreparedStatement statement = connection.prepareStatement(
+				"UPDATE " + resourceTable + " SET latest = FALSE WHERE " + resourceIdColumn + " = ? AND latest"))
+		{
+			statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuid));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+
 		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getUpdateNewRowSql()))
 		{
 			preparedStatementFactory.configureUpdateNewRowSqlStatement(statement, uuid, version, resource);
@@ -681,6 +1026,18 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 			statement.execute();
 		}
 
+		insertHistoryEntry(connection, uuid, version, "PUT",
+				new Timestamp(resource.getMeta().getLastUpdated().getTime()));
+
+		if (isReferenceIndexEnabled())
+			referenceIndex.update(connection, resource, uuid, version);
+
+		if (isTokenIndexEnabled())
+			tokenIndex.update(connection, resource, uuid, version);
+
+		if (isReadAccessIndexEnabled())
+			readAccessIndex.update(connection, resource, uuid, version);
+
 		return resource;
 	}
 
@@ -723,7 +1080,7 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 			return Optional.empty();
 
 		try (PreparedStatement statement = connection.prepareStatement("SELECT version, deleted IS NOT NULL FROM "
-				+ resourceTable + " WHERE " + resourceIdColumn + " = ? ORDER BY version DESC LIMIT 1"))
+				+ resourceTable + " WHERE " + resourceIdColumn + " = ? AND latest"))
 		{
 			statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuid));
 
@@ -754,8 +1111,22 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		try (Connection connection = dataSource.getConnection())
 		{
 			connection.setReadOnly(false);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				boolean deleted = deleteWithTransaction(connection, uuid);
+
+				connection.commit();
+				invalidateCache(uuid);
 
-			return deleteWithTransaction(connection, uuid);
+				return deleted;
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
 		}
 	}
 
@@ -779,20 +1150,31 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (latestVersion.deleted)
 			return false;
 
-		try (PreparedStatement statement = connection.prepareStatement("UPDATE " + resourceTable
-				+ " SET deleted = ? WHERE " + resourceIdColumn + " = ? AND version = (SELECT MAX(version) FROM "
-				+ resourceTable + " WHERE " + resourceIdColumn + " = ?)"))
+		Timestamp deleted = Timestamp.valueOf(LocalDateTime.now());
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				"UPDATE " + resourceTable + " SET deleted = ? WHERE " + resourceIdColumn + " = ? AND latest"))
 		{
-			statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+			statement.setTimestamp(1, deleted);
 			statement.setObject(2, preparedStatementFactory.uuidToPgObject(uuid));
-			statement.setObject(3, preparedStatementFactory.uuidToPgObject(uuid));
 
 			logger.trace("Executing query '{}'", statement);
 			statement.execute();
-
-			logger.debug("{} with ID {} marked as deleted", resourceTypeName, uuid);
-			return true;
 		}
+
+		insertHistoryEntry(connection, uuid, latestVersion.version + 1, "DELETE", deleted);
+
+		if (isReferenceIndexEnabled())
+			referenceIndex.delete(connection, uuid);
+
+		if (isTokenIndexEnabled())
+			tokenIndex.delete(connection, uuid);
+
+		if (isReadAccessIndexEnabled())
+			readAccessIndex.delete(connection, resourceTypeName, uuid);
+
+		logger.debug("{} with ID {} marked as deleted", resourceTypeName, uuid);
+		return true;
 	}
 
 	@Override
@@ -812,70 +1194,351 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		Objects.requireNonNull(connection, "connection");
 		Objects.requireNonNull(query, "query");
 
-		int total = 0;
-		try (PreparedStatement statement = connection.prepareStatement(query.getCountSql()))
+		List<R> partialResult = new ArrayList<>();
+		SearchRows rows;
+		try
+		{
+			rows = readSearchRows(connection, query, partialResult::add);
+		}
+		catch (IOException e)
+		{
+			// not thrown by List::add
+			throw new IllegalStateException(e);
+		}
+
+		if (rows.searchExecuted)
 		{
-			query.modifyStatement(statement, connection::createArrayOf);
+			modifySearchResultResources(partialResult, connection);
 
-			logger.trace("Executing query '{}'", statement);
-			try (ResultSet result = statement.executeQuery())
+			if (!partialResult.isEmpty())
 			{
-				if (result.next())
-					total = result.getInt(1);
+				for (SearchQueryIncludeParameterConfiguration includeParameter : query.getBatchIncludeParameters())
+					getBatchResources(partialResult, includeParameter, rows.includes, rows.includeIds, connection);
 			}
 		}
 
-		List<R> partialResult = new ArrayList<>();
-		List<Resource> includes = new ArrayList<>();
+		return new PartialResult<>(rows.total, query.getPageAndCount(), partialResult, rows.getDistinctIncludes(),
+				query.createNextCursor(partialResult));
+	}
+
+	@Override
+	public void setSearchStreamingDataSource(DataSource searchStreamingDataSource)
+	{
+		this.searchStreamingDataSource = searchStreamingDataSource;
+	}
+
+	@Override
+	public boolean isSearchStreamingSupported(DbSearchQuery query)
+	{
+		Objects.requireNonNull(query, "query");
+
+		// projected resources are not complete, batch includes are read for all matches of the page at once
+		return searchStreamingDataSource != null && query.getProjection() == null
+				&& query.getBatchIncludeParameters().isEmpty() && !query.isSummaryCount();
+	}
+
+	@Override
+	public Optional<SearchMatches<R>> openSearch(DbSearchQuery query) throws SQLException
+	{
+		Objects.requireNonNull(query, "query");
+
+		if (!isSearchStreamingSupported(query))
+			throw new IllegalArgumentException("Search streaming not supported for query");
+
+		Connection connection;
+		try
+		{
+			connection = searchStreamingDataSource.getConnection();
+		}
+		catch (SQLException e)
+		{
+			// pool exhausted by slow clients, not waiting for a connection
+			if (e.getCause() instanceof NoSuchElementException)
+			{
+				logger.debug("No search streaming connection available: {}", e.getMessage());
+				return Optional.empty();
+			}
+			else
+				throw e;
+		}
+
+		StreamedSearchMatches matches = new StreamedSearchMatches(connection, query);
+		try
+		{
+			matches.open();
+			return Optional.of(matches);
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			try
+			{
+				matches.close();
+			}
+			catch (SQLException suppressed)
+			{
+				e.addSuppressed(suppressed);
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Count and search statements executed by {@link #open()}, the first rows are fetched with the search statement.
+	 * Remaining rows are fetched while matches are read.
+	 */
+	private final class StreamedSearchMatches implements SearchMatches<R>
+	{
+		final Connection connection;
+		final DbSearchQuery query;
 
-		if (!query.getPageAndCount().isCountOnly(total))
+		SearchRows rows;
+		PreparedStatement statement;
+		ResultSet result;
+		boolean read;
+		boolean failed;
+
+		StreamedSearchMatches(Connection connection, DbSearchQuery query)
+		{
+			this.connection = connection;
+			this.query = query;
+		}
+
+		void open() throws SQLException
 		{
-			try (PreparedStatement statement = connection.prepareStatement(query.getSearchSql()))
+			// cursor based fetching only without auto commit
+			connection.setAutoCommit(false);
+
+			rows = countSearchRows(connection, query);
+
+			if (rows.searchExecuted)
+			{
+				statement = prepareSearchStatement(connection, query, SEARCH_STREAMING_FETCH_SIZE);
+				result = statement.executeQuery();
+			}
+		}
+
+		@Override
+		public PartialResult<R> read(SearchMatchConsumer<R> consumer) throws SQLException, IOException
+		{
+			Objects.requireNonNull(consumer, "consumer");
+
+			if (read)
+				throw new IllegalStateException("Matches already read");
+
+			read = true;
+
+			try
+			{
+				if (result != null)
+					readSearchMatches(connection, query, result, rows, consumer);
+
+				return new PartialResult<>(rows.total, query.getPageAndCount(), Collections.emptyList(),
+						rows.getDistinctIncludes(), query.createNextCursor(rows.lastMatch, rows.matchCount));
+			}
+			catch (SQLException | IOException | RuntimeException e)
+			{
+				failed = true;
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws SQLException
+		{
+			if (failed)
+			{
+				// state of the connection unknown, e.g. client disconnected while rows were fetched, not returned to
+				// the pool
+				logger.debug("Aborting search streaming connection after failure");
+
+				try
+				{
+					connection.abort(Runnable::run);
+				}
+				finally
+				{
+					connection.close();
+				}
+			}
+			else
+			{
+				try
+				{
+					if (result != null)
+						result.close();
+					if (statement != null)
+						statement.close();
+
+					connection.rollback();
+				}
+				finally
+				{
+					connection.close();
+				}
+			}
+		}
+	}
+
+	private final class SearchRows
+	{
+		int total = -1;
+		boolean searchExecuted;
+		R lastMatch;
+		int matchCount;
+
+		final List<Resource> includes = new ArrayList<>();
+		final Set<String> includeIds = new HashSet<>();
+
+		List<Resource> getDistinctIncludes()
+		{
+			// needs to be filtered by read rules, before returning to user, see rest access layer
+			return includes.stream().map(r -> new ResourceDistinctById(r.getIdElement(), r)).distinct()
+					.map(ResourceDistinctById::getResource).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Executes the count and search statements of the given query, matches are passed to the given consumer while rows
+	 * are read, include resources are collected.
+	 */
+	private SearchRows readSearchRows(Connection connection, DbSearchQuery query, SearchMatchConsumer<R> consumer)
+			throws SQLException, IOException
+	{
+		SearchRows rows = countSearchRows(connection, query);
+
+		if (rows.searchExecuted)
+		{
+			try (PreparedStatement statement = prepareSearchStatement(connection, query, 0);
+					ResultSet result = statement.executeQuery())
+			{
+				readSearchMatches(connection, query, result, rows, consumer);
+			}
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Executes the count statement of the given query if needed, {@link SearchRows#searchExecuted} is set if the search
+	 * statement needs to be executed.
+	 */
+	private SearchRows countSearchRows(Connection connection, DbSearchQuery query) throws SQLException
+	{
+		PageAndCount pageAndCount = query.getPageAndCount();
+		TotalMode totalMode = query.getTotalMode();
+		SearchRows rows = new SearchRows();
+
+		// estimated total calculated by search statement, count statement needed if no page requested
+		boolean countStatement = TotalMode.ACCURATE.equals(totalMode)
+				|| (TotalMode.ESTIMATED.equals(totalMode) && pageAndCount.isCountOnly()) || query.isSummaryCount();
+
+		if (countStatement)
+		{
+			rows.total = 0;
+			try (PreparedStatement statement = connection.prepareStatement(query.getCountSql()))
 			{
 				query.modifyStatement(statement, connection::createArrayOf);
 
 				logger.trace("Executing query '{}'", statement);
 				try (ResultSet result = statement.executeQuery())
 				{
-					ResultSetMetaData metaData = result.getMetaData();
-					while (result.next())
-					{
-						R resource = getResource(result, 1);
-						modifySearchResultResource(resource, connection);
-						partialResult.add(resource);
-
-						for (int columnIndex = 2; columnIndex <= metaData.getColumnCount(); columnIndex++)
-							getResources(result, columnIndex, includes, connection, query);
-					}
+					if (result.next())
+						rows.total = result.getInt(1);
 				}
 			}
 		}
 
-		// needs to be filtered by read rules, before returning to user, see rest access layer
-		includes = includes.stream().map(r -> new ResourceDistinctById(r.getIdElement(), r)).distinct()
-				.map(ResourceDistinctById::getResource).collect(Collectors.toList());
+		// _summary=count does not return matches, page statement not needed
+		rows.searchExecuted = !query.isSummaryCount()
+				&& (countStatement ? !pageAndCount.isCountOnly(rows.total) : !pageAndCount.isCountOnly());
+
+		return rows;
+	}
+
+	/**
+	 * @param fetchSize
+	 *            <code>0</code> to read all rows at once, cursor based fetching needs a connection without auto commit
+	 */
+	private PreparedStatement prepareSearchStatement(Connection connection, DbSearchQuery query, int fetchSize)
+			throws SQLException
+	{
+		PreparedStatement statement = connection.prepareStatement(query.getSearchSql());
+		try
+		{
+			statement.setFetchSize(fetchSize);
+			query.modifySearchStatement(statement, connection::createArrayOf);
+
+			logger.trace("Executing query '{}'", statement);
+			return statement;
+		}
+		catch (SQLException | RuntimeException e)
+		{
+			statement.close();
+			throw e;
+		}
+	}
+
+	private void readSearchMatches(Connection connection, DbSearchQuery query, ResultSet result, SearchRows rows,
+			SearchMatchConsumer<R> consumer) throws SQLException, IOException
+	{
+		PageAndCount pageAndCount = query.getPageAndCount();
+		TotalMode totalMode = query.getTotalMode();
+		SearchQueryProjection projection = query.getProjection();
+
+		ResultSetMetaData metaData = result.getMetaData();
+		int includeColumnCount = metaData.getColumnCount() - (TotalMode.ESTIMATED.equals(totalMode) ? 1 : 0);
+		int windowTotal = 0;
+
+		while (result.next())
+		{
+			R resource = getResource(result, 1);
+
+			// projected JSON is not the complete resource
+			if (projection != null)
+				projection.modifyResource(resource);
+			else
+				JsonPassthrough.set(resource, result.getString(1));
+
+			for (int columnIndex = 2; columnIndex <= includeColumnCount; columnIndex++)
+				getResources(result, columnIndex, rows.includes, rows.includeIds, connection, query);
+
+			if (TotalMode.ESTIMATED.equals(totalMode))
+				windowTotal = result.getInt(metaData.getColumnCount());
+
+			consumer.accept(resource);
+			rows.lastMatch = resource;
+			rows.matchCount++;
+		}
 
-		return new PartialResult<>(total, query.getPageAndCount(), partialResult, includes);
+		// window counts rows after the cursor if keyset paging, rows on previous pages are estimated
+		if (TotalMode.ESTIMATED.equals(totalMode))
+			rows.total = pageAndCount.hasCursor() || windowTotal == 0
+					? Math.max(0, pageAndCount.getPage() - 1) * pageAndCount.getCount() + windowTotal
+					: windowTotal;
 	}
 
 	/**
 	 * Override this method to modify resources retrieved by search queries before returning to the user. This method
-	 * can be used, if the resource returned by the search is not complete and additional content needs to be retrieved.
-	 * For example the content of a {@link Binary} resource might not be stored in the json column.
+	 * can be used, if the resources returned by the search are not complete and additional content needs to be
+	 * retrieved. For example the content of {@link Binary} resources might not be stored in the json column. Additional
+	 * content should be retrieved for all resources of the page at once. Not called for searches executed with
+	 * {@link #openSearch(DbSearchQuery)}, override {@link #isSearchStreamingSupported(DbSearchQuery)} if this method is
+	 * overridden.
 	 *
-	 * @param resource
-	 *            not <code>null</code>
+	 * @param resources
+	 *            not <code>null</code>, resources of the current page, may be empty
 	 * @param connection
 	 *            not <code>null</code>
 	 * @throws SQLException
 	 *             if database access errors occur
 	 */
-	protected void modifySearchResultResource(R resource, Connection connection) throws SQLException
+	protected void modifySearchResultResources(List<R> resources, Connection connection) throws SQLException
 	{
 	}
 
 	private void getResources(ResultSet result, int columnIndex, List<? super Resource> includeResources,
-			Connection connection, DbSearchQuery query) throws SQLException
+			Set<String> includeIds, Connection connection, DbSearchQuery query) throws SQLException
 	{
 		String json = result.getString(columnIndex);
 
@@ -885,11 +1548,17 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		JsonArray array = (JsonArray) JsonParser.parseString(json);
 		for (JsonElement jsonElement : array)
 		{
-			IBaseResource resource = preparedStatementFactory.getJsonParser().parseResource(jsonElement.toString());
+			// same resource may be included by multiple matches, only parsed once
+			if (jsonElement instanceof JsonObject o && o.get("id") instanceof JsonPrimitive id
+					&& !includeIds.add(id.getAsString()))
+				continue;
+
+			String resourceJson = jsonElement.toString();
+			IBaseResource resource = preparedStatementFactory.getJsonParser().parseResource(resourceJson);
 			if (resource instanceof Resource r)
 			{
 				query.modifyIncludeResource(r, columnIndex, connection);
-				includeResources.add(r);
+				includeResources.add(JsonPassthrough.set(r, resourceJson));
 			}
 			else
 				logger.warn("parsed resouce of type {} not instance of {}, ignoring include resource",
@@ -897,6 +1566,42 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		}
 	}
 
+	private void getBatchResources(List<R> matches, SearchQueryIncludeParameterConfiguration includeParameter,
+			List<? super Resource> includeResources, Set<String> includeIds, Connection connection) throws SQLException
+	{
+		Object[] matchIds = matches.stream().map(r -> toUuid(r.getIdElement().getIdPart())).filter(Objects::nonNull)
+				.toArray();
+		if (matchIds.length == 0)
+			return;
+
+		try (PreparedStatement statement = connection.prepareStatement(includeParameter.getSql()))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", matchIds));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					// same resource may be included via multiple include parameters, only parsed once
+					if (!includeIds.add(result.getString(1)))
+						continue;
+
+					String resourceJson = result.getString(2);
+					IBaseResource resource = preparedStatementFactory.getJsonParser().parseResource(resourceJson);
+					if (resource instanceof Resource r)
+					{
+						includeParameter.modifyIncludeResource(r, connection);
+						includeResources.add(JsonPassthrough.set(r, resourceJson));
+					}
+					else
+						logger.warn("parsed resouce of type {} not instance of {}, ignoring include resource",
+								resource.getClass().getName(), Resource.class.getName());
+				}
+			}
+		}
+	}
+
 	@Override
 	public final SearchQuery<R> createSearchQuery(Identity identity, int page, int count)
 	{
@@ -911,7 +1616,9 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 
 	private SearchQuery<R> doCreateSearchQuery(Identity identity, int page, int count)
 	{
-		var builder = SearchQueryBuilder.create(resourceType, getResourceTable(), getResourceColumn(), page, count);
+		var builder = SearchQueryBuilder
+				.create(resourceType, getResourceTable(), getResourceIdColumn(), getResourceColumn(), page, count)
+				.with(searchSqlCache);
 
 		if (identity != null)
 			builder = builder.with(identityFilter.apply(identity));
@@ -920,6 +1627,82 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 				.with(searchParameterFactories).withRevInclude(searchRevIncludeParameterFactories).build();
 	}
 
+	@Override
+	public long export(Identity identity, SinceParameter since, ExportConsumer consumer)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(identity, "identity");
+		Objects.requireNonNull(consumer, "consumer");
+
+		SearchQueryIdentityFilter filter = identityFilter.apply(identity);
+		boolean sinceDefined = since != null && since.isDefined();
+
+		String whereSql = Stream.of(filter.getFilterQuery(), sinceDefined ? since.getFilterQuery() : "")
+				.filter(s -> !s.isEmpty()).collect(Collectors.joining(" AND "));
+		String exportSql = "SELECT " + getExportColumns() + " FROM current_" + resourceTable
+				+ (whereSql.isEmpty() ? "" : " WHERE " + whereSql);
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			// cursor based fetching only without auto commit
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(exportSql))
+			{
+				statement.setFetchSize(EXPORT_FETCH_SIZE);
+
+				int parameterIndex = 1;
+				for (int i = 1; i <= filter.getSqlParameterCount(); i++)
+					filter.modifyStatement(parameterIndex++, i, statement);
+
+				if (sinceDefined)
+				{
+					for (int i = 1; i <= since.getSqlParameterCount(); i++)
+						since.modifyStatement(parameterIndex++, i, statement, connection::createArrayOf);
+				}
+
+				logger.trace("Executing query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					long count = 0;
+					while (result.next())
+					{
+						consumer.accept(getExportJson(result));
+						count++;
+					}
+
+					logger.debug("{} {} resource{} exported", count, resourceTypeName, count != 1 ? "s" : "");
+					return count;
+				}
+			}
+			finally
+			{
+				connection.rollback();
+			}
+		}
+	}
+
+	/**
+	 * @return columns of the <code>current_</code> view selected for
+	 *         {@link #export(Identity, SinceParameter, ExportConsumer)}, default: the resource column
+	 */
+	protected String getExportColumns()
+	{
+		return resourceColumn;
+	}
+
+	/**
+	 * @param result
+	 *            positioned on a row selected with {@link #getExportColumns()}
+	 * @return single line JSON representation of the resource, default: the resource column
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	protected ExportJson getExportJson(ResultSet result) throws SQLException
+	{
+		return ExportJson.of(result.getString(1));
+	}
+
 	@Override
 	public void deletePermanently(UUID uuid)
 			throws SQLException, ResourceNotFoundException, ResourceNotMarkedDeletedException
@@ -930,6 +1713,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 
 			deletePermanentlyWithTransaction(connection, uuid);
 		}
+
+		invalidateCache(uuid);
 	}
 
 	@Override
@@ -954,8 +1739,133 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 
 			logger.trace("Executing query '{}'", statement);
 			statement.execute();
+		}
+
+		if (isHistoryEnabled())
+		{
+			try (PreparedStatement statement = connection
+					.prepareStatement("DELETE FROM history_entries WHERE id = ? AND type = ?"))
+			{
+				statement.setObject(1, preparedStatementFactory.uuidToPgObject(uuid));
+				statement.setString(2, resourceTypeName);
+
+				logger.trace("Executing query '{}'", statement);
+				statement.execute();
+			}
+		}
 
-			logger.debug("{} with ID {} deleted permanently", resourceTypeName, uuid);
+		if (isReferenceIndexEnabled())
+			referenceIndex.delete(connection, uuid);
+
+		if (isTokenIndexEnabled())
+			tokenIndex.delete(connection, uuid);
+
+		logger.debug("{} with ID {} deleted permanently", resourceTypeName, uuid);
+	}
+
+	private final class DeferredInsertsJdbc implements DeferredInserts<R>
+	{
+		private final DeferredReadAccessUpdates readAccessUpdates;
+		private final List<R> resources = new ArrayList<>();
+		private final List<UUID> uuids = new ArrayList<>();
+
+		DeferredInsertsJdbc(DeferredReadAccessUpdates readAccessUpdates)
+		{
+			this.readAccessUpdates = readAccessUpdates;
+		}
+
+		AbstractResourceDaoJdbc<R> getDao()
+		{
+			return AbstractResourceDaoJdbc.this;
+		}
+
+		void add(R resource, UUID uuid)
+		{
+			resources.add(resource);
+			uuids.add(uuid);
+		}
+
+		@Override
+		public Class<R> getResourceType()
+		{
+			return resourceType;
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return resources.isEmpty();
+		}
+
+		@Override
+		public int size()
+		{
+			return resources.size();
+		}
+
+		@Override
+		public void truncate(int size)
+		{
+			if (size < 0)
+				throw new IllegalArgumentException("size < 0");
+
+			if (size < resources.size())
+			{
+				resources.subList(size, resources.size()).clear();
+				uuids.subList(size, uuids.size()).clear();
+			}
+		}
+
+		@Override
+		public void execute(Connection connection) throws SQLException
+		{
+			Objects.requireNonNull(connection, "connection");
+
+			if (resources.isEmpty())
+				return;
+
+			int readAccessUpdatesSize = readAccessUpdates == null ? 0 : readAccessUpdates.size();
+			Savepoint savepoint = connection.setSavepoint();
+
+			try
+			{
+				logger.debug("Inserting {} created {} resources", resources.size(), resourceTypeName);
+				insert(connection, resources, uuids, readAccessUpdates);
+				connection.releaseSavepoint(savepoint);
+
+				clear();
+			}
+			catch (DeferredInsertException e)
+			{
+				rollback(connection, savepoint, readAccessUpdatesSize);
+
+				resources.remove(e.getIndex());
+				uuids.remove(e.getIndex());
+
+				throw e;
+			}
+			catch (SQLException e)
+			{
+				rollback(connection, savepoint, readAccessUpdatesSize);
+				clear();
+
+				throw e;
+			}
+		}
+
+		private void rollback(Connection connection, Savepoint savepoint, int readAccessUpdatesSize) throws SQLException
+		{
+			if (readAccessUpdates != null)
+				readAccessUpdates.truncate(readAccessUpdatesSize);
+
+			connection.rollback(savepoint);
+		}
+
+		@Override
+		public void clear()
+		{
+			resources.clear();
+			uuids.clear();
 		}
 	}
 }
@@ -1,24 +1,39 @@
 package dev.dsf.fhir.dao.jdbc;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 import javax.sql.DataSource;
 
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.IdType;
-import org.postgresql.util.PGobject;
 
 import ca.uhn.fhir.context.FhirContext;
 import dev.dsf.fhir.dao.BinaryDao;
+import dev.dsf.fhir.dao.BinaryDataStream;
+import dev.dsf.fhir.dao.exception.ResourceDeletedException;
+import dev.dsf.fhir.search.DbSearchQuery;
 import dev.dsf.fhir.search.filter.BinaryIdentityFilter;
 import dev.dsf.fhir.search.parameters.BinaryContentType;
 
 public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements BinaryDao
 {
+	private static final int DATA_CHUNK_SIZE = 1024 * 1024;
+
+	private final PreparedStatementFactoryBinary preparedStatementFactoryWithoutData;
+
 	public BinaryDaoJdbc(DataSource dataSource, DataSource permanentDeleteDataSource, FhirContext fhirContext)
 	{
 		super(dataSource, permanentDeleteDataSource, Binary.class, "binaries", "binary_json", "binary_id",
@@ -26,12 +41,209 @@ public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements Bi
 				List.of(factory(BinaryContentType.PARAMETER_NAME, BinaryContentType::new,
 						BinaryContentType.getNameModifiers())),
 				List.of());
+
+		preparedStatementFactoryWithoutData = new PreparedStatementFactoryBinary(fhirContext,
+				(binary, length, compressed) -> new BinaryDataStreamJdbc(toUuid(binary.getIdElement().getIdPart()),
+						binary.getMeta().getVersionIdElement().getIdPartAsLong(), length, compressed));
 	}
 
 	@Override
 	protected Binary copy(Binary resource)
 	{
-		return resource.copy();
+		Binary copy = resource.copy();
+
+		// data input stream not part of the resource, needs to be available to the prepared statement factory
+		if (resource.getUserData(USER_DATA_DATA_INPUT_STREAM) != null)
+			copy.setUserData(USER_DATA_DATA_INPUT_STREAM, resource.getUserData(USER_DATA_DATA_INPUT_STREAM));
+
+		return copy;
+	}
+
+	@Override
+	protected String getExportColumns()
+	{
+		return "binary_json, octet_length(binary_data), pg_column_compression(binary_data) IS NOT NULL";
+	}
+
+	/**
+	 * Data is not part of the stored JSON and not selected by the export query, it is read in chunks by a
+	 * {@link BinaryDataStreamJdbc} and base64 encoded while writing.
+	 */
+	@Override
+	protected ExportJson getExportJson(ResultSet result) throws SQLException
+	{
+		Binary binary = getResource(result, 1);
+		long length = result.getLong(2);
+		boolean compressed = result.getBoolean(3);
+
+		String json = getPreparedStatementFactory().getJsonParser().encodeResourceToString(binary);
+		if (length <= 0)
+			return ExportJson.of(json);
+
+		BinaryDataStream data = new BinaryDataStreamJdbc(toUuid(binary.getIdElement().getIdPart()),
+				binary.getMeta().getVersionIdElement().getIdPartAsLong(), length, compressed);
+
+		return writer ->
+		{
+			// data is the last element of the Binary JSON representation
+			writer.write(json, 0, json.lastIndexOf('}'));
+			writer.write(",\"data\":\"");
+
+			try (OutputStream out = Base64.getEncoder().wrap(new AsciiWriterOutputStream(writer)))
+			{
+				data.write(out, 0, length);
+			}
+
+			writer.write("\"}");
+		};
+	}
+
+	/**
+	 * Writes bytes as chars to a {@link Writer}, only for ASCII output like base64. {@link #close()} does not close the
+	 * writer.
+	 */
+	private static final class AsciiWriterOutputStream extends OutputStream
+	{
+		final Writer writer;
+		final char[] buffer = new char[8192];
+
+		AsciiWriterOutputStream(Writer writer)
+		{
+			this.writer = writer;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			writer.write((char) (b & 0xff));
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			while (len > 0)
+			{
+				int n = Math.min(len, buffer.length);
+				for (int i = 0; i < n; i++)
+					buffer[i] = (char) (b[off + i] & 0xff);
+
+				writer.write(buffer, 0, n);
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			// writer not closed
+		}
+	}
+
+	@Override
+	public Optional<Binary> readWithoutData(UUID uuid) throws SQLException, ResourceDeletedException
+	{
+		if (uuid == null)
+			return Optional.empty();
+
+		try (Connection connection = getDataSource().getConnection())
+		{
+			return readWithTransaction(connection, uuid, preparedStatementFactoryWithoutData);
+		}
+	}
+
+	@Override
+	public Optional<Binary> readVersionWithoutData(UUID uuid, long version)
+			throws SQLException, ResourceDeletedException
+	{
+		if (uuid == null || version < FIRST_VERSION)
+			return Optional.empty();
+
+		try (Connection connection = getDataSource().getConnection())
+		{
+			return readVersionWithTransaction(connection, uuid, version, preparedStatementFactoryWithoutData);
+		}
+	}
+
+	/**
+	 * Reads <code>binary_data</code> in chunks of {@link BinaryDaoJdbc#DATA_CHUNK_SIZE} bytes using
+	 * <code>substring</code>, a database connection is only used while reading a chunk, not while writing it.
+	 * <p>
+	 * Compressed data, stored before <code>binary_data</code> was configured with <code>STORAGE EXTERNAL</code>, is
+	 * decompressed from the beginning for every <code>substring</code> call. The requested range of compressed data is
+	 * read with one query instead of chunks.
+	 */
+	private final class BinaryDataStreamJdbc implements BinaryDataStream
+	{
+		final UUID uuid;
+		final long version;
+		final long length;
+		final boolean compressed;
+
+		BinaryDataStreamJdbc(UUID uuid, long version, long length, boolean compressed)
+		{
+			this.uuid = uuid;
+			this.version = version;
+			this.length = length;
+			this.compressed = compressed;
+		}
+
+		@Override
+		public long getLength()
+		{
+			return length;
+		}
+
+		@Override
+		public void write(OutputStream out, long offset, long length) throws IOException
+		{
+			Objects.requireNonNull(out, "out");
+			if (offset < 0 || length < 0 || offset + length > this.length)
+				throw new IllegalArgumentException("offset or length out of bounds");
+
+			try
+			{
+				long chunkSize = compressed ? Math.max(length, 1) : DATA_CHUNK_SIZE;
+				for (long position = offset; position < offset + length; position += chunkSize)
+				{
+					int chunkLength = Math.toIntExact(Math.min(chunkSize, offset + length - position));
+					byte[] chunk = readChunk(position, chunkLength);
+
+					if (chunk.length != chunkLength)
+						throw new IOException("Binary resource with id " + uuid + " and version " + version
+								+ " data modified while reading");
+
+					out.write(chunk);
+				}
+			}
+			catch (SQLException e)
+			{
+				throw new IOException(e);
+			}
+		}
+
+		private byte[] readChunk(long position, int chunkLength) throws SQLException
+		{
+			try (Connection connection = getDataSource().getConnection();
+					PreparedStatement statement = connection.prepareStatement(
+							"SELECT substring(binary_data FROM ? FOR ?) FROM binaries WHERE binary_id = ? AND version = ?"))
+			{
+				// substring position is one-based
+				statement.setInt(1, Math.toIntExact(position + 1));
+				statement.setInt(2, chunkLength);
+				statement.setObject(3, getPreparedStatementFactory().uuidToPgObject(uuid));
+				statement.setLong(4, version);
+
+				try (ResultSet result = statement.executeQuery())
+				{
+					if (result.next())
+						return result.getBytes(1);
+					else
+						throw new SQLException(
+								"Binary resource with id " + uuid + " and version " + version + " not found");
+				}
+			}
+		}
 	}
 
 	@Override
@@ -45,30 +257,55 @@ public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements Bi
 		return binary;
 	}
 
+	/**
+	 * Not supported, binary data is read for all resources of the page at once, see
+	 * {@link #modifySearchResultResources(List, Connection)}.
+	 */
+	@Override
+	public boolean isSearchStreamingSupported(DbSearchQuery query)
+	{
+		return false;
+	}
+
 	@Override
-	protected void modifySearchResultResource(Binary resource, Connection connection) throws SQLException
+	protected void modifySearchResultResources(List<Binary> resources, Connection connection) throws SQLException
 	{
-		try (PreparedStatement statement = connection
-				.prepareStatement("SELECT binary_data FROM binaries WHERE binary_id = ? AND version = ?"))
+		if (resources.isEmpty())
+			return;
+
+		Map<String, Binary> resourcesByIdAndVersion = new HashMap<>();
+		UUID[] uuids = new UUID[resources.size()];
+		Long[] versions = new Long[resources.size()];
+
+		for (int i = 0; i < resources.size(); i++)
 		{
-			PGobject uuidObject = getPreparedStatementFactory()
-					.uuidToPgObject(toUuid(resource.getIdElement().getIdPart()));
-			Long version = resource.getMeta().getVersionIdElement().getIdPartAsLong();
+			Binary resource = resources.get(i);
+			uuids[i] = toUuid(resource.getIdElement().getIdPart());
+			versions[i] = resource.getMeta().getVersionIdElement().getIdPartAsLong();
 
-			statement.setObject(1, uuidObject);
-			statement.setLong(2, version);
+			resourcesByIdAndVersion.put(uuids[i] + "/" + versions[i], resource);
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				"SELECT binary_id, binaries.version, binary_data FROM binaries JOIN unnest(?, ?) AS ids(id, version) "
+						+ "ON binary_id = ids.id AND binaries.version = ids.version"))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", uuids));
+			statement.setArray(2, connection.createArrayOf("BIGINT", versions));
 
 			try (ResultSet result = statement.executeQuery())
 			{
-				if (result.next())
+				while (result.next())
 				{
-					byte[] data = result.getBytes(1);
-					resource.setData(data);
+					Binary resource = resourcesByIdAndVersion.remove(result.getString(1) + "/" + result.getLong(2));
+					if (resource != null)
+						resource.setData(result.getBytes(3));
 				}
-				else
-					throw new SQLException(
-							"Binary resource with id " + resource.getIdElement().getIdPart() + " not found");
 			}
 		}
+
+		if (!resourcesByIdAndVersion.isEmpty())
+			throw new SQLException(
+					"Binary resources with id/version " + resourcesByIdAndVersion.keySet() + " not found");
 	}
 }
@@ -0,0 +1,90 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
+
+public class DeferredReadAccessUpdatesJdbc implements DeferredReadAccessUpdates
+{
+	private static final Logger logger = LoggerFactory.getLogger(DeferredReadAccessUpdatesJdbc.class);
+
+	private final ReadAccessIndex readAccessIndex;
+	private final List<ReadAccessIndex.Created> created = new ArrayList<>();
+
+	public DeferredReadAccessUpdatesJdbc(ReadAccessIndex readAccessIndex)
+	{
+		this.readAccessIndex = Objects.requireNonNull(readAccessIndex, "readAccessIndex");
+	}
+
+	@Override
+	public boolean add(Resource resource, UUID id, long version)
+	{
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+
+		// entries of dependent resources need to be updated immediately
+		if (resource instanceof Organization || resource instanceof OrganizationAffiliation)
+			return false;
+
+		created.add(readAccessIndex.created(resource, id, version));
+		return true;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return created.isEmpty();
+	}
+
+	@Override
+	public int size()
+	{
+		return created.size();
+	}
+
+	@Override
+	public void truncate(int size)
+	{
+		if (size < 0)
+			throw new IllegalArgumentException("size < 0");
+
+		if (size < created.size())
+			created.subList(size, created.size()).clear();
+	}
+
+	@Override
+	public void execute(Connection connection) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+
+		if (created.isEmpty())
+			return;
+
+		try
+		{
+			logger.debug("Updating read access entries of {} created resources", created.size());
+			readAccessIndex.updateCreated(connection, created);
+		}
+		finally
+		{
+			created.clear();
+		}
+	}
+
+	@Override
+	public void clear()
+	{
+		created.clear();
+	}
+}
@@ -1,10 +1,12 @@
 package dev.dsf.fhir.dao.jdbc;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -35,12 +37,15 @@ import dev.dsf.fhir.history.HistoryEntry;
 import dev.dsf.fhir.history.SinceParameter;
 import dev.dsf.fhir.history.filter.HistoryIdentityFilter;
 import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PageCursor;
 import dev.dsf.fhir.search.SearchQueryParameter;
 
 public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(HistroyDaoJdbc.class);
 
+	private static final int HISTORY_STREAMING_FETCH_SIZE = 100;
+
 	private final DataSource dataSource;
 	private final FhirContext fhirContext;
 	private final BinaryDaoJdbc binaryDao;
@@ -100,64 +105,188 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 		return readHistory(Collections.singletonList(filter), pageAndCount, atParameters, sinceParameter, resource, id);
 	}
 
+	@Override
+	public History readHistory(List<HistoryIdentityFilter> filters, PageAndCount pageAndCount,
+			List<AtParameter> atParameters, SinceParameter sinceParameter, HistoryEntryConsumer consumer)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(filters, "filters");
+		Objects.requireNonNull(pageAndCount, "pageAndCount");
+		Objects.requireNonNull(atParameters, "atParameters");
+		Objects.requireNonNull(sinceParameter, "sinceParameter");
+		Objects.requireNonNull(consumer, "consumer");
+
+		return readHistory(filters, pageAndCount, atParameters, sinceParameter, null, null, consumer);
+	}
+
+	@Override
+	public History readHistory(HistoryIdentityFilter filter, PageAndCount pageAndCount, List<AtParameter> atParameters,
+			SinceParameter sinceParameter, Class<? extends Resource> resource, HistoryEntryConsumer consumer)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(filter, "filter");
+		Objects.requireNonNull(pageAndCount, "pageAndCount");
+		Objects.requireNonNull(atParameters, "atParameters");
+		Objects.requireNonNull(sinceParameter, "sinceParameter");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(consumer, "consumer");
+
+		return readHistory(Collections.singletonList(filter), pageAndCount, atParameters, sinceParameter, resource,
+				null, consumer);
+	}
+
+	@Override
+	public History readHistory(HistoryIdentityFilter filter, PageAndCount pageAndCount, List<AtParameter> atParameters,
+			SinceParameter sinceParameter, Class<? extends Resource> resource, UUID id, HistoryEntryConsumer consumer)
+			throws SQLException, IOException
+	{
+		Objects.requireNonNull(filter, "filter");
+		Objects.requireNonNull(pageAndCount, "pageAndCount");
+		Objects.requireNonNull(atParameters, "atParameters");
+		Objects.requireNonNull(sinceParameter, "sinceParameter");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+		Objects.requireNonNull(consumer, "consumer");
+
+		return readHistory(Collections.singletonList(filter), pageAndCount, atParameters, sinceParameter, resource, id,
+				consumer);
+	}
+
 	private History readHistory(List<HistoryIdentityFilter> filter, PageAndCount pageAndCount,
 			List<AtParameter> atParameters, SinceParameter sinceParameter, Class<? extends Resource> resource, UUID id)
 			throws SQLException
 	{
 		try (Connection connection = dataSource.getConnection())
 		{
-			int total = 0;
-			try (PreparedStatement statement = connection.prepareStatement(
-					createCountSql(id != null, resource != null, filter, atParameters, sinceParameter)))
+			List<HistoryEntry> entries = new ArrayList<>();
+			HistoryRows rows = readHistoryRows(connection, filter, pageAndCount, atParameters, sinceParameter, resource,
+					id, 0, entries::add);
+
+			modifyResources(entries, connection);
+
+			return new History(rows.total, pageAndCount, entries, createNextCursor(pageAndCount, rows));
+		}
+		catch (IOException e)
+		{
+			// adding to a list does not throw IOExceptions
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private History readHistory(List<HistoryIdentityFilter> filter, PageAndCount pageAndCount,
+			List<AtParameter> atParameters, SinceParameter sinceParameter, Class<? extends Resource> resource, UUID id,
+			HistoryEntryConsumer consumer) throws SQLException, IOException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			// cursor based fetching only without auto commit
+			connection.setAutoCommit(false);
+
+			try
 			{
-				configureStatement(statement, id, resource, filter, atParameters, sinceParameter);
+				HistoryRows rows = readHistoryRows(connection, filter, pageAndCount, atParameters, sinceParameter,
+						resource, id, HISTORY_STREAMING_FETCH_SIZE, entry ->
+						{
+							// binary data read per entry, the result set of the history query stays open
+							modifyResources(List.of(entry), connection);
+							consumer.accept(entry);
+						});
 
-				logger.trace("Executing count query '{}'", statement);
-				try (ResultSet result = statement.executeQuery())
-				{
-					if (result.next())
-						total = result.getInt(1);
-				}
+				return new History(rows.total, pageAndCount, Collections.emptyList(),
+						createNextCursor(pageAndCount, rows));
+			}
+			finally
+			{
+				connection.rollback();
 			}
+		}
+	}
 
-			List<HistoryEntry> entries = new ArrayList<>();
-			if (!pageAndCount.isCountOnly(total))
+	private static final class HistoryRows
+	{
+		int total;
+		HistoryEntry lastEntry;
+		int entryCount;
+	}
+
+	private interface HistoryRowConsumer
+	{
+		void accept(HistoryEntry entry) throws SQLException, IOException;
+	}
+
+	private HistoryRows readHistoryRows(Connection connection, List<HistoryIdentityFilter> filter,
+			PageAndCount pageAndCount, List<AtParameter> atParameters, SinceParameter sinceParameter,
+			Class<? extends Resource> resource, UUID id, int fetchSize, HistoryRowConsumer consumer)
+			throws SQLException, IOException
+	{
+		HistoryRows rows = new HistoryRows();
+
+		try (PreparedStatement statement = connection
+				.prepareStatement(createCountSql(id != null, resource != null, filter, atParameters, sinceParameter)))
+		{
+			configureStatement(statement, id, resource, filter, atParameters, sinceParameter);
+
+			logger.trace("Executing count query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
 			{
-				try (PreparedStatement statement = connection.prepareStatement(createReadSql(id != null,
-						resource != null, filter, atParameters, sinceParameter, pageAndCount)))
-				{
-					configureStatement(statement, id, resource, filter, atParameters, sinceParameter);
+				if (result.next())
+					rows.total = result.getInt(1);
+			}
+		}
 
-					logger.trace("Executing read query '{}'", statement);
-					try (ResultSet result = statement.executeQuery())
-					{
-						while (result.next())
-						{
-							UUID entryId = result.getObject(1, UUID.class);
-							long version = result.getLong(2);
-							String resourceType = result.getString(3);
-							String method = result.getString(4);
-							Timestamp lastUpdated = result.getTimestamp(5);
-							Resource entryResource = jsonToResource(result.getString(6), resource);
-							modifyResource(entryResource, connection);
-
-							HistoryEntry entry = new HistoryEntry(entryId, String.valueOf(version), resourceType,
-									method, lastUpdated == null ? null : lastUpdated.toLocalDateTime(), entryResource);
-							entries.add(entry);
-						}
-
-					}
+		if (pageAndCount.isCountOnly(rows.total))
+			return rows;
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				createReadSql(id != null, resource != null, filter, atParameters, sinceParameter, pageAndCount)))
+		{
+			int parameterIndex = configureStatement(statement, id, resource, filter, atParameters, sinceParameter);
+			configurePageStatement(statement, parameterIndex, pageAndCount);
+			statement.setFetchSize(fetchSize);
+
+			logger.trace("Executing read query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					UUID entryId = result.getObject(1, UUID.class);
+					long version = result.getLong(2);
+					String resourceType = result.getString(3);
+					String method = result.getString(4);
+					Timestamp lastUpdated = result.getTimestamp(5);
+					Resource entryResource = jsonToResource(result.getString(6), resource);
+
+					HistoryEntry entry = new HistoryEntry(entryId, String.valueOf(version), resourceType, method,
+							lastUpdated == null ? null : lastUpdated.toLocalDateTime(), entryResource);
+
+					consumer.accept(entry);
+					rows.lastEntry = entry;
+					rows.entryCount++;
 				}
 			}
-
-			return new History(total, pageAndCount, entries);
 		}
+
+		return rows;
 	}
 
-	private void modifyResource(Resource resource, Connection connection) throws SQLException
+	private PageCursor createNextCursor(PageAndCount pageAndCount, HistoryRows rows)
 	{
-		if (resource instanceof Binary b)
-			binaryDao.modifySearchResultResource(b, connection);
+		if (pageAndCount.getCount() < 1 || rows.entryCount < pageAndCount.getCount() || rows.lastEntry == null)
+			return null;
+
+		HistoryEntry last = rows.lastEntry;
+		if (last.getLastUpdated() == null)
+			return null;
+
+		return PageCursor.of(last.getLastUpdated().toString(), last.getId().toString(), last.getVersion());
+	}
+
+	private void modifyResources(List<HistoryEntry> entries, Connection connection) throws SQLException
+	{
+		List<Binary> binaries = entries.stream().map(HistoryEntry::getResource).filter(Binary.class::isInstance)
+				.map(Binary.class::cast).toList();
+
+		binaryDao.modifySearchResultResources(binaries, connection);
 	}
 
 	private PGobject uuidToPgObject(UUID uuid)
@@ -220,11 +349,19 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 	{
 		String selectSql = "SELECT id, version, type, method, last_updated, resource FROM history WHERE ";
 
-		return createSql(forId, forResource, filter, atParameter, sinceParameter, selectSql, pageAndCount.getSql());
+		return createSql(forId, forResource, filter, atParameter, sinceParameter, pageAndCount.hasCursor(), selectSql,
+				" ORDER BY last_updated, id, version" + (pageAndCount.hasCursor() ? " LIMIT ?" : " LIMIT ? OFFSET ?"));
 	}
 
 	private String createSql(boolean forId, boolean forResource, List<HistoryIdentityFilter> filter,
 			List<AtParameter> atParameters, SinceParameter sinceParameter, String selectSql, String limitOffsetSql)
+	{
+		return createSql(forId, forResource, filter, atParameters, sinceParameter, false, selectSql, limitOffsetSql);
+	}
+
+	private String createSql(boolean forId, boolean forResource, List<HistoryIdentityFilter> filter,
+			List<AtParameter> atParameters, SinceParameter sinceParameter, boolean withCursor, String selectSql,
+			String limitOffsetSql)
 	{
 		String idSql = forId ? "id = ?" : null;
 		String typeSql = forResource ? "type = ?" : null;
@@ -235,11 +372,14 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 		Stream<String> params = Stream.concat(atParameters.stream(), Stream.of(sinceParameter))
 				.filter(SearchQueryParameter::isDefined).map(SearchQueryParameter::getFilterQuery);
 
+		if (withCursor)
+			params = Stream.concat(params, Stream.of("(last_updated, id, version) > (?, ?, ?)"));
+
 		return Stream.concat(Stream.of(idSql, typeSql, filterSql).filter(s -> s != null), params)
 				.collect(Collectors.joining(" AND ", selectSql, limitOffsetSql));
 	}
 
-	private void configureStatement(PreparedStatement statement, UUID id, Class<? extends Resource> resource,
+	private int configureStatement(PreparedStatement statement, UUID id, Class<? extends Resource> resource,
 			List<HistoryIdentityFilter> filter, List<AtParameter> atParameters, SinceParameter sinceParameter)
 			throws SQLException
 	{
@@ -272,5 +412,25 @@ public class HistroyDaoJdbc implements HistoryDao, InitializingBean
 			for (int i = 1; i <= sinceParameter.getSqlParameterCount(); i++)
 				sinceParameter.modifyStatement(parameterIndex++, i, statement, null);
 		}
+
+		return parameterIndex;
+	}
+
+	private void configurePageStatement(PreparedStatement statement, int parameterIndex, PageAndCount pageAndCount)
+			throws SQLException
+	{
+		if (pageAndCount.hasCursor())
+		{
+			PageCursor cursor = pageAndCount.getCursor();
+			statement.setTimestamp(parameterIndex++, Timestamp.valueOf(LocalDateTime.parse(cursor.getValue(0))));
+			statement.setObject(parameterIndex++, uuidToPgObject(UUID.fromString(cursor.getValue(1))));
+			statement.setLong(parameterIndex++, Long.parseLong(cursor.getValue(2)));
+			statement.setInt(parameterIndex++, pageAndCount.getCount());
+		}
+		else
+		{
+			statement.setInt(parameterIndex++, pageAndCount.getCount());
+			statement.setInt(parameterIndex++, Math.max(0, pageAndCount.getPage() - 1) * pageAndCount.getCount());
+		}
 	}
 }
@@ -109,12 +109,12 @@ public class OrganizationDaoJdbc extends AbstractResourceDaoJdbc<Organization> i
 
 		try (Connection connection = getDataSource().getConnection();
 				PreparedStatement statement = connection.prepareStatement(
-						"SELECT organization FROM current_organizations WHERE organization->'identifier' @> ?::jsonb AND organization->>'active' = 'true'"))
+						"SELECT organization FROM current_organizations WHERE organization_id IN (SELECT resource_id FROM resource_tokens "
+								+ "WHERE resource_type = 'Organization' AND param = 'identifier' AND code = ? AND system = ?) "
+								+ "AND organization->>'active' = 'true'"))
 		{
-
-			String search = "[{\"system\": \"http://dsf.dev/sid/organization-identifier\", \"value\": \""
-					+ identifierValue + "\"}]";
-			statement.setString(1, search);
+			statement.setString(1, identifierValue);
+			statement.setString(2, "http://dsf.dev/sid/organization-identifier");
 
 			logger.trace("Executing query '{}'", statement);
 			try (ResultSet result = statement.executeQuery())
@@ -1,30 +1,103 @@
 package dev.dsf.fhir.dao.jdbc;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.UUID;
 
 import org.hl7.fhir.r4.model.Binary;
 
 import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.dao.BinaryDao;
+import dev.dsf.fhir.dao.BinaryDataStream;
 
 class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Binary>
 {
-	private static final String createSql = "INSERT INTO binaries (binary_id, binary_json, binary_data) VALUES (?, ?, ?)";
-	private static final String readByIdSql = "SELECT deleted, version, binary_json, binary_data FROM binaries WHERE binary_id = ? ORDER BY version DESC LIMIT 1";
+	private static final String createSql = "INSERT INTO binaries (binary_id, binary_json, binary_data, last_updated) VALUES (?, ?, ?, ?)";
+	private static final String readByIdSql = "SELECT deleted, version, binary_json, binary_data FROM binaries WHERE binary_id = ? AND latest";
 	private static final String readByIdAndVersionSql = "SELECT deleted, version, binary_json, binary_data FROM binaries WHERE binary_id = ? AND (version = ? OR version = ?) ORDER BY version DESC LIMIT 1";
-	private static final String updateNewRowSql = "INSERT INTO binaries (binary_id, version, binary_json, binary_data) VALUES (?, ?, ?, ?)";
-	private static final String updateSameRowSql = "UPDATE binaries SET binary_json = ?, binary_data = ? WHERE binary_id = ? AND version = ?";
+	private static final String readByIdWithoutDataSql = "SELECT deleted, version, binary_json, octet_length(binary_data), pg_column_compression(binary_data) IS NOT NULL FROM binaries WHERE binary_id = ? AND latest";
+	private static final String readByIdAndVersionWithoutDataSql = "SELECT deleted, version, binary_json, octet_length(binary_data), pg_column_compression(binary_data) IS NOT NULL FROM binaries WHERE binary_id = ? AND (version = ? OR version = ?) ORDER BY version DESC LIMIT 1";
+	private static final String updateNewRowSql = "INSERT INTO binaries (binary_id, version, binary_json, binary_data, last_updated) VALUES (?, ?, ?, ?, ?)";
+	private static final String updateSameRowSql = "UPDATE binaries SET binary_json = ?, binary_data = ?, last_updated = ? WHERE binary_id = ? AND version = ?";
+
+	@FunctionalInterface
+	interface DataStreamFactory
+	{
+		/**
+		 * @param binary
+		 *            not <code>null</code>, read resource without data
+		 * @param length
+		 *            data length in bytes
+		 * @param compressed
+		 *            <code>true</code> if the stored data is compressed, reading parts of compressed data requires
+		 *            decompressing the data from the beginning
+		 * @return not <code>null</code>
+		 */
+		BinaryDataStream create(Binary binary, long length, boolean compressed);
+	}
+
+	private final DataStreamFactory dataStreamFactory;
 
 	PreparedStatementFactoryBinary(FhirContext fhirContext)
 	{
 		super(fhirContext, Binary.class, createSql, readByIdSql, readByIdAndVersionSql, updateNewRowSql,
 				updateSameRowSql);
+
+		this.dataStreamFactory = null;
+	}
+
+	/**
+	 * Creates a factory for read statements not loading <code>binary_data</code>, the data length and compression are
+	 * selected instead and used to create a {@link BinaryDataStream} set as user data with key
+	 * {@link BinaryDao#USER_DATA_DATA_STREAM}.
+	 *
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param dataStreamFactory
+	 *            not <code>null</code>, called with the read resource, the data length and compression
+	 */
+	PreparedStatementFactoryBinary(FhirContext fhirContext, DataStreamFactory dataStreamFactory)
+	{
+		super(fhirContext, Binary.class, createSql, readByIdWithoutDataSql, readByIdAndVersionWithoutDataSql,
+				updateNewRowSql, updateSameRowSql);
+
+		this.dataStreamFactory = Objects.requireNonNull(dataStreamFactory, "dataStreamFactory");
+	}
+
+	private void setData(PreparedStatement statement, int index, byte[] data, Binary resource) throws SQLException
+	{
+		if (data != null)
+			statement.setBinaryStream(index, new ByteArrayInputStream(data));
+		else if (resource.getUserData(BinaryDao.USER_DATA_DATA_INPUT_STREAM) instanceof InputStream in)
+			statement.setBinaryStream(index, in);
+		else
+			statement.setNull(index, Types.VARBINARY);
+	}
+
+	private Binary getResource(ResultSet result) throws SQLException
+	{
+		String json = result.getString(3);
+
+		if (dataStreamFactory == null)
+		{
+			byte[] data = result.getBytes(4);
+			return jsonToResource(json).setData(data);
+		}
+		else
+		{
+			long length = result.getLong(4);
+			boolean compressed = result.getBoolean(5);
+			Binary binary = jsonToResource(json);
+			binary.setUserData(BinaryDao.USER_DATA_DATA_STREAM, dataStreamFactory.create(binary, length, compressed));
+			return binary;
+		}
 	}
 
 	@Override
@@ -35,11 +108,8 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 
 		statement.setObject(1, uuidToPgObject(uuid));
 		statement.setObject(2, resourceToPgObject(resource));
-
-		if (data != null)
-			statement.setBinaryStream(3, new ByteArrayInputStream(data));
-		else
-			statement.setNull(3, Types.VARBINARY);
+		setData(statement, 3, data, resource);
+		statement.setTimestamp(4, lastUpdatedToTimestamp(resource));
 
 		resource.setData(data);
 	}
@@ -66,10 +136,7 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 	@Override
 	public Binary getReadByIdResource(ResultSet result) throws SQLException
 	{
-		String json = result.getString(3);
-		byte[] data = result.getBytes(4);
-
-		return jsonToResource(json).setData(data);
+		return getResource(result);
 	}
 
 	@Override
@@ -97,10 +164,7 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 	@Override
 	public Binary getReadByIdAndVersionResource(ResultSet result) throws SQLException
 	{
-		String json = result.getString(3);
-		byte[] data = result.getBytes(4);
-
-		return jsonToResource(json).setData(data);
+		return getResource(result);
 	}
 
 	@Override
@@ -113,11 +177,8 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 		statement.setObject(1, uuidToPgObject(uuid));
 		statement.setLong(2, version);
 		statement.setObject(3, resourceToPgObject(resource));
-
-		if (data != null)
-			statement.setBinaryStream(4, new ByteArrayInputStream(data));
-		else
-			statement.setNull(4, Types.VARBINARY);
+		setData(statement, 4, data, resource);
+		statement.setTimestamp(5, lastUpdatedToTimestamp(resource));
 
 		resource.setData(data);
 	}
@@ -130,14 +191,10 @@ class PreparedStatementFactoryBinary extends AbstractPreparedStatementFactory<Bi
 		resource.setData(null);
 
 		statement.setObject(1, resourceToPgObject(resource));
-
-		if (data != null)
-			statement.setBinaryStream(2, new ByteArrayInputStream(data));
-		else
-			statement.setNull(2, Types.VARBINARY);
-
-		statement.setObject(3, uuidToPgObject(uuid));
-		statement.setLong(4, version);
+		setData(statement, 2, data, resource);
+		statement.setTimestamp(3, lastUpdatedToTimestamp(resource));
+		statement.setObject(4, uuidToPgObject(uuid));
+		statement.setLong(5, version);
 
 		resource.setData(data);
 	}
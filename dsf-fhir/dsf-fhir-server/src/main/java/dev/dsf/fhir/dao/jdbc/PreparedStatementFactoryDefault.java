@@ -10,6 +10,7 @@ import java.util.UUID;
 import org.hl7.fhir.r4.model.Resource;
 
 import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.adapter.JsonPassthrough;
 
 class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPreparedStatementFactory<R>
 {
@@ -25,13 +26,14 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 
 	private static String createSql(String resourceTable, String resourceIdColumn, String resourceColumn)
 	{
-		return "INSERT INTO " + resourceTable + " (" + resourceIdColumn + ", " + resourceColumn + ") VALUES (?, ?)";
+		return "INSERT INTO " + resourceTable + " (" + resourceIdColumn + ", " + resourceColumn
+				+ ", last_updated) VALUES (?, ?, ?)";
 	}
 
 	private static String readByIdSql(String resourceTable, String resourceIdColumn, String resourceColumn)
 	{
 		return "SELECT deleted, version, " + resourceColumn + " FROM " + resourceTable + " WHERE " + resourceIdColumn
-				+ " = ? ORDER BY version DESC LIMIT 1";
+				+ " = ? AND latest";
 	}
 
 	private static String readByIdAndVersionSql(String resourceTable, String resourceIdColumn, String resourceColumn)
@@ -43,12 +45,12 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 	private static String updateNewRowSql(String resourceTable, String resourceIdColumn, String resourceColumn)
 	{
 		return "INSERT INTO " + resourceTable + " (" + resourceIdColumn + ", version, " + resourceColumn
-				+ ") VALUES (?, ?, ?)";
+				+ ", last_updated) VALUES (?, ?, ?, ?)";
 	}
 
 	private static String updateSameRowSql(String resourceTable, String resourceIdColumn, String resourceColumn)
 	{
-		return "UPDATE " + resourceTable + " SET " + resourceColumn + " = ? WHERE " + resourceIdColumn
+		return "UPDATE " + resourceTable + " SET " + resourceColumn + " = ?, last_updated = ? WHERE " + resourceIdColumn
 				+ " = ? AND version = ?";
 	}
 
@@ -57,6 +59,7 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 	{
 		statement.setObject(1, uuidToPgObject(uuid));
 		statement.setObject(2, resourceToPgObject(resource));
+		statement.setTimestamp(3, lastUpdatedToTimestamp(resource));
 	}
 
 	@Override
@@ -83,7 +86,7 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 	{
 		String json = result.getString(3);
 
-		return jsonToResource(json);
+		return JsonPassthrough.set(jsonToResource(json), json);
 	}
 
 	@Override
@@ -113,7 +116,7 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 	{
 		String json = result.getString(3);
 
-		return jsonToResource(json);
+		return JsonPassthrough.set(jsonToResource(json), json);
 	}
 
 	@Override
@@ -123,6 +126,7 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 		statement.setObject(1, uuidToPgObject(uuid));
 		statement.setLong(2, version);
 		statement.setObject(3, resourceToPgObject(resource));
+		statement.setTimestamp(4, lastUpdatedToTimestamp(resource));
 	}
 
 	@Override
@@ -130,7 +134,8 @@ class PreparedStatementFactoryDefault<R extends Resource> extends AbstractPrepar
 			throws SQLException
 	{
 		statement.setObject(1, resourceToPgObject(resource));
-		statement.setObject(2, uuidToPgObject(uuid));
-		statement.setLong(3, version);
+		statement.setTimestamp(2, lastUpdatedToTimestamp(resource));
+		statement.setObject(3, uuidToPgObject(uuid));
+		statement.setLong(4, version);
 	}
 }
@@ -40,6 +40,13 @@ public class QuestionnaireResponseDaoJdbc extends AbstractResourceDaoJdbc<Questi
 				List.of());
 	}
 
+	@Override
+	protected boolean isReadAccessIndexEnabled()
+	{
+		// questionnaire responses are readable by local users only, not based on read access tags
+		return false;
+	}
+
 	@Override
 	protected QuestionnaireResponse copy(QuestionnaireResponse resource)
 	{
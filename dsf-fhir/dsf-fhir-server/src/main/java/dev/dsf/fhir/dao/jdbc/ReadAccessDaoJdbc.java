@@ -5,9 +5,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
@@ -17,12 +23,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
 import ca.uhn.fhir.parser.DataFormatException;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
 import dev.dsf.fhir.dao.ReadAccessDao;
 
 public class ReadAccessDaoJdbc implements ReadAccessDao, InitializingBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(ReadAccessDaoJdbc.class);
 
+	private static final String ACCESS_TYPE_ALL = "ALL";
+	private static final String ACCESS_TYPE_LOCAL = "LOCAL";
+
 	private final DataSource dataSource;
 
 	public ReadAccessDaoJdbc(DataSource dataSource)
@@ -63,6 +73,97 @@ public class ReadAccessDaoJdbc implements ReadAccessDao, InitializingBean
 		}
 	}
 
+	@Override
+	public List<List<String>> getAccessTypes(Connection connection, List<UUID> resourceIds, List<Long> versions,
+			boolean localIdentity, UUID organizationId) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resourceIds, "resourceIds");
+		Objects.requireNonNull(versions, "versions");
+		if (resourceIds.size() != versions.size())
+			throw new IllegalArgumentException("resourceIds.size() != versions.size()");
+		if (versions.stream().anyMatch(v -> v == null || v <= 0))
+			throw new IllegalArgumentException("versions contains value <= 0");
+		Objects.requireNonNull(organizationId, "organizationId");
+
+		List<List<String>> accessTypes = new ArrayList<>(resourceIds.size());
+		for (int i = 0; i < resourceIds.size(); i++)
+			accessTypes.add(new ArrayList<>());
+
+		if (resourceIds.isEmpty())
+			return accessTypes;
+
+		try (PreparedStatement statement = connection.prepareStatement(getReadAllowedResourcesQuery(localIdentity)))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", resourceIds.toArray()));
+			statement.setArray(2, connection.createArrayOf("BIGINT", versions.toArray()));
+			statement.setObject(3, uuidToPgObject(organizationId));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+					accessTypes.get(result.getInt(1) - 1).add(result.getString(2));
+				return accessTypes;
+			}
+		}
+	}
+
+	@Override
+	public List<List<String>> getAccessTypes(Connection connection, UUID resourceId, long version,
+			boolean localIdentity, List<UUID> organizationIds) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resourceId, "resourceId");
+		if (version <= 0)
+			throw new IllegalArgumentException("version <= 0");
+		Objects.requireNonNull(organizationIds, "organizationIds");
+
+		if (organizationIds.isEmpty())
+			return new ArrayList<>();
+
+		try (PreparedStatement statement = connection.prepareStatement(getReadAllowedOrganizationsQuery(localIdentity)))
+		{
+			statement.setObject(1, uuidToPgObject(resourceId));
+			statement.setLong(2, version);
+			statement.setArray(3, connection.createArrayOf("UUID", organizationIds.toArray()));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				// access types for all organizations and access types by organization
+				SortedSet<String> all = new TreeSet<>();
+				Map<UUID, SortedSet<String>> byOrganization = new HashMap<>();
+
+				while (result.next())
+				{
+					String accessType = result.getString(1);
+					String organizationId = result.getString(2);
+
+					if (ACCESS_TYPE_ALL.equals(accessType) || ACCESS_TYPE_LOCAL.equals(accessType)
+							|| organizationId == null)
+						all.add(accessType);
+					else
+						byOrganization.computeIfAbsent(UUID.fromString(organizationId), id -> new TreeSet<>())
+								.add(accessType);
+				}
+
+				return organizationIds.stream().map(id ->
+				{
+					SortedSet<String> accessTypes = new TreeSet<>(all);
+					accessTypes.addAll(byOrganization.getOrDefault(id, Collections.emptySortedSet()));
+					return (List<String>) new ArrayList<>(accessTypes);
+				}).collect(Collectors.toList());
+			}
+		}
+	}
+
+	@Override
+	public DeferredReadAccessUpdates createDeferredUpdates()
+	{
+		return new DeferredReadAccessUpdatesJdbc(new ReadAccessIndex());
+	}
+
 	private String getReadAllowedQuery(boolean localIdentity)
 	{
 		if (localIdentity)
@@ -71,6 +172,24 @@ public class ReadAccessDaoJdbc implements ReadAccessDao, InitializingBean
 			return "SELECT DISTINCT access_type FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR organization_id = ?) ORDER BY access_type";
 	}
 
+	private String getReadAllowedResourcesQuery(boolean localIdentity)
+	{
+		if (localIdentity)
+			return "SELECT DISTINCT ids.index, access_type FROM read_access JOIN unnest(?, ?) WITH ORDINALITY AS ids(id, version, index) "
+					+ "ON resource_id = ids.id AND resource_version = ids.version WHERE (access_type = 'ALL' OR access_type = 'LOCAL' OR organization_id = ?) ORDER BY ids.index, access_type";
+		else
+			return "SELECT DISTINCT ids.index, access_type FROM read_access JOIN unnest(?, ?) WITH ORDINALITY AS ids(id, version, index) "
+					+ "ON resource_id = ids.id AND resource_version = ids.version WHERE (access_type = 'ALL' OR organization_id = ?) ORDER BY ids.index, access_type";
+	}
+
+	private String getReadAllowedOrganizationsQuery(boolean localIdentity)
+	{
+		if (localIdentity)
+			return "SELECT DISTINCT access_type, organization_id FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR access_type = 'LOCAL' OR organization_id = ANY (?))";
+		else
+			return "SELECT DISTINCT access_type, organization_id FROM read_access WHERE resource_id = ? AND resource_version = ? AND (access_type = 'ALL' OR organization_id = ANY (?))";
+	}
+
 	private PGobject uuidToPgObject(UUID uuid)
 	{
 		if (uuid == null)
@@ -0,0 +1,1319 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.EXTENSION_READ_ACCESS_ORGANIZATION;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE_ORGANIZATION_ROLE;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE_PARENT_ORGANIZATION;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.ORGANIZATION_IDENTIFIER_SYSTEM;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.READ_ACCESS_TAG_SYSTEM;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.READ_ACCESS_TAG_VALUE_ALL;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.READ_ACCESS_TAG_VALUE_LOCAL;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.READ_ACCESS_TAG_VALUE_ORGANIZATION;
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.READ_ACCESS_TAG_VALUE_ROLE;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Element;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.search.parameters.OrganizationAffiliationRole;
+import dev.dsf.fhir.search.parameters.basic.AbstractIdentifierParameter;
+
+/**
+ * Maintains the <code>read_access</code> table used by identity filters and read authorization rules. Read access tags
+ * of the current resource version are stored in the <code>read_access_tags</code> table and
+ * <code>Binary.securityContext</code> references in the <code>read_access_security_contexts</code> table. Both tables
+ * are used to find resources affected by changes of organizations, organization affiliations and security context
+ * resources. Active organizations are resolved via the <code>resource_tokens</code> table.
+ * <p>
+ * Entries for the current version of a resource are computed from its read access tags (ALL, LOCAL, ORGANIZATION for
+ * every active organization with a matching identifier and ROLE for every active organization affiliation with a
+ * matching code, active parent and active participating organization) and copied from the security context resource for
+ * binaries. Only differing entries are deleted and inserted, entries of previous versions are kept.
+ */
+public class ReadAccessIndex
+{
+	private static final Logger logger = LoggerFactory.getLogger(ReadAccessIndex.class);
+
+	private static final String INSERT_TAG_SQL = "INSERT INTO read_access_tags (resource_type, resource_id, resource_version, access_type, organization_identifier, role_system, role_code) VALUES (?, ?, ?, ?, ?, ?, ?)";
+	private static final String DELETE_TAGS_SQL = "DELETE FROM read_access_tags WHERE resource_id = ?";
+	private static final String INSERT_SECURITY_CONTEXT_SQL = "INSERT INTO read_access_security_contexts (binary_id, binary_version, resource_id, resource_version) VALUES (?, ?, ?, ?)";
+	private static final String DELETE_SECURITY_CONTEXT_SQL = "DELETE FROM read_access_security_contexts WHERE binary_id = ?";
+
+	private static final String SELECT_TAGS_SQL = "SELECT access_type, organization_identifier, role_system, role_code FROM read_access_tags WHERE resource_id = ?";
+	private static final String SELECT_SECURITY_CONTEXT_SQL = "SELECT resource_id, resource_version FROM read_access_security_contexts WHERE binary_id = ?";
+	private static final String SELECT_DELETED_SQL = "SELECT method = 'DELETE' FROM history_entries WHERE id = ? ORDER BY version DESC LIMIT 1";
+	private static final String SELECT_CURRENT_VERSIONS_SQL = "SELECT resource_id, resource_version FROM read_access_tags WHERE resource_id = ANY (?) "
+			+ "UNION SELECT binary_id, binary_version FROM read_access_security_contexts WHERE binary_id = ANY (?)";
+	private static final String SELECT_BINARIES_SQL = "SELECT DISTINCT binary_id FROM read_access_security_contexts WHERE resource_id = ANY (?)";
+
+	private static final String SELECT_ENTRIES_SQL = "SELECT access_type, organization_id, organization_affiliation_id FROM read_access WHERE resource_id = ? AND resource_version = ?";
+	private static final String INSERT_ENTRY_SQL = "INSERT INTO read_access (resource_id, resource_version, access_type, organization_id, organization_affiliation_id) VALUES (?, ?, ?, ?, ?)";
+	private static final String DELETE_ENTRY_SQL = "DELETE FROM read_access WHERE resource_id = ? AND resource_version = ? AND access_type = ? "
+			+ "AND organization_id IS NOT DISTINCT FROM CAST(? AS UUID) AND organization_affiliation_id IS NOT DISTINCT FROM CAST(? AS UUID)";
+
+	private static final String SELECT_ACTIVE_ORGANIZATIONS_SQL = "SELECT organization_id FROM current_organizations WHERE organization->>'active' = 'true' "
+			+ "AND organization_id IN (SELECT resource_id FROM resource_tokens WHERE resource_type = 'Organization' AND param = '"
+			+ AbstractIdentifierParameter.PARAMETER_NAME + "' AND system = '" + ORGANIZATION_IDENTIFIER_SYSTEM
+			+ "' AND code = ?) ORDER BY organization_id";
+	private static final String SELECT_ORGANIZATION_ACTIVE_SQL = "SELECT organization->>'active' = 'true' FROM current_organizations WHERE organization_id = ?";
+	private static final String SELECT_ORGANIZATION_IDENTIFIERS_SQL = "SELECT DISTINCT code FROM resource_tokens WHERE resource_type = 'Organization' AND param = '"
+			+ AbstractIdentifierParameter.PARAMETER_NAME + "' AND system = '" + ORGANIZATION_IDENTIFIER_SYSTEM
+			+ "' AND resource_id = ANY (?)";
+	private static final String SELECT_ACTIVE_AFFILIATIONS_SQL = "SELECT organization_affiliation_id, organization_affiliation->'organization'->>'reference', "
+			+ "organization_affiliation->'participatingOrganization'->>'reference' FROM current_organization_affiliations "
+			+ "WHERE organization_affiliation->>'active' = 'true' AND organization_affiliation_id IN (SELECT resource_id FROM resource_tokens "
+			+ "WHERE resource_type = 'OrganizationAffiliation' AND param = '"
+			+ OrganizationAffiliationRole.PARAMETER_NAME
+			+ "' AND system = ? AND code = ?) ORDER BY organization_affiliation_id";
+	private static final String SELECT_AFFILIATIONS_OF_ORGANIZATION_SQL = "SELECT organization_affiliation_id, organization_affiliation->'organization'->>'reference', "
+			+ "organization_affiliation->'participatingOrganization'->>'reference' FROM current_organization_affiliations "
+			+ "WHERE organization_affiliation_id IN (SELECT source_id FROM resource_references WHERE target_id = ? "
+			+ "AND path IN ('OrganizationAffiliation.organization', 'OrganizationAffiliation.participatingOrganization'))";
+
+	private static final String SELECT_AFFECTED_BY_ENTRIES_SQL = "SELECT DISTINCT resource_id FROM read_access WHERE organization_id = CAST(? AS UUID) OR organization_affiliation_id = ANY (?)";
+	private static final String SELECT_AFFECTED_BY_TAGS_SQL = "SELECT DISTINCT resource_id FROM read_access_tags WHERE access_type IN ('"
+			+ READ_ACCESS_TAG_VALUE_ORGANIZATION + "', '" + READ_ACCESS_TAG_VALUE_ROLE
+			+ "') AND organization_identifier = ANY (?)";
+	private static final String DELETE_PREVIOUS_VERSION_ENTRIES_SQL = "DELETE FROM read_access WHERE (organization_id = CAST(? AS UUID) OR organization_affiliation_id = ANY (?)) "
+			+ "AND NOT EXISTS (SELECT 1 FROM read_access_tags t WHERE t.resource_id = read_access.resource_id AND t.resource_version = read_access.resource_version) "
+			+ "AND NOT EXISTS (SELECT 1 FROM read_access_security_contexts s WHERE s.binary_id = read_access.resource_id AND s.binary_version = read_access.resource_version)";
+
+	private static final int CHECK_PAGE_SIZE = 1000;
+
+	/**
+	 * Resource tables with <code>read_access</code> entries maintained by this index and their id columns, binaries
+	 * last: entries copied from security context resources are computed from checked entries
+	 */
+	private static final List<List<String>> CHECK_TABLES = List.of(
+			List.of("activity_definitions", "activity_definition_id"), List.of("bundles", "bundle_id"),
+			List.of("code_systems", "code_system_id"), List.of("document_references", "document_reference_id"),
+			List.of("endpoints", "endpoint_id"), List.of("groups", "group_id"),
+			List.of("healthcare_services", "healthcare_service_id"), List.of("libraries", "library_id"),
+			List.of("locations", "location_id"), List.of("measure_reports", "measure_report_id"),
+			List.of("measures", "measure_id"), List.of("naming_systems", "naming_system_id"),
+			List.of("organizations", "organization_id"),
+			List.of("organization_affiliations", "organization_affiliation_id"), List.of("patients", "patient_id"),
+			List.of("practitioner_roles", "practitioner_role_id"), List.of("practitioners", "practitioner_id"),
+			List.of("provenances", "provenance_id"), List.of("questionnaires", "questionnaire_id"),
+			List.of("research_studies", "research_study_id"),
+			List.of("structure_definitions", "structure_definition_id"), List.of("subscriptions", "subscription_id"),
+			List.of("value_sets", "value_set_id"), List.of("binaries", "binary_id"));
+
+	static final class Tag
+	{
+		final String accessType;
+		final String organizationIdentifier;
+		final String roleSystem;
+		final String roleCode;
+
+		Tag(String accessType, String organizationIdentifier, String roleSystem, String roleCode)
+		{
+			this.accessType = accessType;
+			this.organizationIdentifier = organizationIdentifier;
+			this.roleSystem = roleSystem;
+			this.roleCode = roleCode;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(accessType, organizationIdentifier, roleSystem, roleCode);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			Tag other = (Tag) obj;
+			return Objects.equals(accessType, other.accessType)
+					&& Objects.equals(organizationIdentifier, other.organizationIdentifier)
+					&& Objects.equals(roleSystem, other.roleSystem) && Objects.equals(roleCode, other.roleCode);
+		}
+	}
+
+	static final class SecurityContext
+	{
+		final UUID resourceId;
+		final Long resourceVersion;
+
+		SecurityContext(UUID resourceId, Long resourceVersion)
+		{
+			this.resourceId = resourceId;
+			this.resourceVersion = resourceVersion;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(resourceId, resourceVersion);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			SecurityContext other = (SecurityContext) obj;
+			return Objects.equals(resourceId, other.resourceId)
+					&& Objects.equals(resourceVersion, other.resourceVersion);
+		}
+	}
+
+	static final class Entry
+	{
+		final String accessType;
+		final UUID organizationId;
+		final UUID organizationAffiliationId;
+
+		Entry(String accessType, UUID organizationId, UUID organizationAffiliationId)
+		{
+			this.accessType = accessType;
+			this.organizationId = organizationId;
+			this.organizationAffiliationId = organizationAffiliationId;
+		}
+
+		/**
+		 * @return columns of the <code>read_access</code> unique constraint without resource id and version
+		 */
+		List<Object> getKey()
+		{
+			return Arrays.asList(accessType, organizationId);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(accessType, organizationId, organizationAffiliationId);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			Entry other = (Entry) obj;
+			return Objects.equals(accessType, other.accessType) && Objects.equals(organizationId, other.organizationId)
+					&& Objects.equals(organizationAffiliationId, other.organizationAffiliationId);
+		}
+
+		@Override
+		public String toString()
+		{
+			return accessType + (organizationId == null ? "" : "/" + organizationId)
+					+ (organizationAffiliationId == null ? "" : "/" + organizationAffiliationId);
+		}
+	}
+
+	/**
+	 * Read access tags and security context of a resource created within the current transaction, recorded when the
+	 * resource is created.
+	 */
+	static final class Created
+	{
+		final UUID id;
+		final long version;
+		final String resourceType;
+		final List<Tag> tags;
+		final SecurityContext securityContext;
+
+		Created(UUID id, long version, String resourceType, List<Tag> tags, SecurityContext securityContext)
+		{
+			this.id = id;
+			this.version = version;
+			this.resourceType = resourceType;
+			this.tags = tags;
+			this.securityContext = securityContext;
+		}
+
+		boolean isBinary()
+		{
+			return ResourceType.Binary.name().equals(resourceType);
+		}
+	}
+
+	private static final class Role
+	{
+		final UUID memberOrganizationId;
+		final UUID organizationAffiliationId;
+
+		Role(UUID memberOrganizationId, UUID organizationAffiliationId)
+		{
+			this.memberOrganizationId = memberOrganizationId;
+			this.organizationAffiliationId = organizationAffiliationId;
+		}
+	}
+
+	private static final class Affiliation
+	{
+		final UUID id;
+		final UUID organizationId;
+		final UUID participatingOrganizationId;
+
+		Affiliation(UUID id, UUID organizationId, UUID participatingOrganizationId)
+		{
+			this.id = id;
+			this.organizationId = organizationId;
+			this.participatingOrganizationId = participatingOrganizationId;
+		}
+	}
+
+	/**
+	 * Caches active organizations and organization affiliations for the duration of one operation, all queries use the
+	 * connection of the operation and see uncommitted changes of the current transaction.
+	 */
+	private final class Lookup
+	{
+		final Connection connection;
+
+		final Map<String, List<UUID>> activeOrganizationsByIdentifier = new HashMap<>();
+		final Map<UUID, Boolean> activeOrganizations = new HashMap<>();
+		final Map<List<String>, List<Role>> rolesByTag = new HashMap<>();
+
+		Lookup(Connection connection)
+		{
+			this.connection = connection;
+		}
+
+		List<UUID> getActiveOrganizations(String identifier) throws SQLException
+		{
+			List<UUID> organizations = activeOrganizationsByIdentifier.get(identifier);
+			if (organizations == null)
+			{
+				organizations = new ArrayList<>();
+
+				try (PreparedStatement statement = connection.prepareStatement(SELECT_ACTIVE_ORGANIZATIONS_SQL))
+				{
+					statement.setString(1, identifier);
+
+					logger.trace("Executing query '{}'", statement);
+					try (ResultSet result = statement.executeQuery())
+					{
+						while (result.next())
+							organizations.add(result.getObject(1, UUID.class));
+					}
+				}
+
+				activeOrganizationsByIdentifier.put(identifier, organizations);
+			}
+
+			return organizations;
+		}
+
+		boolean isActiveOrganization(UUID organizationId) throws SQLException
+		{
+			if (organizationId == null)
+				return false;
+
+			Boolean active = activeOrganizations.get(organizationId);
+			if (active == null)
+			{
+				try (PreparedStatement statement = connection.prepareStatement(SELECT_ORGANIZATION_ACTIVE_SQL))
+				{
+					statement.setObject(1, toUuidObject(organizationId));
+
+					logger.trace("Executing query '{}'", statement);
+					try (ResultSet result = statement.executeQuery())
+					{
+						active = result.next() && result.getBoolean(1);
+					}
+				}
+
+				activeOrganizations.put(organizationId, active);
+			}
+
+			return active;
+		}
+
+		List<Role> getRoles(String parentOrganizationIdentifier, String roleSystem, String roleCode) throws SQLException
+		{
+			List<String> key = List.of(parentOrganizationIdentifier, roleSystem, roleCode);
+
+			List<Role> roles = rolesByTag.get(key);
+			if (roles == null)
+			{
+				roles = new ArrayList<>();
+
+				List<UUID> parentOrganizations = getActiveOrganizations(parentOrganizationIdentifier);
+				if (!parentOrganizations.isEmpty())
+				{
+					for (Affiliation affiliation : readActiveAffiliations(roleSystem, roleCode))
+					{
+						if (parentOrganizations.contains(affiliation.organizationId)
+								&& isActiveOrganization(affiliation.participatingOrganizationId))
+							roles.add(new Role(affiliation.participatingOrganizationId, affiliation.id));
+					}
+				}
+
+				rolesByTag.put(key, roles);
+			}
+
+			return roles;
+		}
+
+		private List<Affiliation> readActiveAffiliations(String roleSystem, String roleCode) throws SQLException
+		{
+			try (PreparedStatement statement = connection.prepareStatement(SELECT_ACTIVE_AFFILIATIONS_SQL))
+			{
+				statement.setString(1, roleSystem);
+				statement.setString(2, roleCode);
+
+				logger.trace("Executing query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					return toAffiliations(result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Updates read access tags and security context of the given resource and all <code>read_access</code> entries
+	 * depending on the resource: entries of the resource itself, entries of binaries using the resource as security
+	 * context and, for organizations and organization affiliations, entries of resources with matching ORGANIZATION and
+	 * ROLE read access tags.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void update(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+
+		updateSources(connection, resource, id, version);
+
+		Lookup lookup = new Lookup(connection);
+		writeEntries(connection, id, version, getEntries(lookup, id));
+
+		Set<UUID> affected = new LinkedHashSet<>();
+		affected.add(id);
+
+		if (resource instanceof Organization)
+			affected.addAll(updateOrganizationDependents(lookup, id));
+		else if (resource instanceof OrganizationAffiliation a)
+			affected.addAll(updateAffiliationDependents(lookup, id, toUuid(a.getOrganization().getReference())));
+
+		updateBinaries(lookup, affected);
+	}
+
+	/**
+	 * Replaces read access tags and security context of the resource with the given id by the ones of the given
+	 * resource, does not modify <code>read_access</code> entries.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void updateSources(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+
+		deleteSources(connection, id);
+
+		List<Tag> tags = getTags(resource);
+		if (!tags.isEmpty())
+		{
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_TAG_SQL))
+			{
+				String resourceType = resource.getResourceType().name();
+				PGobject resourceId = toUuidObject(id);
+
+				for (Tag tag : tags)
+				{
+					statement.setString(1, resourceType);
+					statement.setObject(2, resourceId);
+					statement.setLong(3, version);
+					statement.setString(4, tag.accessType);
+					statement.setString(5, tag.organizationIdentifier);
+					statement.setString(6, tag.roleSystem);
+					statement.setString(7, tag.roleCode);
+
+					statement.addBatch();
+				}
+
+				logger.trace("Executing query '{}' for {} tags", INSERT_TAG_SQL, tags.size());
+				statement.executeBatch();
+			}
+		}
+
+		SecurityContext securityContext = getSecurityContext(resource);
+		if (securityContext != null)
+		{
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_SECURITY_CONTEXT_SQL))
+			{
+				statement.setObject(1, toUuidObject(id));
+				statement.setLong(2, version);
+				statement.setObject(3, toUuidObject(securityContext.resourceId));
+				if (securityContext.resourceVersion != null)
+					statement.setLong(4, securityContext.resourceVersion);
+				else
+					statement.setNull(4, Types.BIGINT);
+
+				logger.trace("Executing query '{}'", statement);
+				statement.execute();
+			}
+		}
+	}
+
+	/**
+	 * @param resource
+	 *            not <code>null</code>, not an {@link Organization} or {@link OrganizationAffiliation}
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @return read access tags and security context of the given resource for {@link #updateCreated(Connection, List)}
+	 */
+	Created created(Resource resource, UUID id, long version)
+	{
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+		if (resource instanceof Organization || resource instanceof OrganizationAffiliation)
+			throw new IllegalArgumentException("Organization and OrganizationAffiliation not supported");
+
+		return new Created(id, version, resource.getResourceType().name(), getTags(resource),
+				getSecurityContext(resource));
+	}
+
+	/**
+	 * Set based variant of {@link #update(Connection, Resource, UUID, long)} for resources created within the current
+	 * transaction: read access tags and security contexts of all resources are inserted with one batch each, entries
+	 * are computed with one shared lookup of active organizations and roles and inserted with one batch. Entries of
+	 * binaries are copied from security context resources created within the same set without reading them back.
+	 * Existing binaries using one of the resources as security context are updated once for the whole set.
+	 * <p>
+	 * Organizations and organization affiliations are not supported, entries of dependent resources must be updated
+	 * when they are created.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param created
+	 *            not <code>null</code>, resources without read access tags, security contexts and entries
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	void updateCreated(Connection connection, List<Created> created) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(created, "created");
+
+		if (created.isEmpty())
+			return;
+
+		insertSources(connection, created);
+
+		Map<UUID, Created> createdById = new HashMap<>();
+		created.forEach(c -> createdById.put(c.id, c));
+
+		Lookup lookup = new Lookup(connection);
+		Map<UUID, Collection<Entry>> entries = new LinkedHashMap<>();
+		Set<UUID> outdated = new HashSet<>();
+
+		// binaries last, entries are copied from security context resources created within the same set
+		for (Created c : created.stream().sorted(Comparator.comparing(Created::isBinary)).toList())
+		{
+			Collection<Entry> securityContextEntries;
+			if (c.securityContext != null && isCreated(createdById, c.securityContext))
+			{
+				securityContextEntries = entries.getOrDefault(c.securityContext.resourceId, List.of());
+
+				// binary using a binary created later within the same set as security context
+				if (!entries.containsKey(c.securityContext.resourceId))
+					outdated.add(c.id);
+			}
+			else
+				securityContextEntries = readSecurityContextEntries(connection, c.securityContext);
+
+			entries.put(c.id, getEntries(lookup, c.tags, securityContextEntries));
+		}
+
+		insertEntries(connection, created, entries);
+
+		Set<UUID> upToDate = new HashSet<>(createdById.keySet());
+		upToDate.removeAll(outdated);
+		updateBinaries(lookup, createdById.keySet(), upToDate);
+	}
+
+	private boolean isCreated(Map<UUID, Created> createdById, SecurityContext securityContext)
+	{
+		Created c = createdById.get(securityContext.resourceId);
+		return c != null && (securityContext.resourceVersion == null || securityContext.resourceVersion == c.version);
+	}
+
+	private void insertSources(Connection connection, List<Created> created) throws SQLException
+	{
+		if (created.stream().anyMatch(c -> !c.tags.isEmpty()))
+		{
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_TAG_SQL))
+			{
+				int count = 0;
+				for (Created c : created)
+				{
+					PGobject resourceId = toUuidObject(c.id);
+
+					for (Tag tag : c.tags)
+					{
+						statement.setString(1, c.resourceType);
+						statement.setObject(2, resourceId);
+						statement.setLong(3, c.version);
+						statement.setString(4, tag.accessType);
+						statement.setString(5, tag.organizationIdentifier);
+						statement.setString(6, tag.roleSystem);
+						statement.setString(7, tag.roleCode);
+
+						statement.addBatch();
+						count++;
+					}
+				}
+
+				logger.trace("Executing query '{}' for {} tags", INSERT_TAG_SQL, count);
+				statement.executeBatch();
+			}
+		}
+
+		if (created.stream().anyMatch(c -> c.securityContext != null))
+		{
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_SECURITY_CONTEXT_SQL))
+			{
+				int count = 0;
+				for (Created c : created)
+				{
+					if (c.securityContext == null)
+						continue;
+
+					statement.setObject(1, toUuidObject(c.id));
+					statement.setLong(2, c.version);
+					statement.setObject(3, toUuidObject(c.securityContext.resourceId));
+					if (c.securityContext.resourceVersion != null)
+						statement.setLong(4, c.securityContext.resourceVersion);
+					else
+						statement.setNull(4, Types.BIGINT);
+
+					statement.addBatch();
+					count++;
+				}
+
+				logger.trace("Executing query '{}' for {} security contexts", INSERT_SECURITY_CONTEXT_SQL, count);
+				statement.executeBatch();
+			}
+		}
+	}
+
+	private void insertEntries(Connection connection, List<Created> created, Map<UUID, Collection<Entry>> entries)
+			throws SQLException
+	{
+		if (entries.values().stream().allMatch(Collection::isEmpty))
+			return;
+
+		try (PreparedStatement statement = connection.prepareStatement(INSERT_ENTRY_SQL))
+		{
+			int count = 0;
+			for (Created c : created)
+			{
+				for (Entry entry : entries.get(c.id))
+				{
+					setEntry(statement, c.id, c.version, entry);
+					statement.addBatch();
+					count++;
+				}
+			}
+
+			logger.trace("Executing query '{}' for {} entries", INSERT_ENTRY_SQL, count);
+			statement.executeBatch();
+		}
+	}
+
+	/**
+	 * Removes read access tags and security context of the deleted resource with the given id and updates
+	 * <code>read_access</code> entries of binaries using the resource as security context and, for organizations and
+	 * organization affiliations, entries of resources with matching ORGANIZATION and ROLE read access tags. Entries of
+	 * the deleted resource itself are kept.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resourceTypeName
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void delete(Connection connection, String resourceTypeName, UUID id) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resourceTypeName, "resourceTypeName");
+		Objects.requireNonNull(id, "id");
+
+		deleteSources(connection, id);
+
+		Lookup lookup = new Lookup(connection);
+
+		Set<UUID> affected = new LinkedHashSet<>();
+		affected.add(id);
+
+		if (ResourceType.Organization.name().equals(resourceTypeName))
+			affected.addAll(updateOrganizationDependents(lookup, id));
+		else if (ResourceType.OrganizationAffiliation.name().equals(resourceTypeName))
+			affected.addAll(updateAffiliationDependents(lookup, id, null));
+
+		updateBinaries(lookup, affected);
+	}
+
+	/**
+	 * Compares <code>read_access</code> entries of the current version of all resources with the entries computed from
+	 * read access tags and security contexts. Differences are logged. Can be used to validate entries created by the
+	 * former database triggers after the <code>read_access_tags</code> and <code>read_access_security_contexts</code>
+	 * tables have been filled.
+	 * <p>
+	 * Resources are read table by table in pages of {@value #CHECK_PAGE_SIZE} ordered by id, the transaction is
+	 * committed after each page. Binaries are checked last.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, without auto commit
+	 * @param rebuild
+	 *            <code>true</code> to replace differing entries with the computed entries
+	 * @return number of resources with differing entries
+	 * @throws SQLException
+	 *             if a database access error occurs, entries of the current page are not committed
+	 */
+	public int check(Connection connection, boolean rebuild) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+
+		int differing = 0;
+		for (List<String> table : CHECK_TABLES)
+		{
+			UUID lastId = null;
+			Map<UUID, Long> page;
+			do
+			{
+				page = readCurrentPage(connection, table.get(0), table.get(1), lastId);
+				differing += check(connection, new Lookup(connection), page, rebuild);
+
+				connection.commit();
+
+				for (UUID id : page.keySet())
+					lastId = id;
+			}
+			while (page.size() == CHECK_PAGE_SIZE);
+		}
+
+		return differing;
+	}
+
+	private Map<UUID, Long> readCurrentPage(Connection connection, String table, String idColumn, UUID lastId)
+			throws SQLException
+	{
+		String sql = "SELECT " + idColumn + ", version FROM current_" + table
+				+ (lastId == null ? "" : " WHERE " + idColumn + " > ?") + " ORDER BY " + idColumn + " LIMIT ?";
+
+		try (PreparedStatement statement = connection.prepareStatement(sql))
+		{
+			int parameterIndex = 1;
+			if (lastId != null)
+				statement.setObject(parameterIndex++, toUuidObject(lastId));
+			statement.setInt(parameterIndex, CHECK_PAGE_SIZE);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				Map<UUID, Long> resources = new LinkedHashMap<>();
+				while (result.next())
+					resources.put(result.getObject(1, UUID.class), result.getLong(2));
+
+				return resources;
+			}
+		}
+	}
+
+	private int check(Connection connection, Lookup lookup, Map<UUID, Long> resources, boolean rebuild)
+			throws SQLException
+	{
+		int differing = 0;
+		for (Map.Entry<UUID, Long> resource : resources.entrySet())
+		{
+			UUID id = resource.getKey();
+			long version = resource.getValue();
+
+			Collection<Entry> expected = getEntries(lookup, id);
+			List<Entry> existing = readEntries(connection, id, version);
+
+			List<Entry> missing = expected.stream().filter(e -> !existing.contains(e)).toList();
+			List<Entry> unexpected = existing.stream().filter(e -> !expected.contains(e)).toList();
+
+			if (!missing.isEmpty() || !unexpected.isEmpty())
+			{
+				differing++;
+
+				logger.warn("read_access entries of resource {}/_history/{} differ, missing: {}, unexpected: {}", id,
+						version, missing, unexpected);
+
+				if (rebuild)
+					writeEntries(connection, id, version, expected);
+			}
+		}
+
+		return differing;
+	}
+
+	private void deleteSources(Connection connection, UUID id) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(DELETE_TAGS_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(DELETE_SECURITY_CONTEXT_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	List<Tag> getTags(Resource resource)
+	{
+		if (!resource.hasMeta() || !resource.getMeta().hasTag())
+			return List.of();
+
+		return resource.getMeta().getTag().stream().filter(c -> READ_ACCESS_TAG_SYSTEM.equals(c.getSystem()))
+				.filter(Coding::hasCode).flatMap(this::toTags).distinct().toList();
+	}
+
+	private Stream<Tag> toTags(Coding tag)
+	{
+		switch (tag.getCode())
+		{
+			case READ_ACCESS_TAG_VALUE_ALL:
+			case READ_ACCESS_TAG_VALUE_LOCAL:
+				return Stream.of(new Tag(tag.getCode(), null, null, null));
+
+			case READ_ACCESS_TAG_VALUE_ORGANIZATION:
+				return extensions(tag, EXTENSION_READ_ACCESS_ORGANIZATION).flatMap(this::organizationIdentifiers)
+						.map(i -> new Tag(READ_ACCESS_TAG_VALUE_ORGANIZATION, i, null, null));
+
+			case READ_ACCESS_TAG_VALUE_ROLE:
+				return extensions(tag, EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE).flatMap(e ->
+				{
+					List<String> parents = extensions(e,
+							EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE_PARENT_ORGANIZATION)
+							.flatMap(this::organizationIdentifiers).toList();
+
+					return extensions(e, EXTENSION_READ_ACCESS_PARENT_ORGANIZATION_ROLE_ORGANIZATION_ROLE)
+							.map(Extension::getValue).filter(v -> v instanceof Coding).map(v -> (Coding) v)
+							.filter(Coding::hasSystem).filter(Coding::hasCode).flatMap(c -> parents.stream()
+									.map(p -> new Tag(READ_ACCESS_TAG_VALUE_ROLE, p, c.getSystem(), c.getCode())));
+				});
+
+			default:
+				return Stream.empty();
+		}
+	}
+
+	private Stream<Extension> extensions(Element element, String url)
+	{
+		return element.getExtension().stream().filter(e -> url.equals(e.getUrl()));
+	}
+
+	private Stream<String> organizationIdentifiers(Extension extension)
+	{
+		return Stream.of(extension.getValue()).filter(v -> v instanceof Identifier).map(v -> (Identifier) v)
+				.filter(i -> ORGANIZATION_IDENTIFIER_SYSTEM.equals(i.getSystem())).filter(Identifier::hasValue)
+				.map(Identifier::getValue);
+	}
+
+	SecurityContext getSecurityContext(Resource resource)
+	{
+		if (!(resource instanceof Binary b) || !b.hasSecurityContext() || !b.getSecurityContext().hasReference())
+			return null;
+
+		IdType reference = new IdType(b.getSecurityContext().getReference());
+		UUID resourceId = toUuid(reference.getIdPart());
+		if (resourceId == null)
+			return null;
+
+		return new SecurityContext(resourceId,
+				reference.hasVersionIdPart() && reference.isVersionIdPartValidLong()
+						? reference.getVersionIdPartAsLong()
+						: null);
+	}
+
+	private Collection<Entry> getEntries(Lookup lookup, UUID id) throws SQLException
+	{
+		return getEntries(lookup, readTags(lookup.connection, id),
+				readSecurityContextEntries(lookup.connection, readSecurityContext(lookup.connection, id)));
+	}
+
+	private Collection<Entry> getEntries(Lookup lookup, List<Tag> tags, Collection<Entry> securityContextEntries)
+			throws SQLException
+	{
+		Map<List<Object>, Entry> entries = new LinkedHashMap<>();
+
+		for (Tag tag : tags)
+		{
+			switch (tag.accessType)
+			{
+				case READ_ACCESS_TAG_VALUE_ALL:
+				case READ_ACCESS_TAG_VALUE_LOCAL:
+					add(entries, new Entry(tag.accessType, null, null));
+					break;
+
+				case READ_ACCESS_TAG_VALUE_ORGANIZATION:
+					for (UUID organizationId : lookup.getActiveOrganizations(tag.organizationIdentifier))
+						add(entries, new Entry(READ_ACCESS_TAG_VALUE_ORGANIZATION, organizationId, null));
+					break;
+
+				case READ_ACCESS_TAG_VALUE_ROLE:
+					for (Role role : lookup.getRoles(tag.organizationIdentifier, tag.roleSystem, tag.roleCode))
+						add(entries, new Entry(READ_ACCESS_TAG_VALUE_ROLE, role.memberOrganizationId,
+								role.organizationAffiliationId));
+					break;
+			}
+		}
+
+		for (Entry entry : securityContextEntries)
+			add(entries, entry);
+
+		return entries.values();
+	}
+
+	/**
+	 * @param securityContext
+	 *            may be <code>null</code>
+	 * @return entries of the security context resource, empty if <code>null</code> or deleted, for version independent
+	 *         security contexts also empty if the current version has no read access tags
+	 */
+	private List<Entry> readSecurityContextEntries(Connection connection, SecurityContext securityContext)
+			throws SQLException
+	{
+		if (securityContext == null)
+			return List.of();
+
+		// entries of the referenced version, independent of read access tags of the current version
+		if (securityContext.resourceVersion != null)
+			return isDeleted(connection, securityContext.resourceId) ? List.of()
+					: readEntries(connection, securityContext.resourceId, securityContext.resourceVersion);
+
+		Long currentVersion = readCurrentVersions(connection, List.of(securityContext.resourceId))
+				.get(securityContext.resourceId);
+
+		// security context resource deleted or without read access tags
+		if (currentVersion == null)
+			return List.of();
+
+		return readEntries(connection, securityContext.resourceId, currentVersion);
+	}
+
+	private boolean isDeleted(Connection connection, UUID id) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_DELETED_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				return result.next() && result.getBoolean(1);
+			}
+		}
+	}
+
+	private void add(Map<List<Object>, Entry> entries, Entry entry)
+	{
+		entries.putIfAbsent(entry.getKey(), entry);
+	}
+
+	private List<UUID> updateOrganizationDependents(Lookup lookup, UUID organizationId) throws SQLException
+	{
+		List<Affiliation> affiliations = readAffiliations(lookup.connection, organizationId).stream().filter(
+				a -> organizationId.equals(a.organizationId) || organizationId.equals(a.participatingOrganizationId))
+				.toList();
+
+		List<UUID> parentOrganizations = Stream
+				.concat(Stream.of(organizationId), affiliations.stream().map(a -> a.organizationId))
+				.filter(Objects::nonNull).distinct().toList();
+
+		return updateDependents(lookup, organizationId, affiliations.stream().map(a -> a.id).toList(),
+				readOrganizationIdentifiers(lookup.connection, parentOrganizations));
+	}
+
+	private List<UUID> updateAffiliationDependents(Lookup lookup, UUID affiliationId, UUID parentOrganizationId)
+			throws SQLException
+	{
+		List<String> parentIdentifiers = parentOrganizationId == null ? List.of()
+				: readOrganizationIdentifiers(lookup.connection, List.of(parentOrganizationId));
+
+		return updateDependents(lookup, null, List.of(affiliationId), parentIdentifiers);
+	}
+
+	/**
+	 * Removes entries of previous resource versions for the given organization and affiliations and recomputes entries
+	 * of the current version of resources with existing entries for the organization and affiliations or with read
+	 * access tags for the given identifiers.
+	 */
+	private List<UUID> updateDependents(Lookup lookup, UUID organizationId, List<UUID> affiliationIds,
+			List<String> identifiers) throws SQLException
+	{
+		Connection connection = lookup.connection;
+		Array affiliationIdArray = connection.createArrayOf("UUID", affiliationIds.toArray());
+
+		Set<UUID> affected = new LinkedHashSet<>();
+
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_AFFECTED_BY_ENTRIES_SQL))
+		{
+			setUuidOrNull(statement, 1, organizationId);
+			statement.setArray(2, affiliationIdArray);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+					affected.add(result.getObject(1, UUID.class));
+			}
+		}
+
+		if (!identifiers.isEmpty())
+		{
+			try (PreparedStatement statement = connection.prepareStatement(SELECT_AFFECTED_BY_TAGS_SQL))
+			{
+				statement.setArray(1, connection.createArrayOf("TEXT", identifiers.toArray()));
+
+				logger.trace("Executing query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					while (result.next())
+						affected.add(result.getObject(1, UUID.class));
+				}
+			}
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(DELETE_PREVIOUS_VERSION_ENTRIES_SQL))
+		{
+			setUuidOrNull(statement, 1, organizationId);
+			statement.setArray(2, affiliationIdArray);
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+
+		List<UUID> updated = new ArrayList<>();
+		for (Map.Entry<UUID, Long> current : readCurrentVersions(connection, affected).entrySet())
+		{
+			writeEntries(connection, current.getKey(), current.getValue(), getEntries(lookup, current.getKey()));
+			updated.add(current.getKey());
+		}
+
+		return updated;
+	}
+
+	private void updateBinaries(Lookup lookup, Collection<UUID> securityContextIds) throws SQLException
+	{
+		updateBinaries(lookup, securityContextIds, Set.of());
+	}
+
+	private void updateBinaries(Lookup lookup, Collection<UUID> securityContextIds, Set<UUID> skip) throws SQLException
+	{
+		Connection connection = lookup.connection;
+
+		List<UUID> binaries = new ArrayList<>();
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_BINARIES_SQL))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", securityContextIds.toArray()));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					UUID binary = result.getObject(1, UUID.class);
+					if (!skip.contains(binary))
+						binaries.add(binary);
+				}
+			}
+		}
+
+		if (binaries.isEmpty())
+			return;
+
+		for (Map.Entry<UUID, Long> current : readCurrentVersions(connection, binaries).entrySet())
+			writeEntries(connection, current.getKey(), current.getValue(), getEntries(lookup, current.getKey()));
+	}
+
+	private void writeEntries(Connection connection, UUID id, long version, Collection<Entry> entries)
+			throws SQLException
+	{
+		List<Entry> existing = readEntries(connection, id, version);
+
+		List<Entry> toDelete = existing.stream().filter(e -> !entries.contains(e)).toList();
+		List<Entry> toInsert = entries.stream().filter(e -> !existing.contains(e)).toList();
+
+		if (!toDelete.isEmpty())
+		{
+			try (PreparedStatement statement = connection.prepareStatement(DELETE_ENTRY_SQL))
+			{
+				for (Entry entry : toDelete)
+				{
+					setEntry(statement, id, version, entry);
+					statement.addBatch();
+				}
+
+				logger.trace("Executing query '{}' for {} entries", DELETE_ENTRY_SQL, toDelete.size());
+				statement.executeBatch();
+			}
+		}
+
+		if (!toInsert.isEmpty())
+		{
+			try (PreparedStatement statement = connection.prepareStatement(INSERT_ENTRY_SQL))
+			{
+				for (Entry entry : toInsert)
+				{
+					setEntry(statement, id, version, entry);
+					statement.addBatch();
+				}
+
+				logger.trace("Executing query '{}' for {} entries", INSERT_ENTRY_SQL, toInsert.size());
+				statement.executeBatch();
+			}
+		}
+	}
+
+	private void setEntry(PreparedStatement statement, UUID id, long version, Entry entry) throws SQLException
+	{
+		statement.setObject(1, toUuidObject(id));
+		statement.setLong(2, version);
+		statement.setString(3, entry.accessType);
+		setUuidOrNull(statement, 4, entry.organizationId);
+		setUuidOrNull(statement, 5, entry.organizationAffiliationId);
+	}
+
+	private List<Entry> readEntries(Connection connection, UUID id, long version) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_ENTRIES_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+			statement.setLong(2, version);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<Entry> entries = new ArrayList<>();
+				while (result.next())
+					entries.add(new Entry(result.getString(1), result.getObject(2, UUID.class),
+							result.getObject(3, UUID.class)));
+
+				return entries;
+			}
+		}
+	}
+
+	private List<Tag> readTags(Connection connection, UUID id) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_TAGS_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<Tag> tags = new ArrayList<>();
+				while (result.next())
+					tags.add(new Tag(result.getString(1), result.getString(2), result.getString(3),
+							result.getString(4)));
+
+				return tags;
+			}
+		}
+	}
+
+	private SecurityContext readSecurityContext(Connection connection, UUID id) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_SECURITY_CONTEXT_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				if (!result.next())
+					return null;
+
+				UUID resourceId = result.getObject(1, UUID.class);
+				long version = result.getLong(2);
+				return new SecurityContext(resourceId, result.wasNull() ? null : version);
+			}
+		}
+	}
+
+	/**
+	 * @return current versions of the given resources with read access tags or security context
+	 */
+	private Map<UUID, Long> readCurrentVersions(Connection connection, Collection<UUID> ids) throws SQLException
+	{
+		if (ids.isEmpty())
+			return Map.of();
+
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_CURRENT_VERSIONS_SQL))
+		{
+			Array idArray = connection.createArrayOf("UUID", ids.toArray());
+			statement.setArray(1, idArray);
+			statement.setArray(2, idArray);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				Map<UUID, Long> versions = new LinkedHashMap<>();
+				while (result.next())
+					versions.put(result.getObject(1, UUID.class), result.getLong(2));
+
+				return versions;
+			}
+		}
+	}
+
+	private List<String> readOrganizationIdentifiers(Connection connection, List<UUID> organizationIds)
+			throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_ORGANIZATION_IDENTIFIERS_SQL))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", organizationIds.toArray()));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<String> identifiers = new ArrayList<>();
+				while (result.next())
+					identifiers.add(result.getString(1));
+
+				return identifiers;
+			}
+		}
+	}
+
+	/**
+	 * Uses the <code>resource_references</code> index to select affiliations referencing the given organization, the
+	 * current references are checked by the caller.
+	 */
+	private List<Affiliation> readAffiliations(Connection connection, UUID organizationId) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_AFFILIATIONS_OF_ORGANIZATION_SQL))
+		{
+			statement.setObject(1, toUuidObject(organizationId));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				return toAffiliations(result);
+			}
+		}
+	}
+
+	private List<Affiliation> toAffiliations(ResultSet result) throws SQLException
+	{
+		List<Affiliation> affiliations = new ArrayList<>();
+		while (result.next())
+			affiliations.add(new Affiliation(result.getObject(1, UUID.class), toUuid(result.getString(2)),
+					toUuid(result.getString(3))));
+
+		return affiliations;
+	}
+
+	/**
+	 * @param reference
+	 *            may be <code>null</code>, relative or absolute literal reference or plain id
+	 * @return <code>null</code> if the given reference is <code>null</code> or does not contain a UUID id
+	 */
+	private static UUID toUuid(String reference)
+	{
+		if (reference == null || reference.isBlank())
+			return null;
+
+		try
+		{
+			return UUID.fromString(new IdType(reference).getIdPart());
+		}
+		catch (IllegalArgumentException | NullPointerException e)
+		{
+			return null;
+		}
+	}
+
+	private void setUuidOrNull(PreparedStatement statement, int index, UUID uuid) throws SQLException
+	{
+		if (uuid == null)
+			statement.setNull(index, Types.OTHER);
+		else
+			statement.setObject(index, toUuidObject(uuid));
+	}
+
+	private PGobject toUuidObject(UUID uuid) throws SQLException
+	{
+		PGobject uuidObject = new PGobject();
+		uuidObject.setType("UUID");
+		uuidObject.setValue(uuid.toString());
+		return uuidObject;
+	}
+}
@@ -0,0 +1,224 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hl7.fhir.r4.model.Resource;
+import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.service.ReferenceExtractor;
+import dev.dsf.fhir.service.ResourceReference;
+
+/**
+ * Maintains the <code>resource_references</code> table used by reference search parameters, includes and revincludes.
+ * Only relative literal references of the form <code>Type/id</code> or <code>Type/id/_history/version</code> with a
+ * UUID id are stored, matching the reference values compared by the search parameters. Entries always belong to the
+ * current version of the source resource.
+ */
+public class ResourceReferenceIndex
+{
+	private static final Logger logger = LoggerFactory.getLogger(ResourceReferenceIndex.class);
+
+	private static final Pattern RELATIVE_REFERENCE_PATTERN = Pattern
+			.compile("(?<type>[A-Z][A-Za-z]+)/(?<id>[0-9a-fA-F\\-]{36})(?:/_history/(?<version>[0-9]{1,18}))?");
+
+	private static final String INSERT_SQL = "INSERT INTO resource_references (source_type, source_id, source_version, path, target_type, target_id, target_version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+	private static final String DELETE_SQL = "DELETE FROM resource_references WHERE source_id = ?";
+
+	static final class IndexedReference
+	{
+		final String path;
+		final String targetType;
+		final UUID targetId;
+		final Long targetVersion;
+
+		IndexedReference(String path, String targetType, UUID targetId, Long targetVersion)
+		{
+			this.path = path;
+			this.targetType = targetType;
+			this.targetId = targetId;
+			this.targetVersion = targetVersion;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(path, targetType, targetId, targetVersion);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			IndexedReference other = (IndexedReference) obj;
+			return Objects.equals(path, other.path) && Objects.equals(targetType, other.targetType)
+					&& Objects.equals(targetId, other.targetId) && Objects.equals(targetVersion, other.targetVersion);
+		}
+	}
+
+	private final ReferenceExtractor referenceExtractor;
+
+	public ResourceReferenceIndex(ReferenceExtractor referenceExtractor)
+	{
+		this.referenceExtractor = Objects.requireNonNull(referenceExtractor, "referenceExtractor");
+	}
+
+	/**
+	 * Replaces all entries of the resource with the given id by the references of the given resource.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void update(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+
+		delete(connection, id);
+		insert(connection, List.of(resource), List.of(id), version);
+	}
+
+	/**
+	 * Adds entries for the references of the given newly created resources, all entries are inserted with one batch.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resources
+	 *            not <code>null</code>
+	 * @param ids
+	 *            not <code>null</code>, ids of the given resources in the same order
+	 * @param version
+	 *            version of the given resources
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void create(Connection connection, List<? extends Resource> resources, List<UUID> ids, long version)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resources, "resources");
+		Objects.requireNonNull(ids, "ids");
+		if (resources.size() != ids.size())
+			throw new IllegalArgumentException("resources and ids differ in size");
+
+		insert(connection, resources, ids, version);
+	}
+
+	private void insert(Connection connection, List<? extends Resource> resources, List<UUID> ids, long version)
+			throws SQLException
+	{
+		int count = 0;
+		try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL))
+		{
+			for (int i = 0; i < resources.size(); i++)
+			{
+				String sourceType = resources.get(i).getResourceType().name();
+				PGobject sourceId = toUuidObject(ids.get(i));
+
+				for (IndexedReference reference : getReferences(resources.get(i)))
+				{
+					statement.setString(1, sourceType);
+					statement.setObject(2, sourceId);
+					statement.setLong(3, version);
+					statement.setString(4, reference.path);
+					statement.setString(5, reference.targetType);
+					statement.setObject(6, toUuidObject(reference.targetId));
+					if (reference.targetVersion != null)
+						statement.setLong(7, reference.targetVersion);
+					else
+						statement.setNull(7, Types.BIGINT);
+
+					statement.addBatch();
+					count++;
+				}
+			}
+
+			if (count == 0)
+				return;
+
+			logger.trace("Executing query '{}' for {} references", INSERT_SQL, count);
+			statement.executeBatch();
+		}
+	}
+
+	/**
+	 * Removes all entries of the resource with the given id.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void delete(Connection connection, UUID id) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(id, "id");
+
+		try (PreparedStatement statement = connection.prepareStatement(DELETE_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	List<IndexedReference> getReferences(Resource resource)
+	{
+		return referenceExtractor.getReferences(resource).filter(ResourceReference::hasReference)
+				.filter(r -> r.getReference().hasReference()).map(this::toIndexedReference).filter(Objects::nonNull)
+				.distinct().toList();
+	}
+
+	private IndexedReference toIndexedReference(ResourceReference reference)
+	{
+		Matcher matcher = RELATIVE_REFERENCE_PATTERN.matcher(reference.getReference().getReference());
+		if (!matcher.matches())
+			return null;
+
+		try
+		{
+			UUID targetId = UUID.fromString(matcher.group("id"));
+			String version = matcher.group("version");
+
+			return new IndexedReference(reference.getLocation(), matcher.group("type"), targetId,
+					version == null ? null : Long.valueOf(version));
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	private PGobject toUuidObject(UUID uuid) throws SQLException
+	{
+		PGobject uuidObject = new PGobject();
+		uuidObject.setType("UUID");
+		uuidObject.setValue(uuid.toString());
+		return uuidObject;
+	}
+}
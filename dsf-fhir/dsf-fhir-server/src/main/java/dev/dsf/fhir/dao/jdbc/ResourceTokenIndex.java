@@ -0,0 +1,222 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.DocumentReference;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Property;
+import org.hl7.fhir.r4.model.Resource;
+import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.fhir.search.parameters.OrganizationAffiliationRole;
+import dev.dsf.fhir.search.parameters.OrganizationType;
+import dev.dsf.fhir.search.parameters.basic.AbstractIdentifierParameter;
+
+/**
+ * Maintains the <code>resource_tokens</code> table used by identifier and coding token search parameters. Stores system
+ * and value of all identifiers as parameter <code>identifier</code> (including
+ * <code>DocumentReference.masterIdentifier</code>), system and code of <code>Organization.type</code> and
+ * <code>OrganizationAffiliation.code</code> codings as parameters <code>type</code> and <code>role</code>. Entries
+ * always belong to the current version of the resource.
+ */
+public class ResourceTokenIndex
+{
+	private static final Logger logger = LoggerFactory.getLogger(ResourceTokenIndex.class);
+
+	private static final String INSERT_SQL = "INSERT INTO resource_tokens (resource_type, resource_id, version, param, system, code) VALUES (?, ?, ?, ?, ?, ?)";
+	private static final String DELETE_SQL = "DELETE FROM resource_tokens WHERE resource_id = ?";
+
+	static final class IndexedToken
+	{
+		final String param;
+		final String system;
+		final String code;
+
+		IndexedToken(String param, String system, String code)
+		{
+			this.param = param;
+			this.system = system;
+			this.code = code;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(param, system, code);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			IndexedToken other = (IndexedToken) obj;
+			return Objects.equals(param, other.param) && Objects.equals(system, other.system)
+					&& Objects.equals(code, other.code);
+		}
+	}
+
+	/**
+	 * Replaces all entries of the resource with the given id by the tokens of the given resource.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void update(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(id, "id");
+
+		delete(connection, id);
+		insert(connection, List.of(resource), List.of(id), version);
+	}
+
+	/**
+	 * Adds entries for the tokens of the given newly created resources, all entries are inserted with one batch.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resources
+	 *            not <code>null</code>
+	 * @param ids
+	 *            not <code>null</code>, ids of the given resources in the same order
+	 * @param version
+	 *            version of the given resources
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void create(Connection connection, List<? extends Resource> resources, List<UUID> ids, long version)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resources, "resources");
+		Objects.requireNonNull(ids, "ids");
+		if (resources.size() != ids.size())
+			throw new IllegalArgumentException("resources and ids differ in size");
+
+		insert(connection, resources, ids, version);
+	}
+
+	private void insert(Connection connection, List<? extends Resource> resources, List<UUID> ids, long version)
+			throws SQLException
+	{
+		int count = 0;
+		try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL))
+		{
+			for (int i = 0; i < resources.size(); i++)
+			{
+				String resourceType = resources.get(i).getResourceType().name();
+				PGobject resourceId = toUuidObject(ids.get(i));
+
+				for (IndexedToken token : getTokens(resources.get(i)))
+				{
+					statement.setString(1, resourceType);
+					statement.setObject(2, resourceId);
+					statement.setLong(3, version);
+					statement.setString(4, token.param);
+					statement.setString(5, token.system);
+					statement.setString(6, token.code);
+
+					statement.addBatch();
+					count++;
+				}
+			}
+
+			if (count == 0)
+				return;
+
+			logger.trace("Executing query '{}' for {} tokens", INSERT_SQL, count);
+			statement.executeBatch();
+		}
+	}
+
+	/**
+	 * Removes all entries of the resource with the given id.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	public void delete(Connection connection, UUID id) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(id, "id");
+
+		try (PreparedStatement statement = connection.prepareStatement(DELETE_SQL))
+		{
+			statement.setObject(1, toUuidObject(id));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	List<IndexedToken> getTokens(Resource resource)
+	{
+		Stream<IndexedToken> identifiers = getIdentifiers(resource)
+				.map(i -> new IndexedToken(AbstractIdentifierParameter.PARAMETER_NAME,
+						i.hasSystem() ? i.getSystem() : null, i.hasValue() ? i.getValue() : null));
+
+		Stream<IndexedToken> codings = Stream.empty();
+		if (resource instanceof Organization o && o.hasType())
+			codings = codings(OrganizationType.PARAMETER_NAME, o.getType());
+		else if (resource instanceof OrganizationAffiliation a && a.hasCode())
+			codings = codings(OrganizationAffiliationRole.PARAMETER_NAME, a.getCode());
+
+		return Stream.concat(identifiers, codings).filter(t -> t.system != null || t.code != null).distinct().toList();
+	}
+
+	private Stream<Identifier> getIdentifiers(Resource resource)
+	{
+		Property identifier = resource.getNamedProperty("identifier");
+		Stream<Identifier> identifiers = identifier == null ? Stream.empty()
+				: identifier.getValues().stream().filter(v -> v instanceof Identifier).map(v -> (Identifier) v);
+
+		if (resource instanceof DocumentReference d && d.hasMasterIdentifier())
+			return Stream.concat(identifiers, Stream.of(d.getMasterIdentifier()));
+		else
+			return identifiers;
+	}
+
+	private Stream<IndexedToken> codings(String param, List<CodeableConcept> concepts)
+	{
+		return concepts.stream().filter(CodeableConcept::hasCoding).map(CodeableConcept::getCoding)
+				.flatMap(List::stream).filter(Coding::hasCode)
+				.map(c -> new IndexedToken(param, c.hasSystem() ? c.getSystem() : null, c.getCode()));
+	}
+
+	private PGobject toUuidObject(UUID uuid) throws SQLException
+	{
+		PGobject uuidObject = new PGobject();
+		uuidObject.setType("UUID");
+		uuidObject.setValue(uuid.toString());
+		return uuidObject;
+	}
+}
@@ -17,6 +17,34 @@ public class StructureDefinitionSnapshotDaoJdbc extends AbstractStructureDefinit
 				StructureDefinitionSnapshotIdentityFilter::new);
 	}
 
+	@Override
+	protected boolean isHistoryEnabled()
+	{
+		// snapshots are derived from structure definitions and not part of the resource history
+		return false;
+	}
+
+	@Override
+	protected boolean isReferenceIndexEnabled()
+	{
+		// snapshots share ids with structure definitions, references are recorded for the structure definition
+		return false;
+	}
+
+	@Override
+	protected boolean isTokenIndexEnabled()
+	{
+		// snapshots share ids with structure definitions, identifiers are recorded for the structure definition
+		return false;
+	}
+
+	@Override
+	protected boolean isReadAccessIndexEnabled()
+	{
+		// snapshots share ids with structure definitions, read access is recorded for the structure definition
+		return false;
+	}
+
 	@Override
 	protected StructureDefinition copy(StructureDefinition resource)
 	{
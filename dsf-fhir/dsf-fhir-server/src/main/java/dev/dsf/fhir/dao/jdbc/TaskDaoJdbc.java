@@ -30,6 +30,13 @@ public class TaskDaoJdbc extends AbstractResourceDaoJdbc<Task> implements TaskDa
 				List.of());
 	}
 
+	@Override
+	protected boolean isReadAccessIndexEnabled()
+	{
+		// read access to tasks is based on requester and restriction.recipient, not on read access tags
+		return false;
+	}
+
 	@Override
 	protected Task copy(Task resource)
 	{
@@ -2,6 +2,7 @@ package dev.dsf.fhir.dao.provider;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 import org.hl7.fhir.r4.model.Resource;
@@ -99,5 +100,10 @@ public interface DaoProvider
 
 	Optional<ResourceDao<?>> getDao(String resourceTypeName);
 
+	/**
+	 * @return sorted names of all resource types with a {@link ResourceDao}
+	 */
+	List<String> getResourceTypeNames();
+
 	ReadAccessDao getReadAccessDao();
 }
@@ -3,6 +3,7 @@ package dev.dsf.fhir.dao.provider;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -408,6 +409,12 @@ public class DaoProviderImpl implements DaoProvider, InitializingBean
 		return Optional.ofNullable(value);
 	}
 
+	@Override
+	public List<String> getResourceTypeNames()
+	{
+		return daosByResourceTypeName.keySet().stream().sorted().toList();
+	}
+
 	@Override
 	public ReadAccessDao getReadAccessDao()
 	{
@@ -0,0 +1,238 @@
+package dev.dsf.fhir.export;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.history.SinceParameter;
+
+public class ExportJob
+{
+	public enum ExportJobStatus
+	{
+		ACCEPTED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+		public boolean isDone()
+		{
+			return COMPLETED.equals(this) || FAILED.equals(this) || CANCELLED.equals(this);
+		}
+	}
+
+	public static final class ExportOutput
+	{
+		private final String resourceTypeName;
+		private final String fileName;
+		private final long count;
+
+		public ExportOutput(String resourceTypeName, String fileName, long count)
+		{
+			this.resourceTypeName = resourceTypeName;
+			this.fileName = fileName;
+			this.count = count;
+		}
+
+		public String getResourceTypeName()
+		{
+			return resourceTypeName;
+		}
+
+		public String getFileName()
+		{
+			return fileName;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+	}
+
+	private final UUID id = UUID.randomUUID();
+	private final Identity identity;
+	private final Instant transactionTime;
+	private final String request;
+	private final List<String> resourceTypeNames;
+	private final SinceParameter since;
+
+	private final List<ExportOutput> outputs = Collections.synchronizedList(new ArrayList<>());
+
+	private volatile ExportJobStatus status = ExportJobStatus.ACCEPTED;
+	private volatile String resourceTypeNameInProgress;
+	private volatile String error;
+	private volatile Instant finished;
+	private volatile Future<?> future;
+
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param transactionTime
+	 *            not <code>null</code>
+	 * @param request
+	 *            not <code>null</code>, kick-off request url
+	 * @param resourceTypeNames
+	 *            not <code>null</code>, not empty
+	 * @param since
+	 *            may be <code>null</code>
+	 */
+	public ExportJob(Identity identity, Instant transactionTime, String request, List<String> resourceTypeNames,
+			SinceParameter since)
+	{
+		this.identity = Objects.requireNonNull(identity, "identity");
+		this.transactionTime = Objects.requireNonNull(transactionTime, "transactionTime");
+		this.request = Objects.requireNonNull(request, "request");
+		this.resourceTypeNames = List.copyOf(Objects.requireNonNull(resourceTypeNames, "resourceTypeNames"));
+		this.since = since;
+
+		if (resourceTypeNames.isEmpty())
+			throw new IllegalArgumentException("resourceTypeNames empty");
+	}
+
+	public UUID getId()
+	{
+		return id;
+	}
+
+	public Identity getIdentity()
+	{
+		return identity;
+	}
+
+	public Instant getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	public String getRequest()
+	{
+		return request;
+	}
+
+	public List<String> getResourceTypeNames()
+	{
+		return resourceTypeNames;
+	}
+
+	public SinceParameter getSince()
+	{
+		return since;
+	}
+
+	public ExportJobStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * @return resource type currently exported, <code>null</code> if not {@link ExportJobStatus#RUNNING}
+	 */
+	public String getResourceTypeNameInProgress()
+	{
+		return resourceTypeNameInProgress;
+	}
+
+	/**
+	 * @return number of resource types already exported
+	 */
+	public int getResourceTypesDone()
+	{
+		synchronized (outputs)
+		{
+			return (int) outputs.stream().map(ExportOutput::getResourceTypeName).distinct().count();
+		}
+	}
+
+	/**
+	 * @return outputs with at least one resource, in export order
+	 */
+	public List<ExportOutput> getOutputs()
+	{
+		synchronized (outputs)
+		{
+			return outputs.stream().filter(o -> o.getCount() > 0).toList();
+		}
+	}
+
+	/**
+	 * @return error message, <code>null</code> if not {@link ExportJobStatus#FAILED}
+	 */
+	public String getError()
+	{
+		return error;
+	}
+
+	/**
+	 * @return <code>null</code> if not done
+	 */
+	public Instant getFinished()
+	{
+		return finished;
+	}
+
+	void setFuture(Future<?> future)
+	{
+		this.future = future;
+	}
+
+	void running()
+	{
+		status = ExportJobStatus.RUNNING;
+	}
+
+	void exporting(String resourceTypeName)
+	{
+		resourceTypeNameInProgress = resourceTypeName;
+	}
+
+	void addOutput(ExportOutput output)
+	{
+		outputs.add(output);
+	}
+
+	void completed()
+	{
+		finish(ExportJobStatus.COMPLETED);
+	}
+
+	void failed(String error)
+	{
+		this.error = error;
+		finish(ExportJobStatus.FAILED);
+	}
+
+	/**
+	 * @return <code>true</code> if the job was not already done
+	 */
+	synchronized boolean cancel()
+	{
+		if (status.isDone())
+			return false;
+
+		finish(ExportJobStatus.CANCELLED);
+
+		Future<?> f = future;
+		if (f != null)
+			f.cancel(true);
+
+		return true;
+	}
+
+	private synchronized void finish(ExportJobStatus status)
+	{
+		if (this.status.isDone())
+			return;
+
+		this.status = status;
+		resourceTypeNameInProgress = null;
+		finished = Instant.now();
+	}
+
+	public boolean isCancelled()
+	{
+		return ExportJobStatus.CANCELLED.equals(status);
+	}
+}
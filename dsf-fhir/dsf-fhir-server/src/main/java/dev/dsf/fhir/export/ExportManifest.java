@@ -0,0 +1,109 @@
+package dev.dsf.fhir.export;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Complete status response of a bulk data export job, see
+ * <a href="https://hl7.org/fhir/uv/bulkdata/export.html#response---complete-status">Bulk Data Access</a>
+ */
+@JsonPropertyOrder({ "transactionTime", "request", "requiresAccessToken", "output", "error" })
+public class ExportManifest
+{
+	@JsonPropertyOrder({ "type", "url", "count" })
+	public static final class Output
+	{
+		private final String type;
+		private final String url;
+		private final long count;
+
+		public Output(String type, String url, long count)
+		{
+			this.type = type;
+			this.url = url;
+			this.count = count;
+		}
+
+		@JsonProperty("type")
+		public String getType()
+		{
+			return type;
+		}
+
+		@JsonProperty("url")
+		public String getUrl()
+		{
+			return url;
+		}
+
+		@JsonProperty("count")
+		public long getCount()
+		{
+			return count;
+		}
+	}
+
+	private final String transactionTime;
+	private final String request;
+	private final List<Output> output;
+
+	/**
+	 * @param job
+	 *            not <code>null</code>
+	 * @param serverBase
+	 *            not <code>null</code>
+	 */
+	public ExportManifest(ExportJob job, String serverBase)
+	{
+		Objects.requireNonNull(job, "job");
+		Objects.requireNonNull(serverBase, "serverBase");
+
+		transactionTime = job.getTransactionTime().toString();
+		request = job.getRequest();
+		output = job.getOutputs().stream()
+				.map(o -> new Output(o.getResourceTypeName(),
+						serverBase + "/$export-file/" + job.getId().toString() + "/" + o.getFileName(), o.getCount()))
+				.toList();
+	}
+
+	@JsonProperty("transactionTime")
+	public String getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	@JsonProperty("request")
+	public String getRequest()
+	{
+		return request;
+	}
+
+	/**
+	 * @return <code>true</code>, files can only be downloaded by the identity that started the export
+	 */
+	@JsonProperty("requiresAccessToken")
+	public boolean isRequiresAccessToken()
+	{
+		return true;
+	}
+
+	@JsonProperty("output")
+	@JsonInclude(Include.ALWAYS)
+	public List<Output> getOutput()
+	{
+		return output;
+	}
+
+	@JsonProperty("error")
+	@JsonInclude(Include.ALWAYS)
+	public List<Output> getError()
+	{
+		return Collections.emptyList();
+	}
+}
@@ -0,0 +1,60 @@
+package dev.dsf.fhir.export;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.history.SinceParameter;
+
+/**
+ * Asynchronous system level bulk data export, writing one NDJSON file per resource type.
+ */
+public interface ExportService
+{
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param request
+	 *            not <code>null</code>, kick-off request url
+	 * @param resourceTypeNames
+	 *            not <code>null</code>, not empty
+	 * @param since
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the given identity already has an active export job
+	 */
+	Optional<ExportJob> start(Identity identity, String request, List<String> resourceTypeNames, SinceParameter since);
+
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if not found or not started by the given identity
+	 */
+	Optional<ExportJob> getJob(Identity identity, UUID jobId);
+
+	/**
+	 * Cancels the job if active and deletes its files.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the job was found and removed
+	 */
+	boolean delete(Identity identity, UUID jobId);
+
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @param fileName
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the job is not found, not started by the given identity, not completed or the
+	 *         job has no output file with the given name
+	 */
+	Optional<Path> getFile(Identity identity, UUID jobId, String fileName);
+}
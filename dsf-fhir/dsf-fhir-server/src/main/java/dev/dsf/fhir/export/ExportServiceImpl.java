@@ -0,0 +1,311 @@
+package dev.dsf.fhir.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.export.ExportJob.ExportOutput;
+import dev.dsf.fhir.history.SinceParameter;
+
+/**
+ * Runs export jobs on a fixed number of worker threads. Job state is kept in memory, job directories (named by job id)
+ * from previous runs are deleted on startup. Finished jobs and their files are removed after the configured retention
+ * time.
+ */
+public class ExportServiceImpl implements ExportService, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+	public static final String FILE_SUFFIX = ".ndjson";
+
+	private final DaoProvider daoProvider;
+	private final Path directory;
+	private final int workerThreads;
+	private final Duration retention;
+
+	private final Map<UUID, ExportJob> jobs = new ConcurrentHashMap<>();
+
+	private ExecutorService executor;
+	private ScheduledExecutorService cleanupExecutor;
+
+	public ExportServiceImpl(DaoProvider daoProvider, Path directory, int workerThreads, Duration retention)
+	{
+		this.daoProvider = daoProvider;
+		this.directory = directory;
+		this.workerThreads = workerThreads;
+		this.retention = retention;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(directory, "directory");
+		if (workerThreads <= 0)
+			throw new IllegalArgumentException("workerThreads <= 0");
+		Objects.requireNonNull(retention, "retention");
+		if (retention.isNegative() || retention.isZero())
+			throw new IllegalArgumentException("retention <= 0");
+
+		Files.createDirectories(directory);
+		try (Stream<Path> files = Files.list(directory))
+		{
+			// job state not persistent, files from previous runs can not be downloaded
+			// only job directories deleted, the directory is configurable and may contain other files
+			files.filter(this::isJobDirectory).forEach(this::deleteRecursively);
+		}
+
+		executor = Executors.newFixedThreadPool(workerThreads);
+		cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
+
+		long cleanupPeriodSeconds = Math.max(60, retention.toSeconds() / 10);
+		cleanupExecutor.scheduleWithFixedDelay(this::removeExpiredJobs, cleanupPeriodSeconds, cleanupPeriodSeconds,
+				TimeUnit.SECONDS);
+
+		logger.info("Export service started with {} worker thread{}, directory {}, retention {}", workerThreads,
+				workerThreads != 1 ? "s" : "", directory.toAbsolutePath(), retention);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		cleanupExecutor.shutdownNow();
+
+		jobs.values().forEach(ExportJob::cancel);
+		executor.shutdownNow();
+		try
+		{
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS))
+				logger.warn("Export executor did not terminate");
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public synchronized Optional<ExportJob> start(Identity identity, String request, List<String> resourceTypeNames,
+			SinceParameter since)
+	{
+		Objects.requireNonNull(identity, "identity");
+
+		if (jobs.values().stream().filter(j -> !j.getStatus().isDone())
+				.anyMatch(j -> isOwner(identity, j.getIdentity())))
+			return Optional.empty();
+
+		ExportJob job = new ExportJob(identity, Instant.now(), request, resourceTypeNames, since);
+		jobs.put(job.getId(), job);
+		job.setFuture(executor.submit(() -> run(job)));
+
+		logger.info("Export job {} for identity '{}' accepted, resource types {}", job.getId(), identity.getName(),
+				resourceTypeNames);
+
+		return Optional.of(job);
+	}
+
+	private boolean isOwner(Identity identity, Identity jobOwner)
+	{
+		return identity.getName().equals(jobOwner.getName());
+	}
+
+	private void run(ExportJob job)
+	{
+		if (job.isCancelled())
+			return;
+
+		job.running();
+
+		try
+		{
+			Path jobDirectory = Files.createDirectories(directory.resolve(job.getId().toString()));
+
+			for (String resourceTypeName : job.getResourceTypeNames())
+			{
+				if (job.isCancelled() || Thread.currentThread().isInterrupted())
+					return;
+
+				job.exporting(resourceTypeName);
+				job.addOutput(export(job, jobDirectory, resourceTypeName));
+			}
+
+			job.completed();
+			logger.info("Export job {} completed, {} output file{}", job.getId(), job.getOutputs().size(),
+					job.getOutputs().size() != 1 ? "s" : "");
+		}
+		catch (InterruptedIOException e)
+		{
+			logger.info("Export job {} cancelled", job.getId());
+		}
+		catch (Exception e)
+		{
+			if (job.isCancelled())
+			{
+				logger.info("Export job {} cancelled", job.getId());
+			}
+			else
+			{
+				logger.warn("Error while running export job {}: {} - {}", job.getId(), e.getClass().getName(),
+						e.getMessage());
+				job.failed("Export failed, see server log for details");
+			}
+		}
+	}
+
+	private ExportOutput export(ExportJob job, Path jobDirectory, String resourceTypeName)
+			throws SQLException, IOException
+	{
+		ResourceDao<?> dao = daoProvider.getDao(resourceTypeName).orElseThrow(
+				() -> new IllegalStateException("No dao for resource type " + resourceTypeName + " found"));
+
+		String fileName = resourceTypeName + FILE_SUFFIX;
+		Path file = jobDirectory.resolve(fileName);
+
+		long count;
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			count = dao.export(job.getIdentity(), job.getSince(), json ->
+			{
+				if (job.isCancelled() || Thread.currentThread().isInterrupted())
+					throw new InterruptedIOException("Export job " + job.getId() + " cancelled");
+
+				json.writeTo(writer);
+				writer.write('\n');
+			});
+		}
+
+		if (count == 0)
+			Files.deleteIfExists(file);
+
+		logger.debug("Export job {}: {} {} resource{} exported", job.getId(), count, resourceTypeName,
+				count != 1 ? "s" : "");
+
+		return new ExportOutput(resourceTypeName, fileName, count);
+	}
+
+	@Override
+	public Optional<ExportJob> getJob(Identity identity, UUID jobId)
+	{
+		Objects.requireNonNull(identity, "identity");
+
+		if (jobId == null)
+			return Optional.empty();
+
+		return Optional.ofNullable(jobs.get(jobId)).filter(j -> isOwner(identity, j.getIdentity()));
+	}
+
+	@Override
+	public boolean delete(Identity identity, UUID jobId)
+	{
+		Optional<ExportJob> job = getJob(identity, jobId);
+		job.ifPresent(this::remove);
+
+		return job.isPresent();
+	}
+
+	private void remove(ExportJob job)
+	{
+		jobs.remove(job.getId());
+		job.cancel();
+
+		deleteRecursively(directory.resolve(job.getId().toString()));
+
+		logger.info("Export job {} removed", job.getId());
+	}
+
+	@Override
+	public Optional<Path> getFile(Identity identity, UUID jobId, String fileName)
+	{
+		if (fileName == null)
+			return Optional.empty();
+
+		return getJob(identity, jobId).filter(j -> ExportJob.ExportJobStatus.COMPLETED.equals(j.getStatus()))
+				.flatMap(j -> j.getOutputs().stream().filter(o -> fileName.equals(o.getFileName())).findFirst()
+						.map(o -> directory.resolve(j.getId().toString()).resolve(o.getFileName())))
+				.filter(Files::isReadable);
+	}
+
+	private void removeExpiredJobs()
+	{
+		try
+		{
+			Instant expired = Instant.now().minus(retention);
+
+			jobs.values().stream().filter(j -> j.getFinished() != null && j.getFinished().isBefore(expired))
+					.forEach(this::remove);
+		}
+		catch (Exception e)
+		{
+			logger.warn("Error while removing expired export jobs: {} - {}", e.getClass().getName(), e.getMessage());
+		}
+	}
+
+	private boolean isJobDirectory(Path path)
+	{
+		if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+			return false;
+
+		String name = path.getFileName().toString();
+
+		try
+		{
+			return UUID.fromString(name).toString().equals(name);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return false;
+		}
+	}
+
+	private void deleteRecursively(Path path)
+	{
+		if (!Files.exists(path))
+			return;
+
+		try (Stream<Path> files = Files.walk(path))
+		{
+			files.sorted(Comparator.reverseOrder()).forEach(p ->
+			{
+				try
+				{
+					Files.delete(p);
+				}
+				catch (IOException e)
+				{
+					logger.warn("Unable to delete {}: {} - {}", p, e.getClass().getName(), e.getMessage());
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			logger.warn("Unable to delete {}: {} - {}", path, e.getClass().getName(), e.getMessage());
+		}
+	}
+}
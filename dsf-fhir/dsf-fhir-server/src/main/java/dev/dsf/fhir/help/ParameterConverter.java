@@ -38,6 +38,8 @@ public class ParameterConverter
 	public static final String XML_FORMAT = "xml";
 	public static final List<String> XML_FORMATS = List.of(Constants.CT_FHIR_XML, Constants.CT_FHIR_XML_NEW,
 			MediaType.APPLICATION_XML, MediaType.TEXT_XML);
+	public static final List<String> FHIR_FORMATS = List.of(Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_JSON_NEW,
+			Constants.CT_FHIR_XML, Constants.CT_FHIR_JSON);
 
 	private final ExceptionHandler exceptionHandler;
 
@@ -92,6 +94,34 @@ public class ParameterConverter
 		});
 	}
 
+	/**
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @return <code>true</code> if a supported <code>_format</code> parameter is present or the first accepted media
+	 *         type is a FHIR media type, <code>false</code> if the request is for the raw content of a Binary resource
+	 * @throws WebApplicationException
+	 *             if a <code>_format</code> parameter is present, but not supported
+	 */
+	public boolean isValidFhirRequest(UriInfo uri, HttpHeaders headers) throws WebApplicationException
+	{
+		// _format parameter override present and valid
+		if (uri.getQueryParameters().containsKey(Constants.PARAM_FORMAT))
+		{
+			getMediaTypeThrowIfNotSupported(uri, headers);
+			return true;
+		}
+		else
+		{
+			List<MediaType> types = headers.getAcceptableMediaTypes();
+			MediaType accept = types == null || types.isEmpty() ? null : types.get(0);
+
+			// accept header is FHIR mime-type
+			return accept != null && FHIR_FORMATS.contains(accept.toString());
+		}
+	}
+
 	public Optional<MediaType> getMediaTypeIfSupported(UriInfo uri, HttpHeaders headers)
 	{
 		String format = uri.getQueryParameters().getFirst("_format");
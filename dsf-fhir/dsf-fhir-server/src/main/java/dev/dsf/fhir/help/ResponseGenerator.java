@@ -33,6 +33,7 @@ import dev.dsf.fhir.history.History;
 import dev.dsf.fhir.history.HistoryEntry;
 import dev.dsf.fhir.prefer.PreferReturnType;
 import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PageCursor;
 import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.SearchQueryParameterError;
 import dev.dsf.fhir.service.ResourceReference;
@@ -169,27 +170,67 @@ public class ResponseGenerator
 	public Bundle createSearchSet(PartialResult<? extends Resource> result, List<SearchQueryParameterError> errors,
 			UriBuilder bundleUri, String format, String pretty, SummaryMode summaryMode)
 	{
-		Bundle bundle = new Bundle();
-		bundle.setTimestamp(new Date());
-		bundle.setType(BundleType.SEARCHSET);
+		Bundle bundle = createBundle(BundleType.SEARCHSET);
 
 		if (!SummaryMode.COUNT.equals(summaryMode))
-		{
 			result.getPartialResult().stream().map(r -> toBundleEntryComponent(r, SearchEntryMode.MATCH))
 					.forEach(bundle::addEntry);
+
+		completeSearchSet(bundle, result, result.getPartialResult().size(), errors, bundleUri, format, pretty,
+				summaryMode);
+
+		return bundle;
+	}
+
+	/**
+	 * @param type
+	 *            not <code>null</code>
+	 * @return bundle with timestamp and type, without entries
+	 */
+	public Bundle createBundle(BundleType type)
+	{
+		Bundle bundle = new Bundle();
+		bundle.setTimestamp(new Date());
+		bundle.setType(type);
+		return bundle;
+	}
+
+	/**
+	 * Adds include and outcome entries, total and links to a search set bundle, match entries are not added.
+	 *
+	 * @param bundle
+	 *            not <code>null</code>
+	 * @param result
+	 *            not <code>null</code>, matches of the result are ignored
+	 * @param matchCount
+	 *            <code>&gt;= 0</code>, number of matches of the current page
+	 * @param errors
+	 *            not <code>null</code>
+	 * @param bundleUri
+	 *            not <code>null</code>
+	 * @param format
+	 *            may be <code>null</code>
+	 * @param pretty
+	 *            may be <code>null</code>
+	 * @param summaryMode
+	 *            may be <code>null</code>
+	 */
+	public void completeSearchSet(Bundle bundle, PartialResult<? extends Resource> result, int matchCount,
+			List<SearchQueryParameterError> errors, UriBuilder bundleUri, String format, String pretty,
+			SummaryMode summaryMode)
+	{
+		if (!SummaryMode.COUNT.equals(summaryMode))
 			result.getIncludes().stream().map(r -> toBundleEntryComponent(r, SearchEntryMode.INCLUDE))
 					.forEach(bundle::addEntry);
-		}
 
 		if (!errors.isEmpty())
 			bundle.addEntry(toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME));
 
-		bundle.setTotal(result.getTotal());
-
-		setLinks(result.getPageAndCount(), bundleUri, format, pretty, summaryMode, bundle,
-				result.getPartialResult().isEmpty(), result.getTotal());
+		if (result.hasTotal())
+			bundle.setTotal(result.getTotal());
 
-		return bundle;
+		setLinks(result.getPageAndCount(), result.getNextCursor(), bundleUri, format, pretty, summaryMode, bundle,
+				matchCount, result.getTotal());
 	}
 
 	public BundleEntryComponent toBundleEntryComponent(Resource resource, SearchEntryMode mode)
@@ -205,22 +246,48 @@ public class ResponseGenerator
 	public Bundle createHistoryBundle(History history, List<SearchQueryParameterError> errors, UriBuilder bundleUri,
 			String format, String pretty, SummaryMode summaryMode)
 	{
-		Bundle bundle = new Bundle();
-		bundle.setTimestamp(new Date());
-		bundle.setType(BundleType.HISTORY);
+		Bundle bundle = createBundle(BundleType.HISTORY);
 
 		if (!SummaryMode.COUNT.equals(summaryMode))
 			history.getEntries().stream().map(this::toBundleEntryComponent).forEach(bundle::addEntry);
 
+		completeHistoryBundle(bundle, history, history.getEntries().size(), errors, bundleUri, format, pretty,
+				summaryMode);
+
+		return bundle;
+	}
+
+	/**
+	 * Adds outcome entry, total and links to a history bundle, history entries are not added.
+	 *
+	 * @param bundle
+	 *            not <code>null</code>
+	 * @param history
+	 *            not <code>null</code>, entries of the history are ignored
+	 * @param entryCount
+	 *            <code>&gt;= 0</code>, number of history entries of the current page
+	 * @param errors
+	 *            not <code>null</code>
+	 * @param bundleUri
+	 *            not <code>null</code>
+	 * @param format
+	 *            may be <code>null</code>
+	 * @param pretty
+	 *            may be <code>null</code>
+	 * @param summaryMode
+	 *            may be <code>null</code>
+	 */
+	public void completeHistoryBundle(Bundle bundle, History history, int entryCount,
+			List<SearchQueryParameterError> errors, UriBuilder bundleUri, String format, String pretty,
+			SummaryMode summaryMode)
+	{
 		if (!errors.isEmpty())
 			bundle.addEntry(toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME));
 
 		bundle.setTotal(history.getTotal());
 
-		setLinks(history.getPageAndCount(), bundleUri, format, pretty, summaryMode, bundle,
-				history.getEntries().isEmpty(), history.getTotal());
-
-		return bundle;
+		setLinks(history.getPageAndCount(), history.getNextCursor(), bundleUri, format, pretty, summaryMode, bundle,
+				entryCount, history.getTotal());
 	}
 
 	public BundleEntryComponent toBundleEntryComponent(HistoryEntry historyEntry)
@@ -261,9 +328,15 @@ public class ResponseGenerator
 		return new IdType(serverBase, resourceType, id, version).getValue();
 	}
 
-	private void setLinks(PageAndCount pageAndCount, UriBuilder bundleUri, String format, String pretty,
-			SummaryMode summaryMode, Bundle bundle, boolean isEmpty, int total)
+	/**
+	 * @param total
+	 *            <code>-1</code> if not calculated, <i>next</i> link added if page full and no <i>last</i> link
+	 */
+	private void setLinks(PageAndCount pageAndCount, PageCursor nextCursor, UriBuilder bundleUri, String format,
+			String pretty, SummaryMode summaryMode, Bundle bundle, int entryCount, int total)
 	{
+		boolean isEmpty = entryCount == 0;
+
 		if (format != null)
 			bundleUri = bundleUri.replaceQueryParam("_format", format);
 		if (pretty != null)
@@ -275,12 +348,17 @@ public class ResponseGenerator
 		{
 			bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
 			bundleUri = bundleUri.replaceQueryParam("_page", isEmpty ? 1 : pageAndCount.getPage());
+			if (pageAndCount.hasCursor())
+				bundleUri = bundleUri.replaceQueryParam("_cursor", pageAndCount.getCursor().toToken());
 		}
 		else
 			bundleUri = bundleUri.replaceQueryParam("_count", "0");
 
 		bundle.addLink().setRelation("self").setUrlElement(new UriType(bundleUri.build()));
 
+		// only next links use keyset paging, other links address pages by number
+		bundleUri = bundleUri.replaceQueryParam("_cursor");
+
 		if (pageAndCount.getCount() > 0 && !isEmpty)
 		{
 			bundleUri = bundleUri.replaceQueryParam("_page", 1);
@@ -293,16 +371,22 @@ public class ResponseGenerator
 				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
 				bundle.addLink().setRelation("previous").setUrlElement(new UriType(bundleUri.build()));
 			}
-			if (!pageAndCount.isLastPage(total))
+			if (total >= 0 ? !pageAndCount.isLastPage(total) : entryCount >= pageAndCount.getCount())
 			{
 				bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getPage() + 1);
 				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
+				if (nextCursor != null)
+					bundleUri = bundleUri.replaceQueryParam("_cursor", nextCursor.toToken());
 				bundle.addLink().setRelation("next").setUrlElement(new UriType(bundleUri.build()));
+				bundleUri = bundleUri.replaceQueryParam("_cursor");
 			}
 
-			bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getLastPage(total));
-			bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
-			bundle.addLink().setRelation("last").setUrlElement(new UriType(bundleUri.build()));
+			if (total >= 0)
+			{
+				bundleUri = bundleUri.replaceQueryParam("_page", pageAndCount.getLastPage(total));
+				bundleUri = bundleUri.replaceQueryParam("_count", pageAndCount.getCount());
+				bundle.addLink().setRelation("last").setUrlElement(new UriType(bundleUri.build()));
+			}
 		}
 	}
 
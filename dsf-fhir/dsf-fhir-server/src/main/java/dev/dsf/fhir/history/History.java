@@ -6,19 +6,28 @@ import java.util.Collections;
 import java.util.List;
 
 import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PageCursor;
 
 public class History
 {
 	private final int total;
 	private final PageAndCount pageAndCount;
 	private final List<HistoryEntry> entries = new ArrayList<>();
+	private final PageCursor nextCursor;
 
 	public History(int total, PageAndCount pageAndCount, Collection<? extends HistoryEntry> entries)
+	{
+		this(total, pageAndCount, entries, null);
+	}
+
+	public History(int total, PageAndCount pageAndCount, Collection<? extends HistoryEntry> entries,
+			PageCursor nextCursor)
 	{
 		this.total = total;
 		this.pageAndCount = pageAndCount;
 		if (entries != null)
 			this.entries.addAll(entries);
+		this.nextCursor = nextCursor;
 	}
 
 	public int getTotal()
@@ -36,4 +45,11 @@ public class History
 		return Collections.unmodifiableList(entries);
 	}
 
+	/**
+	 * @return <code>null</code> if this is the last page
+	 */
+	public PageCursor getNextCursor()
+	{
+		return nextCursor;
+	}
 }
\ No newline at end of file
@@ -1,19 +1,31 @@
 package dev.dsf.fhir.history;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
 import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.adapter.FhirAdapter;
+import dev.dsf.fhir.adapter.StreamedBundleEntries;
 import dev.dsf.fhir.dao.HistoryDao;
+import dev.dsf.fhir.dao.HistoryDao.HistoryEntryConsumer;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
@@ -21,9 +33,11 @@ import dev.dsf.fhir.help.SummaryMode;
 import dev.dsf.fhir.history.filter.HistoryIdentityFilterFactory;
 import dev.dsf.fhir.prefer.PreferHandlingType;
 import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PageCursor;
 import dev.dsf.fhir.search.SearchQuery;
 import dev.dsf.fhir.search.SearchQueryParameter;
 import dev.dsf.fhir.search.SearchQueryParameterError;
+import dev.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -34,6 +48,8 @@ import jakarta.ws.rs.core.UriInfo;
 
 public class HistoryServiceImpl implements HistoryService, InitializingBean
 {
+	private static final Logger logger = LoggerFactory.getLogger(HistoryServiceImpl.class);
+
 	private final String serverBase;
 	private final int defaultPageCount;
 	private final ParameterConverter parameterConverter;
@@ -93,13 +109,14 @@ public class HistoryServiceImpl implements HistoryService, InitializingBean
 		Integer count = parameterConverter.getFirstInt(queryParameters, SearchQuery.PARAMETER_COUNT);
 		int effectiveCount = count == null || count < 0 ? defaultPageCount : count;
 
-		PageAndCount pageAndCount = new PageAndCount(effectivePage, effectiveCount);
-
 		List<AtParameter> atParameters = new ArrayList<>();
 		SinceParameter sinceParameter = new SinceParameter();
 
 		List<SearchQueryParameterError> errors = new ArrayList<>();
 
+		PageCursor cursor = toCursor(errors, queryParameters.getFirst(SearchQuery.PARAMETER_CURSOR));
+		PageAndCount pageAndCount = new PageAndCount(effectivePage, effectiveCount, cursor);
+
 		List<String> atValues = queryParameters.getOrDefault(AtParameter.PARAMETER_NAME, Collections.emptyList());
 		atValues.stream().filter(v -> v != null && !v.isBlank()).forEach(atValue ->
 		{
@@ -112,28 +129,11 @@ public class HistoryServiceImpl implements HistoryService, InitializingBean
 		if (sinceValue != null && !sinceValue.isBlank())
 			sinceParameter.configure(errors, SinceParameter.PARAMETER_NAME, sinceValue);
 
-		String path = null;
-		History history;
-		if (resourceType == null && id == null)
-			history = exceptionHandler.handleSqlException(() -> historyDao.readHistory(
-					historyUserFilterFactory.getIdentityFilters(identity), pageAndCount, atParameters, sinceParameter));
-		else if (resourceType != null && id != null)
-		{
-			history = exceptionHandler.handleSqlException(() -> historyDao.readHistory(
-					historyUserFilterFactory.getIdentityFilter(identity, resourceType), pageAndCount, atParameters,
-					sinceParameter, resourceType, parameterConverter.toUuid(getResourceTypeName(resourceType), id)));
-			path = resourceType.getAnnotation(ResourceDef.class).name();
-		}
-		else if (resourceType != null)
-		{
-			history = exceptionHandler.handleSqlException(
-					() -> historyDao.readHistory(historyUserFilterFactory.getIdentityFilter(identity, resourceType),
-							pageAndCount, atParameters, sinceParameter, resourceType));
-			path = resourceType.getAnnotation(ResourceDef.class).name();
-		}
-		else
+		if (resourceType == null && id != null)
 			throw new WebApplicationException();
 
+		UUID uuid = id == null ? null : parameterConverter.toUuid(getResourceTypeName(resourceType), id);
+
 		if (!errors.isEmpty() && PreferHandlingType.STRICT.equals(parameterConverter.getPreferHandling(headers)))
 			throw new WebApplicationException(
 					responseGenerator.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors),
@@ -143,6 +143,8 @@ public class HistoryServiceImpl implements HistoryService, InitializingBean
 		String pretty = queryParameters.getFirst(SearchQuery.PARAMETER_PRETTY);
 		SummaryMode summaryMode = SummaryMode.fromString(queryParameters.getFirst(SearchQuery.PARAMETER_SUMMARY));
 
+		String path = resourceType == null ? null : resourceType.getAnnotation(ResourceDef.class).name();
+
 		UriBuilder bundleUri = UriBuilder.fromPath(serverBase);
 		if (path != null)
 			bundleUri = bundleUri.path(path);
@@ -152,6 +154,23 @@ public class HistoryServiceImpl implements HistoryService, InitializingBean
 		bundleUri = bundleUri.path("_history");
 		bundleUri = configureBundleUri(bundleUri, atParameters, sinceParameter);
 
+		if (FhirAdapter.isStreamingSupported(parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)))
+			return createStreamedHistoryBundle(identity, resourceType, uuid, pageAndCount, atParameters, sinceParameter,
+					errors, bundleUri, format, pretty, summaryMode);
+
+		History history;
+		if (resourceType == null)
+			history = exceptionHandler.handleSqlException(() -> historyDao.readHistory(
+					historyUserFilterFactory.getIdentityFilters(identity), pageAndCount, atParameters, sinceParameter));
+		else if (uuid != null)
+			history = exceptionHandler.handleSqlException(
+					() -> historyDao.readHistory(historyUserFilterFactory.getIdentityFilter(identity, resourceType),
+							pageAndCount, atParameters, sinceParameter, resourceType, uuid));
+		else
+			history = exceptionHandler.handleSqlException(
+					() -> historyDao.readHistory(historyUserFilterFactory.getIdentityFilter(identity, resourceType),
+							pageAndCount, atParameters, sinceParameter, resourceType));
+
 		Bundle bundle = responseGenerator.createHistoryBundle(history, errors, bundleUri, format, pretty, summaryMode);
 		// clean literal references from bundle entries
 		bundle.getEntry().stream().filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
@@ -159,6 +178,87 @@ public class HistoryServiceImpl implements HistoryService, InitializingBean
 		return bundle;
 	}
 
+	/**
+	 * The history is read while the bundle is written, entries are read from the database and written one at a time.
+	 */
+	private Bundle createStreamedHistoryBundle(Identity identity, Class<? extends Resource> resourceType, UUID id,
+			PageAndCount pageAndCount, List<AtParameter> atParameters, SinceParameter sinceParameter,
+			List<SearchQueryParameterError> errors, UriBuilder bundleUri, String format, String pretty,
+			SummaryMode summaryMode)
+	{
+		return StreamedBundleEntries.set(responseGenerator.createBundle(BundleType.HISTORY), (consumer, bundle) ->
+		{
+			AtomicInteger entryCount = new AtomicInteger();
+			HistoryEntryConsumer entryConsumer = entry ->
+			{
+				entryCount.incrementAndGet();
+
+				if (!SummaryMode.COUNT.equals(summaryMode))
+				{
+					if (entry.getResource() != null)
+						referenceCleaner.cleanLiteralReferences(entry.getResource());
+
+					consumer.accept(responseGenerator.toBundleEntryComponent(entry));
+				}
+			};
+
+			History history;
+			try
+			{
+				if (resourceType == null)
+					history = historyDao.readHistory(historyUserFilterFactory.getIdentityFilters(identity),
+							pageAndCount, atParameters, sinceParameter, entryConsumer);
+				else if (id != null)
+					history = historyDao.readHistory(historyUserFilterFactory.getIdentityFilter(identity, resourceType),
+							pageAndCount, atParameters, sinceParameter, resourceType, id, entryConsumer);
+				else
+					history = historyDao.readHistory(historyUserFilterFactory.getIdentityFilter(identity, resourceType),
+							pageAndCount, atParameters, sinceParameter, resourceType, entryConsumer);
+			}
+			catch (SQLException e)
+			{
+				logger.debug("Error while reading history", e);
+				logger.error("Error while reading history: {} - {}", e.getClass().getName(), e.getMessage());
+
+				throw new IOException(e);
+			}
+
+			int outcomeIndex = bundle.getEntry().size();
+			responseGenerator.completeHistoryBundle(bundle, history, entryCount.get(), errors, bundleUri, format,
+					pretty, summaryMode);
+
+			// clean literal references from outcome entries
+			bundle.getEntry().subList(outcomeIndex, bundle.getEntry().size()).stream()
+					.filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
+					.forEach(referenceCleaner::cleanLiteralReferences);
+		});
+	}
+
+	private PageCursor toCursor(List<SearchQueryParameterError> errors, String cursorValue)
+	{
+		if (cursorValue == null || cursorValue.isBlank())
+			return null;
+
+		try
+		{
+			PageCursor cursor = PageCursor.fromToken(cursorValue);
+			if (cursor.size() != 3)
+				throw new IllegalArgumentException("Unexpected number of cursor values");
+
+			LocalDateTime.parse(cursor.getValue(0));
+			UUID.fromString(cursor.getValue(1));
+			Long.parseLong(cursor.getValue(2));
+
+			return cursor;
+		}
+		catch (IllegalArgumentException | DateTimeParseException e)
+		{
+			errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+					SearchQuery.PARAMETER_CURSOR, cursorValue, e));
+			return null;
+		}
+	}
+
 	private UriBuilder configureBundleUri(UriBuilder bundleUri, List<AtParameter> atParameters,
 			SinceParameter sinceParameter)
 	{
@@ -4,6 +4,8 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
 
 import org.hl7.fhir.r4.model.Resource;
 
@@ -18,7 +20,81 @@ public interface DbSearchQuery
 	void modifyStatement(PreparedStatement statement, BiFunctionWithSqlException<String, Object[], Array> arrayCreator)
 			throws SQLException;
 
+	/**
+	 * Modifies statements created from {@link #getSearchSql()}, sets keyset paging, limit and offset parameters in
+	 * addition to the parameters set by {@link #modifyStatement(PreparedStatement, BiFunctionWithSqlException)}.
+	 *
+	 * @param statement
+	 *            not <code>null</code>
+	 * @param arrayCreator
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if parameters can not be set
+	 */
+	void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException;
+
+	/**
+	 * @param partialResult
+	 *            not <code>null</code>, matches of the current page in search order
+	 * @return <code>null</code> if keyset paging is not supported for this query or the given page is not full
+	 */
+	default PageCursor createNextCursor(List<? extends Resource> partialResult)
+	{
+		Objects.requireNonNull(partialResult, "partialResult");
+
+		return createNextCursor(partialResult.isEmpty() ? null : partialResult.get(partialResult.size() - 1),
+				partialResult.size());
+	}
+
+	/**
+	 * @param lastMatch
+	 *            may be <code>null</code> if <b>matchCount</b> is <code>0</code>, last match of the current page in
+	 *            search order
+	 * @param matchCount
+	 *            <code>&gt;= 0</code>, number of matches of the current page
+	 * @return <code>null</code> if keyset paging is not supported for this query or the given page is not full
+	 */
+	PageCursor createNextCursor(Resource lastMatch, int matchCount);
+
 	PageAndCount getPageAndCount();
 
+	/**
+	 * @return not <code>null</code>, if {@link TotalMode#ESTIMATED} the last column of the {@link #getSearchSql()}
+	 *         result contains the number of matching rows
+	 */
+	TotalMode getTotalMode();
+
+	/**
+	 * @return <code>true</code> if only the number of matching rows is requested via <code>_summary=count</code>, the
+	 *         statement created from {@link #getSearchSql()} does not need to be executed
+	 */
+	boolean isSummaryCount();
+
+	/**
+	 * @return <code>null</code> if the first column of the {@link #getSearchSql()} result contains the complete
+	 *         resource
+	 */
+	SearchQueryProjection getProjection();
+
+	/**
+	 * Modifies include resources read from include columns of the {@link #getSearchSql()} result.
+	 *
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param columnIndex
+	 *            index of the include column, first include column has index 2
+	 * @param connection
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
 	void modifyIncludeResource(Resource resource, int columnIndex, Connection connection) throws SQLException;
+
+	/**
+	 * @return not <code>null</code>, include and revinclude parameters not part of the {@link #getSearchSql()} result,
+	 *         executed once per page with the ids of the matches
+	 * @see SearchQueryIncludeParameterConfiguration#isBatchQuery()
+	 */
+	List<SearchQueryIncludeParameterConfiguration> getBatchIncludeParameters();
 }
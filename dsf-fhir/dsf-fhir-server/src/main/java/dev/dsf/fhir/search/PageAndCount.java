@@ -4,21 +4,39 @@ public class PageAndCount
 {
 	private final int page;
 	private final int count;
+	private final PageCursor cursor;
 
 	public PageAndCount(int page, int count)
+	{
+		this(page, count, null);
+	}
+
+	/**
+	 * @param page
+	 *            used for link generation, not used to skip rows if a cursor is given
+	 * @param count
+	 *            max number of rows to return
+	 * @param cursor
+	 *            may be <code>null</code>, sort key values of the last row of the previous page
+	 */
+	public PageAndCount(int page, int count, PageCursor cursor)
 	{
 		this.page = page;
 		this.count = count;
+		this.cursor = cursor;
 	}
 
-	public String getSql()
+	public boolean isCountOnly(int total)
 	{
-		return " LIMIT " + count + (page > 1 ? " OFFSET " + ((page - 1) * count) : "");
+		return isCountOnly() || getPageStart() > total;
 	}
 
-	public boolean isCountOnly(int total)
+	/**
+	 * @return <code>true</code> if no page is requested, independent of the number of matching rows
+	 */
+	public boolean isCountOnly()
 	{
-		return page < 1 || count < 1 || getPageStart() > total;
+		return page < 1 || count < 1;
 	}
 
 	public int getPage()
@@ -31,6 +49,19 @@ public class PageAndCount
 		return count;
 	}
 
+	/**
+	 * @return <code>null</code> if rows are skipped using <code>OFFSET</code>
+	 */
+	public PageCursor getCursor()
+	{
+		return cursor;
+	}
+
+	public boolean hasCursor()
+	{
+		return cursor != null;
+	}
+
 	public int getPageStart()
 	{
 		if (page < 1 || count < 1)
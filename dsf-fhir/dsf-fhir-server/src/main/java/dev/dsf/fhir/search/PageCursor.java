@@ -0,0 +1,81 @@
+package dev.dsf.fhir.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Opaque continuation token for keyset paging, contains the sort key values of the last entry of a page. Clients
+ * receive the token as part of <i>next</i> links and are not expected to interpret it.
+ */
+public class PageCursor
+{
+	private static final String SEPARATOR = "|";
+
+	private final List<String> values;
+
+	private PageCursor(List<String> values)
+	{
+		this.values = values;
+	}
+
+	/**
+	 * @param values
+	 *            not <code>null</code>, sort key values of the last entry, values may not contain <code>|</code>
+	 * @return new cursor
+	 */
+	public static PageCursor of(String... values)
+	{
+		Objects.requireNonNull(values, "values");
+
+		if (Arrays.stream(values).anyMatch(v -> v == null || v.contains(SEPARATOR)))
+			throw new IllegalArgumentException("values null or containing '" + SEPARATOR + "'");
+
+		return new PageCursor(Arrays.asList(values));
+	}
+
+	/**
+	 * @param token
+	 *            not <code>null</code>
+	 * @return decoded cursor
+	 * @throws IllegalArgumentException
+	 *             if the given token is not a valid cursor token
+	 */
+	public static PageCursor fromToken(String token)
+	{
+		Objects.requireNonNull(token, "token");
+
+		String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		return new PageCursor(Arrays.asList(decoded.split("\\" + SEPARATOR, -1)));
+	}
+
+	public String toToken()
+	{
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(String.join(SEPARATOR, values).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public int size()
+	{
+		return values.size();
+	}
+
+	public String getValue(int index)
+	{
+		return values.get(index);
+	}
+
+	public List<String> getValues()
+	{
+		return Collections.unmodifiableList(values);
+	}
+
+	@Override
+	public String toString()
+	{
+		return toToken();
+	}
+}
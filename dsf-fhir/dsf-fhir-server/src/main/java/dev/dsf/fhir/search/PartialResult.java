@@ -11,20 +11,37 @@ public class PartialResult<R extends Resource>
 	private final PageAndCount pageAndCount;
 	private final List<R> partialResult;
 	private final List<Resource> includes;
+	private final PageCursor nextCursor;
 
 	public PartialResult(int total, PageAndCount pageAndCount, List<R> partialResult, List<Resource> includes)
+	{
+		this(total, pageAndCount, partialResult, includes, null);
+	}
+
+	public PartialResult(int total, PageAndCount pageAndCount, List<R> partialResult, List<Resource> includes,
+			PageCursor nextCursor)
 	{
 		this.total = total;
 		this.pageAndCount = pageAndCount;
 		this.partialResult = partialResult;
 		this.includes = includes;
+		this.nextCursor = nextCursor;
 	}
 
+	/**
+	 * @return number of matching resources, <code>-1</code> if not calculated
+	 * @see #hasTotal()
+	 */
 	public int getTotal()
 	{
 		return total;
 	}
 
+	public boolean hasTotal()
+	{
+		return total >= 0;
+	}
+
 	public PageAndCount getPageAndCount()
 	{
 		return pageAndCount;
@@ -39,4 +56,12 @@ public class PartialResult<R extends Resource>
 	{
 		return Collections.unmodifiableList(includes);
 	}
+
+	/**
+	 * @return <code>null</code> if keyset paging is not supported for the query or this is the last page
+	 */
+	public PageCursor getNextCursor()
+	{
+		return nextCursor;
+	}
 }
@@ -4,6 +4,9 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -15,16 +18,21 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.Resource;
+import org.postgresql.util.PGobject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.dsf.fhir.dao.provider.DaoProvider;
 import dev.dsf.fhir.function.BiFunctionWithSqlException;
+import dev.dsf.fhir.help.SummaryMode;
 import dev.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
+import dev.dsf.fhir.search.SearchQuerySortParameterConfiguration.SortDirection;
 import jakarta.ws.rs.core.UriBuilder;
 
 public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
@@ -34,27 +42,37 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 	public static final String PARAMETER_SORT = "_sort";
 	public static final String PARAMETER_PAGE = "_page";
+	public static final String PARAMETER_CURSOR = "_cursor";
 	public static final String PARAMETER_COUNT = "_count";
 	public static final String PARAMETER_FORMAT = "_format";
 	public static final String PARAMETER_PRETTY = "_pretty";
 	public static final String PARAMETER_SUMMARY = "_summary";
+	public static final String PARAMETER_TOTAL = "_total";
+	public static final String PARAMETER_ELEMENTS = "_elements";
 
 	public static final String[] STANDARD_PARAMETERS = { PARAMETER_SORT, PARAMETER_INCLUDE, PARAMETER_REVINCLUDE,
-			PARAMETER_PAGE, PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY };
+			PARAMETER_PAGE, PARAMETER_CURSOR, PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY,
+			PARAMETER_TOTAL, PARAMETER_ELEMENTS };
 
-	private static final String[] SINGLE_VALUE_PARAMETERS = { PARAMETER_SORT, PARAMETER_PAGE, PARAMETER_COUNT,
-			PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY };
+	private static final String[] SINGLE_VALUE_PARAMETERS = { PARAMETER_SORT, PARAMETER_PAGE, PARAMETER_CURSOR,
+			PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY, PARAMETER_TOTAL,
+			PARAMETER_ELEMENTS };
+
+	private static final String ID_SORT_PARAMETER_NAME = "_id";
+	private static final String LAST_UPDATED_SORT_PARAMETER_NAME = "_lastUpdated";
+	private static final String LAST_UPDATED_COLUMN = "last_updated";
 
 	public static class SearchQueryBuilder<R extends Resource>
 	{
 		public static <R extends Resource> SearchQueryBuilder<R> create(Class<R> resourceType, String resourceTable,
-				String resourceColumn, int page, int count)
+				String resourceIdColumn, String resourceColumn, int page, int count)
 		{
-			return new SearchQueryBuilder<>(resourceType, resourceTable, resourceColumn, page, count);
+			return new SearchQueryBuilder<>(resourceType, resourceTable, resourceIdColumn, resourceColumn, page, count);
 		}
 
 		private final Class<R> resourceType;
 		private final String resourceTable;
+		private final String resourceIdColumn;
 		private final String resourceColumn;
 
 		private final int page;
@@ -64,12 +82,14 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		private final List<SearchQueryRevIncludeParameterFactory> revIncludeParameters = new ArrayList<>();
 
 		private SearchQueryIdentityFilter identityFilter; // may be null
+		private SearchQuerySqlCache sqlCache; // may be null
 
-		private SearchQueryBuilder(Class<R> resourceType, String resourceTable, String resourceColumn, int page,
-				int count)
+		private SearchQueryBuilder(Class<R> resourceType, String resourceTable, String resourceIdColumn,
+				String resourceColumn, int page, int count)
 		{
 			this.resourceType = resourceType;
 			this.resourceTable = resourceTable;
+			this.resourceIdColumn = resourceIdColumn;
 			this.resourceColumn = resourceColumn;
 
 			this.page = page;
@@ -82,6 +102,12 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			return this;
 		}
 
+		public SearchQueryBuilder<R> with(SearchQuerySqlCache sqlCache)
+		{
+			this.sqlCache = sqlCache;
+			return this;
+		}
+
 		public SearchQueryBuilder<R> with(SearchQueryParameterFactory<R> searchParameters)
 		{
 			this.searchParameters.add(searchParameters);
@@ -119,8 +145,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		public SearchQuery<R> build()
 		{
-			return new SearchQuery<>(resourceType, resourceTable, resourceColumn, identityFilter, page, count,
-					searchParameters, revIncludeParameters);
+			return new SearchQuery<>(resourceType, resourceTable, resourceIdColumn, resourceColumn, identityFilter,
+					sqlCache, page, count, searchParameters, revIncludeParameters);
 		}
 	}
 
@@ -128,11 +154,13 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 	private final Class<R> resourceType;
 	private final String resourceColumn;
+	private final String resourceIdColumn;
 	private final String resourceTable;
 
 	private final SearchQueryIdentityFilter identityFilter;
+	private final SearchQuerySqlCache sqlCache;
 
-	private final PageAndCount pageAndCount;
+	private PageAndCount pageAndCount;
 
 	private final Map<String, SearchQueryParameterFactory<R>> searchParameterFactoriesByParameterName = new HashMap<>();
 	private final Map<String, SearchQueryParameterFactory<R>> searchParameterFactoriesBySortParameterName = new HashMap<>();
@@ -143,23 +171,28 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	private final List<SearchQuerySortParameterConfiguration> sortParameters = new ArrayList<>();
 	private final List<SearchQueryIncludeParameterConfiguration> includeParameters = new ArrayList<>();
 	private final List<SearchQueryIncludeParameterConfiguration> revIncludeParameters = new ArrayList<>();
+	private final List<SearchQueryIncludeParameterConfiguration> columnIncludeParameters = new ArrayList<>();
+	private final List<SearchQueryIncludeParameterConfiguration> batchIncludeParameters = new ArrayList<>();
 	private final List<SearchQueryParameterError> errors = new ArrayList<>();
 
-	private String filterQuery;
-	private String sortSql;
-	private String includeSql;
-	private String revIncludeSql;
+	private TotalMode totalMode = TotalMode.ACCURATE;
+	private SummaryMode summaryMode;
+	private SearchQueryProjection projection;
+	private String elementsParameterValue;
+	private SearchQuerySqlCache.Sql sql;
 
-	SearchQuery(Class<R> resourceType, String resourceTable, String resourceColumn,
-			SearchQueryIdentityFilter identityFilter, int page, int count,
+	SearchQuery(Class<R> resourceType, String resourceTable, String resourceIdColumn, String resourceColumn,
+			SearchQueryIdentityFilter identityFilter, SearchQuerySqlCache sqlCache, int page, int count,
 			List<SearchQueryParameterFactory<R>> searchParameterFactories,
 			List<SearchQueryRevIncludeParameterFactory> searchRevIncludeParameterFactories)
 	{
 		this.resourceType = resourceType;
 		this.resourceTable = resourceTable;
+		this.resourceIdColumn = resourceIdColumn;
 		this.resourceColumn = resourceColumn;
 
 		this.identityFilter = identityFilter;
+		this.sqlCache = sqlCache;
 
 		this.pageAndCount = new PageAndCount(page, count);
 
@@ -220,17 +253,167 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	{
 		checkSingleValueParameters(queryParameters);
 
-		filterQuery = createFilterQuery(queryParameters);
+		configureSearchParameters(queryParameters);
+
+		configureIncludeParameters(queryParameters.getOrDefault(PARAMETER_INCLUDE, Collections.emptyList()));
+		configureRevIncludeParameters(queryParameters.getOrDefault(PARAMETER_REVINCLUDE, Collections.emptyList()));
+
+		configureSortParameters(queryParameters.getOrDefault(PARAMETER_SORT, Collections.emptyList()));
+
+		pageAndCount = new PageAndCount(pageAndCount.getPage(), pageAndCount.getCount(),
+				createCursor(queryParameters.getOrDefault(PARAMETER_CURSOR, Collections.emptyList())));
+
+		totalMode = createTotalMode(queryParameters.getOrDefault(PARAMETER_TOTAL, Collections.emptyList()));
 
-		includeSql = createIncludeSql(queryParameters.getOrDefault(PARAMETER_INCLUDE, Collections.emptyList()));
-		revIncludeSql = createRevIncludeSql(
-				queryParameters.getOrDefault(PARAMETER_REVINCLUDE, Collections.emptyList()));
+		summaryMode = createSummaryMode(queryParameters.getOrDefault(PARAMETER_SUMMARY, Collections.emptyList()));
+		projection = createProjection(queryParameters.getOrDefault(PARAMETER_ELEMENTS, Collections.emptyList()));
 
-		sortSql = createSortSql(queryParameters.getOrDefault(PARAMETER_SORT, Collections.emptyList()));
+		sql = null;
 
 		return this;
 	}
 
+	private TotalMode createTotalMode(List<String> totalParameterValues)
+	{
+		if (totalParameterValues.size() <= 0)
+			return TotalMode.ACCURATE;
+
+		final String totalParameterValue = totalParameterValues.get(0);
+
+		if (totalParameterValue == null || totalParameterValue.isBlank())
+			return TotalMode.ACCURATE;
+
+		TotalMode mode = TotalMode.fromString(totalParameterValue);
+		if (mode == null)
+		{
+			errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE, PARAMETER_TOTAL,
+					totalParameterValue, PARAMETER_TOTAL + " query parameter value `" + totalParameterValue
+							+ "` not supported, expected one of none, estimated, accurate"));
+			return TotalMode.ACCURATE;
+		}
+
+		return mode;
+	}
+
+	private SummaryMode createSummaryMode(List<String> summaryParameterValues)
+	{
+		return summaryParameterValues.isEmpty() ? null : SummaryMode.fromString(summaryParameterValues.get(0));
+	}
+
+	/**
+	 * Binary resources are not projected, the data of Binary resources is not stored as JSON.
+	 */
+	private SearchQueryProjection createProjection(List<String> elementsParameterValues)
+	{
+		elementsParameterValue = null;
+
+		if (Binary.class.equals(resourceType))
+			return null;
+
+		if (summaryMode != null && !SummaryMode.FALSE.equals(summaryMode))
+			return SearchQueryProjection.summary(resourceType, resourceColumn, summaryMode);
+
+		if (elementsParameterValues.isEmpty() || elementsParameterValues.get(0) == null
+				|| elementsParameterValues.get(0).isBlank())
+			return null;
+
+		final String value = elementsParameterValues.get(0);
+		SearchQueryProjection elementsProjection = SearchQueryProjection.elements(resourceType, resourceColumn,
+				Arrays.asList(value.split(",")),
+				element -> errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+						PARAMETER_ELEMENTS, value,
+						PARAMETER_ELEMENTS + " query parameter value `" + element + "` not supported")));
+
+		if (elementsProjection != null)
+			elementsParameterValue = value;
+
+		return elementsProjection;
+	}
+
+	/**
+	 * Keyset paging is supported if the search is not sorted, in this case results are ordered by id, if the search is
+	 * only sorted by id or if the search is only sorted by lastUpdated, in this case results are ordered by
+	 * (last_updated, id).
+	 *
+	 * @return <code>true</code> if pages can be addressed by {@link PageCursor}
+	 */
+	private boolean isKeysetPagingSupported()
+	{
+		return sortParameters.isEmpty()
+				|| (sortParameters.size() == 1
+						&& ID_SORT_PARAMETER_NAME.equals(sortParameters.get(0).getParameterName()))
+				|| isSortedByLastUpdated();
+	}
+
+	private boolean isSortedByLastUpdated()
+	{
+		return sortParameters.size() == 1
+				&& LAST_UPDATED_SORT_PARAMETER_NAME.equals(sortParameters.get(0).getParameterName());
+	}
+
+	private boolean isSortDescending()
+	{
+		return !sortParameters.isEmpty() && SortDirection.DESC.equals(sortParameters.get(0).getDirection());
+	}
+
+	private PageCursor createCursor(List<String> cursorParameterValues)
+	{
+		if (cursorParameterValues.size() <= 0)
+			return null;
+
+		final String cursorParameterValue = cursorParameterValues.get(0);
+
+		if (cursorParameterValue == null || cursorParameterValue.isBlank())
+			return null;
+
+		if (!isKeysetPagingSupported())
+		{
+			errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE, PARAMETER_CURSOR,
+					cursorParameterValue,
+					PARAMETER_CURSOR + " query parameter not supported in combination with " + PARAMETER_SORT
+							+ " values other than " + ID_SORT_PARAMETER_NAME + " or "
+							+ LAST_UPDATED_SORT_PARAMETER_NAME));
+			return null;
+		}
+
+		try
+		{
+			PageCursor cursor = PageCursor.fromToken(cursorParameterValue);
+			if (isSortedByLastUpdated())
+			{
+				if (cursor.size() != 2)
+					throw new IllegalArgumentException("Unexpected number of cursor values");
+
+				LocalDateTime.parse(cursor.getValue(0));
+				UUID.fromString(cursor.getValue(1));
+			}
+			else
+			{
+				if (cursor.size() != 1)
+					throw new IllegalArgumentException("Unexpected number of cursor values");
+
+				UUID.fromString(cursor.getValue(0));
+			}
+
+			return cursor;
+		}
+		catch (IllegalArgumentException | DateTimeParseException e)
+		{
+			errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE, PARAMETER_CURSOR,
+					cursorParameterValue, e));
+			return null;
+		}
+	}
+
+	private String createKeysetSql()
+	{
+		if (isSortedByLastUpdated())
+			return "(" + LAST_UPDATED_COLUMN + ", " + resourceIdColumn + ")"
+					+ (isSortDescending() ? " < (?, ?)" : " > (?, ?)");
+		else
+			return resourceIdColumn + (isSortDescending() ? " < ?" : " > ?");
+	}
+
 	private void checkSingleValueParameters(Map<String, List<String>> queryParameters)
 	{
 		Arrays.stream(SINGLE_VALUE_PARAMETERS).forEach(parameter ->
@@ -244,7 +427,7 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		});
 	}
 
-	private String createFilterQuery(Map<String, List<String>> queryParameters)
+	private void configureSearchParameters(Map<String, List<String>> queryParameters)
 	{
 		queryParameters.entrySet().stream()
 				.filter(e -> Arrays.stream(STANDARD_PARAMETERS).noneMatch(p -> p.equals(e.getKey()))).forEach(e ->
@@ -263,14 +446,6 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 								e.getKey(), null, "Query parameter `" + e.getKey() + "` not supported"));
 					}
 				});
-
-		Stream<String> elements = searchParameters.stream().filter(SearchQueryParameter::isDefined)
-				.map(SearchQueryParameter::getFilterQuery);
-
-		if (identityFilter != null && !identityFilter.getFilterQuery().isEmpty())
-			elements = Stream.concat(Stream.of(identityFilter.getFilterQuery()), elements);
-
-		return elements.collect(Collectors.joining(" AND "));
 	}
 
 	public List<SearchQueryParameterError> getUnsupportedQueryParameters()
@@ -278,15 +453,15 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		return errors;
 	}
 
-	private String createSortSql(List<String> sortParameterValues)
+	private void configureSortParameters(List<String> sortParameterValues)
 	{
 		if (sortParameterValues.size() <= 0)
-			return "";
+			return;
 
 		final String sortParameterValue = sortParameterValues.get(0);
 
 		if (sortParameterValue == null || sortParameterValue.isBlank())
-			return "";
+			return;
 
 		Set<String> supportedSortValues = new HashSet<>();
 		for (String value : sortParameterValue.split(","))
@@ -318,13 +493,9 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 				}
 			}
 		}
-
-		return sortParameters.isEmpty() ? ""
-				: sortParameters.stream().map(SearchQuerySortParameterConfiguration::getSql)
-						.collect(Collectors.joining(", ", " ORDER BY ", ""));
 	}
 
-	private String createIncludeSql(List<String> includeParameterValues)
+	private void configureIncludeParameters(List<String> includeParameterValues)
 	{
 		Set<String> supportedIncludeValues = new HashSet<>();
 		for (String value : includeParameterValues)
@@ -356,12 +527,10 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			}
 		}
 
-		return includeParameters.isEmpty() ? ""
-				: includeParameters.stream().map(SearchQueryIncludeParameterConfiguration::getSql)
-						.collect(Collectors.joining(", ", ", ", ""));
+		addColumnAndBatchIncludeParameters(includeParameters);
 	}
 
-	private String createRevIncludeSql(List<String> revIncludeParameterValues)
+	private void configureRevIncludeParameters(List<String> revIncludeParameterValues)
 	{
 		Set<String> supportedRevIncludeValues = new HashSet<>();
 		for (String value : revIncludeParameterValues)
@@ -394,32 +563,123 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			}
 		}
 
-		return revIncludeParameters.isEmpty() ? ""
-				: revIncludeParameters.stream().map(SearchQueryIncludeParameterConfiguration::getSql)
-						.collect(Collectors.joining(", ", ", ", ""));
+		addColumnAndBatchIncludeParameters(revIncludeParameters);
+	}
+
+	private void addColumnAndBatchIncludeParameters(List<SearchQueryIncludeParameterConfiguration> parameters)
+	{
+		parameters.stream().filter(SearchQueryIncludeParameterConfiguration::isBatchQuery)
+				.forEach(batchIncludeParameters::add);
+		parameters.stream().filter(p -> !p.isBatchQuery()).forEach(columnIncludeParameters::add);
 	}
 
 	@Override
 	public String getCountSql()
 	{
-		String countQueryMain = "SELECT count(*) FROM current_" + resourceTable;
-
-		return countQueryMain + (!filterQuery.isEmpty() ? " WHERE " + filterQuery : "");
+		return getSql().countSql;
 	}
 
 	@Override
 	public String getSearchSql()
 	{
-		String searchQueryMain = "SELECT " + resourceColumn + includeSql + revIncludeSql + " FROM current_"
-				+ resourceTable;
+		return getSql().searchSql;
+	}
 
-		return searchQueryMain + (!filterQuery.isEmpty() ? " WHERE " + filterQuery : "") + sortSql
-				+ pageAndCount.getSql();
+	private SearchQuerySqlCache.Sql getSql()
+	{
+		if (sql == null)
+			sql = sqlCache != null ? sqlCache.get(createShape(), this::createSql) : createSql();
+
+		return sql;
+	}
+
+	/**
+	 * Shape of this query as key for the {@link SearchQuerySqlCache}, derived without creating any SQL fragments.
+	 */
+	private SearchQuerySqlCache.Shape createShape()
+	{
+		List<String> parameters = searchParameters.stream().filter(SearchQueryParameter::isDefined)
+				.map(p -> p.getBundleUriQueryParameterName() + "=" + p.getFilterQueryValueForm()).toList();
+
+		List<String> includes = includeParameters.stream().filter(p -> !p.isBatchQuery())
+				.map(SearchQueryIncludeParameterConfiguration::getBundleUriQueryParameterValues).toList();
+		List<String> revIncludes = revIncludeParameters.stream().filter(p -> !p.isBatchQuery())
+				.map(SearchQueryIncludeParameterConfiguration::getBundleUriQueryParameterValues).toList();
+
+		List<String> sort = sortParameters.stream()
+				.map(SearchQuerySortParameterConfiguration::getBundleUriQueryParameterValuePart).toList();
+
+		return new SearchQuerySqlCache.Shape(resourceTable, projection != null ? projection.getSql() : resourceColumn,
+				identityFilter != null ? identityFilter.getClass() : null,
+				identityFilter != null ? identityFilter.getFilterQueryKind() : null, parameters, includes, revIncludes,
+				sort, pageAndCount.hasCursor(), totalMode);
+	}
+
+	private SearchQuerySqlCache.Sql createSql()
+	{
+		Stream<String> filterQueries = searchParameters.stream().filter(SearchQueryParameter::isDefined)
+				.map(SearchQueryParameter::getFilterQuery);
+		if (identityFilter != null && !identityFilter.getFilterQuery().isEmpty())
+			filterQueries = Stream.concat(Stream.of(identityFilter.getFilterQuery()), filterQueries);
+
+		String filterQuery = filterQueries.collect(Collectors.joining(" AND "));
+
+		String countSql = "SELECT count(*) FROM current_" + resourceTable
+				+ (!filterQuery.isEmpty() ? " WHERE " + filterQuery : "");
+
+		String searchQueryMain = "SELECT " + (projection != null ? projection.getSql() : resourceColumn)
+				+ createIncludeColumnSql(includeParameters) + createIncludeColumnSql(revIncludeParameters)
+				+ (TotalMode.ESTIMATED.equals(totalMode) ? ", count(*) OVER()" : "") + " FROM current_" + resourceTable;
+
+		String keysetSql = pageAndCount.hasCursor() ? createKeysetSql() : "";
+
+		String whereSql = Stream.of(filterQuery, keysetSql).filter(s -> !s.isEmpty())
+				.collect(Collectors.joining(" AND "));
+
+		// limit and offset as parameters, all pages of a search share the same SQL text
+		String pageSql = keysetSql.isEmpty() ? " LIMIT ? OFFSET ?" : " LIMIT ?";
+
+		String searchSql = searchQueryMain + (!whereSql.isEmpty() ? " WHERE " + whereSql : "") + createSortSql()
+				+ pageSql;
+
+		return new SearchQuerySqlCache.Sql(countSql, searchSql);
+	}
+
+	private String createIncludeColumnSql(List<SearchQueryIncludeParameterConfiguration> parameters)
+	{
+		List<SearchQueryIncludeParameterConfiguration> columnParameters = parameters.stream()
+				.filter(p -> !p.isBatchQuery()).toList();
+
+		return columnParameters.isEmpty() ? ""
+				: columnParameters.stream().map(SearchQueryIncludeParameterConfiguration::getSql)
+						.collect(Collectors.joining(", ", ", ", ""));
+	}
+
+	private String createSortSql()
+	{
+		// stable order needed for paging, results ordered by id if not sorted
+		if (sortParameters.isEmpty())
+			return " ORDER BY " + resourceIdColumn;
+
+		String sortSql = sortParameters.stream().map(SearchQuerySortParameterConfiguration::getSql)
+				.collect(Collectors.joining(", ", " ORDER BY ", ""));
+
+		// last_updated not unique, id needed as tie-breaker for (last_updated, id) cursor
+		if (isSortedByLastUpdated())
+			sortSql += ", " + resourceIdColumn + sortParameters.get(0).getDirection().getSqlModifierWithSpacePrefix();
+
+		return sortSql;
 	}
 
 	@Override
 	public void modifyStatement(PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		setFilterParameters(statement, arrayCreator);
+	}
+
+	private int setFilterParameters(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
 		try
 		{
@@ -439,6 +699,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			for (SearchQueryParameter<?> q : filtered)
 				for (int i = 0; i < q.getSqlParameterCount(); i++)
 					q.modifyStatement(++index, i + 1, statement, arrayCreator);
+
+			return index;
 		}
 		catch (SQLException e)
 		{
@@ -447,12 +709,83 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		}
 	}
 
+	@Override
+	public void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		int index = setFilterParameters(statement, arrayCreator);
+
+		if (pageAndCount.hasCursor() && isSortedByLastUpdated())
+		{
+			PageCursor cursor = pageAndCount.getCursor();
+			statement.setTimestamp(++index, Timestamp.valueOf(LocalDateTime.parse(cursor.getValue(0))));
+			statement.setObject(++index, asUuidPgObject(cursor.getValue(1)));
+			statement.setInt(++index, pageAndCount.getCount());
+		}
+		else if (pageAndCount.hasCursor())
+		{
+			statement.setObject(++index, asUuidPgObject(pageAndCount.getCursor().getValue(0)));
+			statement.setInt(++index, pageAndCount.getCount());
+		}
+		else
+		{
+			statement.setInt(++index, pageAndCount.getCount());
+			statement.setInt(++index, Math.max(0, pageAndCount.getPage() - 1) * pageAndCount.getCount());
+		}
+	}
+
+	private PGobject asUuidPgObject(String uuid) throws SQLException
+	{
+		PGobject o = new PGobject();
+		o.setType("UUID");
+		o.setValue(uuid);
+		return o;
+	}
+
+	@Override
+	public PageCursor createNextCursor(Resource lastMatch, int matchCount)
+	{
+		if (!isKeysetPagingSupported() || pageAndCount.getCount() < 1 || matchCount < pageAndCount.getCount()
+				|| lastMatch == null)
+			return null;
+
+		if (isSortedByLastUpdated())
+		{
+			if (!lastMatch.hasMeta() || lastMatch.getMeta().getLastUpdated() == null)
+				return null;
+
+			// same conversion as used to write the last_updated column
+			LocalDateTime lastUpdated = new Timestamp(lastMatch.getMeta().getLastUpdated().getTime()).toLocalDateTime();
+			return PageCursor.of(lastUpdated.toString(), lastMatch.getIdElement().getIdPart());
+		}
+		else
+			return PageCursor.of(lastMatch.getIdElement().getIdPart());
+	}
+
 	@Override
 	public PageAndCount getPageAndCount()
 	{
 		return pageAndCount;
 	}
 
+	@Override
+	public TotalMode getTotalMode()
+	{
+		return totalMode;
+	}
+
+	@Override
+	public boolean isSummaryCount()
+	{
+		return SummaryMode.COUNT.equals(summaryMode);
+	}
+
+	@Override
+	public SearchQueryProjection getProjection()
+	{
+		return projection;
+	}
+
 	public UriBuilder configureBundleUri(UriBuilder bundleUri)
 	{
 		Objects.requireNonNull(bundleUri, "bundleUri");
@@ -487,6 +820,10 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 					.map(SearchQueryIncludeParameterConfiguration::getBundleUriQueryParameterValues).toArray();
 			bundleUri.replaceQueryParam(PARAMETER_REVINCLUDE, values);
 		}
+		if (!TotalMode.ACCURATE.equals(totalMode))
+			bundleUri.replaceQueryParam(PARAMETER_TOTAL, totalMode.toString());
+		if (elementsParameterValue != null)
+			bundleUri.replaceQueryParam(PARAMETER_ELEMENTS, elementsParameterValue);
 
 		return bundleUri;
 	}
@@ -537,28 +874,22 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	@Override
 	public void modifyIncludeResource(Resource resource, int columnIndex, Connection connection) throws SQLException
 	{
-		int includeParameterCount = includeParameters.size();
-		int revIncludeParameterCount = revIncludeParameters.size();
-
-		if (includeParameterCount > 0 && columnIndex - 1 <= includeParameterCount)
-		{
-			includeParameters.get(columnIndex - 2).modifyIncludeResource(resource, connection);
-		}
-		else if (revIncludeParameters.size() > 0 && columnIndex - 1 - includeParameterCount <= revIncludeParameterCount)
+		if (columnIndex >= 2 && columnIndex - 2 < columnIncludeParameters.size())
 		{
-			revIncludeParameters.get(columnIndex - 2 - includeParameterCount).modifyIncludeResource(resource,
-					connection);
+			columnIncludeParameters.get(columnIndex - 2).modifyIncludeResource(resource, connection);
 		}
 		else
 		{
-			logger.warn(
-					"Unexpected column-index {}, column-index - 1 larger than include ({}) + revinclude ({}) parameter count {}",
-					columnIndex, includeParameterCount, revIncludeParameterCount,
-					includeParameterCount + revIncludeParameterCount);
-			throw new IllegalStateException(
-					"Unexpected column-index " + columnIndex + ", column-index - 1 larger than include ("
-							+ includeParameterCount + ") + revinclude (" + revIncludeParameterCount
-							+ ") parameter count " + (includeParameterCount + revIncludeParameterCount));
+			logger.warn("Unexpected column-index {}, column-index - 1 larger than include column count {}", columnIndex,
+					columnIncludeParameters.size());
+			throw new IllegalStateException("Unexpected column-index " + columnIndex
+					+ ", column-index - 1 larger than include column count " + columnIncludeParameters.size());
 		}
 	}
+
+	@Override
+	public List<SearchQueryIncludeParameterConfiguration> getBatchIncludeParameters()
+	{
+		return Collections.unmodifiableList(batchIncludeParameters);
+	}
 }
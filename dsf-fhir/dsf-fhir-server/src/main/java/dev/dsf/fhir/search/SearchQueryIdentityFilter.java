@@ -10,6 +10,15 @@ public interface SearchQueryIdentityFilter
 	 */
 	String getFilterQuery();
 
+	/**
+	 * @return not <code>null</code>, filters of the same class with equal kinds return the same
+	 *         {@link #getFilterQuery()}, used to look up cached search SQL without creating the filter query
+	 */
+	default String getFilterQueryKind()
+	{
+		return getFilterQuery();
+	}
+
 	/**
 	 * @return {@code >=0}, 0 if {@link #getFilterQuery()} returns empty {@link String}
 	 */
@@ -12,12 +12,13 @@ public class SearchQueryIncludeParameterConfiguration
 {
 	private final String sql;
 	private final IncludeParts includeParts;
+	private final boolean batchQuery;
 
 	private final BiConsumerWithSqlException<Resource, Connection> includeResourceModifier;
 
 	public SearchQueryIncludeParameterConfiguration(String sql, IncludeParts includeParts)
 	{
-		this(sql, includeParts, null);
+		this(sql, includeParts, null, false);
 	}
 
 	/**
@@ -33,10 +34,31 @@ public class SearchQueryIncludeParameterConfiguration
 	 */
 	public SearchQueryIncludeParameterConfiguration(String sql, IncludeParts includeParts,
 			BiConsumerWithSqlException<Resource, Connection> includeResourceModifier)
+	{
+		this(sql, includeParts, includeResourceModifier, false);
+	}
+
+	/**
+	 * @param sql
+	 *            not <code>null</code>
+	 * @param includeParts
+	 *            not <code>null</code>
+	 * @param includeResourceModifier
+	 *            may be <code>null</code>, see
+	 *            {@link #SearchQueryIncludeParameterConfiguration(String, IncludeParts, BiConsumerWithSqlException)}
+	 * @param batchQuery
+	 *            <code>false</code> if the sql is a column expression of the search query returning a json array of
+	 *            include resources per matched row, <code>true</code> if the sql is a separate query selecting id and
+	 *            json of the include resources for all matches of the current page, ids of the matches are set as a
+	 *            UUID array parameter
+	 */
+	public SearchQueryIncludeParameterConfiguration(String sql, IncludeParts includeParts,
+			BiConsumerWithSqlException<Resource, Connection> includeResourceModifier, boolean batchQuery)
 	{
 		this.sql = sql;
 		this.includeParts = includeParts;
 		this.includeResourceModifier = includeResourceModifier;
+		this.batchQuery = batchQuery;
 	}
 
 	public String getBundleUriQueryParameterValues()
@@ -49,6 +71,11 @@ public class SearchQueryIncludeParameterConfiguration
 		return sql;
 	}
 
+	public boolean isBatchQuery()
+	{
+		return batchQuery;
+	}
+
 	public void modifyIncludeResource(Resource resource, Connection connection) throws SQLException
 	{
 		if (includeResourceModifier != null)
@@ -48,6 +48,17 @@ public interface SearchQueryParameter<R extends Resource> extends MatcherParamet
 
 	String getFilterQuery();
 
+	/**
+	 * Only called if {@link #isDefined()} returns <code>true</code>
+	 *
+	 * @return not <code>null</code>, parameters of the same class with equal value forms return the same
+	 *         {@link #getFilterQuery()}, used to look up cached search SQL without creating the filter query
+	 */
+	default String getFilterQueryValueForm()
+	{
+		return getFilterQuery();
+	}
+
 	int getSqlParameterCount();
 
 	void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
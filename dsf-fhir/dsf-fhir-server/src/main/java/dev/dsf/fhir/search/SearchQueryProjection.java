@@ -0,0 +1,173 @@
+package dev.dsf.fhir.search;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.FhirVersionEnum;
+import ca.uhn.fhir.context.RuntimeResourceDefinition;
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.help.SummaryMode;
+
+/**
+ * Projection of the resource column for searches with <code>_summary</code> or <code>_elements</code>, only top-level
+ * elements needed for the response are read from the database.
+ * <p>
+ * For <code>_summary</code> modes the projection contains at least the elements written by the FHIR parser in the
+ * corresponding summary mode, the parser removes additional elements. For <code>_elements</code> the projection is the
+ * response, resources are tagged <code>SUBSETTED</code> by {@link #modifyResource(Resource)}.
+ * <p>
+ * Element names are taken from the resource definition and never from request values, the resulting SQL only depends on
+ * the resource type and the selected elements.
+ */
+public final class SearchQueryProjection
+{
+	private static final String MODIFIER_EXTENSION = "modifierExtension";
+	private static final String ELEMENT_ID = "id";
+	private static final String ELEMENT_META = "meta";
+	private static final String ELEMENT_TEXT = "text";
+
+	private static final Map<Class<? extends Resource>, List<BaseRuntimeChildDefinition>> CHILDREN_BY_TYPE = new ConcurrentHashMap<>();
+
+	private final String sql;
+	private final boolean subsetted;
+
+	private SearchQueryProjection(String sql, boolean subsetted)
+	{
+		this.sql = sql;
+		this.subsetted = subsetted;
+	}
+
+	private static RuntimeResourceDefinition getDefinition(Class<? extends Resource> resourceType)
+	{
+		return FhirContext.forCached(FhirVersionEnum.R4).getResourceDefinition(resourceType);
+	}
+
+	private static List<BaseRuntimeChildDefinition> getChildren(Class<? extends Resource> resourceType)
+	{
+		return CHILDREN_BY_TYPE.computeIfAbsent(resourceType, t -> List.copyOf(getDefinition(t).getChildren()));
+	}
+
+	private static String getElementName(BaseRuntimeChildDefinition child)
+	{
+		String name = child.getElementName();
+		return name.endsWith("[x]") ? name.substring(0, name.length() - 3) : name;
+	}
+
+	private static boolean isMandatory(BaseRuntimeChildDefinition child)
+	{
+		return child.getMin() > 0 || MODIFIER_EXTENSION.equals(child.getElementName())
+				|| ELEMENT_ID.equals(child.getElementName()) || ELEMENT_META.equals(child.getElementName());
+	}
+
+	/**
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @param resourceColumn
+	 *            not <code>null</code>
+	 * @param mode
+	 *            may be <code>null</code>
+	 * @return <code>null</code> if no projection is needed for the given mode
+	 */
+	public static SearchQueryProjection summary(Class<? extends Resource> resourceType, String resourceColumn,
+			SummaryMode mode)
+	{
+		Objects.requireNonNull(resourceType, "resourceType");
+		Objects.requireNonNull(resourceColumn, "resourceColumn");
+
+		if (mode == null)
+			return null;
+
+		return switch (mode)
+		{
+			case TRUE -> select(resourceColumn,
+					getChildren(resourceType).stream().filter(c -> c.isSummary() || isMandatory(c)).toList(), false);
+			case TEXT ->
+				select(resourceColumn,
+						getChildren(resourceType).stream()
+								.filter(c -> ELEMENT_TEXT.equals(c.getElementName()) || isMandatory(c)).toList(),
+						false);
+			case DATA -> new SearchQueryProjection("(" + resourceColumn + " - '" + ELEMENT_TEXT + "')", false);
+			default -> null;
+		};
+	}
+
+	/**
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @param resourceColumn
+	 *            not <code>null</code>
+	 * @param elements
+	 *            not <code>null</code>, element names with or without resource type prefix
+	 * @param unknownElements
+	 *            not <code>null</code>, called with every element name not defined for the given resource type
+	 * @return <code>null</code> if none of the given elements are defined for the given resource type
+	 */
+	public static SearchQueryProjection elements(Class<? extends Resource> resourceType, String resourceColumn,
+			Collection<String> elements, Consumer<String> unknownElements)
+	{
+		Objects.requireNonNull(resourceType, "resourceType");
+		Objects.requireNonNull(resourceColumn, "resourceColumn");
+		Objects.requireNonNull(elements, "elements");
+		Objects.requireNonNull(unknownElements, "unknownElements");
+
+		String prefix = getDefinition(resourceType).getName() + ".";
+		Set<String> names = elements.stream().map(String::trim).filter(e -> !e.isEmpty())
+				.map(e -> e.startsWith(prefix) ? e.substring(prefix.length()) : e)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+
+		List<BaseRuntimeChildDefinition> children = getChildren(resourceType);
+		Set<String> knownNames = children.stream().map(SearchQueryProjection::getElementName)
+				.collect(Collectors.toSet());
+
+		names.stream().filter(n -> !knownNames.contains(n)).forEach(unknownElements);
+		if (names.stream().noneMatch(knownNames::contains))
+			return null;
+
+		return select(resourceColumn,
+				children.stream().filter(c -> names.contains(getElementName(c)) || isMandatory(c)).toList(), true);
+	}
+
+	private static SearchQueryProjection select(String resourceColumn, List<BaseRuntimeChildDefinition> children,
+			boolean subsetted)
+	{
+		// primitive elements may have extensions stored as _name
+		String keys = children.stream().flatMap(c -> c.getValidChildNames().stream())
+				.flatMap(n -> List.of(n, "_" + n).stream()).distinct().map(n -> "'" + n + "'")
+				.collect(Collectors.joining(", ", "'resourceType', ", ""));
+
+		return new SearchQueryProjection("(SELECT jsonb_object_agg(key, value) FROM jsonb_each(" + resourceColumn
+				+ ") WHERE key IN (" + keys + "))", subsetted);
+	}
+
+	/**
+	 * @return SQL expression used instead of the resource column
+	 */
+	public String getSql()
+	{
+		return sql;
+	}
+
+	/**
+	 * Tags resources read via {@link #getSql()} as <code>SUBSETTED</code> if the projection is the response.
+	 *
+	 * @param resource
+	 *            not <code>null</code>
+	 */
+	public void modifyResource(Resource resource)
+	{
+		if (subsetted
+				&& resource.getMeta().getTag(Constants.TAG_SUBSETTED_SYSTEM_R4, Constants.TAG_SUBSETTED_CODE) == null)
+			resource.getMeta().addTag(Constants.TAG_SUBSETTED_SYSTEM_R4, Constants.TAG_SUBSETTED_CODE, null);
+	}
+}
@@ -0,0 +1,187 @@
+package dev.dsf.fhir.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache for the count and search SQL of {@link SearchQuery}s keyed by query shape. The shape consists of
+ * the resource table and projection, the kind of identity filter, names, modifiers and value forms of the defined
+ * search parameters, includes, revincludes, sort parameters, paging mode and total mode. It is derived without creating
+ * any SQL, fragments of search parameters, includes and sort are only created and joined if the shape is not cached.
+ * <p>
+ * Fragments only contain placeholders, searches of the same shape execute the same SQL text. The JDBC driver caches
+ * prepared statements per connection by SQL text equality, statements are prepared server-side once executed
+ * <code>prepareThreshold</code> times on a connection.
+ */
+public class SearchQuerySqlCache
+{
+	/**
+	 * Query shape, see {@link SearchQuerySqlCache}
+	 */
+	public static final class Shape
+	{
+		final String resourceTable;
+		final String resourceSql;
+		final Class<?> identityFilterType;
+		final String identityFilterKind;
+		final List<String> parameters;
+		final List<String> includes;
+		final List<String> revIncludes;
+		final List<String> sort;
+		final boolean keyset;
+		final TotalMode totalMode;
+
+		Shape(String resourceTable, String resourceSql, Class<?> identityFilterType, String identityFilterKind,
+				List<String> parameters, List<String> includes, List<String> revIncludes, List<String> sort,
+				boolean keyset, TotalMode totalMode)
+		{
+			this.resourceTable = resourceTable;
+			this.resourceSql = resourceSql;
+			this.identityFilterType = identityFilterType;
+			this.identityFilterKind = identityFilterKind;
+			this.parameters = parameters;
+			this.includes = includes;
+			this.revIncludes = revIncludes;
+			this.sort = sort;
+			this.keyset = keyset;
+			this.totalMode = totalMode;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(resourceTable, resourceSql, identityFilterType, identityFilterKind, parameters,
+					includes, revIncludes, sort, keyset, totalMode);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+
+			Shape other = (Shape) obj;
+			return Objects.equals(resourceTable, other.resourceTable) && Objects.equals(resourceSql, other.resourceSql)
+					&& Objects.equals(identityFilterType, other.identityFilterType)
+					&& Objects.equals(identityFilterKind, other.identityFilterKind)
+					&& Objects.equals(parameters, other.parameters) && Objects.equals(includes, other.includes)
+					&& Objects.equals(revIncludes, other.revIncludes) && Objects.equals(sort, other.sort)
+					&& keyset == other.keyset && totalMode == other.totalMode;
+		}
+	}
+
+	public static final class Sql
+	{
+		final String countSql;
+		final String searchSql;
+
+		Sql(String countSql, String searchSql)
+		{
+			this.countSql = countSql;
+			this.searchSql = searchSql;
+		}
+	}
+
+	private final String name;
+	private final int maxSize;
+	private final Map<Shape, Sql> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param name
+	 *            not <code>null</code>, used for statistics
+	 * @param maxSize
+	 *            <code>&gt; 0</code>
+	 */
+	public SearchQuerySqlCache(String name, int maxSize)
+	{
+		this.name = Objects.requireNonNull(name, "name");
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("maxSize <= 0");
+		this.maxSize = maxSize;
+
+		entries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Shape, Sql> eldest)
+			{
+				return size() > SearchQuerySqlCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param shape
+	 *            not <code>null</code>
+	 * @param sqlFactory
+	 *            not <code>null</code>, called outside of the cache lock if the shape is not cached
+	 * @return cached or newly created SQL for the given shape
+	 */
+	Sql get(Shape shape, Supplier<Sql> sqlFactory)
+	{
+		Objects.requireNonNull(shape, "shape");
+		Objects.requireNonNull(sqlFactory, "sqlFactory");
+
+		synchronized (this)
+		{
+			Sql sql = entries.get(shape);
+			if (sql != null)
+			{
+				hits.increment();
+				return sql;
+			}
+		}
+
+		misses.increment();
+		Sql sql = sqlFactory.get();
+
+		synchronized (this)
+		{
+			Sql existing = entries.putIfAbsent(shape, sql);
+			return existing != null ? existing : sql;
+		}
+	}
+
+	public synchronized int getSize()
+	{
+		return entries.size();
+	}
+
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), <code>0</code> if the cache was not used
+	 */
+	public double getHitRate()
+	{
+		long hits = getHitCount();
+		long total = hits + getMissCount();
+		return total == 0 ? 0d : (double) hits / total;
+	}
+
+	@Override
+	public String toString()
+	{
+		return name + " [size: " + getSize() + "/" + maxSize + ", hits: " + getHitCount() + ", misses: "
+				+ getMissCount() + ", hit rate: " + String.format(Locale.ROOT, "%.2f", getHitRate()) + "]";
+	}
+}
@@ -0,0 +1,40 @@
+package dev.dsf.fhir.search;
+
+public enum TotalMode
+{
+	/**
+	 * No total calculated, search bundles without <code>Bundle.total</code>
+	 */
+	NONE,
+
+	/**
+	 * Total calculated with a window function as part of the search statement, may be inaccurate if keyset paging is
+	 * used or the requested page is empty
+	 */
+	ESTIMATED,
+
+	/**
+	 * Total calculated with a separate count statement
+	 */
+	ACCURATE;
+
+	public static TotalMode fromString(String mode)
+	{
+		if (mode == null)
+			return null;
+
+		return switch (mode.toLowerCase())
+		{
+			case "none" -> TotalMode.NONE;
+			case "estimated" -> TotalMode.ESTIMATED;
+			case "accurate" -> TotalMode.ACCURATE;
+			default -> null;
+		};
+	}
+
+	@Override
+	public String toString()
+	{
+		return name().toLowerCase();
+	}
+}
@@ -19,17 +19,36 @@ abstract class AbstractMetaTagAuthorizationRoleIdentityFilter extends AbstractId
 	public String getFilterQuery()
 	{
 		if (identity.isLocalIdentity() && identity.hasDsfRole(FhirServerRole.READ))
-			return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
-					+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
-					+ " AND (read_access.organization_id = ? OR read_access.access_type = 'ALL' OR read_access.access_type = 'LOCAL')) > 0";
+			return readAccessExists("'ALL', 'LOCAL'");
 		else if (identity.hasDsfRole(FhirServerRole.READ))
-			return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
-					+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
-					+ " AND (read_access.organization_id = ? OR read_access.access_type = 'ALL')) > 0";
+			return readAccessExists("'ALL'");
 		else
 			return "FALSE";
 	}
 
+	@Override
+	public String getFilterQueryKind()
+	{
+		if (identity.isLocalIdentity() && identity.hasDsfRole(FhirServerRole.READ))
+			return resourceTable + "." + resourceIdColumn + ":LOCAL";
+		else if (identity.hasDsfRole(FhirServerRole.READ))
+			return resourceTable + "." + resourceIdColumn + ":REMOTE";
+		else
+			return "FALSE";
+	}
+
+	/**
+	 * Semi-join against <code>read_access</code>, lets the planner stop at the first matching entry of a resource
+	 * instead of counting all entries, uses the
+	 * <code>(resource_id, resource_version, access_type, organization_id)</code> index.
+	 */
+	private String readAccessExists(String accessTypes)
+	{
+		return "EXISTS (SELECT 1 FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
+				+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
+				+ " AND (read_access.organization_id = ? OR read_access.access_type IN (" + accessTypes + ")))";
+	}
+
 	@Override
 	public int getSqlParameterCount()
 	{
@@ -3,6 +3,9 @@ package dev.dsf.fhir.search.filter;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
 import dev.dsf.common.auth.conf.Identity;
 import dev.dsf.fhir.authentication.FhirServerRole;
 
@@ -32,38 +35,70 @@ public class TaskIdentityFilter extends AbstractIdentityFilter
 		if (identity.hasDsfRole(FhirServerRole.READ))
 		{
 			// TODO modify for requester = Practitioner or PractitionerRole
-			return "(" + resourceColumn + "->'requester'->>'reference' = ? OR " + resourceColumn
-					+ "->'requester'->>'reference' = ? OR " + resourceColumn
-					+ "->'restriction'->'recipient' @> ?::jsonb OR " + resourceColumn
-					+ "->'restriction'->'recipient' @> ?::jsonb)";
+			// jsonb containment instead of ->> comparisons, can be answered by the GIN index on the resource column
+			return "(" + resourceColumn + " @> ?::jsonb OR " + resourceColumn + " @> ?::jsonb OR " + resourceColumn
+					+ " @> ?::jsonb OR " + resourceColumn + " @> ?::jsonb)";
 		}
 		else
 			return "FALSE";
 	}
 
+	@Override
+	public String getFilterQueryKind()
+	{
+		return identity.hasDsfRole(FhirServerRole.READ) ? resourceColumn : "FALSE";
+	}
+
 	@Override
 	public int getSqlParameterCount()
 	{
 		return identity.hasDsfRole(FhirServerRole.READ) ? 4 : 0;
 	}
 
+	private static JsonObject reference(String reference)
+	{
+		JsonObject o = new JsonObject();
+		o.addProperty("reference", reference);
+		return o;
+	}
+
+	private static String requester(String reference)
+	{
+		JsonObject task = new JsonObject();
+		task.add("requester", reference(reference));
+		return task.toString();
+	}
+
+	private static String restrictionRecipient(String reference)
+	{
+		JsonArray recipient = new JsonArray();
+		recipient.add(reference(reference));
+
+		JsonObject restriction = new JsonObject();
+		restriction.add("recipient", recipient);
+
+		JsonObject task = new JsonObject();
+		task.add("restriction", restriction);
+		return task.toString();
+	}
+
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement)
 			throws SQLException
 	{
 		if (identity.hasDsfRole(FhirServerRole.READ))
 		{
+			String reference = identity.getOrganization().getIdElement().getValue();
+			String versionlessReference = identity.getOrganization().getIdElement().toVersionless().getValue();
+
 			if (subqueryParameterIndex == 1)
-				statement.setString(parameterIndex, identity.getOrganization().getIdElement().getValue());
+				statement.setString(parameterIndex, requester(reference));
 			else if (subqueryParameterIndex == 2)
-				statement.setString(parameterIndex,
-						identity.getOrganization().getIdElement().toVersionless().getValue());
+				statement.setString(parameterIndex, requester(versionlessReference));
 			else if (subqueryParameterIndex == 3)
-				statement.setString(parameterIndex,
-						"[{\"reference\": \"" + identity.getOrganization().getIdElement().getValue() + "\"}]");
+				statement.setString(parameterIndex, restrictionRecipient(reference));
 			else if (subqueryParameterIndex == 4)
-				statement.setString(parameterIndex, "[{\"reference\": \""
-						+ identity.getOrganization().getIdElement().toVersionless().getValue() + "\"}]");
+				statement.setString(parameterIndex, restrictionRecipient(versionlessReference));
 		}
 	}
 }
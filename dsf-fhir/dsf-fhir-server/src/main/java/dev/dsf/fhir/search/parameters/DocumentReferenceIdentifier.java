@@ -25,85 +25,26 @@ public class DocumentReferenceIdentifier extends AbstractTokenParameter<Document
 	@Override
 	protected String getPositiveFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE ->
-				"(document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'value' = ?)";
-			case CODE_AND_SYSTEM ->
-				"(document_reference->'identifier' @> ?::jsonb OR (document_reference->'masterIdentifier'->>'value' = ? AND document_reference->'masterIdentifier'->>'system' = ?))";
-			case SYSTEM ->
-				"(document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'system' = ?)";
-			case CODE_AND_NO_SYSTEM_PROPERTY -> "(SELECT count(*) FROM ("
-					+ "SELECT identifier FROM jsonb_array_elements(document_reference->'identifier') AS identifier "
-					+ "UNION SELECT document_reference->'masterIdentifier') AS document_reference_identifiers "
-					+ "WHERE identifier->>'value' = ? AND NOT (identifier ?? 'system')" + ") > 0";
-		};
+		return getTokenIndexPositiveFilterQuery("document_reference_id", PARAMETER_NAME);
 	}
 
 	@Override
 	protected String getNegatedFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE ->
-				"NOT (document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'value' = ?)";
-			case CODE_AND_SYSTEM ->
-				"NOT (document_reference->'identifier' @> ?::jsonb OR (document_reference->'masterIdentifier'->>'value' = ? AND document_reference->'masterIdentifier'->>'system' = ?))";
-			case SYSTEM ->
-				"NOT (document_reference->'identifier' @> ?::jsonb OR document_reference->'masterIdentifier'->>'system' = ?)";
-			case CODE_AND_NO_SYSTEM_PROPERTY -> "(SELECT count(*) FROM ("
-					+ "SELECT identifier FROM jsonb_array_elements(document_reference->'identifier') AS identifier "
-					+ "UNION SELECT document_reference->'masterIdentifier') AS document_reference_identifiers "
-					+ "WHERE identifier->>'value' <> ? OR (identifier ?? 'system')" + ") > 0";
-		};
+		return getTokenIndexNegatedFilterQuery("document_reference_id", PARAMETER_NAME);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE -> 2;
-			case CODE_AND_SYSTEM -> 3;
-			case SYSTEM -> 2;
-			case CODE_AND_NO_SYSTEM_PROPERTY -> 1;
-		};
+		return getTokenIndexSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-
-			case CODE_AND_SYSTEM:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue
-							+ "\", \"system\": \"" + valueAndType.systemValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.codeValue);
-				else if (subqueryParameterIndex == 3)
-					statement.setString(parameterIndex, valueAndType.systemValue);
-				return;
-
-			case SYSTEM:
-				if (subqueryParameterIndex == 1)
-					statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				else if (subqueryParameterIndex == 2)
-					statement.setString(parameterIndex, valueAndType.systemValue);
-				return;
-
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-		}
+		setTokenIndexFilterParameter(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	@Override
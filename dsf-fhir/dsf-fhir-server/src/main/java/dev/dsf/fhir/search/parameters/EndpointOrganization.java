@@ -39,7 +39,7 @@ public class EndpointOrganization extends AbstractReferenceParameter<Endpoint>
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT organization->'identifier' FROM current_organizations"
-			+ " WHERE concat('Organization/', organization->>'id') = endpoint->'managingOrganization'->>'reference')";
+			+ " WHERE organization_id IN (SELECT target_id FROM resource_references WHERE source_id = endpoint_id AND path = 'Endpoint.managingOrganization'))";
 
 	public EndpointOrganization()
 	{
@@ -51,8 +51,9 @@ public class EndpointOrganization extends AbstractReferenceParameter<Endpoint>
 	{
 		return switch (valueAndType.type)
 		{
-			case ID, RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"endpoint->'managingOrganization'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("endpoint_id", "Endpoint.managingOrganization");
+			case URL -> "endpoint->'managingOrganization'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -78,7 +79,7 @@ public class EndpointOrganization extends AbstractReferenceParameter<Endpoint>
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, TARGET_RESOURCE_TYPE_NAME + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -162,7 +163,8 @@ public class EndpointOrganization extends AbstractReferenceParameter<Endpoint>
 	protected String getIncludeSql(IncludeParts includeParts)
 	{
 		if (includeParts.matches(RESOURCE_TYPE_NAME, PARAMETER_NAME, TARGET_RESOURCE_TYPE_NAME))
-			return "(SELECT jsonb_build_array(organization) FROM current_organizations WHERE concat('Organization/', organization->>'id') = endpoint->'managingOrganization'->>'reference') AS organizations";
+			return getReferenceIndexIncludeSql("Endpoint.managingOrganization", "organizations", "organization_id",
+					"organization");
 		else
 			return null;
 	}
@@ -11,6 +11,6 @@ public class GroupIdentifier extends AbstractIdentifierParameter<Group>
 {
 	public GroupIdentifier()
 	{
-		super(Group.class, "group_json", listMatcher(Group::hasIdentifier, Group::getIdentifier));
+		super(Group.class, "group_json", "group_id", listMatcher(Group::hasIdentifier, Group::getIdentifier));
 	}
 }
@@ -40,7 +40,7 @@ public class OrganizationAffiliationParticipatingOrganization
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT organization->'identifier' FROM current_organizations"
-			+ " WHERE concat('Organization/', organization->>'id') = organization_affiliation->'participatingOrganization'->>'reference')";
+			+ " WHERE organization_id IN (SELECT target_id FROM resource_references WHERE source_id = organization_affiliation_id AND path = 'OrganizationAffiliation.participatingOrganization'))";
 
 	public OrganizationAffiliationParticipatingOrganization()
 	{
@@ -52,8 +52,9 @@ public class OrganizationAffiliationParticipatingOrganization
 	{
 		return switch (valueAndType.type)
 		{
-			case ID, RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"organization_affiliation->'participatingOrganization'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID -> getReferenceIndexFilterQuery(
+					"organization_affiliation_id", "OrganizationAffiliation.participatingOrganization");
+			case URL -> "organization_affiliation->'participatingOrganization'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -79,7 +80,7 @@ public class OrganizationAffiliationParticipatingOrganization
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, TARGET_RESOURCE_TYPE_NAME + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -164,7 +165,8 @@ public class OrganizationAffiliationParticipatingOrganization
 	protected String getIncludeSql(IncludeParts includeParts)
 	{
 		if (includeParts.matches(RESOURCE_TYPE_NAME, PARAMETER_NAME, TARGET_RESOURCE_TYPE_NAME))
-			return "(SELECT jsonb_build_array(organization) FROM current_organizations WHERE concat('Organization/', organization->>'id') = organization_affiliation->'participatingOrganization'->>'reference') AS organizations";
+			return getReferenceIndexIncludeSql("OrganizationAffiliation.participatingOrganization", "organizations",
+					"organization_id", "organization");
 		else
 			return null;
 	}
@@ -39,7 +39,7 @@ public class OrganizationAffiliationPrimaryOrganization extends AbstractReferenc
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT organization->'identifier' FROM current_organizations"
-			+ " WHERE concat('Organization/', organization->>'id') = organization_affiliation->'organization'->>'reference')";
+			+ " WHERE organization_id IN (SELECT target_id FROM resource_references WHERE source_id = organization_affiliation_id AND path = 'OrganizationAffiliation.organization'))";
 
 	public OrganizationAffiliationPrimaryOrganization()
 	{
@@ -51,8 +51,9 @@ public class OrganizationAffiliationPrimaryOrganization extends AbstractReferenc
 	{
 		return switch (valueAndType.type)
 		{
-			case ID, RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"organization_affiliation->'organization'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("organization_affiliation_id", "OrganizationAffiliation.organization");
+			case URL -> "organization_affiliation->'organization'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -78,7 +79,7 @@ public class OrganizationAffiliationPrimaryOrganization extends AbstractReferenc
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, TARGET_RESOURCE_TYPE_NAME + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -163,7 +164,8 @@ public class OrganizationAffiliationPrimaryOrganization extends AbstractReferenc
 	protected String getIncludeSql(IncludeParts includeParts)
 	{
 		if (includeParts.matches(RESOURCE_TYPE_NAME, PARAMETER_NAME, TARGET_RESOURCE_TYPE_NAME))
-			return "(SELECT jsonb_build_array(organization) FROM current_organizations WHERE concat('Organization/', organization->>'id') = organization_affiliation->'organization'->>'reference') AS organizations";
+			return getReferenceIndexIncludeSql("OrganizationAffiliation.organization", "organizations",
+					"organization_id", "organization");
 		else
 			return null;
 	}
@@ -48,17 +48,19 @@ public class OrganizationEndpoint extends AbstractReferenceParameter<Organizatio
 	{
 		return switch (valueAndType.type)
 		{
-			case ID, RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("organization_id", "Organization.endpoint");
+			case URL ->
 				"? IN (SELECT reference->>'reference' FROM jsonb_array_elements(organization->'endpoint') AS reference)";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM ->
 					"(SELECT jsonb_agg(identifier) FROM (SELECT identifier FROM current_endpoints, jsonb_array_elements(endpoint->'identifier') identifier"
-							+ " WHERE concat('Endpoint/', endpoint->>'id') IN (SELECT reference->>'reference' FROM jsonb_array_elements(organization->'endpoint') reference)"
+							+ " WHERE endpoint_id IN (SELECT target_id FROM resource_references WHERE source_id = organization_id AND path = 'Organization.endpoint')"
 							+ " ) AS identifiers) @> ?::jsonb";
 				case CODE_AND_NO_SYSTEM_PROPERTY ->
 					"(SELECT count(*) FROM (SELECT identifier FROM current_endpoints, jsonb_array_elements(endpoint->'identifier') identifier"
-							+ " WHERE concat('Endpoint/', endpoint->>'id') IN (SELECT reference->>'reference' FROM jsonb_array_elements(organization->'endpoint') reference)"
+							+ " WHERE endpoint_id IN (SELECT target_id FROM resource_references WHERE source_id = organization_id AND path = 'Organization.endpoint')"
 							+ " ) AS identifiers WHERE identifier->>'value' = ? AND NOT (identifier ?? 'system')) > 0";
 			};
 		};
@@ -80,7 +82,7 @@ public class OrganizationEndpoint extends AbstractReferenceParameter<Organizatio
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, TARGET_RESOURCE_TYPE_NAME + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -166,7 +168,7 @@ public class OrganizationEndpoint extends AbstractReferenceParameter<Organizatio
 	protected String getIncludeSql(IncludeParts includeParts)
 	{
 		if (includeParts.matches(RESOURCE_TYPE_NAME, PARAMETER_NAME, TARGET_RESOURCE_TYPE_NAME))
-			return "(SELECT jsonb_agg(endpoint) FROM current_endpoints WHERE concat('Endpoint/', endpoint->>'id') IN (SELECT reference->>'reference' FROM jsonb_array_elements(organization->'endpoint') AS reference)) AS endpoints";
+			return getReferenceIndexIncludeSql("Organization.endpoint", "endpoints", "endpoint_id", "endpoint");
 		else
 			return null;
 	}
@@ -24,58 +24,26 @@ public class OrganizationType extends AbstractTokenParameter<Organization>
 	@Override
 	protected String getPositiveFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE, CODE_AND_SYSTEM, SYSTEM ->
-				"(SELECT jsonb_agg(coding) FROM jsonb_array_elements(organization->'type') AS type, jsonb_array_elements(type->'coding') AS coding) @> ?::jsonb";
-			case CODE_AND_NO_SYSTEM_PROPERTY ->
-				"(SELECT COUNT(*) FROM jsonb_array_elements(organization->'type') AS type, jsonb_array_elements(type->'coding') AS coding "
-						+ "WHERE coding->>'code' = ? AND NOT (coding ?? 'system')) > 0";
-		};
+		return getTokenIndexPositiveFilterQuery("organization_id", PARAMETER_NAME);
 	}
 
 	@Override
 	protected String getNegatedFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE, CODE_AND_SYSTEM, SYSTEM ->
-				"NOT ((SELECT jsonb_agg(coding) FROM jsonb_array_elements(organization->'type') AS type, jsonb_array_elements(type->'coding') AS coding) @> ?::jsonb)";
-			case CODE_AND_NO_SYSTEM_PROPERTY ->
-				"(SELECT COUNT(*) FROM jsonb_array_elements(organization->'type') AS type, jsonb_array_elements(type->'coding') AS coding "
-						+ "WHERE coding->>'code' <> ? OR (coding ?? 'system')) > 0";
-		};
+		return getTokenIndexNegatedFilterQuery("organization_id", PARAMETER_NAME);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 1;
+		return getTokenIndexSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				statement.setString(parameterIndex, "[{\"code\": \"" + valueAndType.codeValue + "\"}]");
-				return;
-
-			case CODE_AND_SYSTEM:
-				statement.setString(parameterIndex, "[{\"code\": \"" + valueAndType.codeValue + "\", \"system\": \""
-						+ valueAndType.systemValue + "\"}]");
-				return;
-
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-
-			case SYSTEM:
-				statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				return;
-		}
+		setTokenIndexFilterParameter(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	@Override
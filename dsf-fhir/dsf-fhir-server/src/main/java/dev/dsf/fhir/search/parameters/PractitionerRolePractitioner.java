@@ -39,7 +39,7 @@ public class PractitionerRolePractitioner extends AbstractReferenceParameter<Pra
 	}
 
 	private static final String PRACTITIONER_IDENTIFIERS_SUBQUERY = "(SELECT practitioner->'identifier' FROM current_practitioners"
-			+ " WHERE concat('Practitioner/', practitioner->>'id') = practitioner_role->'practitioner'->>'reference')";
+			+ " WHERE practitioner_id IN (SELECT target_id FROM resource_references WHERE source_id = practitioner_role_id AND path = 'PractitionerRole.practitioner'))";
 
 	public PractitionerRolePractitioner()
 	{
@@ -51,8 +51,9 @@ public class PractitionerRolePractitioner extends AbstractReferenceParameter<Pra
 	{
 		return switch (valueAndType.type)
 		{
-			case ID, RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"practitioner_role->'practitioner'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("practitioner_role_id", "PractitionerRole.practitioner");
+			case URL -> "practitioner_role->'practitioner'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> PRACTITIONER_IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -79,7 +80,7 @@ public class PractitionerRolePractitioner extends AbstractReferenceParameter<Pra
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, TARGET_RESOURCE_TYPE_NAME + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -164,7 +165,8 @@ public class PractitionerRolePractitioner extends AbstractReferenceParameter<Pra
 	protected String getIncludeSql(IncludeParts includeParts)
 	{
 		if (includeParts.matches(RESOURCE_TYPE_NAME, PARAMETER_NAME, TARGET_RESOURCE_TYPE_NAME))
-			return "(SELECT jsonb_build_array(practitioner) FROM current_practitioners WHERE concat('Practitioner/', practitioner->>'id') = practitioner_role->'practitioner'->>'reference') AS practitioners";
+			return getReferenceIndexIncludeSql("PractitionerRole.practitioner", "practitioners", "practitioner_id",
+					"practitioner");
 		else
 			return null;
 	}
@@ -45,11 +45,11 @@ public class QuestionnaireResponseSubject extends AbstractReferenceParameter<Que
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT practitioner->'identifier' FROM current_practitioners "
-			+ "WHERE concat('Practitioner/', practitioner->>'id') = questionnaire_response->'subject'->>'reference' "
+			+ "WHERE practitioner_id IN (SELECT target_id FROM resource_references WHERE source_id = questionnaire_response_id AND path = 'QuestionnaireResponse.subject') "
 			+ "UNION SELECT organization->'identifier' FROM current_organizations "
-			+ "WHERE concat('Organization/', organization->>'id') = questionnaire_response->'subject'->>'reference' "
+			+ "WHERE organization_id IN (SELECT target_id FROM resource_references WHERE source_id = questionnaire_response_id AND path = 'QuestionnaireResponse.subject') "
 			+ "UNION SELECT practitioner_role->'identifier' FROM current_practitioner_roles "
-			+ "WHERE concat('PractitionerRole/', practitioner_role->>'id') = questionnaire_response->'subject'->>'reference')";
+			+ "WHERE practitioner_role_id IN (SELECT target_id FROM resource_references WHERE source_id = questionnaire_response_id AND path = 'QuestionnaireResponse.subject'))";
 
 	public QuestionnaireResponseSubject()
 	{
@@ -61,10 +61,9 @@ public class QuestionnaireResponseSubject extends AbstractReferenceParameter<Que
 	{
 		return switch (valueAndType.type)
 		{
-			// testing all TargetResourceTypeName/ID combinations
-			case ID -> "questionnaire_response->'subject'->>'reference' = ANY (?)";
-			case RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"questionnaire_response->'subject'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("questionnaire_response_id", "QuestionnaireResponse.subject");
+			case URL -> "questionnaire_response->'subject'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -87,14 +86,10 @@ public class QuestionnaireResponseSubject extends AbstractReferenceParameter<Que
 		switch (valueAndType.type)
 		{
 			case ID:
-				Array array = arrayCreator.apply("TEXT",
-						Arrays.stream(TARGET_RESOURCE_TYPE_NAMES).map(n -> n + "/" + valueAndType.id).toArray());
-				statement.setArray(parameterIndex, array);
-				break;
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, valueAndType.resourceName + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -207,13 +202,12 @@ public class QuestionnaireResponseSubject extends AbstractReferenceParameter<Que
 						.anyMatch(n -> n.equals(includeParts.getTargetResourceTypeName())))
 			return switch (includeParts.getTargetResourceTypeName())
 			{
-				case "Organization" -> "(SELECT jsonb_build_array(organization) FROM current_organizations"
-						+ " WHERE concat('Organization/', organization->>'id') = questionnaire_response->'subject'->>'reference') AS organizations";
-				case "Practitioner" -> "(SELECT jsonb_build_array(practitioner) FROM current_practitioners"
-						+ " WHERE concat('Practitioner/', practitioner->>'id') = questionnaire_response->'subject'->>'reference') AS practitioners";
-				case "PractitionerRole" ->
-					"(SELECT jsonb_build_array(practitioner_role) FROM current_practitioner_roles"
-							+ " WHERE concat('PractitionerRole/', practitioner_role->>'id') = questionnaire_response->'subject'->>'reference') AS practitioner_roles";
+				case "Organization" -> getReferenceIndexIncludeSql("QuestionnaireResponse.subject", "organizations",
+						"organization_id", "organization");
+				case "Practitioner" -> getReferenceIndexIncludeSql("QuestionnaireResponse.subject", "practitioners",
+						"practitioner_id", "practitioner");
+				case "PractitionerRole" -> getReferenceIndexIncludeSql("QuestionnaireResponse.subject",
+						"practitioner_roles", "practitioner_role_id", "practitioner_role");
 				default -> null;
 			};
 		else
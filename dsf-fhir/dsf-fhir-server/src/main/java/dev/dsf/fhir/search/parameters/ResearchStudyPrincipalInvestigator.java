@@ -42,9 +42,9 @@ public class ResearchStudyPrincipalInvestigator extends AbstractReferenceParamet
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT practitioner->'identifier' FROM current_practitioners "
-			+ "WHERE concat('Practitioner/', practitioner->>'id') = research_study->'principalInvestigator'->>'reference' "
+			+ "WHERE practitioner_id IN (SELECT target_id FROM resource_references WHERE source_id = research_study_id AND path = 'ResearchStudy.principalInvestigator') "
 			+ "UNION SELECT practitioner_role->'identifier' FROM current_practitioner_roles "
-			+ "WHERE concat('PractitionerRole/', practitioner_role->>'id') = research_study->'principalInvestigator'->>'reference')";
+			+ "WHERE practitioner_role_id IN (SELECT target_id FROM resource_references WHERE source_id = research_study_id AND path = 'ResearchStudy.principalInvestigator'))";
 
 	public ResearchStudyPrincipalInvestigator()
 	{
@@ -56,9 +56,9 @@ public class ResearchStudyPrincipalInvestigator extends AbstractReferenceParamet
 	{
 		return switch (valueAndType.type)
 		{
-			case ID -> "research_study->'principalInvestigator'->>'reference' = ANY (?)";
-			case RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"research_study->'principalInvestigator'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("research_study_id", "ResearchStudy.principalInvestigator");
+			case URL -> "research_study->'principalInvestigator'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -81,14 +81,10 @@ public class ResearchStudyPrincipalInvestigator extends AbstractReferenceParamet
 		switch (valueAndType.type)
 		{
 			case ID:
-				Array array = arrayCreator.apply("TEXT",
-						Arrays.stream(TARGET_RESOURCE_TYPE_NAMES).map(n -> n + "/" + valueAndType.id).toArray());
-				statement.setArray(parameterIndex, array);
-				break;
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, valueAndType.resourceName + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -193,12 +189,11 @@ public class ResearchStudyPrincipalInvestigator extends AbstractReferenceParamet
 						.anyMatch(n -> n.equals(includeParts.getTargetResourceTypeName())))
 			return switch (includeParts.getTargetResourceTypeName())
 			{
-				case "Practitioner" -> "(SELECT jsonb_build_array(practitioner) FROM current_practitioners"
-						+ " WHERE concat('Practitioner/', practitioner->>'id') = research_study->'principalInvestigator'->>'reference') AS practitioners";
+				case "Practitioner" -> getReferenceIndexIncludeSql("ResearchStudy.principalInvestigator",
+						"practitioners", "practitioner_id", "practitioner");
 
-				case "PractitionerRole" ->
-					"(SELECT jsonb_build_array(practitioner_role) FROM current_practitioner_roles"
-							+ " WHERE concat('PractitionerRole/', practitioner_role->>'id') = research_study->'principalInvestigator'->>'reference') AS practitioner_roles";
+				case "PractitionerRole" -> getReferenceIndexIncludeSql("ResearchStudy.principalInvestigator",
+						"practitioner_roles", "practitioner_role_id", "practitioner_role");
 
 				default -> null;
 			};
@@ -68,6 +68,13 @@ public class ResourceId<R extends Resource> extends AbstractSearchParameter<R>
 		return id != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		// value set as parameter
+		return "";
+	}
+
 	@Override
 	public String getFilterQuery()
 	{
@@ -11,9 +11,9 @@ public class ResourceLastUpdated<R extends Resource> extends AbstractDateTimePar
 {
 	public static final String PARAMETER_NAME = "_lastUpdated";
 
-	public ResourceLastUpdated(Class<R> resourceType, String resourceColumn)
+	public ResourceLastUpdated(Class<R> resourceType)
 	{
-		super(resourceType, PARAMETER_NAME, resourceColumn + "->'meta'->>'lastUpdated'", fromInstant(
+		super(resourceType, PARAMETER_NAME, "last_updated", fromInstant(
 				r -> r.hasMeta() && r.getMeta().hasLastUpdatedElement(), r -> r.getMeta().getLastUpdatedElement()));
 	}
 }
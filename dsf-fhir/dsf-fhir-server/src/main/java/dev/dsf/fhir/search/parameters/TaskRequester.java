@@ -46,13 +46,13 @@ public class TaskRequester extends AbstractReferenceParameter<Task>
 	}
 
 	private static final String IDENTIFIERS_SUBQUERY = "(SELECT practitioner->'identifier' FROM current_practitioners "
-			+ "WHERE concat('Practitioner/', practitioner->>'id') = task->'requester'->>'reference' "
+			+ "WHERE practitioner_id IN (SELECT target_id FROM resource_references WHERE source_id = task_id AND path = 'Task.requester') "
 			+ "UNION SELECT organization->'identifier' FROM current_organizations "
-			+ "WHERE concat('Organization/', organization->>'id') = task->'requester'->>'reference' "
+			+ "WHERE organization_id IN (SELECT target_id FROM resource_references WHERE source_id = task_id AND path = 'Task.requester') "
 			+ "UNION SELECT patient->'identifier' FROM current_patients "
-			+ "WHERE concat('Patient/', patient->>'id') = task->'requester'->>'reference' "
+			+ "WHERE patient_id IN (SELECT target_id FROM resource_references WHERE source_id = task_id AND path = 'Task.requester') "
 			+ "UNION SELECT practitioner_role->'identifier' FROM current_practitioner_roles "
-			+ "WHERE concat('PractitionerRole/', practitioner_role->>'id') = task->'requester'->>'reference')";
+			+ "WHERE practitioner_role_id IN (SELECT target_id FROM resource_references WHERE source_id = task_id AND path = 'Task.requester'))";
 
 	public TaskRequester()
 	{
@@ -64,10 +64,9 @@ public class TaskRequester extends AbstractReferenceParameter<Task>
 	{
 		return switch (valueAndType.type)
 		{
-			// testing all TargetResourceTypeName/ID combinations
-			case ID -> "task->'requester'->>'reference' = ANY (?)";
-			case RESOURCE_NAME_AND_ID, URL, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
-				"task->'requester'->>'reference' = ?";
+			case ID, RESOURCE_NAME_AND_ID, TYPE_AND_ID, TYPE_AND_RESOURCE_NAME_AND_ID ->
+				getReferenceIndexFilterQuery("task_id", "Task.requester");
+			case URL -> "task->'requester'->>'reference' = ?";
 			case IDENTIFIER -> switch (valueAndType.identifier.type)
 			{
 				case CODE, CODE_AND_SYSTEM, SYSTEM -> IDENTIFIERS_SUBQUERY + " @> ?::jsonb";
@@ -90,14 +89,10 @@ public class TaskRequester extends AbstractReferenceParameter<Task>
 		switch (valueAndType.type)
 		{
 			case ID:
-				Array array = arrayCreator.apply("TEXT",
-						Arrays.stream(TARGET_RESOURCE_TYPE_NAMES).map(n -> n + "/" + valueAndType.id).toArray());
-				statement.setArray(parameterIndex, array);
-				break;
 			case RESOURCE_NAME_AND_ID:
 			case TYPE_AND_ID:
 			case TYPE_AND_RESOURCE_NAME_AND_ID:
-				statement.setString(parameterIndex, valueAndType.resourceName + "/" + valueAndType.id);
+				setReferenceIndexFilterParameter(parameterIndex, statement);
 				break;
 			case URL:
 				statement.setString(parameterIndex, valueAndType.url);
@@ -217,18 +212,16 @@ public class TaskRequester extends AbstractReferenceParameter<Task>
 
 			return switch (includeParts.getTargetResourceTypeName())
 			{
-				case "Practitioner" -> "(SELECT jsonb_build_array(practitioner) FROM current_practitioners"
-						+ " WHERE concat('Practitioner/', practitioner->>'id') = task->'requester'->>'reference') AS practitioners";
+				case "Practitioner" ->
+					getReferenceIndexIncludeSql("Task.requester", "practitioners", "practitioner_id", "practitioner");
 
-				case "Organization" -> "(SELECT jsonb_build_array(organization) FROM current_organizations"
-						+ " WHERE concat('Organization/', organization->>'id') = task->'requester'->>'reference') AS organizations";
+				case "Organization" ->
+					getReferenceIndexIncludeSql("Task.requester", "organizations", "organization_id", "organization");
 
-				case "Patient" -> "(SELECT jsonb_build_array(patient) FROM current_patients"
-						+ " WHERE concat('Patient/', patient->>'id') = task->'requester'->>'reference') AS patients";
+				case "Patient" -> getReferenceIndexIncludeSql("Task.requester", "patients", "patient_id", "patient");
 
-				case "PractitionerRole" ->
-					"(SELECT jsonb_build_array(practitioner_role) FROM current_practitioner_roles"
-							+ " WHERE concat('PractitionerRole/', practitioner_role->>'id') = task->'requester'->>'reference') AS practitioner_roles";
+				case "PractitionerRole" -> getReferenceIndexIncludeSql("Task.requester", "practitioner_roles",
+						"practitioner_role_id", "practitioner_role");
 
 				default -> null;
 			};
@@ -54,6 +54,13 @@ public abstract class AbstractBooleanParameter<R extends Resource> extends Abstr
 		return value != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		// value set as parameter
+		return "";
+	}
+
 	@Override
 	public String getBundleUriQueryParameterName()
 	{
@@ -40,4 +40,11 @@ public abstract class AbstractCanonicalReferenceParameter<R extends DomainResour
 					return;
 			}
 	}
+
+	@Override
+	protected boolean isIncludeSqlBatchQuery()
+	{
+		// canonical references not stored in resource_references table, include sql evaluated per matched row
+		return false;
+	}
 }
@@ -80,6 +80,12 @@ public abstract class AbstractCanonicalUrlParameter<R extends Resource> extends
 		return valueAndType != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		return valueAndType.type + (hasVersion() ? "|version" : "");
+	}
+
 	protected boolean hasVersion()
 	{
 		return isDefined() && valueAndType.version != null;
@@ -220,6 +220,12 @@ public abstract class AbstractDateTimeParameter<R extends Resource> extends Abst
 		return valueAndType != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		return valueAndType.type + ":" + valueAndType.searchType;
+	}
+
 	@Override
 	public String getBundleUriQueryParameterName()
 	{
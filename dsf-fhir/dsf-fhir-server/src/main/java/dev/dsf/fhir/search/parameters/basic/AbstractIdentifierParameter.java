@@ -19,15 +19,23 @@ public abstract class AbstractIdentifierParameter<R extends Resource> extends Ab
 	public static final String PARAMETER_NAME = "identifier";
 
 	protected final String resourceColumn;
+	protected final String resourceIdColumn;
 
 	private final BiPredicate<TokenValueAndSearchType, R> identifierMatches;
 
 	public AbstractIdentifierParameter(Class<R> resourceType, String resourceColumn,
 			BiPredicate<TokenValueAndSearchType, R> identifierMatches)
+	{
+		this(resourceType, resourceColumn, resourceColumn + "_id", identifierMatches);
+	}
+
+	public AbstractIdentifierParameter(Class<R> resourceType, String resourceColumn, String resourceIdColumn,
+			BiPredicate<TokenValueAndSearchType, R> identifierMatches)
 	{
 		super(resourceType, PARAMETER_NAME);
 
 		this.resourceColumn = resourceColumn;
+		this.resourceIdColumn = resourceIdColumn;
 		this.identifierMatches = identifierMatches;
 	}
 
@@ -70,51 +78,26 @@ public abstract class AbstractIdentifierParameter<R extends Resource> extends Ab
 	@Override
 	protected String getPositiveFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE, CODE_AND_SYSTEM, SYSTEM -> resourceColumn + "->'identifier' @> ?::jsonb";
-			case CODE_AND_NO_SYSTEM_PROPERTY -> "(SELECT count(*) FROM jsonb_array_elements(" + resourceColumn
-					+ "->'identifier') identifier WHERE identifier->>'value' = ? AND NOT (identifier ?? 'system')) > 0";
-		};
+		return getTokenIndexPositiveFilterQuery(resourceIdColumn, PARAMETER_NAME);
 	}
 
 	@Override
 	protected String getNegatedFilterQuery()
 	{
-		return switch (valueAndType.type)
-		{
-			case CODE, CODE_AND_SYSTEM, SYSTEM -> "NOT (" + resourceColumn + "->'identifier' @> ?::jsonb)";
-			case CODE_AND_NO_SYSTEM_PROPERTY -> "(SELECT count(*) FROM jsonb_array_elements(" + resourceColumn
-					+ "->'identifier') identifier WHERE identifier->>'value' <> ? OR (identifier ?? 'system')) > 0";
-		};
+		return getTokenIndexNegatedFilterQuery(resourceIdColumn, PARAMETER_NAME);
 	}
 
 	@Override
 	public int getSqlParameterCount()
 	{
-		return 1;
+		return getTokenIndexSqlParameterCount();
 	}
 
 	@Override
 	public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
-		switch (valueAndType.type)
-		{
-			case CODE:
-				statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\"}]");
-				return;
-			case CODE_AND_SYSTEM:
-				statement.setString(parameterIndex, "[{\"value\": \"" + valueAndType.codeValue + "\", \"system\": \""
-						+ valueAndType.systemValue + "\"}]");
-				return;
-			case CODE_AND_NO_SYSTEM_PROPERTY:
-				statement.setString(parameterIndex, valueAndType.codeValue);
-				return;
-			case SYSTEM:
-				statement.setString(parameterIndex, "[{\"system\": \"" + valueAndType.systemValue + "\"}]");
-				return;
-		}
+		setTokenIndexFilterParameter(parameterIndex, subqueryParameterIndex, statement);
 	}
 
 	@Override
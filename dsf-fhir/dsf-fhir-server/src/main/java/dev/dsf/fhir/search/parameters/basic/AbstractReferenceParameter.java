@@ -1,15 +1,19 @@
 package dev.dsf.fhir.search.parameters.basic;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.DomainResource;
 import org.hl7.fhir.r4.model.Resource;
+import org.postgresql.util.PGobject;
 
 import dev.dsf.fhir.dao.provider.DaoProvider;
 import dev.dsf.fhir.search.IncludeParts;
@@ -198,6 +202,95 @@ public abstract class AbstractReferenceParameter<R extends DomainResource> exten
 		return valueAndType != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		// resource name part of the reference index filter query, validated against targetResourceTypeNames
+		return valueAndType.type + (valueAndType.resourceName != null ? ":" + valueAndType.resourceName : "")
+				+ (valueAndType.identifier != null ? ":" + valueAndType.identifier.type : "");
+	}
+
+	/**
+	 * Filter query for the search types {@link ReferenceSearchType#ID}, {@link ReferenceSearchType#TYPE_AND_ID},
+	 * {@link ReferenceSearchType#RESOURCE_NAME_AND_ID} and {@link ReferenceSearchType#TYPE_AND_RESOURCE_NAME_AND_ID}
+	 * using the <code>resource_references</code> table. The query has one parameter, see
+	 * {@link #setReferenceIndexFilterParameter(int, PreparedStatement)}.
+	 *
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, id column of the searched resource table, e.g. <code>task_id</code>
+	 * @param path
+	 *            not <code>null</code>, location of the reference as recorded in the <code>resource_references</code>
+	 *            table, e.g. <code>Task.requester</code>
+	 * @return filter query
+	 */
+	protected final String getReferenceIndexFilterQuery(String resourceIdColumn, String path)
+	{
+		// resourceName validated against targetResourceTypeNames while parsing
+		String targetTypes = valueAndType.resourceName != null ? "'" + valueAndType.resourceName + "'"
+				: targetResourceTypeNames.stream().map(n -> "'" + n + "'").collect(Collectors.joining(", "));
+
+		return resourceIdColumn + " IN (SELECT source_id FROM resource_references WHERE target_id = ? AND path = '"
+				+ path + "' AND target_type IN (" + targetTypes + "))";
+	}
+
+	/**
+	 * Sets the target id parameter of the query returned by {@link #getReferenceIndexFilterQuery(String, String)}.
+	 * Values not representing a UUID are set as <code>NULL</code> and will not match any resource.
+	 *
+	 * @param parameterIndex
+	 *            index of the target id parameter
+	 * @param statement
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if the parameter can not be set
+	 */
+	protected final void setReferenceIndexFilterParameter(int parameterIndex, PreparedStatement statement)
+			throws SQLException
+	{
+		statement.setObject(parameterIndex, toUuidObject(valueAndType.id));
+	}
+
+	private PGobject toUuidObject(String id) throws SQLException
+	{
+		PGobject uuidObject = new PGobject();
+		uuidObject.setType("UUID");
+
+		try
+		{
+			uuidObject.setValue(UUID.fromString(id).toString());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// not a UUID, NULL value will not match
+		}
+
+		return uuidObject;
+	}
+
+	/**
+	 * Include query selecting id and json of the target resources of the given reference location for all matches of
+	 * the current page using the <code>resource_references</code> table. Ids of the matches are set as a UUID array
+	 * parameter, every target resource is returned once.
+	 *
+	 * @param path
+	 *            not <code>null</code>, location of the reference, e.g. <code>Task.requester</code>
+	 * @param targetTable
+	 *            not <code>null</code>, e.g. <code>organizations</code>
+	 * @param targetIdColumn
+	 *            not <code>null</code>, e.g. <code>organization_id</code>
+	 * @param targetColumn
+	 *            not <code>null</code>, e.g. <code>organization</code>
+	 * @return include query
+	 * @see #isIncludeSqlBatchQuery()
+	 */
+	protected static String getReferenceIndexIncludeSql(String path, String targetTable, String targetIdColumn,
+			String targetColumn)
+	{
+		return "SELECT " + targetIdColumn + ", " + targetColumn + " FROM current_" + targetTable + " WHERE "
+				+ targetIdColumn
+				+ " IN (SELECT target_id FROM resource_references WHERE source_id = ANY (?) AND path = '" + path + "')";
+	}
+
 	@Override
 	public String getBundleUriQueryParameterName()
 	{
@@ -246,13 +339,24 @@ public abstract class AbstractReferenceParameter<R extends DomainResource> exten
 
 		if (includeSql != null)
 			return new SearchQueryIncludeParameterConfiguration(includeSql, includeParts,
-					(resource, connection) -> modifyIncludeResource(includeParts, resource, connection));
+					(resource, connection) -> modifyIncludeResource(includeParts, resource, connection),
+					isIncludeSqlBatchQuery());
 		else
 			return null;
 	}
 
 	protected abstract String getIncludeSql(IncludeParts includeParts);
 
+	/**
+	 * @return <code>true</code> (default) if {@link #getIncludeSql(IncludeParts)} returns a query executed once per
+	 *         page, see {@link #getReferenceIndexIncludeSql(String, String, String, String)}, <code>false</code> if it
+	 *         returns a column expression evaluated per matched row
+	 */
+	protected boolean isIncludeSqlBatchQuery()
+	{
+		return true;
+	}
+
 	/**
 	 * Use this method to modify the include resources. This method can be used if the resources returned by the include
 	 * SQL are not complete and additional content needs to be retrieved from a not included column. For example the
@@ -62,6 +62,12 @@ public abstract class AbstractStringParameter<R extends Resource> extends Abstra
 		return valueAndType != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		return valueAndType.type.name();
+	}
+
 	@Override
 	public String getBundleUriQueryParameterName()
 	{
@@ -1,5 +1,7 @@
 package dev.dsf.fhir.search.parameters.basic;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
@@ -37,6 +39,12 @@ public abstract class AbstractTokenParameter<R extends Resource> extends Abstrac
 		return valueAndType != null;
 	}
 
+	@Override
+	public String getFilterQueryValueForm()
+	{
+		return valueAndType.type + (valueAndType.negated ? TokenValueAndSearchType.NOT : "");
+	}
+
 	@Override
 	public final String getFilterQuery()
 	{
@@ -65,6 +73,89 @@ public abstract class AbstractTokenParameter<R extends Resource> extends Abstrac
 		};
 	}
 
+	/**
+	 * Filter query using the <code>resource_tokens</code> table, parameters need to be set via
+	 * {@link #setTokenIndexFilterParameter(int, int, PreparedStatement)}.
+	 *
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, id column of the searched resource table, e.g. <code>organization_id</code>
+	 * @param tokenParameterName
+	 *            not <code>null</code>, parameter name used by the token index, e.g. <code>identifier</code>
+	 * @return filter query
+	 */
+	protected final String getTokenIndexPositiveFilterQuery(String resourceIdColumn, String tokenParameterName)
+	{
+		return resourceIdColumn + " IN " + getTokenIndexSubquery(tokenParameterName) + switch (valueAndType.type)
+		{
+			case CODE -> "code = ?)";
+			case CODE_AND_SYSTEM -> "code = ? AND system = ?)";
+			case CODE_AND_NO_SYSTEM_PROPERTY -> "code = ? AND system IS NULL)";
+			case SYSTEM -> "system = ?)";
+		};
+	}
+
+	/**
+	 * Negated filter query using the <code>resource_tokens</code> table, parameters need to be set via
+	 * {@link #setTokenIndexFilterParameter(int, int, PreparedStatement)}.
+	 *
+	 * @param resourceIdColumn
+	 *            not <code>null</code>, id column of the searched resource table, e.g. <code>organization_id</code>
+	 * @param tokenParameterName
+	 *            not <code>null</code>, parameter name used by the token index, e.g. <code>identifier</code>
+	 * @return filter query
+	 */
+	protected final String getTokenIndexNegatedFilterQuery(String resourceIdColumn, String tokenParameterName)
+	{
+		String subquery = getTokenIndexSubquery(tokenParameterName);
+
+		return switch (valueAndType.type)
+		{
+			case CODE -> resourceIdColumn + " NOT IN " + subquery + "code = ?)";
+			case CODE_AND_SYSTEM -> resourceIdColumn + " NOT IN " + subquery + "code = ? AND system = ?)";
+			case CODE_AND_NO_SYSTEM_PROPERTY ->
+				resourceIdColumn + " IN " + subquery + "(code <> ? OR system IS NOT NULL))";
+			case SYSTEM -> resourceIdColumn + " NOT IN " + subquery + "system = ?)";
+		};
+	}
+
+	private String getTokenIndexSubquery(String tokenParameterName)
+	{
+		return "(SELECT resource_id FROM resource_tokens WHERE resource_type = '" + resourceType.getSimpleName()
+				+ "' AND param = '" + tokenParameterName + "' AND ";
+	}
+
+	/**
+	 * @return number of parameters of the query returned by {@link #getTokenIndexPositiveFilterQuery(String, String)}
+	 */
+	protected final int getTokenIndexSqlParameterCount()
+	{
+		return TokenSearchType.CODE_AND_SYSTEM.equals(valueAndType.type) ? 2 : 1;
+	}
+
+	/**
+	 * Sets the parameters of the query returned by {@link #getTokenIndexPositiveFilterQuery(String, String)}.
+	 *
+	 * @param parameterIndex
+	 *            index of the parameter in the search statement
+	 * @param subqueryParameterIndex
+	 *            1 based index of the parameter within this filter query
+	 * @param statement
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if the parameter can not be set
+	 */
+	protected final void setTokenIndexFilterParameter(int parameterIndex, int subqueryParameterIndex,
+			PreparedStatement statement) throws SQLException
+	{
+		switch (valueAndType.type)
+		{
+			case CODE, CODE_AND_NO_SYSTEM_PROPERTY -> statement.setString(parameterIndex, valueAndType.codeValue);
+			case CODE_AND_SYSTEM -> statement.setString(parameterIndex,
+					subqueryParameterIndex == 1 ? valueAndType.codeValue : valueAndType.systemValue);
+			case SYSTEM -> statement.setString(parameterIndex, valueAndType.systemValue);
+		}
+	}
+
 	protected boolean codingMatches(List<CodeableConcept> codes)
 	{
 		return codes.stream().filter(CodeableConcept::hasCoding).map(CodeableConcept::getCoding).flatMap(List::stream)
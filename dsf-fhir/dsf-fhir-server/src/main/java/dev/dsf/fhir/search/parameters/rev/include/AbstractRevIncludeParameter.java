@@ -22,7 +22,8 @@ public abstract class AbstractRevIncludeParameter implements SearchQueryRevInclu
 
 		if (revIncludeSql != null)
 			return new SearchQueryIncludeParameterConfiguration(revIncludeSql, includeParts,
-					(resource, connection) -> modifyRevIncludeResource(includeParts, resource, connection));
+					(resource, connection) -> modifyRevIncludeResource(includeParts, resource, connection),
+					isRevIncludeSqlBatchQuery());
 		else
 			return null;
 
@@ -30,6 +31,39 @@ public abstract class AbstractRevIncludeParameter implements SearchQueryRevInclu
 
 	protected abstract String getRevIncludeSql(IncludeParts includeParts);
 
+	/**
+	 * @return <code>true</code> (default) if {@link #getRevIncludeSql(IncludeParts)} returns a query executed once per
+	 *         page, see {@link #getReferenceIndexRevIncludeSql(String, String, String, String)}, <code>false</code> if
+	 *         it returns a column expression evaluated per matched row
+	 */
+	protected boolean isRevIncludeSqlBatchQuery()
+	{
+		return true;
+	}
+
+	/**
+	 * Revinclude query selecting id and json of the resources referencing the matches of the current page via the given
+	 * reference location using the <code>resource_references</code> table. Ids of the matches are set as a UUID array
+	 * parameter, every referencing resource is returned once.
+	 *
+	 * @param path
+	 *            not <code>null</code>, location of the reference, e.g. <code>Endpoint.managingOrganization</code>
+	 * @param sourceTable
+	 *            not <code>null</code>, e.g. <code>endpoints</code>
+	 * @param sourceIdColumn
+	 *            not <code>null</code>, e.g. <code>endpoint_id</code>
+	 * @param sourceColumn
+	 *            not <code>null</code>, e.g. <code>endpoint</code>
+	 * @return revinclude query
+	 */
+	protected static String getReferenceIndexRevIncludeSql(String path, String sourceTable, String sourceIdColumn,
+			String sourceColumn)
+	{
+		return "SELECT " + sourceIdColumn + ", " + sourceColumn + " FROM current_" + sourceTable + " WHERE "
+				+ sourceIdColumn
+				+ " IN (SELECT source_id FROM resource_references WHERE target_id = ANY (?) AND path = '" + path + "')";
+	}
+
 	/**
 	 * Use this method to modify the revinclude resources. This method can be used if the resources returned by the
 	 * include SQL are not complete and additional content needs to be retrieved from a not included column. For example
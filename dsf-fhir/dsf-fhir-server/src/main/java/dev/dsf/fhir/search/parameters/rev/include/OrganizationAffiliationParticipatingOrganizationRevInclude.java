@@ -27,7 +27,8 @@ public class OrganizationAffiliationParticipatingOrganizationRevInclude extends
 	@Override
 	protected String getRevIncludeSql(IncludeParts includeParts)
 	{
-		return "(SELECT jsonb_agg(organization_affiliation) FROM current_organization_affiliations WHERE organization_affiliation->'participatingOrganization' @> concat('{\"reference\": \"Organization/', organization->>'id', '\"}')::jsonb) AS organization_affiliations";
+		return getReferenceIndexRevIncludeSql("OrganizationAffiliation.participatingOrganization",
+				"organization_affiliations", "organization_affiliation_id", "organization_affiliation");
 	}
 
 	@Override
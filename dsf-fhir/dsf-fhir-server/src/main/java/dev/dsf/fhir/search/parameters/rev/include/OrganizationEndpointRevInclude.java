@@ -27,7 +27,8 @@ public class OrganizationEndpointRevInclude extends AbstractRevIncludeParameter
 	@Override
 	protected String getRevIncludeSql(IncludeParts includeParts)
 	{
-		return "(SELECT jsonb_agg(organization) FROM current_organizations WHERE organization->'endpoint' @> concat('[{\"reference\": \"Endpoint/', endpoint->>'id', '\"}]')::jsonb) AS organizations";
+		return getReferenceIndexRevIncludeSql("Organization.endpoint", "organizations", "organization_id",
+				"organization");
 	}
 
 	@Override
@@ -27,7 +27,8 @@ public class ResearchStudyEnrollmentRevInclude extends AbstractRevIncludeParamet
 	@Override
 	protected String getRevIncludeSql(IncludeParts includeParts)
 	{
-		return "(SELECT jsonb_agg(research_study) FROM current_research_studies WHERE research_study->'enrollment' @> concat('[{\"reference\": \"Group/', group_json->>'id', '\"}]')::jsonb) AS research_studies";
+		return getReferenceIndexRevIncludeSql("ResearchStudy.enrollment", "research_studies", "research_study_id",
+				"research_study");
 	}
 
 	@Override
@@ -0,0 +1,176 @@
+package dev.dsf.fhir.service;
+
+import java.util.List;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.CodeSystem;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.ValueSet;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.ConceptValidationOptions;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.context.support.ValidationSupportContext;
+import ca.uhn.fhir.context.support.ValueSetExpansionOptions;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+
+/**
+ * {@link IValidationSupport} delegating to the transaction scoped validation support of the current transaction.
+ * Validators created with this support can be reused across transactions by swapping the delegate.
+ * <p>
+ * Events are forwarded to the delegate if it is an {@link EventHandler}. Events for {@link CodeSystem},
+ * {@link StructureDefinition} and {@link ValueSet} resources mark the conformance resources as modified, validators
+ * with caches populated from modified conformance resources must not be reused.
+ */
+public class TransactionScopedValidationSupport implements IValidationSupport, EventHandler
+{
+	private final FhirContext context;
+
+	private volatile IValidationSupport delegate;
+	private volatile boolean conformanceResourcesModified;
+
+	public TransactionScopedValidationSupport(FhirContext context)
+	{
+		this.context = context;
+	}
+
+	/**
+	 * @param delegate
+	 *            may be <code>null</code> to detach this support from a transaction
+	 */
+	public void setDelegate(IValidationSupport delegate)
+	{
+		this.delegate = delegate;
+	}
+
+	private IValidationSupport getDelegate()
+	{
+		IValidationSupport delegate = this.delegate;
+		if (delegate == null)
+			throw new IllegalStateException("Not attached to a transaction");
+
+		return delegate;
+	}
+
+	public boolean isConformanceResourcesModified()
+	{
+		return conformanceResourcesModified;
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null)
+			return;
+
+		if (CodeSystem.class.equals(event.getResourceType())
+				|| StructureDefinition.class.equals(event.getResourceType())
+				|| ValueSet.class.equals(event.getResourceType()))
+			conformanceResourcesModified = true;
+
+		if (delegate instanceof EventHandler h)
+			h.handleEvent(event);
+	}
+
+	@Override
+	public FhirContext getFhirContext()
+	{
+		return context;
+	}
+
+	@Override
+	public List<IBaseResource> fetchAllConformanceResources()
+	{
+		return getDelegate().fetchAllConformanceResources();
+	}
+
+	@Override
+	public <T extends IBaseResource> List<T> fetchAllStructureDefinitions()
+	{
+		return getDelegate().fetchAllStructureDefinitions();
+	}
+
+	@Override
+	public IBaseResource fetchStructureDefinition(String url)
+	{
+		return getDelegate().fetchStructureDefinition(url);
+	}
+
+	@Override
+	public boolean isCodeSystemSupported(ValidationSupportContext theRootValidationSupport, String url)
+	{
+		return getDelegate().isCodeSystemSupported(theRootValidationSupport, url);
+	}
+
+	@Override
+	public IBaseResource fetchCodeSystem(String url)
+	{
+		return getDelegate().fetchCodeSystem(url);
+	}
+
+	@Override
+	public boolean isValueSetSupported(ValidationSupportContext theRootValidationSupport, String url)
+	{
+		return getDelegate().isValueSetSupported(theRootValidationSupport, url);
+	}
+
+	@Override
+	public IBaseResource fetchValueSet(String url)
+	{
+		return getDelegate().fetchValueSet(url);
+	}
+
+	@Override
+	public <T extends IBaseResource> T fetchResource(Class<T> theClass, String theUri)
+	{
+		return getDelegate().fetchResource(theClass, theUri);
+	}
+
+	@Override
+	public ValueSetExpansionOutcome expandValueSet(ValidationSupportContext theRootValidationSupport,
+			ValueSetExpansionOptions theExpansionOptions, IBaseResource theValueSetToExpand)
+	{
+		return getDelegate().expandValueSet(theRootValidationSupport, theExpansionOptions, theValueSetToExpand);
+	}
+
+	@Override
+	public CodeValidationResult validateCode(ValidationSupportContext theRootValidationSupport,
+			ConceptValidationOptions theOptions, String theCodeSystem, String theCode, String theDisplay,
+			String theValueSetUrl)
+	{
+		return getDelegate().validateCode(theRootValidationSupport, theOptions, theCodeSystem, theCode, theDisplay,
+				theValueSetUrl);
+	}
+
+	@Override
+	public CodeValidationResult validateCodeInValueSet(ValidationSupportContext theRootValidationSupport,
+			ConceptValidationOptions theOptions, String theCodeSystem, String theCode, String theDisplay,
+			IBaseResource theValueSet)
+	{
+		return getDelegate().validateCodeInValueSet(theRootValidationSupport, theOptions, theCodeSystem, theCode,
+				theDisplay, theValueSet);
+	}
+
+	@Override
+	public LookupCodeResult lookupCode(ValidationSupportContext theRootValidationSupport, String theSystem,
+			String theCode)
+	{
+		return getDelegate().lookupCode(theRootValidationSupport, theSystem, theCode);
+	}
+
+	@Override
+	public IBaseResource generateSnapshot(ValidationSupportContext theRootValidationSupport, IBaseResource theInput,
+			String theUrl, String theWebUrl, String theProfileName)
+	{
+		return getDelegate().generateSnapshot(theRootValidationSupport, theInput, theUrl, theWebUrl, theProfileName);
+	}
+
+	@Override
+	public void invalidateCaches()
+	{
+		IValidationSupport delegate = this.delegate;
+		if (delegate != null)
+			delegate.invalidateCaches();
+	}
+}
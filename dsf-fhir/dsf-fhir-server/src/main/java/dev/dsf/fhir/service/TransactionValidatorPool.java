@@ -0,0 +1,234 @@
+package dev.dsf.fhir.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hl7.fhir.r4.model.CodeSystem;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.ValueSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+import dev.dsf.fhir.validation.ResourceValidator;
+import dev.dsf.fhir.validation.ResourceValidatorImpl;
+import dev.dsf.fhir.validation.SnapshotGenerator;
+import dev.dsf.fhir.validation.SnapshotGeneratorImpl;
+
+/**
+ * Pool of resource validators and snapshot generators for transaction bundles. Pooled validators are created with a
+ * {@link TransactionScopedValidationSupport}, only the transaction scoped validation support is swapped when a
+ * validator is borrowed, so the HAPI validator and the worker context caches are reused across transactions.
+ * <p>
+ * Validators may have cached conformance resources only visible within a transaction. A validator is therefore only
+ * returned to the pool if the transaction completed and did not create, update or delete {@link CodeSystem},
+ * {@link StructureDefinition} or {@link ValueSet} resources. All idle validators are discarded if such resources are
+ * modified by other transactions, validators borrowed before are not returned to the pool.
+ */
+public class TransactionValidatorPool implements EventHandler, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(TransactionValidatorPool.class);
+
+	public static final class PooledValidator
+	{
+		private final TransactionScopedValidationSupport validationSupport;
+		private final ResourceValidator resourceValidator;
+		private final SnapshotGenerator snapshotGenerator;
+		private final long generation;
+
+		private PooledValidator(FhirContext context, long generation)
+		{
+			validationSupport = new TransactionScopedValidationSupport(context);
+			resourceValidator = new ResourceValidatorImpl(context, validationSupport);
+			snapshotGenerator = new SnapshotGeneratorImpl(context, validationSupport);
+			this.generation = generation;
+		}
+
+		/**
+		 * @return event handler for transaction events, forwards events to the transaction scoped validation support
+		 */
+		public TransactionScopedValidationSupport getValidationSupport()
+		{
+			return validationSupport;
+		}
+
+		public ResourceValidator getResourceValidator()
+		{
+			return resourceValidator;
+		}
+
+		public SnapshotGenerator getSnapshotGenerator()
+		{
+			return snapshotGenerator;
+		}
+	}
+
+	private final FhirContext context;
+	private final int maxIdle;
+	private final Deque<PooledValidator> idle = new ArrayDeque<>();
+	private long generation;
+
+	private final LongAdder created = new LongAdder();
+	private final LongAdder reused = new LongAdder();
+	private final LongAdder discarded = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * @param context
+	 *            not <code>null</code>
+	 * @param maxIdle
+	 *            <code>&gt;= 0</code>, maximum number of idle validators, <code>0</code> to create a new validator for
+	 *            every transaction
+	 */
+	public TransactionValidatorPool(FhirContext context, int maxIdle)
+	{
+		this.context = Objects.requireNonNull(context, "context");
+
+		if (maxIdle < 0)
+			throw new IllegalArgumentException("maxIdle < 0");
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * @param transactionValidationSupport
+	 *            not <code>null</code>, validation support with access to the resources of the transaction
+	 * @return idle or new validator attached to the given validation support
+	 * @see #release(PooledValidator, boolean)
+	 */
+	public PooledValidator borrow(IValidationSupport transactionValidationSupport)
+	{
+		Objects.requireNonNull(transactionValidationSupport, "transactionValidationSupport");
+
+		PooledValidator validator;
+		long generation;
+		synchronized (this)
+		{
+			validator = idle.pollFirst();
+			generation = this.generation;
+		}
+
+		if (validator != null)
+			reused.increment();
+		else
+		{
+			created.increment();
+			validator = new PooledValidator(context, generation);
+		}
+
+		validator.validationSupport.setDelegate(transactionValidationSupport);
+		return validator;
+	}
+
+	/**
+	 * @param validator
+	 *            not <code>null</code>
+	 * @param completed
+	 *            <code>true</code> if the transaction was committed or did not modify resources, validators of aborted
+	 *            transactions are discarded
+	 */
+	public void release(PooledValidator validator, boolean completed)
+	{
+		Objects.requireNonNull(validator, "validator");
+
+		validator.validationSupport.setDelegate(null);
+
+		if (completed && !validator.validationSupport.isConformanceResourcesModified())
+		{
+			synchronized (this)
+			{
+				if (validator.generation == generation && idle.size() < maxIdle)
+				{
+					idle.addFirst(validator);
+					return;
+				}
+			}
+		}
+
+		discarded.increment();
+	}
+
+	@Override
+	public void handleEvent(Event event)
+	{
+		if (event == null || !(CodeSystem.class.equals(event.getResourceType())
+				|| StructureDefinition.class.equals(event.getResourceType())
+				|| ValueSet.class.equals(event.getResourceType())))
+			return;
+
+		logger.trace("Discarding idle validators, {} with IdPart {} changed", event.getResourceType().getSimpleName(),
+				event.getId());
+
+		invalidations.increment();
+		clear();
+	}
+
+	public synchronized void clear()
+	{
+		generation++;
+		discarded.add(idle.size());
+		idle.clear();
+	}
+
+	public synchronized int getIdleCount()
+	{
+		return idle.size();
+	}
+
+	public int getMaxIdle()
+	{
+		return maxIdle;
+	}
+
+	public long getCreatedCount()
+	{
+		return created.sum();
+	}
+
+	public long getReusedCount()
+	{
+		return reused.sum();
+	}
+
+	public long getDiscardedCount()
+	{
+		return discarded.sum();
+	}
+
+	public long getInvalidationCount()
+	{
+		return invalidations.sum();
+	}
+
+	/**
+	 * @return reused / (reused + created), <code>0</code> if the pool was not used
+	 */
+	public double getReuseRate()
+	{
+		long reused = getReusedCount();
+		long total = reused + getCreatedCount();
+		return total == 0 ? 0d : (double) reused / total;
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		if (maxIdle > 0)
+			logger.info("Transaction validator pool statistics: {}", this);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "TransactionValidatorPool [idle: " + getIdleCount() + "/" + maxIdle + ", created: " + getCreatedCount()
+				+ ", reused: " + getReusedCount() + ", reuse rate: "
+				+ String.format(Locale.ROOT, "%.2f", getReuseRate()) + ", discarded: " + getDiscardedCount()
+				+ ", invalidations: " + getInvalidationCount() + "]";
+	}
+}
@@ -0,0 +1,175 @@
+package dev.dsf.fhir.service.migration;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+
+/**
+ * Fills an index table for resources created before the table existed. Ids of these resources are listed in a backfill
+ * table by the database migration and removed after processing, the job does nothing if the backfill table is empty.
+ */
+public abstract class AbstractResourceIndexMigrationJob implements MigrationJob, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(AbstractResourceIndexMigrationJob.class);
+
+	private static final int BATCH_SIZE = 500;
+
+	private final DataSource dataSource;
+	private final FhirContext fhirContext;
+	private final String indexTable;
+
+	/**
+	 * @param dataSource
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param indexTable
+	 *            not <code>null</code>, ids of resources to process are read from table
+	 *            <code>[indexTable]_backfill</code>
+	 */
+	protected AbstractResourceIndexMigrationJob(DataSource dataSource, FhirContext fhirContext, String indexTable)
+	{
+		this.dataSource = dataSource;
+		this.fhirContext = fhirContext;
+		this.indexTable = indexTable;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(dataSource, "dataSource");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(indexTable, "indexTable");
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the given resource
+	 * @throws SQLException
+	 *             if a database access error occurs
+	 */
+	protected abstract void updateIndex(Connection connection, Resource resource, UUID id, long version)
+			throws SQLException;
+
+	@Override
+	public void execute() throws Exception
+	{
+		long total = 0;
+		int processed;
+
+		do
+		{
+			processed = executeBatch();
+			total += processed;
+
+			if (processed > 0)
+				logger.debug("Index entries of {} resource{} added to {} table", total, total != 1 ? "s" : "",
+						indexTable);
+		}
+		while (processed == BATCH_SIZE);
+
+		if (total > 0)
+			logger.info("Index entries of {} existing resource{} added to {} table", total, total != 1 ? "s" : "",
+					indexTable);
+	}
+
+	private int executeBatch() throws SQLException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				List<UUID> ids = readBatch(connection);
+				if (ids.isEmpty())
+				{
+					connection.commit();
+					return 0;
+				}
+
+				Array idArray = connection.createArrayOf("UUID", ids.toArray());
+				IParser parser = fhirContext.newJsonParser();
+
+				try (PreparedStatement statement = connection
+						.prepareStatement("SELECT id, version, resource FROM all_resources WHERE id = ANY (?)"))
+				{
+					statement.setArray(1, idArray);
+
+					logger.trace("Executing query '{}'", statement);
+					try (ResultSet result = statement.executeQuery())
+					{
+						while (result.next())
+						{
+							UUID id = result.getObject(1, UUID.class);
+							long version = result.getLong(2);
+							Resource resource = (Resource) parser.parseResource(result.getString(3));
+
+							updateIndex(connection, resource, id, version);
+						}
+					}
+				}
+
+				try (PreparedStatement statement = connection
+						.prepareStatement("DELETE FROM " + indexTable + "_backfill WHERE id = ANY (?)"))
+				{
+					statement.setArray(1, idArray);
+
+					logger.trace("Executing query '{}'", statement);
+					statement.execute();
+				}
+
+				connection.commit();
+
+				return ids.size();
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
+		}
+	}
+
+	private List<UUID> readBatch(Connection connection) throws SQLException
+	{
+		try (PreparedStatement statement = connection
+				.prepareStatement("SELECT id FROM " + indexTable + "_backfill LIMIT ?"))
+		{
+			statement.setInt(1, BATCH_SIZE);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<UUID> ids = new ArrayList<>();
+				while (result.next())
+					ids.add(result.getObject(1, UUID.class));
+
+				return ids;
+			}
+		}
+	}
+}
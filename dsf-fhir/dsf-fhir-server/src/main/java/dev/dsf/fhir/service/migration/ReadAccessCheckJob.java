@@ -0,0 +1,84 @@
+package dev.dsf.fhir.service.migration;
+
+import java.sql.Connection;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex;
+
+/**
+ * Compares the <code>read_access</code> table with the entries computed by {@link ReadAccessIndex} for the current
+ * version of all resources, e.g. to validate entries created by the former database triggers. Differences are logged
+ * and, if rebuild is enabled, differing entries are replaced page by page. The job does nothing if check and rebuild
+ * are disabled.
+ */
+public class ReadAccessCheckJob implements MigrationJob, InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(ReadAccessCheckJob.class);
+
+	private final ReadAccessIndex readAccessIndex = new ReadAccessIndex();
+
+	private final DataSource dataSource;
+	private final boolean check;
+	private final boolean rebuild;
+
+	/**
+	 * @param dataSource
+	 *            not <code>null</code>
+	 * @param check
+	 *            <code>true</code> to log differences
+	 * @param rebuild
+	 *            <code>true</code> to log differences and replace differing entries
+	 */
+	public ReadAccessCheckJob(DataSource dataSource, boolean check, boolean rebuild)
+	{
+		this.dataSource = dataSource;
+		this.check = check;
+		this.rebuild = rebuild;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(dataSource, "dataSource");
+	}
+
+	@Override
+	public void execute() throws Exception
+	{
+		if (!check && !rebuild)
+			return;
+
+		logger.info("{} read_access entries ...", rebuild ? "Rebuilding" : "Checking");
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(!rebuild);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				// committed by the index after each page of resources
+				int differing = readAccessIndex.check(connection, rebuild);
+
+				if (differing == 0)
+					logger.info("read_access entries of all resources as expected");
+				else if (rebuild)
+					logger.info("read_access entries of {} resource{} rebuilt", differing, differing != 1 ? "s" : "");
+				else
+					logger.warn("read_access entries of {} resource{} differ, enable rebuild to replace entries",
+							differing, differing != 1 ? "s" : "");
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package dev.dsf.fhir.service.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex;
+
+/**
+ * Fills the <code>read_access_tags</code> and <code>read_access_security_contexts</code> tables for resources created
+ * while <code>read_access</code> entries were maintained by database triggers. Ids of these resources are listed in the
+ * <code>read_access_tags_backfill</code> table by the database migration and removed after processing, the job does
+ * nothing if the table is empty. Existing <code>read_access</code> entries are not modified, see
+ * {@link ReadAccessCheckJob}.
+ */
+public class ReadAccessTagsMigrationJob extends AbstractResourceIndexMigrationJob
+{
+	private final ReadAccessIndex readAccessIndex = new ReadAccessIndex();
+
+	public ReadAccessTagsMigrationJob(DataSource dataSource, FhirContext fhirContext)
+	{
+		super(dataSource, fhirContext, "read_access_tags");
+	}
+
+	@Override
+	protected void updateIndex(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		readAccessIndex.updateSources(connection, resource, id, version);
+	}
+}
@@ -0,0 +1,46 @@
+package dev.dsf.fhir.service.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.dao.jdbc.ResourceReferenceIndex;
+import dev.dsf.fhir.service.ReferenceExtractor;
+
+/**
+ * Fills the <code>resource_references</code> table for resources created before the table existed. Ids of these
+ * resources are listed in the <code>resource_references_backfill</code> table by the database migration and removed
+ * after processing, the job does nothing if the table is empty.
+ */
+public class ResourceReferencesMigrationJob extends AbstractResourceIndexMigrationJob
+{
+	private final ResourceReferenceIndex referenceIndex;
+
+	public ResourceReferencesMigrationJob(DataSource dataSource, FhirContext fhirContext,
+			ReferenceExtractor referenceExtractor)
+	{
+		super(dataSource, fhirContext, "resource_references");
+
+		this.referenceIndex = referenceExtractor == null ? null : new ResourceReferenceIndex(referenceExtractor);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		super.afterPropertiesSet();
+
+		Objects.requireNonNull(referenceIndex, "referenceIndex");
+	}
+
+	@Override
+	protected void updateIndex(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		referenceIndex.update(connection, resource, id, version);
+	}
+}
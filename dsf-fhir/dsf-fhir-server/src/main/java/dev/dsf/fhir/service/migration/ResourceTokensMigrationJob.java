@@ -0,0 +1,33 @@
+package dev.dsf.fhir.service.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.dao.jdbc.ResourceTokenIndex;
+
+/**
+ * Fills the <code>resource_tokens</code> table for resources created before the table existed. Ids of these resources
+ * are listed in the <code>resource_tokens_backfill</code> table by the database migration and removed after processing,
+ * the job does nothing if the table is empty.
+ */
+public class ResourceTokensMigrationJob extends AbstractResourceIndexMigrationJob
+{
+	private final ResourceTokenIndex tokenIndex = new ResourceTokenIndex();
+
+	public ResourceTokensMigrationJob(DataSource dataSource, FhirContext fhirContext)
+	{
+		super(dataSource, fhirContext, "resource_tokens");
+	}
+
+	@Override
+	protected void updateIndex(Connection connection, Resource resource, UUID id, long version) throws SQLException
+	{
+		tokenIndex.update(connection, resource, id, version);
+	}
+}
@@ -13,6 +13,7 @@ import dev.dsf.common.auth.conf.IdentityProvider;
 import dev.dsf.common.auth.conf.RoleConfig;
 import dev.dsf.common.auth.conf.RoleConfigReader;
 import dev.dsf.fhir.authentication.FhirServerRole;
+import dev.dsf.fhir.authentication.IdentityCache;
 import dev.dsf.fhir.authentication.IdentityProviderImpl;
 import dev.dsf.fhir.authentication.OrganizationProvider;
 import dev.dsf.fhir.authentication.OrganizationProviderImpl;
@@ -37,7 +38,7 @@ public class AuthenticationConfig
 	public OrganizationProvider organizationProvider()
 	{
 		return new OrganizationProviderImpl(daoConfig.organizationDao(), helperConfig.exceptionHandler(),
-				propertiesConfig.getOrganizationIdentifierValue());
+				propertiesConfig.getOrganizationIdentifierValue(), identityCache());
 	}
 
 	@Bean
@@ -52,7 +53,13 @@ public class AuthenticationConfig
 	public IdentityProvider identityProvider()
 	{
 		return new IdentityProviderImpl(organizationProvider(), practitionerProvider(),
-				propertiesConfig.getOrganizationIdentifierValue(), roleConfig());
+				propertiesConfig.getOrganizationIdentifierValue(), roleConfig(), identityCache());
+	}
+
+	@Bean
+	public IdentityCache identityCache()
+	{
+		return new IdentityCache(propertiesConfig.getIdentityCacheSize());
 	}
 
 	@Bean
@@ -52,6 +52,7 @@ import dev.dsf.fhir.authorization.OrganizationAuthorizationRule;
 import dev.dsf.fhir.authorization.PatientAuthorizationRule;
 import dev.dsf.fhir.authorization.PractitionerAuthorizationRule;
 import dev.dsf.fhir.authorization.PractitionerRoleAuthorizationRule;
+import dev.dsf.fhir.authorization.ProcessAuthorizationIndex;
 import dev.dsf.fhir.authorization.ProvenanceAuthorizationRule;
 import dev.dsf.fhir.authorization.QuestionnaireAuthorizationRule;
 import dev.dsf.fhir.authorization.QuestionnaireResponseAuthorizationRule;
@@ -101,6 +102,13 @@ public class AuthorizationConfig
 		return new ProcessAuthorizationHelperImpl();
 	}
 
+	@Bean
+	public ProcessAuthorizationIndex processAuthorizationIndex()
+	{
+		return new ProcessAuthorizationIndex(daoConfig.daoProvider(), processAuthorizationHelper(),
+				propertiesConfig.getProcessAuthorizationIndexSize());
+	}
+
 	@Bean
 	public AuthorizationRule<ActivityDefinition> activityDefinitionAuthorizationRule()
 	{
@@ -309,7 +317,7 @@ public class AuthorizationConfig
 	{
 		return new TaskAuthorizationRule(daoConfig.daoProvider(), propertiesConfig.getServerBaseUrl(),
 				referenceConfig.referenceResolver(), authenticationConfig.organizationProvider(), readAccessHelper(),
-				helperConfig.parameterConverter(), processAuthorizationHelper(), fhirConfig.fhirContext());
+				helperConfig.parameterConverter(), processAuthorizationIndex(), fhirConfig.fhirContext());
 	}
 
 	@Bean
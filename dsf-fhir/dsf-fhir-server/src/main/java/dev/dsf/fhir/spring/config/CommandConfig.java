@@ -15,10 +15,8 @@ import dev.dsf.fhir.dao.command.TransactionEventHandler;
 import dev.dsf.fhir.dao.command.TransactionResources;
 import dev.dsf.fhir.dao.command.ValidationHelper;
 import dev.dsf.fhir.dao.command.ValidationHelperImpl;
-import dev.dsf.fhir.event.EventHandler;
-import dev.dsf.fhir.validation.ResourceValidatorImpl;
-import dev.dsf.fhir.validation.SnapshotGenerator;
-import dev.dsf.fhir.validation.SnapshotGeneratorImpl;
+import dev.dsf.fhir.service.TransactionValidatorPool;
+import dev.dsf.fhir.service.TransactionValidatorPool.PooledValidator;
 
 @Configuration
 public class CommandConfig
@@ -47,9 +45,6 @@ public class CommandConfig
 	@Autowired
 	private ValidationConfig validationConfig;
 
-	@Autowired
-	private FhirConfig fhirConfig;
-
 	@Bean
 	public CommandFactory commandFactory()
 	{
@@ -59,7 +54,7 @@ public class CommandConfig
 				helperConfig.responseGenerator(), helperConfig.exceptionHandler(), helperConfig.parameterConverter(),
 				eventConfig.eventManager(), eventConfig.eventGenerator(), authorizationConfig.authorizationHelper(),
 				validationConfig.validationHelper(), snapshotConfig.snapshotGenerator(),
-				this::transactionResourceFactory);
+				this::transactionResourceFactory, propertiesConfig.getBatchReadParallelism());
 	}
 
 	@Bean
@@ -68,15 +63,16 @@ public class CommandConfig
 	{
 		IValidationSupport validationSupport = validationConfig.validationSupportWithTransaction(connection);
 
-		ValidationHelper validationHelper = new ValidationHelperImpl(
-				new ResourceValidatorImpl(fhirConfig.fhirContext(), validationSupport),
-				helperConfig.responseGenerator());
+		TransactionValidatorPool validatorPool = validationConfig.transactionValidatorPool();
+		PooledValidator validator = validatorPool.borrow(validationSupport);
 
-		SnapshotGenerator snapshotGenerator = new SnapshotGeneratorImpl(fhirConfig.fhirContext(), validationSupport);
+		ValidationHelper validationHelper = new ValidationHelperImpl(validator.getResourceValidator(),
+				helperConfig.responseGenerator());
 
 		TransactionEventHandler transactionEventHandler = new TransactionEventHandler(eventConfig.eventManager(),
-				validationSupport instanceof EventHandler h ? h : null);
+				validator.getValidationSupport());
 
-		return new TransactionResources(validationHelper, snapshotGenerator, transactionEventHandler);
+		return new TransactionResources(validationHelper, validator.getSnapshotGenerator(), transactionEventHandler,
+				completed -> validatorPool.release(validator, completed));
 	}
 }
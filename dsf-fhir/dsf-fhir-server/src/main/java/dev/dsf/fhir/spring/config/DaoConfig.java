@@ -1,7 +1,10 @@
 package dev.dsf.fhir.spring.config;
 
+import java.time.Duration;
+
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.postgresql.Driver;
+import org.postgresql.PGProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,10 +33,12 @@ import dev.dsf.fhir.dao.QuestionnaireDao;
 import dev.dsf.fhir.dao.QuestionnaireResponseDao;
 import dev.dsf.fhir.dao.ReadAccessDao;
 import dev.dsf.fhir.dao.ResearchStudyDao;
+import dev.dsf.fhir.dao.ResourceDao;
 import dev.dsf.fhir.dao.StructureDefinitionDao;
 import dev.dsf.fhir.dao.SubscriptionDao;
 import dev.dsf.fhir.dao.TaskDao;
 import dev.dsf.fhir.dao.ValueSetDao;
+import dev.dsf.fhir.dao.cache.ResourceCacheManager;
 import dev.dsf.fhir.dao.jdbc.ActivityDefinitionDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.BinaryDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.BundleDaoJdbc;
@@ -87,6 +92,8 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configurePreparedStatements(dataSource);
 		return dataSource;
 	}
 
@@ -102,18 +109,64 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configurePreparedStatements(dataSource);
 		return dataSource;
 	}
 
+	@Bean
+	public BasicDataSource searchStreamingDataSource()
+	{
+		BasicDataSource dataSource = new BasicDataSource();
+		dataSource.setDriverClassName(Driver.class.getName());
+		dataSource.setUrl(propertiesConfig.getDbUrl());
+		dataSource.setUsername(propertiesConfig.getDbUsername());
+		dataSource.setPassword(toString(propertiesConfig.getDbPassword()));
+		dataSource.setDefaultReadOnly(true);
+
+		dataSource.setTestOnBorrow(true);
+		dataSource.setValidationQuery("SELECT 1");
+
+		// connections held while results are written to clients, searches not streamed if all connections in use
+		dataSource.setMaxTotal(propertiesConfig.getDbSearchStreamingConnections());
+		dataSource.setMaxIdle(propertiesConfig.getDbSearchStreamingConnections());
+		dataSource.setMaxWait(Duration.ZERO);
+
+		configurePreparedStatements(dataSource);
+		return dataSource;
+	}
+
+	private void configurePreparedStatements(BasicDataSource dataSource)
+	{
+		// search SQL only differs by query shape, see SearchQuerySqlCache
+		dataSource.addConnectionProperty(PGProperty.PREPARE_THRESHOLD.getName(),
+				String.valueOf(propertiesConfig.getDbPrepareThreshold()));
+		dataSource.addConnectionProperty(PGProperty.PREPARED_STATEMENT_CACHE_QUERIES.getName(),
+				String.valueOf(propertiesConfig.getDbPreparedStatementCacheSize()));
+	}
+
 	private String toString(char[] password)
 	{
 		return password == null ? null : String.valueOf(password);
 	}
 
+	private <D extends ResourceDao<?>> D configureSearchStreaming(D dao)
+	{
+		dao.setSearchStreamingDataSource(searchStreamingDataSource());
+		return dao;
+	}
+
+	@Bean
+	public ResourceCacheManager resourceCacheManager()
+	{
+		return new ResourceCacheManager(propertiesConfig.getDaoResourceCacheSizes());
+	}
+
 	@Bean
 	public ActivityDefinitionDao activityDefinitionDao()
 	{
-		return new ActivityDefinitionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new ActivityDefinitionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
@@ -125,152 +178,176 @@ public class DaoConfig
 	@Bean
 	public BundleDao bundleDao()
 	{
-		return new BundleDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new BundleDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public CodeSystemDao codeSystemDao()
 	{
-		return new CodeSystemDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new CodeSystemDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public DocumentReferenceDao documentReferenceDao()
 	{
-		return new DocumentReferenceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new DocumentReferenceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public EndpointDao endpointDao()
 	{
-		return new EndpointDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new EndpointDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public GroupDao groupDao()
 	{
-		return new GroupDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new GroupDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public HealthcareServiceDao healthcareServiceDao()
 	{
-		return new HealthcareServiceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new HealthcareServiceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public LibraryDao libraryDao()
 	{
-		return new LibraryDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new LibraryDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public LocationDao locationDao()
 	{
-		return new LocationDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new LocationDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public MeasureDao measureDao()
 	{
-		return new MeasureDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new MeasureDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public MeasureReportDao measureReportDao()
 	{
-		return new MeasureReportDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new MeasureReportDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public NamingSystemDao namingSystemDao()
 	{
-		return new NamingSystemDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new NamingSystemDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public OrganizationDao organizationDao()
 	{
-		return new OrganizationDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new OrganizationDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public OrganizationAffiliationDao organizationAffiliationDao()
 	{
-		return new OrganizationAffiliationDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(new OrganizationAffiliationDaoJdbc(
+				dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public PatientDao patientDao()
 	{
-		return new PatientDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new PatientDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public PractitionerDao practitionerDao()
 	{
-		return new PractitionerDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new PractitionerDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public PractitionerRoleDao practitionerRoleDao()
 	{
-		return new PractitionerRoleDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new PractitionerRoleDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public ProvenanceDao provenanceDao()
 	{
-		return new ProvenanceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new ProvenanceDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public QuestionnaireDao questionnaireDao()
 	{
-		return new QuestionnaireDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new QuestionnaireDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public QuestionnaireResponseDao questionnaireResponseDao()
 	{
-		return new QuestionnaireResponseDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new QuestionnaireResponseDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public ResearchStudyDao researchStudyDao()
 	{
-		return new ResearchStudyDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new ResearchStudyDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public StructureDefinitionDao structureDefinitionDao()
 	{
-		return new StructureDefinitionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new StructureDefinitionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public StructureDefinitionDao structureDefinitionSnapshotDao()
 	{
-		return new StructureDefinitionSnapshotDaoJdbc(dataSource(), permanentDeleteDataSource(),
-				fhirConfig.fhirContext());
+		return configureSearchStreaming(new StructureDefinitionSnapshotDaoJdbc(dataSource(),
+				permanentDeleteDataSource(), fhirConfig.fhirContext()));
 	}
 
 	@Bean
 	public SubscriptionDao subscriptionDao()
 	{
-		return new SubscriptionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager().configure(
+				new SubscriptionDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public TaskDao taskDao()
 	{
-		return new TaskDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new TaskDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
 	public ValueSetDao valueSetDao()
 	{
-		return new ValueSetDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext());
+		return configureSearchStreaming(resourceCacheManager()
+				.configure(new ValueSetDaoJdbc(dataSource(), permanentDeleteDataSource(), fhirConfig.fhirContext())));
 	}
 
 	@Bean
@@ -38,6 +38,9 @@ public class EventConfig
 	@Autowired
 	private ValidationConfig validationConfig;
 
+	@Autowired
+	private AuthenticationConfig authenticationConfig;
+
 	@Bean
 	public MatcherFactory matcherFactory()
 	{
@@ -82,7 +85,9 @@ public class EventConfig
 	public EventManager eventManager()
 	{
 		List<EventHandler> eventHandlers = Stream
-				.of(validationConfig.validationSupport(), webSocketSubscriptionManager())
+				.of(daoConfig.resourceCacheManager(), validationConfig.validationSupport(),
+						validationConfig.transactionValidatorPool(), authenticationConfig.identityCache(),
+						authorizationConfig.processAuthorizationIndex(), webSocketSubscriptionManager())
 				.filter(o -> o instanceof EventHandler).map(o -> (EventHandler) o).collect(Collectors.toList());
 
 		return new EventManagerImpl(eventHandlers);
@@ -0,0 +1,28 @@
+package dev.dsf.fhir.spring.config;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.dsf.fhir.export.ExportService;
+import dev.dsf.fhir.export.ExportServiceImpl;
+
+@Configuration
+public class ExportConfig
+{
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Autowired
+	private DaoConfig daoConfig;
+
+	@Bean
+	public ExportService exportService()
+	{
+		return new ExportServiceImpl(daoConfig.daoProvider(), Paths.get(propertiesConfig.getExportDirectory()),
+				propertiesConfig.getExportThreads(), Duration.ofHours(propertiesConfig.getExportRetentionHours()));
+	}
+}
@@ -2,7 +2,6 @@ package dev.dsf.fhir.spring.config;
 
 import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
 
-import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +14,10 @@ import org.springframework.core.annotation.Order;
 import dev.dsf.fhir.service.InitialDataMigrator;
 import dev.dsf.fhir.service.InitialDataMigratorImpl;
 import dev.dsf.fhir.service.migration.MigrationJob;
+import dev.dsf.fhir.service.migration.ReadAccessCheckJob;
+import dev.dsf.fhir.service.migration.ReadAccessTagsMigrationJob;
+import dev.dsf.fhir.service.migration.ResourceReferencesMigrationJob;
+import dev.dsf.fhir.service.migration.ResourceTokensMigrationJob;
 
 @Configuration
 public class InitialDataMigratorConfig
@@ -22,12 +25,47 @@ public class InitialDataMigratorConfig
 	@Autowired
 	public DaoConfig daoConfig;
 
+	@Autowired
+	private FhirConfig fhirConfig;
+
+	@Autowired
+	private ReferenceConfig referenceConfig;
+
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Bean
+	public ResourceReferencesMigrationJob resourceReferencesMigrationJob()
+	{
+		return new ResourceReferencesMigrationJob(daoConfig.dataSource(), fhirConfig.fhirContext(),
+				referenceConfig.referenceExtractor());
+	}
+
+	@Bean
+	public ResourceTokensMigrationJob resourceTokensMigrationJob()
+	{
+		return new ResourceTokensMigrationJob(daoConfig.dataSource(), fhirConfig.fhirContext());
+	}
+
+	@Bean
+	public ReadAccessTagsMigrationJob readAccessTagsMigrationJob()
+	{
+		return new ReadAccessTagsMigrationJob(daoConfig.dataSource(), fhirConfig.fhirContext());
+	}
+
+	@Bean
+	public ReadAccessCheckJob readAccessCheckJob()
+	{
+		return new ReadAccessCheckJob(daoConfig.dataSource(), propertiesConfig.getReadAccessCheckEnabled(),
+				propertiesConfig.getReadAccessRebuildEnabled());
+	}
+
 	@Bean
 	public List<MigrationJob> migrationJobs()
 	{
-		// currently no migration jobs
-		// add future migration jobs here
-		return Collections.emptyList();
+		// add future migration jobs here, read access check needs filled resource_tokens and read_access_tags tables
+		return List.of(resourceReferencesMigrationJob(), resourceTokensMigrationJob(), readAccessTagsMigrationJob(),
+				readAccessCheckJob());
 	}
 
 	@Bean
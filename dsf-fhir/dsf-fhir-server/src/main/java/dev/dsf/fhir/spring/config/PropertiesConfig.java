@@ -48,6 +48,18 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.fhir.db.user.permanent.delete.password}")
 	private char[] dbPermanentDeletePassword;
 
+	@Documentation(description = "Number of executions of the same SQL statement on a database connection before the JDBC driver switches to server-side prepared statements", recommendation = "Use *0* to disable server-side prepared statements")
+	@Value("${dev.dsf.fhir.db.prepare.threshold:1}")
+	private int dbPrepareThreshold;
+
+	@Documentation(description = "Number of server-side prepared statements cached by the JDBC driver per database connection")
+	@Value("${dev.dsf.fhir.db.prepared.statement.cache.size:512}")
+	private int dbPreparedStatementCacheSize;
+
+	@Documentation(description = "Maximum number of database connections used to write search results while they are read from the database, search results are read completely before they are written if all connections are in use", recommendation = "Connections are held while results are written to slow clients, connections are not shared with other database access")
+	@Value("${dev.dsf.fhir.db.search.streaming.connections:4}")
+	private int dbSearchStreamingConnections;
+
 	@Documentation(required = true, description = "The base address of this DSF FHIR server to read/store fhir resources", example = "https://foo.bar/fhir")
 	@Value("${dev.dsf.fhir.server.base.url}")
 	private String serverBaseUrl;
@@ -100,6 +112,46 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.fhir.server.static.resource.cache:true}")
 	private boolean staticResourceCacheEnabled;
 
+	@Documentation(description = "Maximum number of parsed resources per resource type cached for read and vread requests, use `ResourceType:maxSize` entries; comma or space separated list, YAML block scalars supported", recommendation = "Set to an empty value to disable caching, `Binary` resources are not cached")
+	@Value("#{'${dev.dsf.fhir.server.dao.cache.size:Organization:1000, Endpoint:1000, OrganizationAffiliation:2000, ActivityDefinition:500, StructureDefinition:500}'.trim().split('(,[ ]?)|(\\n)')}")
+	private List<String> daoResourceCacheSizes;
+
+	@Documentation(description = "Maximum number of identities cached by client certificate thumbprint; cached identities and the cached local organization are invalidated if Organization or OrganizationAffiliation resources are created, updated or deleted", recommendation = "Set to `0` to disable caching")
+	@Value("${dev.dsf.fhir.server.identity.cache.size:1000}")
+	private int identityCacheSize;
+
+	@Documentation(description = "Maximum number of processes and organizations with affiliations indexed for Task create and update authorization; processes are invalidated if ActivityDefinition resources are created, updated or deleted, affiliations if Organization or OrganizationAffiliation resources are created, updated or deleted", recommendation = "Set to `0` to disable the index")
+	@Value("${dev.dsf.fhir.server.authorization.process.index.size:1000}")
+	private int processAuthorizationIndexSize;
+
+	@Documentation(description = "Maximum number of idle validators kept for transaction bundles; validators are reused by transactions completed without modifications of CodeSystem, StructureDefinition or ValueSet resources and discarded if such resources are created, updated or deleted", recommendation = "Set to `0` to create a new validator for every transaction bundle")
+	@Value("${dev.dsf.fhir.server.validation.transaction.pool.size:8}")
+	private int transactionValidatorPoolSize;
+
+	@Documentation(description = "Directory for NDJSON files created by bulk data `$export` operations, files from previous runs are deleted on startup")
+	@Value("${dev.dsf.fhir.server.export.directory:export}")
+	private String exportDirectory;
+
+	@Documentation(description = "Number of bulk data `$export` jobs executed in parallel, only one active job per identity")
+	@Value("${dev.dsf.fhir.server.export.threads:1}")
+	private int exportThreads;
+
+	@Documentation(description = "Time in hours after which finished bulk data `$export` jobs and their NDJSON files are deleted")
+	@Value("${dev.dsf.fhir.server.export.retention.hours:24}")
+	private int exportRetentionHours;
+
+	@Documentation(description = "Maximum number of consecutive GET and HEAD entries of batch bundles executed in parallel, additional entries are executed on separate read-only database connections; set to `1` to execute all entries sequentially", recommendation = "Should be smaller than the maximum number of database connections, entries modifying resources are always executed sequentially")
+	@Value("${dev.dsf.fhir.server.batch.read.parallelism:4}")
+	private int batchReadParallelism;
+
+	@Documentation(description = "To compare the `read_access` table with the entries computed from read access tags and `Binary.securityContext` references on startup, set to `true`; differences are logged", recommendation = "Enable once after upgrading from a version maintaining `read_access` entries with database triggers")
+	@Value("${dev.dsf.fhir.server.read.access.check:false}")
+	private boolean readAccessCheck;
+
+	@Documentation(description = "To replace differing `read_access` entries with the entries computed from read access tags and `Binary.securityContext` references on startup, set to `true`", recommendation = "Only enable if the check reports differences")
+	@Value("${dev.dsf.fhir.server.read.access.rebuild:false}")
+	private boolean readAccessRebuild;
+
 	@Value("${dev.dsf.server.status.port}")
 	private int jettyStatusConnectorPort;
 
@@ -206,6 +258,21 @@ public class PropertiesConfig implements InitializingBean
 		return dbPermanentDeletePassword;
 	}
 
+	public int getDbPrepareThreshold()
+	{
+		return dbPrepareThreshold;
+	}
+
+	public int getDbPreparedStatementCacheSize()
+	{
+		return dbPreparedStatementCacheSize;
+	}
+
+	public int getDbSearchStreamingConnections()
+	{
+		return dbSearchStreamingConnections;
+	}
+
 	public String getServerBaseUrl()
 	{
 		return serverBaseUrl.endsWith("/") ? serverBaseUrl.substring(serverBaseUrl.length() - 1) : serverBaseUrl;
@@ -271,6 +338,56 @@ public class PropertiesConfig implements InitializingBean
 		return staticResourceCacheEnabled;
 	}
 
+	public List<String> getDaoResourceCacheSizes()
+	{
+		return daoResourceCacheSizes;
+	}
+
+	public int getIdentityCacheSize()
+	{
+		return identityCacheSize;
+	}
+
+	public int getProcessAuthorizationIndexSize()
+	{
+		return processAuthorizationIndexSize;
+	}
+
+	public int getTransactionValidatorPoolSize()
+	{
+		return transactionValidatorPoolSize;
+	}
+
+	public String getExportDirectory()
+	{
+		return exportDirectory;
+	}
+
+	public int getExportThreads()
+	{
+		return exportThreads;
+	}
+
+	public int getExportRetentionHours()
+	{
+		return exportRetentionHours;
+	}
+
+	public int getBatchReadParallelism()
+	{
+		return batchReadParallelism;
+	}
+
+	public boolean getReadAccessCheckEnabled()
+	{
+		return readAccessCheck;
+	}
+
+	public boolean getReadAccessRebuildEnabled()
+	{
+		return readAccessRebuild;
+	}
+
 	public int getJettyStatusConnectorPort()
 	{
 		return jettyStatusConnectorPort;
@@ -15,6 +15,7 @@ import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
 import ca.uhn.fhir.context.support.IValidationSupport;
 import dev.dsf.fhir.dao.command.ValidationHelper;
 import dev.dsf.fhir.dao.command.ValidationHelperImpl;
+import dev.dsf.fhir.service.TransactionValidatorPool;
 import dev.dsf.fhir.service.ValidationSupportWithCache;
 import dev.dsf.fhir.service.ValidationSupportWithFetchFromDb;
 import dev.dsf.fhir.service.ValidationSupportWithFetchFromDbWithTransaction;
@@ -33,6 +34,9 @@ public class ValidationConfig
 	@Autowired
 	private HelperConfig helperConfig;
 
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
 	@Bean
 	public IValidationSupport validationSupport()
 	{
@@ -42,14 +46,22 @@ public class ValidationConfig
 						daoConfig.codeSystemDao(), daoConfig.valueSetDao(), daoConfig.measureDao())));
 	}
 
-	private ValidationSupportChain validationSupportChain(IValidationSupport dbSupport)
+	@Bean
+	public DefaultProfileValidationSupport defaultProfileValidationSupport()
 	{
 		DefaultProfileValidationSupport dpvs = new DefaultProfileValidationSupport(fhirConfig.fhirContext());
 		dpvs.fetchCodeSystem(""); // FIXME HAPI bug workaround, to initialize
 		dpvs.fetchAllStructureDefinitions(); // FIXME HAPI bug workaround, to initialize
 
+		return dpvs;
+	}
+
+	private ValidationSupportChain validationSupportChain(IValidationSupport dbSupport)
+	{
+		// base FHIR profiles are shared, only the db support is transaction specific
 		return new ValidationSupportChain(new InMemoryTerminologyServerValidationSupport(fhirConfig.fhirContext()),
-				dbSupport, dpvs, new CommonCodeSystemsTerminologyService(fhirConfig.fhirContext()));
+				dbSupport, defaultProfileValidationSupport(),
+				new CommonCodeSystemsTerminologyService(fhirConfig.fhirContext()));
 	}
 
 	@Bean
@@ -75,4 +87,11 @@ public class ValidationConfig
 
 		return validationSupport.populateCache(validationSupport().fetchAllConformanceResources());
 	}
+
+	@Bean
+	public TransactionValidatorPool transactionValidatorPool()
+	{
+		return new TransactionValidatorPool(fhirConfig.fhirContext(),
+				propertiesConfig.getTransactionValidatorPoolSize());
+	}
 }
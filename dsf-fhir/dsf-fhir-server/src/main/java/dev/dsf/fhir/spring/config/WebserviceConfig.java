@@ -161,6 +161,12 @@ public class WebserviceConfig
 	@Autowired
 	private HistoryConfig historyConfig;
 
+	@Autowired
+	private ExportConfig exportConfig;
+
+	@Autowired
+	private JsonConfig jsonConfig;
+
 	@Bean
 	public BrowserPolicyHeaderResponseFilter browserPolicyHeaderResponseFilter()
 	{
@@ -875,9 +881,10 @@ public class WebserviceConfig
 
 	private RootServiceImpl rootServiceImpl()
 	{
-		return new RootServiceImpl(commandConfig.commandFactory(), helperConfig.responseGenerator(),
-				helperConfig.parameterConverter(), helperConfig.exceptionHandler(), referenceConfig.referenceCleaner(),
-				historyConfig.historyService());
+		return new RootServiceImpl(propertiesConfig.getServerBaseUrl(), commandConfig.commandFactory(),
+				helperConfig.responseGenerator(), helperConfig.parameterConverter(), helperConfig.exceptionHandler(),
+				referenceConfig.referenceCleaner(), historyConfig.historyService(), daoConfig.daoProvider(),
+				exportConfig.exportService(), jsonConfig.objectMapper());
 	}
 
 	@Bean
@@ -279,7 +279,12 @@ public class WebSocketSubscriptionManagerImpl
 
 		// defensive copy because list could be changed by other threads while we are reading
 		List<SessionIdAndRemoteAsync> remotes = new ArrayList<>(optRemotes.get());
-		remotes.stream().filter(r -> userHasReadAccess(r, event)).forEach(r -> send(r, text));
+		List<Boolean> readAccess = usersHaveReadAccess(remotes, event);
+		for (int i = 0; i < remotes.size(); i++)
+		{
+			if (readAccess.get(i))
+				send(remotes.get(i), text);
+		}
 	}
 
 	private IParser newXmlParser()
@@ -299,7 +304,7 @@ public class WebSocketSubscriptionManagerImpl
 		return p;
 	}
 
-	private boolean userHasReadAccess(SessionIdAndRemoteAsync sessionAndRemote, Event event)
+	private List<Boolean> usersHaveReadAccess(List<SessionIdAndRemoteAsync> sessionsAndRemotes, Event event)
 	{
 		Optional<AuthorizationRule<?>> optRule = authorizationRuleProvider
 				.getAuthorizationRule(event.getResourceType());
@@ -307,27 +312,38 @@ public class WebSocketSubscriptionManagerImpl
 		{
 			@SuppressWarnings("unchecked")
 			AuthorizationRule<Resource> rule = (AuthorizationRule<Resource>) optRule.get();
-			Optional<String> optReason = rule.reasonReadAllowed(sessionAndRemote.identity, event.getResource());
+			List<Optional<String>> optReasons = rule.reasonsReadAllowed(
+					sessionsAndRemotes.stream().map(r -> r.identity).collect(Collectors.toList()), event.getResource());
 
-			if (optReason.isPresent())
+			List<Boolean> readAccess = new ArrayList<>(sessionsAndRemotes.size());
+			for (int i = 0; i < sessionsAndRemotes.size(); i++)
 			{
-				logger.info("Sending event {} to user {}, read of {} allowed {}", event.getClass().getSimpleName(),
-						sessionAndRemote.identity.getName(), event.getResourceType().getSimpleName(), optReason.get());
-				return true;
-			}
-			else
-			{
-				logger.warn("Skipping event {} for user {}, read of {} not allowed", event.getClass().getSimpleName(),
-						sessionAndRemote.identity.getName(), event.getResourceType().getSimpleName());
-				return false;
+				Identity identity = sessionsAndRemotes.get(i).identity;
+				Optional<String> optReason = optReasons.get(i);
+
+				if (optReason.isPresent())
+				{
+					logger.info("Sending event {} to user {}, read of {} allowed {}", event.getClass().getSimpleName(),
+							identity.getName(), event.getResourceType().getSimpleName(), optReason.get());
+					readAccess.add(true);
+				}
+				else
+				{
+					logger.warn("Skipping event {} for user {}, read of {} not allowed",
+							event.getClass().getSimpleName(), identity.getName(),
+							event.getResourceType().getSimpleName());
+					readAccess.add(false);
+				}
 			}
+
+			return readAccess;
 		}
 		else
 		{
-			logger.warn("Skipping event {} for user {}, no authorization rule for resource of type {} found",
-					event.getClass().getSimpleName(), sessionAndRemote.identity.getName(),
-					event.getResourceType().getSimpleName());
-			return false;
+			sessionsAndRemotes.forEach(r -> logger.warn(
+					"Skipping event {} for user {}, no authorization rule for resource of type {} found",
+					event.getClass().getSimpleName(), r.identity.getName(), event.getResourceType().getSimpleName()));
+			return Collections.nCopies(sessionsAndRemotes.size(), false);
 		}
 	}
 
@@ -1,5 +1,6 @@
 package dev.dsf.fhir.webservice.impl;
 
+import java.io.IOException;
 import java.net.URI;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -10,20 +11,28 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.hl7.fhir.r4.model.Resource;
@@ -35,10 +44,16 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.adapter.FhirAdapter;
+import dev.dsf.fhir.adapter.StreamedBundleEntries;
+import dev.dsf.fhir.adapter.StreamedBundleEntries.EntryConsumer;
+import dev.dsf.fhir.adapter.StreamedBundleEntries.EntrySource;
 import dev.dsf.fhir.authorization.AuthorizationRule;
 import dev.dsf.fhir.authorization.AuthorizationRuleProvider;
 import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.ResourceDao.SearchMatches;
 import dev.dsf.fhir.dao.command.CheckReferencesCommand;
+import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.event.EventGenerator;
 import dev.dsf.fhir.event.EventHandler;
 import dev.dsf.fhir.help.ExceptionHandler;
@@ -354,7 +369,7 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	public Response read(String id, UriInfo uri, HttpHeaders headers)
 	{
 		Optional<R> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
-				() -> dao.read(parameterConverter.toUuid(resourceTypeName, id)));
+				() -> read(parameterConverter.toUuid(resourceTypeName, id), uri, headers));
 
 		Optional<EntityTag> ifNoneMatch = getHeaderString(headers, Constants.HEADER_IF_NONE_MATCH,
 				Constants.HEADER_IF_NONE_MATCH_LC).flatMap(parameterConverter::toEntityTag);
@@ -386,6 +401,28 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 		}).orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
 	}
 
+	/**
+	 * <i>Override this method to modify how resources are loaded for read requests</i>
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @return {@link Optional#empty()} if not found
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if resource is found but marked as deleted
+	 * @see ResourceDao#read(UUID)
+	 */
+	protected Optional<R> read(UUID uuid, UriInfo uri, HttpHeaders headers)
+			throws SQLException, ResourceDeletedException
+	{
+		return dao.read(uuid);
+	}
+
 	private boolean afterWithSecondsPrecision(Date a, Date b)
 	{
 		LocalDateTime aLdt = a.toInstant().atZone(ZoneOffset.UTC.normalized()).toLocalDateTime()
@@ -431,7 +468,7 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	public Response vread(String id, long version, UriInfo uri, HttpHeaders headers)
 	{
 		Optional<R> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, id,
-				() -> dao.readVersion(parameterConverter.toUuid(resourceTypeName, id), version));
+				() -> readVersion(parameterConverter.toUuid(resourceTypeName, id), version, uri, headers));
 
 		Optional<EntityTag> ifNoneMatch = getHeaderString(headers, Constants.HEADER_IF_NONE_MATCH,
 				Constants.HEADER_IF_NONE_MATCH_LC).flatMap(parameterConverter::toEntityTag);
@@ -462,6 +499,30 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 		}).orElseGet(() -> Response.status(Status.NOT_FOUND).build()); // TODO return OperationOutcome
 	}
 
+	/**
+	 * <i>Override this method to modify how resources are loaded for vread requests</i>
+	 *
+	 * @param uuid
+	 *            may be <code>null</code>
+	 * @param version
+	 *            may be <code>&lt; {@link ResourceDao#FIRST_VERSION}</code>
+	 * @param uri
+	 *            not <code>null</code>
+	 * @param headers
+	 *            not <code>null</code>
+	 * @return {@link Optional#empty()} if not found
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws ResourceDeletedException
+	 *             if resource is found but marked as deleted
+	 * @see ResourceDao#readVersion(UUID, long)
+	 */
+	protected Optional<R> readVersion(UUID uuid, long version, UriInfo uri, HttpHeaders headers)
+			throws SQLException, ResourceDeletedException
+	{
+		return dao.readVersion(uuid, version);
+	}
+
 	protected MediaType getMediaTypeForVRead(UriInfo uri, HttpHeaders headers)
 	{
 		return parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
@@ -640,57 +701,148 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			return responseGenerator.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors),
 					parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
 
-		PartialResult<R> result = exceptionHandler.handleSqlException(() -> dao.search(query));
-
-		result = filterIncludeResources(result);
-
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
 		UriBuilder bundleUri = query.configureBundleUri(UriBuilder.fromPath(serverBase).path(path));
 
 		String format = queryParameters.getFirst(SearchQuery.PARAMETER_FORMAT);
 		String pretty = queryParameters.getFirst(SearchQuery.PARAMETER_PRETTY);
 		SummaryMode summary = SummaryMode.fromString(queryParameters.getFirst(SearchQuery.PARAMETER_SUMMARY));
+
+		// count and first rows read before the response status is sent, not streamed if no connection available
+		Optional<SearchMatches<R>> matches = FhirAdapter.isStreamingSupported(mediaType)
+				&& dao.isSearchStreamingSupported(query)
+						? exceptionHandler.handleSqlException(() -> dao.openSearch(query))
+						: Optional.empty();
+		if (matches.isPresent())
+			return responseGenerator.response(Status.OK,
+					createStreamedSearchSet(matches.get(), errors, bundleUri, format, pretty, summary), mediaType)
+					.build();
+
+		PartialResult<R> result = exceptionHandler.handleSqlException(() -> dao.search(query));
+
+		result = filterIncludeResources(result);
+
 		Bundle searchSet = responseGenerator.createSearchSet(result, errors, bundleUri, format, pretty, summary);
 
 		// clean literal references from bundle entries
 		searchSet.getEntry().stream().filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
 				.forEach(referenceCleaner::cleanLiteralReferences);
 
-		return responseGenerator
-				.response(Status.OK, searchSet, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
-				.build();
+		return responseGenerator.response(Status.OK, searchSet, mediaType).build();
+	}
+
+	/**
+	 * Remaining matches are read from the database while the bundle is written and written one at a time. Include
+	 * resources are filtered and written after the matches. The database connection is released when the bundle was
+	 * written.
+	 */
+	private Bundle createStreamedSearchSet(SearchMatches<R> matches, List<SearchQueryParameterError> errors,
+			UriBuilder bundleUri, String format, String pretty, SummaryMode summary)
+	{
+		return StreamedBundleEntries.set(responseGenerator.createBundle(BundleType.SEARCHSET), new EntrySource()
+		{
+			@Override
+			public void read(EntryConsumer consumer, Bundle bundle) throws IOException
+			{
+				AtomicInteger matchCount = new AtomicInteger();
+
+				PartialResult<R> result;
+				try
+				{
+					result = matches.read(match ->
+					{
+						matchCount.incrementAndGet();
+						consumer.accept(responseGenerator.toBundleEntryComponent(
+								referenceCleaner.cleanLiteralReferences(match), SearchEntryMode.MATCH));
+					});
+				}
+				catch (SQLException e)
+				{
+					logger.debug("Error while searching {} resources", resourceTypeName, e);
+					logger.error("Error while searching {} resources: {} - {}", resourceTypeName,
+							e.getClass().getName(), e.getMessage());
+
+					throw new IOException(e);
+				}
+
+				int entryCount = bundle.getEntry().size();
+				responseGenerator.completeSearchSet(bundle, filterIncludeResources(result), matchCount.get(), errors,
+						bundleUri, format, pretty, summary);
+
+				// clean literal references from include and outcome entries
+				bundle.getEntry().subList(entryCount, bundle.getEntry().size()).stream()
+						.filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
+						.forEach(referenceCleaner::cleanLiteralReferences);
+			}
+
+			@Override
+			public void close() throws IOException
+			{
+				try
+				{
+					matches.close();
+				}
+				catch (SQLException e)
+				{
+					logger.debug("Error while closing {} search", resourceTypeName, e);
+					logger.warn("Error while closing {} search: {} - {}", resourceTypeName, e.getClass().getName(),
+							e.getMessage());
+				}
+			}
+		});
 	}
 
 	private PartialResult<R> filterIncludeResources(PartialResult<R> result)
 	{
 		List<Resource> includes = filterIncludeResources(result.getIncludes());
-		return new PartialResult<>(result.getTotal(), result.getPageAndCount(), result.getPartialResult(), includes);
+		return new PartialResult<>(result.getTotal(), result.getPageAndCount(), result.getPartialResult(), includes,
+				result.getNextCursor());
 	}
 
 	private List<Resource> filterIncludeResources(List<Resource> includes)
 	{
-		return includes.stream().filter(this::filterIncludeResource).collect(Collectors.toList());
+		// read access evaluated with one database connection per resource type
+		Set<Resource> allowed = Collections.newSetFromMap(new IdentityHashMap<>());
+		includes.stream().collect(Collectors.groupingBy(Resource::getClass, LinkedHashMap::new, Collectors.toList()))
+				.forEach((type, resources) -> allowed.addAll(filterIncludeResources(type, resources)));
+
+		return includes.stream().filter(allowed::contains).collect(Collectors.toList());
 	}
 
 	@SuppressWarnings("unchecked")
-	private boolean filterIncludeResource(Resource include)
+	private List<Resource> filterIncludeResources(Class<? extends Resource> type, List<Resource> includes)
 	{
-		Optional<AuthorizationRule<? extends Resource>> optRule = authorizationRuleProvider
-				.getAuthorizationRule(include.getClass());
+		Optional<AuthorizationRule<? extends Resource>> optRule = authorizationRuleProvider.getAuthorizationRule(type);
+		if (optRule.isEmpty())
+		{
+			includes.forEach(include -> logger.debug(
+					"Include resource of type {} with id {}, filtered (no authorization rule)",
+					include.getClass().getAnnotation(ResourceDef.class).name(), include.getIdElement().getValue()));
+			return Collections.emptyList();
+		}
 
-		return optRule.map(rule -> (AuthorizationRule<Resource>) rule)
-				.flatMap(rule -> rule.reasonReadAllowed(getCurrentIdentity(), include)).map(reason ->
-				{
-					logger.debug("Include resource of type {} with id {}, allowed - {}",
-							include.getClass().getAnnotation(ResourceDef.class).name(),
-							include.getIdElement().getValue(), reason);
-					return true;
-				}).orElseGet(() ->
-				{
-					logger.debug("Include resource of type {} with id {}, filtered (read not allowed)",
-							include.getClass().getAnnotation(ResourceDef.class).name(),
-							include.getIdElement().getValue());
-					return false;
-				});
+		List<Optional<String>> reasons = ((AuthorizationRule<Resource>) optRule.get())
+				.reasonsReadAllowed(getCurrentIdentity(), includes);
+
+		List<Resource> allowed = new ArrayList<>();
+		for (int i = 0; i < includes.size(); i++)
+		{
+			Resource include = includes.get(i);
+			Optional<String> reason = reasons.get(i);
+
+			if (reason.isPresent())
+			{
+				logger.debug("Include resource of type {} with id {}, allowed - {}",
+						include.getClass().getAnnotation(ResourceDef.class).name(), include.getIdElement().getValue(),
+						reason.get());
+				allowed.add(include);
+			}
+			else
+				logger.debug("Include resource of type {} with id {}, filtered (read not allowed)",
+						include.getClass().getAnnotation(ResourceDef.class).name(), include.getIdElement().getValue());
+		}
+
+		return allowed;
 	}
 
 	@Override
@@ -1,13 +1,17 @@
 package dev.dsf.fhir.webservice.impl;
 
 import java.io.InputStream;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.hl7.fhir.r4.model.Binary;
 
 import ca.uhn.fhir.rest.api.Constants;
 import dev.dsf.fhir.authorization.AuthorizationRuleProvider;
 import dev.dsf.fhir.dao.BinaryDao;
+import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.event.EventGenerator;
 import dev.dsf.fhir.event.EventHandler;
 import dev.dsf.fhir.help.ExceptionHandler;
@@ -50,6 +54,63 @@ public class BinaryServiceImpl extends AbstractResourceServiceImpl<BinaryDao, Bi
 		throw new UnsupportedOperationException("Implemented and delegated by jaxrs layer");
 	}
 
+	/**
+	 * Data of created resources is streamed into the database by the jaxrs layer, if the created resource is returned
+	 * the data is read from the database after the commit.
+	 */
+	@Override
+	public Response create(Binary resource, UriInfo uri, HttpHeaders headers)
+	{
+		return withData(super.create(resource, uri, headers));
+	}
+
+	/**
+	 * Data of updated resources is streamed into the database by the jaxrs layer, if the updated resource is returned
+	 * the data is read from the database after the commit.
+	 */
+	@Override
+	public Response update(String id, Binary resource, UriInfo uri, HttpHeaders headers)
+	{
+		return withData(super.update(id, resource, uri, headers));
+	}
+
+	private Response withData(Response response)
+	{
+		if (response.getEntity() instanceof Binary binary && !binary.hasData())
+		{
+			UUID uuid = parameterConverter.toUuid(resourceTypeName, binary.getIdElement().getIdPart());
+			long version = binary.getMeta().getVersionIdElement().getIdPartAsLong();
+
+			Optional<Binary> read = exceptionHandler.handleSqlAndResourceDeletedException(serverBase, resourceTypeName,
+					() -> dao.readVersion(uuid, version));
+			read.ifPresent(r -> binary.setData(r.getData()));
+		}
+
+		return response;
+	}
+
+	@Override
+	protected Optional<Binary> read(UUID uuid, UriInfo uri, HttpHeaders headers)
+			throws SQLException, ResourceDeletedException
+	{
+		// data streamed by jaxrs layer for non FHIR requests
+		if (parameterConverter.isValidFhirRequest(uri, headers))
+			return super.read(uuid, uri, headers);
+		else
+			return dao.readWithoutData(uuid);
+	}
+
+	@Override
+	protected Optional<Binary> readVersion(UUID uuid, long version, UriInfo uri, HttpHeaders headers)
+			throws SQLException, ResourceDeletedException
+	{
+		// data streamed by jaxrs layer for non FHIR requests
+		if (parameterConverter.isValidFhirRequest(uri, headers))
+			return super.readVersion(uuid, version, uri, headers);
+		else
+			return dao.readVersionWithoutData(uuid, version);
+	}
+
 	@Override
 	protected MediaType getMediaTypeForRead(UriInfo uri, HttpHeaders headers)
 	{
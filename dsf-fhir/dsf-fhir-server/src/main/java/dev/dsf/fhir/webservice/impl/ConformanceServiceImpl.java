@@ -304,6 +304,8 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 		Extension websocketExtension = rest.addExtension();
 		websocketExtension.setUrl("http://hl7.org/fhir/StructureDefinition/capabilitystatement-websocket");
 		websocketExtension.setValue(new UrlType(serverBase.replace("http", "ws") + ServerEndpoint.PATH));
+		rest.addOperation(createOperation("export", "http://hl7.org/fhir/uv/bulkdata/OperationDefinition/export",
+				"Asynchronous system level export of all readable resources as NDJSON files, supports _type, _since and _outputFormat"));
 
 		var resources = Arrays.asList(ActivityDefinition.class, Binary.class, Bundle.class, CodeSystem.class,
 				DocumentReference.class, Endpoint.class, Group.class, HealthcareService.class, Library.class,
@@ -459,8 +461,11 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 
 			r.addSearchParam(createLastUpdatedParameter());
 			r.addSearchParam(createPageParameter());
+			r.addSearchParam(createCursorParameter());
+			r.addSearchParam(createTotalParameter());
 			r.addSearchParam(createPrettyParameter());
 			r.addSearchParam(createSummaryParameter());
+			r.addSearchParam(createElementsParameter());
 			r.addSearchParam(createProfileParameter());
 			r.addSearchParam(createSinceParameter());
 			r.addSearchParam(createAtParameter());
@@ -540,6 +545,18 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 				"Specify the page number, 1 if not specified");
 	}
 
+	private CapabilityStatementRestResourceSearchParamComponent createCursorParameter()
+	{
+		return createSearchParameter("_cursor", "", SearchParamType.SPECIAL,
+				"Opaque continuation token from the next link, only supported if not sorted or sorted by _id");
+	}
+
+	private CapabilityStatementRestResourceSearchParamComponent createTotalParameter()
+	{
+		return createSearchParameter("_total", "", SearchParamType.SPECIAL,
+				"Specify how the total number of matches is calculated, allowed values: [none, estimated, accurate], accurate if not specified");
+	}
+
 	private CapabilityStatementRestResourceSearchParamComponent createCountParameter(int defaultPageCount)
 	{
 		return createSearchParameter("_count", "", SearchParamType.NUMBER,
@@ -592,6 +609,12 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 		return createFormatParameter;
 	}
 
+	private CapabilityStatementRestResourceSearchParamComponent createElementsParameter()
+	{
+		return createSearchParameter("_elements", "", SearchParamType.SPECIAL,
+				"Comma separated list of top-level elements to return, mandatory elements, id and meta are always returned");
+	}
+
 	private CapabilityStatementRestResourceSearchParamComponent createProfileParameter()
 	{
 		return createSearchParameter(ResourceProfile.class);
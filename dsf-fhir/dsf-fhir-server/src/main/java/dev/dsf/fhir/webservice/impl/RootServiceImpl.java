@@ -1,58 +1,104 @@
 package dev.dsf.fhir.webservice.impl;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.OperationOutcome;
 import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
 import org.hl7.fhir.r4.model.OperationOutcome.IssueType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import dev.dsf.fhir.dao.command.CommandFactory;
 import dev.dsf.fhir.dao.command.CommandList;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.export.ExportJob;
+import dev.dsf.fhir.export.ExportManifest;
+import dev.dsf.fhir.export.ExportService;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.history.HistoryService;
+import dev.dsf.fhir.history.SinceParameter;
+import dev.dsf.fhir.search.SearchQueryParameterError;
+import dev.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import dev.dsf.fhir.webservice.base.AbstractBasicService;
+import dev.dsf.fhir.webservice.jaxrs.RootServiceJaxrs;
 import dev.dsf.fhir.webservice.specification.RootService;
 import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
 
 public class RootServiceImpl extends AbstractBasicService implements RootService, InitializingBean
 {
+	private static final Logger logger = LoggerFactory.getLogger(RootServiceImpl.class);
+
+	public static final String EXPORT_PARAMETER_OUTPUT_FORMAT = "_outputFormat";
+	public static final String EXPORT_PARAMETER_TYPE = "_type";
+	public static final List<String> EXPORT_OUTPUT_FORMATS = List.of(RootServiceJaxrs.CT_FHIR_NDJSON,
+			"application/ndjson", "ndjson");
+
+	private static final String EXPORT_RETRY_AFTER_SECONDS = "10";
+
+	private final String serverBase;
 	private final CommandFactory commandFactory;
 	private final ResponseGenerator responseGenerator;
 	private final ParameterConverter parameterConverter;
 	private final ExceptionHandler exceptionHandler;
 	private final ReferenceCleaner referenceCleaner;
 	private final HistoryService historyService;
+	private final DaoProvider daoProvider;
+	private final ExportService exportService;
+	private final ObjectMapper objectMapper;
 
-	public RootServiceImpl(CommandFactory commandFactory, ResponseGenerator responseGenerator,
+	public RootServiceImpl(String serverBase, CommandFactory commandFactory, ResponseGenerator responseGenerator,
 			ParameterConverter parameterConverter, ExceptionHandler exceptionHandler, ReferenceCleaner referenceCleaner,
-			HistoryService historyService)
+			HistoryService historyService, DaoProvider daoProvider, ExportService exportService,
+			ObjectMapper objectMapper)
 	{
+		this.serverBase = serverBase;
 		this.commandFactory = commandFactory;
 		this.responseGenerator = responseGenerator;
 		this.parameterConverter = parameterConverter;
 		this.exceptionHandler = exceptionHandler;
 		this.referenceCleaner = referenceCleaner;
 		this.historyService = historyService;
+		this.daoProvider = daoProvider;
+		this.exportService = exportService;
+		this.objectMapper = objectMapper;
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
+		Objects.requireNonNull(serverBase, "serverBase");
 		Objects.requireNonNull(commandFactory, "commandFactory");
 		Objects.requireNonNull(responseGenerator, "responseGenerator");
 		Objects.requireNonNull(parameterConverter, "parameterConverter");
 		Objects.requireNonNull(exceptionHandler, "exceptionHandler");
 		Objects.requireNonNull(referenceCleaner, "referenceCleaner");
 		Objects.requireNonNull(historyService, "historyService");
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(exportService, "exportService");
+		Objects.requireNonNull(objectMapper, "objectMapper");
 	}
 
 	@Override
@@ -90,4 +136,129 @@ public class RootServiceImpl extends AbstractBasicService implements RootService
 		return responseGenerator.response(Status.OK, referenceCleaner.cleanLiteralReferences(history),
 				parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
 	}
+
+	@Override
+	public Response export(String exportPath, UriInfo uri, HttpHeaders headers)
+	{
+		MultivaluedMap<String, String> queryParameters = uri.getQueryParameters();
+		List<SearchQueryParameterError> errors = new ArrayList<>();
+
+		String outputFormat = queryParameters.getFirst(EXPORT_PARAMETER_OUTPUT_FORMAT);
+		if (outputFormat != null && !EXPORT_OUTPUT_FORMATS.contains(outputFormat))
+			errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+					EXPORT_PARAMETER_OUTPUT_FORMAT, outputFormat, "Only " + EXPORT_OUTPUT_FORMATS + " supported"));
+
+		List<String> supportedTypes = daoProvider.getResourceTypeNames();
+		List<String> types = queryParameters.getOrDefault(EXPORT_PARAMETER_TYPE, List.of()).stream()
+				.filter(Objects::nonNull).flatMap(v -> Arrays.stream(v.split(","))).map(String::trim)
+				.filter(t -> !t.isEmpty()).distinct().toList();
+		types.stream().filter(t -> !supportedTypes.contains(t))
+				.forEach(t -> errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+						EXPORT_PARAMETER_TYPE, t, "Resource type not supported")));
+
+		SinceParameter since = new SinceParameter();
+		String sinceValue = queryParameters.getFirst(SinceParameter.PARAMETER_NAME);
+		if (sinceValue != null && !sinceValue.isBlank())
+			since.configure(errors, SinceParameter.PARAMETER_NAME, sinceValue);
+
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
+
+		if (!errors.isEmpty())
+			return responseGenerator
+					.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors), mediaType).build();
+
+		Optional<ExportJob> job = exportService.start(getCurrentIdentity(), uri.getRequestUri().toString(),
+				types.isEmpty() ? supportedTypes : types, since.isDefined() ? since : null);
+
+		if (job.isEmpty())
+		{
+			OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.TOOCOSTLY,
+					"Export already in progress, only one active export per identity supported");
+			return responseGenerator.response(Status.TOO_MANY_REQUESTS, outcome, mediaType)
+					.header(HttpHeaders.RETRY_AFTER, EXPORT_RETRY_AFTER_SECONDS).build();
+		}
+
+		return Response.status(Status.ACCEPTED)
+				.header(HttpHeaders.CONTENT_LOCATION, serverBase + "/$export-poll-status/" + job.get().getId()).build();
+	}
+
+	@Override
+	public Response exportStatus(String statusPath, String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<ExportJob> job = parameterConverter.toUuid(jobId)
+				.flatMap(id -> exportService.getJob(getCurrentIdentity(), id));
+
+		if (job.isEmpty())
+			return exportJobNotFound(jobId, uri, headers);
+
+		ExportJob j = job.get();
+		return switch (j.getStatus())
+		{
+			case ACCEPTED, RUNNING -> Response.status(Status.ACCEPTED).header("X-Progress", toProgress(j))
+					.header(HttpHeaders.RETRY_AFTER, EXPORT_RETRY_AFTER_SECONDS).build();
+
+			case COMPLETED ->
+				Response.ok(toJson(new ExportManifest(j, serverBase)), MediaType.APPLICATION_JSON_TYPE).build();
+
+			case FAILED -> responseGenerator.response(Status.INTERNAL_SERVER_ERROR,
+					responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION, j.getError()),
+					parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
+
+			case CANCELLED -> exportJobNotFound(jobId, uri, headers);
+		};
+	}
+
+	private String toProgress(ExportJob job)
+	{
+		String inProgress = job.getResourceTypeNameInProgress();
+		return job.getResourceTypesDone() + " of " + job.getResourceTypeNames().size() + " resource types exported"
+				+ (inProgress != null ? ", exporting " + inProgress : "");
+	}
+
+	private String toJson(ExportManifest manifest)
+	{
+		try
+		{
+			return objectMapper.writeValueAsString(manifest);
+		}
+		catch (JsonProcessingException e)
+		{
+			logger.warn("Unable to create export manifest: {} - {}", e.getClass().getName(), e.getMessage());
+			throw new WebApplicationException(e, Status.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	private Response exportJobNotFound(String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.NOTFOUND,
+				"Export job " + jobId + " not found");
+		return responseGenerator
+				.response(Status.NOT_FOUND, outcome, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
+				.build();
+	}
+
+	@Override
+	public Response deleteExport(String statusPath, String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		boolean deleted = parameterConverter.toUuid(jobId).map(id -> exportService.delete(getCurrentIdentity(), id))
+				.orElse(false);
+
+		if (deleted)
+			return Response.status(Status.ACCEPTED).build();
+		else
+			return exportJobNotFound(jobId, uri, headers);
+	}
+
+	@Override
+	public Response exportFile(String filePath, String jobId, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<Path> file = parameterConverter.toUuid(jobId)
+				.flatMap(id -> exportService.getFile(getCurrentIdentity(), id, fileName));
+
+		if (file.isEmpty())
+			return Response.status(Status.NOT_FOUND).build();
+
+		StreamingOutput output = out -> Files.copy(file.get(), out);
+		return Response.ok(output, RootServiceJaxrs.CT_FHIR_NDJSON).build();
+	}
 }
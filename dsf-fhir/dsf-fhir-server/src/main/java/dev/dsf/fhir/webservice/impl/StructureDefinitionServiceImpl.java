@@ -23,6 +23,7 @@ import org.hl7.fhir.r4.model.UriType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.dsf.fhir.adapter.JsonPassthrough;
 import dev.dsf.fhir.authorization.AuthorizationRuleProvider;
 import dev.dsf.fhir.dao.StructureDefinitionDao;
 import dev.dsf.fhir.event.EventGenerator;
@@ -278,6 +279,9 @@ public class StructureDefinitionServiceImpl extends
 
 	private StructureDefinition generateSnapshot(StructureDefinition differential)
 	{
+		// snapshot is generated within the given resource, JSON read from the database no longer matches
+		JsonPassthrough.remove(differential);
+
 		SnapshotWithValidationMessages snapshot = snapshotGenerator.generateSnapshot(differential);
 
 		if (snapshot.getMessages().isEmpty())
@@ -1,11 +1,11 @@
 package dev.dsf.fhir.webservice.jaxrs;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.Reference;
@@ -13,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.dao.BinaryDao;
+import dev.dsf.fhir.dao.BinaryDataStream;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.webservice.specification.BinaryService;
@@ -31,6 +33,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.ResponseBuilder;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
 
 @Path(BinaryServiceJaxrs.PATH)
@@ -40,8 +43,13 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 
 	private static final Logger logger = LoggerFactory.getLogger(BinaryServiceJaxrs.class);
 
-	private final String[] FHIR_MEDIA_TYPES = { Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_JSON_NEW,
-			Constants.CT_FHIR_XML, Constants.CT_FHIR_JSON };
+	private static final String HEADER_ACCEPT_RANGES = "Accept-Ranges";
+	private static final String HEADER_CONTENT_RANGE = "Content-Range";
+	private static final String HEADER_IF_RANGE = "If-Range";
+	private static final String HEADER_RANGE = "Range";
+	private static final String RANGE_UNIT_BYTES = "bytes";
+	private static final Pattern BYTE_RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
 	private final ParameterConverter parameterConverter;
 
 	public BinaryServiceJaxrs(BinaryService delegate, ParameterConverter parameterConverter)
@@ -72,9 +80,8 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		{
 			String securityContext = getSecurityContext(headers);
 			String contentType = getContentType(headers);
-			byte[] content = in.readAllBytes();
 
-			Binary resource = createBinary(contentType, content, securityContext);
+			Binary resource = createBinary(contentType, in, securityContext);
 			return delegate.create(resource, uri, headers);
 		}
 		catch (IOException e)
@@ -83,12 +90,18 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		}
 	}
 
-	private Binary createBinary(String contentType, byte[] content, String securityContextReference)
+	/**
+	 * The request body is not read into memory, the data is streamed into the database while executing the insert
+	 * statement. If the created / updated resource is to be returned, the data is read from the database after the
+	 * commit, see {@link dev.dsf.fhir.webservice.impl.BinaryServiceImpl}.
+	 */
+	private Binary createBinary(String contentType, InputStream in, String securityContextReference)
 	{
 		Binary resource = new Binary();
 		resource.setContentType(contentType);
-		resource.setContent(content);
 		resource.setSecurityContext(new Reference(securityContextReference));
+		resource.setUserData(BinaryDao.USER_DATA_DATA_INPUT_STREAM, in);
+
 		return resource;
 	}
 
@@ -152,10 +165,10 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 	{
 		Response read = super.read(id, uri, headers);
 
-		if (read.getEntity() instanceof Binary binary && !isValidFhirRequest(uri, headers))
+		if (read.getEntity() instanceof Binary binary && !parameterConverter.isValidFhirRequest(uri, headers))
 		{
 			if (mediaTypeMatches(headers, binary))
-				return toStream(binary);
+				return toStream(binary, headers);
 			else
 				return Response.status(Status.NOT_ACCEPTABLE).build();
 		}
@@ -170,19 +183,48 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 				.anyMatch(acceptType -> acceptType.isCompatible(binaryMediaType));
 	}
 
-	private Response toStream(Binary binary)
+	private Response toStream(Binary binary, HttpHeaders headers)
 	{
 		String contentType = binary.getContentType();
-		byte[] content = binary.getContent();
+		BinaryDataStream data = getDataStream(binary);
+		long length = data.getLength();
 
-		ResponseBuilder b = Response.status(Status.OK).entity(new ByteArrayInputStream(content));
-		b = b.type(contentType);
+		EntityTag tag = null;
+		ResponseBuilder b;
 
 		if (binary.getMeta() != null && binary.getMeta().getLastUpdated() != null
 				&& binary.getMeta().getVersionId() != null)
+			tag = new EntityTag(binary.getMeta().getVersionId(), true);
+
+		ByteRange range = getRange(headers, tag);
+		if (range == null)
+		{
+			b = Response.status(Status.OK).entity(toStreamingOutput(data, 0, length));
+			b = b.header(HttpHeaders.CONTENT_LENGTH, length);
+		}
+		else if (range.isSatisfiable(length))
+		{
+			long first = range.getFirst(length);
+			long last = range.getLast(length);
+
+			b = Response.status(Status.PARTIAL_CONTENT).entity(toStreamingOutput(data, first, last - first + 1));
+			b = b.header(HttpHeaders.CONTENT_LENGTH, last - first + 1);
+			b = b.header(HEADER_CONTENT_RANGE, RANGE_UNIT_BYTES + " " + first + "-" + last + "/" + length);
+		}
+		else
+		{
+			logger.warn("Range not satisfiable, sending {}", Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+			return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+					.header(HEADER_CONTENT_RANGE, RANGE_UNIT_BYTES + " */" + length).build();
+		}
+
+		b = b.type(contentType);
+		b = b.header(HEADER_ACCEPT_RANGES, RANGE_UNIT_BYTES);
+
+		if (tag != null)
 		{
 			b = b.lastModified(binary.getMeta().getLastUpdated());
-			b = b.tag(new EntityTag(binary.getMeta().getVersionId(), true));
+			b = b.tag(tag);
 		}
 
 		if (binary.hasSecurityContext() && binary.getSecurityContext().hasReference())
@@ -196,6 +238,111 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		return b.build();
 	}
 
+	private BinaryDataStream getDataStream(Binary binary)
+	{
+		if (binary.getUserData(BinaryDao.USER_DATA_DATA_STREAM) instanceof BinaryDataStream stream)
+			return stream;
+		else
+			return BinaryDataStream.of(binary.hasData() ? binary.getData() : new byte[0]);
+	}
+
+	private StreamingOutput toStreamingOutput(BinaryDataStream data, long offset, long length)
+	{
+		return out -> data.write(out, offset, length);
+	}
+
+	/**
+	 * Only single byte ranges are supported, other range requests are answered with the full content. A range is
+	 * ignored if the <i>If-Range</i> header does not match the current entity tag.
+	 *
+	 * @return <code>null</code> if the full content should be returned
+	 */
+	private ByteRange getRange(HttpHeaders headers, EntityTag tag)
+	{
+		String range = headers.getHeaderString(HEADER_RANGE);
+		if (range == null || range.isBlank())
+			return null;
+
+		String ifRange = headers.getHeaderString(HEADER_IF_RANGE);
+		if (ifRange != null && !strongEntityTagMatches(ifRange.trim(), tag))
+		{
+			logger.debug("If-Range header does not match entity tag, ignoring Range header");
+			return null;
+		}
+
+		Matcher matcher = BYTE_RANGE_PATTERN.matcher(range.trim());
+		if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty()))
+		{
+			logger.debug("Range header '{}' not supported, ignoring", range);
+			return null;
+		}
+
+		try
+		{
+			Long first = matcher.group(1).isEmpty() ? null : Long.valueOf(matcher.group(1));
+			Long last = matcher.group(2).isEmpty() ? null : Long.valueOf(matcher.group(2));
+
+			if (first != null && last != null && last < first)
+			{
+				logger.debug("Range header '{}' not valid, ignoring", range);
+				return null;
+			}
+
+			return new ByteRange(first, last);
+		}
+		catch (NumberFormatException e)
+		{
+			logger.debug("Range header '{}' not valid, ignoring", range);
+			return null;
+		}
+	}
+
+	/**
+	 * <i>If-Range</i> requires a strong comparison, weak entity tags and dates never match. The data of a resource
+	 * version does not change, the version id is compared as a strong entity tag although sent as a weak <i>ETag</i>.
+	 */
+	private boolean strongEntityTagMatches(String ifRange, EntityTag tag)
+	{
+		if (tag == null || ifRange.startsWith("W/"))
+			return false;
+
+		return ifRange.equals("\"" + tag.getValue() + "\"");
+	}
+
+	/**
+	 * <i>first</i> and <i>last</i> as in <code>bytes=first-last</code>, <i>first</i> <code>null</code> for suffix
+	 * ranges, <i>last</i> <code>null</code> for open ranges
+	 */
+	private static final class ByteRange
+	{
+		final Long first;
+		final Long last;
+
+		ByteRange(Long first, Long last)
+		{
+			this.first = first;
+			this.last = last;
+		}
+
+		boolean isSatisfiable(long length)
+		{
+			if (first == null)
+				return last > 0 && length > 0;
+			else
+				return first < length;
+		}
+
+		long getFirst(long length)
+		{
+			return first == null ? Math.max(0, length - last) : first;
+		}
+
+		long getLast(long length)
+		{
+			return first == null || last == null ? length - 1 : Math.min(last, length - 1);
+		}
+	}
+
 	@GET
 	@Path("/{id}/_history/{version}")
 	@Produces
@@ -205,10 +352,10 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 	{
 		Response read = super.vread(id, version, uri, headers);
 
-		if (read.getEntity() instanceof Binary binary && !isValidFhirRequest(uri, headers))
+		if (read.getEntity() instanceof Binary binary && !parameterConverter.isValidFhirRequest(uri, headers))
 		{
 			if (mediaTypeMatches(headers, binary))
-				return toStream(binary);
+				return toStream(binary, headers);
 			else
 				return Response.status(Status.NOT_ACCEPTABLE).build();
 		}
@@ -216,24 +363,6 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 			return read;
 	}
 
-	private boolean isValidFhirRequest(UriInfo uri, HttpHeaders headers)
-	{
-		// _format parameter override present and valid
-		if (uri.getQueryParameters().containsKey(Constants.PARAM_FORMAT))
-		{
-			parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
-			return true;
-		}
-		else
-		{
-			List<MediaType> types = headers.getAcceptableMediaTypes();
-			MediaType accept = types == null ? null : types.get(0);
-
-			// accept header is FHIR mime-type
-			return Arrays.stream(FHIR_MEDIA_TYPES).anyMatch(f -> f.equals(accept.toString()));
-		}
-	}
-
 	@PUT
 	@Path("/{id}")
 	@Consumes
@@ -249,9 +378,8 @@ public class BinaryServiceJaxrs extends AbstractResourceServiceJaxrs<Binary, Bin
 		{
 			String securityContext = getSecurityContext(headers);
 			String contentType = getContentType(headers);
-			byte[] content = in.readAllBytes();
 
-			Binary resource = createBinary(contentType, content, securityContext);
+			Binary resource = createBinary(contentType, in, securityContext);
 			return delegate.update(id, resource, uri, headers);
 		}
 		catch (IOException e)
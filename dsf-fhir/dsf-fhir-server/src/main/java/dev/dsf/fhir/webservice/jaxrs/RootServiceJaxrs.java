@@ -7,9 +7,11 @@ import org.slf4j.LoggerFactory;
 import ca.uhn.fhir.rest.api.Constants;
 import dev.dsf.fhir.webservice.specification.RootService;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -23,6 +25,7 @@ import jakarta.ws.rs.core.UriInfo;
 public class RootServiceJaxrs extends AbstractServiceJaxrs<RootService> implements RootService
 {
 	public static final String PATH = "";
+	public static final String CT_FHIR_NDJSON = "application/fhir+ndjson";
 
 	private static final Logger logger = LoggerFactory.getLogger(RootServiceJaxrs.class);
 
@@ -60,4 +63,48 @@ public class RootServiceJaxrs extends AbstractServiceJaxrs<RootService> implemen
 
 		return delegate.handleBundle(bundle, uri, headers);
 	}
+
+	@GET
+	@Path("/{export : [$]export(/)?}")
+	@Override
+	public Response export(@PathParam("export") String exportPath, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.export(exportPath, uri, headers);
+	}
+
+	@GET
+	@Path("/{status : [$]export-poll-status}/{jobId}")
+	@Override
+	public Response exportStatus(@PathParam("status") String statusPath, @PathParam("jobId") String jobId,
+			@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.exportStatus(statusPath, jobId, uri, headers);
+	}
+
+	@DELETE
+	@Path("/{status : [$]export-poll-status}/{jobId}")
+	@Override
+	public Response deleteExport(@PathParam("status") String statusPath, @PathParam("jobId") String jobId,
+			@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("DELETE {}", uri.getRequestUri().toString());
+
+		return delegate.deleteExport(statusPath, jobId, uri, headers);
+	}
+
+	@GET
+	@Path("/{file : [$]export-file}/{jobId}/{fileName}")
+	@Produces(RootServiceJaxrs.CT_FHIR_NDJSON)
+	@Override
+	public Response exportFile(@PathParam("file") String filePath, @PathParam("jobId") String jobId,
+			@PathParam("fileName") String fileName, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.exportFile(filePath, jobId, fileName, uri, headers);
+	}
 }
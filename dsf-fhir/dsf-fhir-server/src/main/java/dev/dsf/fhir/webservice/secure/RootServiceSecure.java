@@ -9,6 +9,7 @@ import org.hl7.fhir.r4.model.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.dsf.fhir.authentication.FhirServerRole;
 import dev.dsf.fhir.authorization.AuthorizationRule;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.service.ReferenceResolver;
@@ -103,4 +104,74 @@ public class RootServiceSecure extends AbstractServiceSecure<RootService> implem
 			return delegate.history(uri, headers);
 		}
 	}
+
+	@Override
+	public Response export(String exportPath, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		Optional<String> reasonExportAllowed = reasonExportAllowed();
+		if (reasonExportAllowed.isEmpty())
+		{
+			audit.info("Export denied for identity '{}'", getCurrentIdentity().getName());
+			return forbidden("export");
+		}
+		else
+		{
+			audit.info("Export allowed for identity '{}': {}", getCurrentIdentity().getName(),
+					reasonExportAllowed.get());
+			return delegate.export(exportPath, uri, headers);
+		}
+	}
+
+	@Override
+	public Response exportStatus(String statusPath, String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the job, checked by delegate
+
+		return delegate.exportStatus(statusPath, jobId, uri, headers);
+	}
+
+	@Override
+	public Response deleteExport(String statusPath, String jobId, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the job, checked by delegate
+		audit.info("Delete of export job {} requested by identity '{}'", jobId, getCurrentIdentity().getName());
+
+		return delegate.deleteExport(statusPath, jobId, uri, headers);
+	}
+
+	@Override
+	public Response exportFile(String filePath, String jobId, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the job, checked by delegate
+		audit.info("Download of export file {} from job {} requested by identity '{}'", fileName, jobId,
+				getCurrentIdentity().getName());
+
+		return delegate.exportFile(filePath, jobId, fileName, uri, headers);
+	}
+
+	private Optional<String> reasonExportAllowed()
+	{
+		if (getCurrentIdentity().hasDsfRole(FhirServerRole.READ)
+				&& getCurrentIdentity().hasDsfRole(FhirServerRole.SEARCH))
+		{
+			logger.info("Export allowed for identity '{}', resources filtered by read access",
+					getCurrentIdentity().getName());
+			return Optional.of("Identity has roles " + FhirServerRole.READ + " and " + FhirServerRole.SEARCH
+					+ ", resources filtered by read access");
+		}
+		else
+		{
+			logger.warn("Export denied for identity '{}', no role {} or {}", getCurrentIdentity().getName(),
+					FhirServerRole.READ, FhirServerRole.SEARCH);
+			return Optional.empty();
+		}
+	}
 }
@@ -14,4 +14,12 @@ public interface RootService extends BasicService
 	Response history(UriInfo uri, HttpHeaders headers);
 
 	Response handleBundle(Bundle bundle, UriInfo uri, HttpHeaders headers);
+
+	Response export(String exportPath, UriInfo uri, HttpHeaders headers);
+
+	Response exportStatus(String statusPath, String jobId, UriInfo uri, HttpHeaders headers);
+
+	Response deleteExport(String statusPath, String jobId, UriInfo uri, HttpHeaders headers);
+
+	Response exportFile(String filePath, String jobId, String fileName, UriInfo uri, HttpHeaders headers);
 }
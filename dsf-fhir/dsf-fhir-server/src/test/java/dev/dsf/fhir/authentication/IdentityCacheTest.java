@@ -0,0 +1,159 @@
+package dev.dsf.fhir.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.junit.Test;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.event.ResourceCreatedEvent;
+import dev.dsf.fhir.event.ResourceDeletedEvent;
+import dev.dsf.fhir.event.ResourceUpdatedEvent;
+
+public class IdentityCacheTest
+{
+	private static Organization organization(String name)
+	{
+		Organization organization = new Organization().setName(name);
+		organization.setIdElement(new IdType("Organization", "1", "1"));
+		return organization;
+	}
+
+	@Test
+	public void testGetIdentity() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(10);
+		Identity identity = mock(Identity.class);
+		AtomicInteger resolved = new AtomicInteger();
+
+		assertSame(identity, cache.getIdentity("a", () ->
+		{
+			resolved.incrementAndGet();
+			return identity;
+		}));
+		assertSame(identity, cache.getIdentity("a", () ->
+		{
+			resolved.incrementAndGet();
+			return null;
+		}));
+
+		assertEquals(1, resolved.get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.5d, cache.getHitRate(), 0d);
+	}
+
+	@Test
+	public void testUnknownIdentityNotCached() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(10);
+
+		assertNull(cache.getIdentity("a", () -> null));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testEviction() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(2);
+		Identity a = mock(Identity.class);
+
+		cache.getIdentity("a", () -> a);
+		cache.getIdentity("b", () -> mock(Identity.class));
+		cache.getIdentity("a", () -> null);
+		cache.getIdentity("c", () -> mock(Identity.class));
+
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictionCount());
+		assertSame(a, cache.getIdentity("a", () -> null));
+		assertNull(cache.getIdentity("b", () -> null));
+	}
+
+	@Test
+	public void testPutIgnoredAfterInvalidation() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(10);
+
+		cache.getIdentity("a", () ->
+		{
+			cache.handleEvent(new ResourceDeletedEvent(Organization.class, "1"));
+			return mock(Identity.class);
+		});
+
+		assertEquals(0, cache.getSize());
+		assertEquals(1, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testEventInvalidatesAll() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(10);
+		cache.getIdentity("a", () -> mock(Identity.class));
+		cache.getLocalOrganization(() -> Optional.of(organization("local")));
+
+		cache.handleEvent(new ResourceDeletedEvent(Endpoint.class, "1"));
+		assertEquals(1, cache.getSize());
+
+		cache.handleEvent(new ResourceCreatedEvent(OrganizationAffiliation.class,
+				new OrganizationAffiliation().setIdElement(new IdType("OrganizationAffiliation", "1", "1"))));
+		assertEquals(0, cache.getSize());
+		assertFalse(cache.getLocalOrganization(Optional::empty).isPresent());
+
+		cache.getIdentity("a", () -> mock(Identity.class));
+		cache.handleEvent(new ResourceUpdatedEvent(Organization.class, organization("remote")));
+		assertEquals(0, cache.getSize());
+		assertEquals(2, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testGetLocalOrganizationReturnsCopy() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(10);
+		Organization local = organization("local");
+
+		assertSame(local, cache.getLocalOrganization(() -> Optional.of(local)).get());
+
+		Optional<Organization> cached = cache.getLocalOrganization(Optional::empty);
+		assertTrue(cached.isPresent());
+		assertNotSame(local, cached.get());
+		assertEquals("local", cached.get().getName());
+
+		cached.get().setName("modified");
+		assertEquals("local", cache.getLocalOrganization(Optional::empty).get().getName());
+	}
+
+	@Test
+	public void testDisabled() throws Exception
+	{
+		IdentityCache cache = new IdentityCache(0);
+		AtomicInteger resolved = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++)
+			cache.getIdentity("a", () ->
+			{
+				resolved.incrementAndGet();
+				return mock(Identity.class);
+			});
+
+		assertEquals(2, resolved.get());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() throws Exception
+	{
+		new IdentityCache(-1);
+	}
+}
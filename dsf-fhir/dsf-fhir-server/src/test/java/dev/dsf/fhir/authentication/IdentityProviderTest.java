@@ -154,7 +154,7 @@ public class IdentityProviderTest
 		credentials = mock(DsfOpenIdCredentials.class);
 
 		provider = new IdentityProviderImpl(organizationProvider, practitionerProvider,
-				LOCAL_ORGANIZATION_IDENTIFIER_VALUE, roleConfig);
+				LOCAL_ORGANIZATION_IDENTIFIER_VALUE, roleConfig, new IdentityCache(0));
 	}
 
 	@After
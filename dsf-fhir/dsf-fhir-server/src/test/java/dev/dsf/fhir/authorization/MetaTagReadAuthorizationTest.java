@@ -0,0 +1,134 @@
+package dev.dsf.fhir.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.authentication.FhirServerRole;
+import dev.dsf.fhir.authentication.OrganizationProvider;
+import dev.dsf.fhir.authorization.read.ReadAccessHelper;
+import dev.dsf.fhir.dao.ReadAccessDao;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.help.ExceptionHandler;
+import dev.dsf.fhir.help.ParameterConverter;
+import dev.dsf.fhir.service.ReferenceResolver;
+
+public class MetaTagReadAuthorizationTest
+{
+	private static final UUID ORGANIZATION_1 = UUID.randomUUID();
+	private static final UUID ORGANIZATION_2 = UUID.randomUUID();
+
+	private final ReadAccessDao readAccessDao = mock(ReadAccessDao.class);
+	private final DaoProvider daoProvider = mock(DaoProvider.class);
+	private final Connection connection = mock(Connection.class);
+
+	private EndpointAuthorizationRule rule;
+
+	@Before
+	public void before() throws Exception
+	{
+		when(daoProvider.getReadAccessDao()).thenReturn(readAccessDao);
+		when(daoProvider.newReadOnlyAutoCommitTransaction()).thenReturn(connection);
+
+		rule = new EndpointAuthorizationRule(daoProvider, "https://localhost/fhir", mock(ReferenceResolver.class),
+				mock(OrganizationProvider.class), mock(ReadAccessHelper.class),
+				new ParameterConverter(mock(ExceptionHandler.class)));
+	}
+
+	private static Endpoint endpoint(UUID id)
+	{
+		Endpoint endpoint = new Endpoint();
+		endpoint.setIdElement(new IdType("Endpoint", id.toString(), "1"));
+		return endpoint;
+	}
+
+	private static Identity identity(UUID organizationId, boolean local, boolean read)
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", organizationId.toString(), "1"));
+
+		Identity identity = mock(Identity.class);
+		when(identity.getOrganization()).thenReturn(organization);
+		when(identity.isLocalIdentity()).thenReturn(local);
+		when(identity.hasDsfRole(FhirServerRole.READ)).thenReturn(read);
+		when(identity.getName()).thenReturn(organizationId.toString());
+		return identity;
+	}
+
+	@Test
+	public void testReasonsReadAllowedForResources() throws Exception
+	{
+		UUID id1 = UUID.randomUUID();
+		UUID id2 = UUID.randomUUID();
+
+		when(readAccessDao.getAccessTypes(connection, List.of(id1, id2), List.of(1L, 1L), false, ORGANIZATION_1))
+				.thenReturn(List.of(List.of(), List.of("ALL")));
+
+		List<Optional<String>> reasons = rule.reasonsReadAllowed(identity(ORGANIZATION_1, false, true),
+				List.of(endpoint(id1), endpoint(id2)));
+
+		assertEquals(2, reasons.size());
+		assertFalse(reasons.get(0).isPresent());
+		assertTrue(reasons.get(1).isPresent());
+		verify(readAccessDao, never()).getAccessTypes(any(), any(UUID.class), anyLong(), anyBoolean(), any(UUID.class));
+		verify(connection).close();
+	}
+
+	@Test
+	public void testReasonsReadAllowedForIdentities() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+
+		when(readAccessDao.getAccessTypes(connection, id, 1L, true, List.of(ORGANIZATION_1)))
+				.thenReturn(List.of(List.of("LOCAL")));
+		when(readAccessDao.getAccessTypes(connection, id, 1L, false, List.of(ORGANIZATION_2, ORGANIZATION_1)))
+				.thenReturn(List.of(List.of(), List.of("ORGANIZATION")));
+
+		List<Optional<String>> reasons = rule
+				.reasonsReadAllowed(
+						List.of(identity(ORGANIZATION_2, false, true), identity(ORGANIZATION_1, true, true),
+								identity(ORGANIZATION_1, false, true), identity(ORGANIZATION_2, false, false)),
+						endpoint(id));
+
+		assertEquals(4, reasons.size());
+		assertFalse(reasons.get(0).isPresent());
+		assertTrue(reasons.get(1).isPresent());
+		assertTrue(reasons.get(2).isPresent());
+		assertFalse(reasons.get(3).isPresent());
+		verify(connection).close();
+	}
+
+	@Test
+	public void testReasonReadAllowedWithoutRole() throws Exception
+	{
+		assertFalse(
+				rule.reasonReadAllowed(connection, identity(ORGANIZATION_1, true, false), endpoint(UUID.randomUUID()))
+						.isPresent());
+
+		verify(readAccessDao, never()).getAccessTypes(any(), anyList(), anyList(), anyBoolean(), any(UUID.class));
+		verify(readAccessDao, never()).getAccessTypes(any(), any(UUID.class), anyLong(), anyBoolean(), anyList());
+		verify(readAccessDao, never()).getAccessTypes(eq(connection), any(UUID.class), anyLong(), anyBoolean(),
+				any(UUID.class));
+	}
+}
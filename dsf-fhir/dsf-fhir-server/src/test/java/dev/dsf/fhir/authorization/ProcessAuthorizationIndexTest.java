@@ -0,0 +1,193 @@
+package dev.dsf.fhir.authorization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Enumerations.PublicationStatus;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.dsf.fhir.authorization.ProcessAuthorizationIndex.Authorization;
+import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
+import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelperImpl;
+import dev.dsf.fhir.authorization.process.Recipient;
+import dev.dsf.fhir.authorization.process.Requester;
+import dev.dsf.fhir.dao.ActivityDefinitionDao;
+import dev.dsf.fhir.dao.OrganizationAffiliationDao;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.event.ResourceDeletedEvent;
+import dev.dsf.fhir.event.ResourceUpdatedEvent;
+
+public class ProcessAuthorizationIndexTest
+{
+	private static final String PROCESS_URL = "http://dsf.dev/bpe/Process/test";
+	private static final String PROCESS_VERSION = "1.0";
+	private static final String MESSAGE_NAME = "testMessage";
+	private static final String TASK_PROFILE = "http://dsf.dev/fhir/StructureDefinition/task-test|1.0";
+	private static final String AD_ID = "0f2c6c3d-7a55-4bd5-9d6c-2a0bbab2c3a4";
+
+	private final ProcessAuthorizationHelper helper = new ProcessAuthorizationHelperImpl();
+	private final ActivityDefinitionDao activityDefinitionDao = mock(ActivityDefinitionDao.class);
+	private final OrganizationAffiliationDao organizationAffiliationDao = mock(OrganizationAffiliationDao.class);
+	private final Connection connection = mock(Connection.class);
+
+	private ProcessAuthorizationIndex index;
+
+	@Before
+	public void before() throws Exception
+	{
+		DaoProvider daoProvider = mock(DaoProvider.class);
+		when(daoProvider.getActivityDefinitionDao()).thenReturn(activityDefinitionDao);
+		when(daoProvider.getOrganizationAffiliationDao()).thenReturn(organizationAffiliationDao);
+		when(connection.getAutoCommit()).thenReturn(true);
+
+		index = new ProcessAuthorizationIndex(daoProvider, helper, 10);
+		index.afterPropertiesSet();
+	}
+
+	private ActivityDefinition activityDefinition(String version)
+	{
+		ActivityDefinition ad = new ActivityDefinition();
+		ad.setIdElement(new IdType("ActivityDefinition", AD_ID, "1"));
+		ad.setUrl(PROCESS_URL);
+		ad.setVersion(version);
+		ad.setStatus(PublicationStatus.ACTIVE);
+
+		return helper.add(ad, MESSAGE_NAME, TASK_PROFILE, Requester.remoteAll(), Recipient.localAll());
+	}
+
+	private Optional<Authorization> getAuthorization(Connection connection, String taskProfile) throws Exception
+	{
+		return index.getAuthorization(connection, PROCESS_URL, PROCESS_VERSION, MESSAGE_NAME, List.of(taskProfile));
+	}
+
+	@Test
+	public void testGetAuthorization() throws Exception
+	{
+		when(activityDefinitionDao.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection,
+				PROCESS_URL, PROCESS_VERSION)).thenReturn(Optional.of(activityDefinition(PROCESS_VERSION)));
+
+		Optional<Authorization> a1 = getAuthorization(connection, TASK_PROFILE);
+		assertTrue(a1.isPresent());
+		assertEquals(1, a1.get().getRequesters().size());
+		assertEquals(1, a1.get().getRecipients().size());
+
+		// not version specific Task profile
+		Optional<Authorization> a2 = getAuthorization(connection, "http://dsf.dev/fhir/StructureDefinition/task-test");
+		assertTrue(a2.isPresent());
+		assertEquals(1, a2.get().getRequesters().size());
+
+		Optional<Authorization> a3 = getAuthorization(connection, "http://dsf.dev/fhir/StructureDefinition/other");
+		assertTrue(a3.isPresent());
+		assertTrue(a3.get().getRequesters().isEmpty());
+		assertTrue(a3.get().getRecipients().isEmpty());
+
+		assertSame(a1.get(), getAuthorization(connection, TASK_PROFILE).get());
+
+		verify(activityDefinitionDao, times(1)).readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(any(),
+				anyString(), anyString());
+		assertEquals(1, index.getProcessCount());
+		assertEquals(1, index.getMissCount());
+		assertEquals(3, index.getHitCount());
+	}
+
+	@Test
+	public void testMissingActivityDefinitionInvalidatedByEvent() throws Exception
+	{
+		when(activityDefinitionDao.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection,
+				PROCESS_URL, PROCESS_VERSION)).thenReturn(Optional.empty())
+				.thenReturn(Optional.of(activityDefinition(PROCESS_VERSION)));
+
+		assertFalse(getAuthorization(connection, TASK_PROFILE).isPresent());
+		assertFalse(getAuthorization(connection, TASK_PROFILE).isPresent());
+
+		index.handleEvent(new ResourceUpdatedEvent(ActivityDefinition.class, activityDefinition(PROCESS_VERSION)));
+
+		assertTrue(getAuthorization(connection, TASK_PROFILE).isPresent());
+		assertEquals(1, index.getInvalidationCount());
+	}
+
+	@Test
+	public void testActivityDefinitionVersionChangeInvalidatedByEvent() throws Exception
+	{
+		when(activityDefinitionDao.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(connection,
+				PROCESS_URL, PROCESS_VERSION)).thenReturn(Optional.of(activityDefinition(PROCESS_VERSION)))
+				.thenReturn(Optional.empty());
+
+		assertTrue(getAuthorization(connection, TASK_PROFILE).isPresent());
+
+		index.handleEvent(new ResourceUpdatedEvent(ActivityDefinition.class, activityDefinition("2.0")));
+		assertEquals(0, index.getProcessCount());
+		assertFalse(getAuthorization(connection, TASK_PROFILE).isPresent());
+
+		index.handleEvent(new ResourceDeletedEvent(Endpoint.class, AD_ID));
+		assertEquals(1, index.getProcessCount());
+	}
+
+	@Test
+	public void testIndexBypassedWithoutAutoCommit() throws Exception
+	{
+		Connection transaction = mock(Connection.class);
+		when(transaction.getAutoCommit()).thenReturn(false);
+		when(activityDefinitionDao.readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(transaction,
+				PROCESS_URL, PROCESS_VERSION)).thenReturn(Optional.of(activityDefinition(PROCESS_VERSION)));
+
+		assertTrue(getAuthorization(transaction, TASK_PROFILE).isPresent());
+		assertTrue(getAuthorization(transaction, TASK_PROFILE).isPresent());
+
+		verify(activityDefinitionDao, times(2)).readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(
+				transaction, PROCESS_URL, PROCESS_VERSION);
+		assertEquals(0, index.getProcessCount());
+	}
+
+	@Test
+	public void testAffiliationsInvalidatedByEvent() throws Exception
+	{
+		List<OrganizationAffiliation> affiliations = List.of(new OrganizationAffiliation());
+		when(organizationAffiliationDao
+				.readActiveNotDeletedByMemberOrganizationIdentifierIncludingOrganizationIdentifiersWithTransaction(
+						connection, "member.org"))
+				.thenReturn(affiliations);
+
+		assertEquals(1, index.getAffiliations(connection, "member.org").size());
+		assertEquals(1, index.getAffiliations(connection, "member.org").size());
+		assertTrue(index.getAffiliations(connection, null).isEmpty());
+
+		index.handleEvent(new ResourceDeletedEvent(ActivityDefinition.class, AD_ID));
+		assertEquals(1, index.getAffiliationsCount());
+
+		index.handleEvent(new ResourceDeletedEvent(Organization.class, AD_ID));
+		assertEquals(0, index.getAffiliationsCount());
+
+		index.getAffiliations(connection, "member.org");
+		index.handleEvent(new ResourceDeletedEvent(OrganizationAffiliation.class, AD_ID));
+		assertEquals(0, index.getAffiliationsCount());
+
+		verify(organizationAffiliationDao, times(2))
+				.readActiveNotDeletedByMemberOrganizationIdentifierIncludingOrganizationIdentifiersWithTransaction(
+						connection, "member.org");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() throws Exception
+	{
+		new ProcessAuthorizationIndex(mock(DaoProvider.class), helper, -1);
+	}
+}
@@ -11,12 +11,19 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -38,6 +45,8 @@ import dev.dsf.fhir.authorization.read.ReadAccessHelperImpl;
 import dev.dsf.fhir.dao.jdbc.BinaryDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.OrganizationAffiliationDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.ReadAccessDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex;
 import dev.dsf.fhir.dao.jdbc.ResearchStudyDaoJdbc;
 import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.SearchQuery;
@@ -129,6 +138,82 @@ public class BinaryDaoTest extends AbstractResourceDaoTest<Binary, BinaryDao> im
 		}
 	}
 
+	@Test
+	public void testCreateWithDataInputStreamAndReadWithoutData() throws Exception
+	{
+		Binary newResource = new Binary();
+		newResource.setContentType(CONTENT_TYPE);
+		newResource.setUserData(BinaryDao.USER_DATA_DATA_INPUT_STREAM, new ByteArrayInputStream(DATA2));
+
+		Binary createdResource = dao.create(newResource);
+		assertNotNull(createdResource);
+		assertNull(createdResource.getData());
+
+		Optional<Binary> read = dao.read(UUID.fromString(createdResource.getIdElement().getIdPart()));
+		assertTrue(read.isPresent());
+		assertTrue(Arrays.equals(DATA2, read.get().getData()));
+
+		Optional<Binary> readWithoutData = dao
+				.readWithoutData(UUID.fromString(createdResource.getIdElement().getIdPart()));
+		assertTrue(readWithoutData.isPresent());
+		assertNull(readWithoutData.get().getData());
+
+		BinaryDataStream stream = (BinaryDataStream) readWithoutData.get().getUserData(BinaryDao.USER_DATA_DATA_STREAM);
+		assertNotNull(stream);
+		assertEquals(DATA2.length, stream.getLength());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		stream.write(out, 0, stream.getLength());
+		assertTrue(Arrays.equals(DATA2, out.toByteArray()));
+
+		ByteArrayOutputStream range = new ByteArrayOutputStream();
+		stream.write(range, 5, 10);
+		assertTrue(Arrays.equals(Arrays.copyOfRange(DATA2, 5, 15), range.toByteArray()));
+
+		Optional<Binary> readVersionWithoutData = dao.readVersionWithoutData(
+				UUID.fromString(createdResource.getIdElement().getIdPart()), ResourceDao.FIRST_VERSION);
+		assertTrue(readVersionWithoutData.isPresent());
+		assertNull(readVersionWithoutData.get().getData());
+		assertNotNull(readVersionWithoutData.get().getUserData(BinaryDao.USER_DATA_DATA_STREAM));
+	}
+
+	@Test
+	public void testExportStreamsDataInChunks() throws Exception
+	{
+		Organization org = new Organization();
+		org.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		org.setActive(true);
+		org.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		Organization createdOrg = organizationDao.create(org);
+
+		// larger than the chunk size of 1 MiB, not a multiple of 3 to test base64 padding
+		byte[] data = new byte[1024 * 1024 * 2 + 512 + 1];
+		new Random(42).nextBytes(data);
+
+		Binary b = new Binary();
+		b.setContentType(CONTENT_TYPE);
+		b.getSecurityContext().setReference("Organization/" + createdOrg.getIdElement().getIdPart());
+		b.setData(data);
+		Binary created = dao.create(b);
+
+		List<String> exported = new ArrayList<>();
+		long count = dao.export(TestOrganizationIdentity.local(createdOrg), null, json ->
+		{
+			StringWriter writer = new StringWriter();
+			json.writeTo(writer);
+			exported.add(writer.toString());
+		});
+
+		assertEquals(1, count);
+		assertFalse(exported.get(0).contains("\n"));
+
+		Binary parsed = fhirContext.newJsonParser().parseResource(Binary.class, exported.get(0));
+		assertEquals(created.getIdElement().getIdPart(), parsed.getIdElement().getIdPart());
+		assertEquals(CONTENT_TYPE, parsed.getContentType());
+		assertEquals(created.getSecurityContext().getReference(), parsed.getSecurityContext().getReference());
+		assertTrue(Arrays.equals(data, parsed.getData()));
+	}
+
 	@Test
 	public void testSearch() throws Exception
 	{
@@ -153,6 +238,49 @@ public class BinaryDaoTest extends AbstractResourceDaoTest<Binary, BinaryDao> im
 		assertNotNull(result);
 	}
 
+	@Test
+	public void testSearchLoadsDataOfAllResults() throws Exception
+	{
+		Organization org = new Organization();
+		org.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		org.setActive(true);
+		org.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+
+		Organization createdOrg = organizationDao.create(org);
+		assertNotNull(createdOrg);
+
+		Binary b1 = createResource();
+		b1.getSecurityContext().setReference("Organization/" + createdOrg.getIdElement().getIdPart());
+		Binary createdB1 = dao.create(b1);
+		assertNotNull(createdB1);
+
+		Binary b2 = createResource();
+		b2.getSecurityContext().setReference("Organization/" + createdOrg.getIdElement().getIdPart());
+		Binary createdB2 = dao.create(b2);
+		assertNotNull(createdB2);
+
+		Binary updatedB2 = dao.update(updateResource(createdB2), null);
+		assertNotNull(updatedB2);
+
+		SearchQuery<Binary> query = dao.createSearchQuery(TestOrganizationIdentity.local(org), 1, 10);
+		query.configureParameters(Collections.emptyMap());
+
+		PartialResult<Binary> result = dao.search(query);
+		assertNotNull(result);
+		assertEquals(2, result.getPartialResult().size());
+
+		for (Binary binary : result.getPartialResult())
+		{
+			if (createdB1.getIdElement().getIdPart().equals(binary.getIdElement().getIdPart()))
+				assertTrue(Arrays.equals(DATA1, binary.getData()));
+			else
+			{
+				assertEquals("2", binary.getMeta().getVersionId());
+				assertTrue(Arrays.equals(DATA2, binary.getData()));
+			}
+		}
+	}
+
 	@Test
 	public void testSearchBinaryWithSecurityContext() throws Exception
 	{
@@ -283,6 +411,106 @@ public class BinaryDaoTest extends AbstractResourceDaoTest<Binary, BinaryDao> im
 		assertEquals(createdB.getContentAsBase64(), foundBinary.getContentAsBase64());
 	}
 
+	@Test
+	public void testReadAccessFollowsSecurityContextResource() throws Exception
+	{
+		Organization org = new Organization();
+		org.setActive(true);
+		org.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue("Test_Organization");
+		Organization createdOrg = organizationDao.create(org);
+
+		ResearchStudy rs = new ResearchStudy();
+		new ReadAccessHelperImpl().addOrganization(rs, "Test_Organization");
+		ResearchStudy createdRs = researchStudyDao.create(rs);
+
+		Binary b = createResource();
+		b.setSecurityContext(new Reference(createdRs.getIdElement().toVersionless()));
+		Binary createdB = dao.create(b);
+
+		assertReadAccessEntryCount(4, 1, createdB, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(4, 1, createdB, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+
+		createdOrg.setActive(false);
+		Organization updatedOrg = organizationDao.update(createdOrg);
+
+		assertReadAccessEntryCount(2, 1, createdB, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(2, 0, createdB, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+
+		updatedOrg.setActive(true);
+		organizationDao.update(updatedOrg);
+
+		assertReadAccessEntryCount(4, 1, createdB, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+
+		createdRs.getMeta().setTag(new ArrayList<>());
+		new ReadAccessHelperImpl().addAll(createdRs);
+		ResearchStudy updatedRs = researchStudyDao.update(createdRs);
+
+		assertReadAccessEntryCount(4, 1, updatedRs, READ_ACCESS_TAG_VALUE_ALL);
+		assertReadAccessEntryCount(4, 1, createdB, READ_ACCESS_TAG_VALUE_ALL);
+		assertReadAccessEntryCount(4, 0, createdB, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+
+		researchStudyDao.delete(UUID.fromString(updatedRs.getIdElement().getIdPart()));
+
+		assertReadAccessEntryCount(3, 0, createdB, READ_ACCESS_TAG_VALUE_ALL);
+
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setAutoCommit(false);
+			assertEquals(0, new ReadAccessIndex().check(connection, false));
+		}
+	}
+
+	@Test
+	public void testDeferredReadAccessUpdates() throws Exception
+	{
+		Organization org = new Organization();
+		org.setActive(true);
+		org.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue("Test_Organization");
+		Organization createdOrg = organizationDao.create(org);
+
+		UUID researchStudyId = UUID.randomUUID();
+
+		ResearchStudy rs = new ResearchStudy();
+		new ReadAccessHelperImpl().addOrganization(rs, "Test_Organization");
+
+		// binary created before its security context resource and binary created after
+		Binary b1 = createResource();
+		b1.setSecurityContext(new Reference("ResearchStudy/" + researchStudyId));
+		Binary b2 = createResource();
+		b2.setSecurityContext(new Reference("ResearchStudy/" + researchStudyId));
+
+		Binary createdB1;
+		ResearchStudy createdRs;
+		Binary createdB2;
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			DeferredReadAccessUpdates readAccessUpdates = new ReadAccessDaoJdbc(defaultDataSource)
+					.createDeferredUpdates();
+
+			createdB1 = dao.createWithTransactionAndId(connection, b1, UUID.randomUUID(), readAccessUpdates);
+			createdRs = researchStudyDao.createWithTransactionAndId(connection, rs, researchStudyId, readAccessUpdates);
+			createdB2 = dao.createWithTransactionAndId(connection, b2, UUID.randomUUID(), readAccessUpdates);
+
+			assertEquals(3, readAccessUpdates.size());
+			readAccessUpdates.execute(connection);
+			assertTrue(readAccessUpdates.isEmpty());
+
+			connection.commit();
+		}
+
+		assertReadAccessEntryCount(6, 1, createdRs, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+		assertReadAccessEntryCount(6, 1, createdB1, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(6, 1, createdB1, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+		assertReadAccessEntryCount(6, 1, createdB2, READ_ACCESS_TAG_VALUE_LOCAL);
+		assertReadAccessEntryCount(6, 1, createdB2, READ_ACCESS_TAG_VALUE_ORGANIZATION, createdOrg);
+
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setAutoCommit(false);
+			assertEquals(0, new ReadAccessIndex().check(connection, false));
+		}
+	}
+
 	@Override
 	@Test
 	public void testReadAccessTriggerAll() throws Exception
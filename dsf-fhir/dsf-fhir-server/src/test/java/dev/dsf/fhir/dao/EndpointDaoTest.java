@@ -5,13 +5,21 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.hl7.fhir.r4.model.Endpoint;
 import org.hl7.fhir.r4.model.Endpoint.EndpointStatus;
+import org.hl7.fhir.r4.model.Organization;
 import org.junit.Test;
 
 import dev.dsf.fhir.dao.jdbc.EndpointDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.search.SearchQuery;
 
 public class EndpointDaoTest extends AbstractResourceDaoTest<Endpoint, EndpointDao>
 		implements ReadAccessDaoTest<Endpoint>
@@ -97,6 +105,102 @@ public class EndpointDaoTest extends AbstractResourceDaoTest<Endpoint, EndpointD
 		assertFalse(dao.existsActiveNotDeletedByAddress(address));
 	}
 
+	@Test
+	public void testSearchByOrganizationWithIncludeAndRevInclude() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+
+		Organization org = new Organization();
+		org.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		org.setActive(true);
+		org.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		Organization createdOrg = organizationDao.create(org);
+		String orgId = createdOrg.getIdElement().getIdPart();
+
+		Endpoint e = new Endpoint();
+		e.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		e.setStatus(EndpointStatus.ACTIVE);
+		e.setAddress("http://test/fhir");
+		e.getManagingOrganization().setReference("Organization/" + orgId);
+		Endpoint createdEndpoint = dao.create(e);
+
+		SearchQuery<Endpoint> query = dao.createSearchQuery(TestOrganizationIdentity.local(createdOrg), 1, 10);
+		query.configureParameters(
+				Map.of("organization", List.of(orgId), "_include", List.of("Endpoint:organization:Organization")));
+		PartialResult<Endpoint> result = dao.search(query);
+		assertEquals(1, result.getPartialResult().size());
+		assertEquals(createdEndpoint.getIdElement().getIdPart(),
+				result.getPartialResult().get(0).getIdElement().getIdPart());
+		assertEquals(1, result.getIncludes().size());
+		assertEquals(orgId, result.getIncludes().get(0).getIdElement().getIdPart());
+
+		SearchQuery<Organization> revQuery = organizationDao
+				.createSearchQuery(TestOrganizationIdentity.local(createdOrg), 1, 10);
+		revQuery.configureParameters(Map.of("_revinclude", List.of("Endpoint:organization")));
+		PartialResult<Organization> revResult = organizationDao.search(revQuery);
+		assertEquals(1, revResult.getIncludes().size());
+		assertEquals(createdEndpoint.getIdElement().getIdPart(),
+				revResult.getIncludes().get(0).getIdElement().getIdPart());
+
+		dao.delete(UUID.fromString(createdEndpoint.getIdElement().getIdPart()));
+
+		SearchQuery<Endpoint> queryAfterDelete = dao.createSearchQuery(TestOrganizationIdentity.local(createdOrg), 1,
+				10);
+		queryAfterDelete.configureParameters(Map.of("organization", List.of(orgId)));
+		assertTrue(dao.search(queryAfterDelete).getPartialResult().isEmpty());
+	}
+
+	private Organization createOrganization(OrganizationDao organizationDao, String identifier, boolean active)
+			throws Exception
+	{
+		Organization org = new Organization();
+		org.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		org.setActive(active);
+		org.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue(identifier);
+		return organizationDao.create(org);
+	}
+
+	private Endpoint createEndpoint(Organization managingOrganization) throws Exception
+	{
+		Endpoint e = new Endpoint();
+		e.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		e.setStatus(EndpointStatus.ACTIVE);
+		e.setAddress("http://test/fhir");
+		e.getManagingOrganization().setReference("Organization/" + managingOrganization.getIdElement().getIdPart());
+		return dao.create(e);
+	}
+
+	@Test
+	public void testSearchRevIncludeForAllMatchesOfPage() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+
+		Organization orgA = createOrganization(organizationDao, "Test_Organization_A", true);
+		Organization orgB = createOrganization(organizationDao, "Test_Organization_B", true);
+		Organization orgC = createOrganization(organizationDao, "Test_Organization_C", false);
+
+		Endpoint e1 = createEndpoint(orgA);
+		Endpoint e2 = createEndpoint(orgA);
+		Endpoint e3 = createEndpoint(orgB);
+		createEndpoint(orgC);
+
+		SearchQuery<Organization> query = organizationDao.createSearchQuery(TestOrganizationIdentity.local(orgA), 1,
+				10);
+		query.configureParameters(Map.of("active", List.of("true"), "_revinclude", List.of("Endpoint:organization")));
+		PartialResult<Organization> result = organizationDao.search(query);
+
+		assertEquals(2, result.getPartialResult().size());
+
+		// each endpoint of a matched organization once, endpoint of not matched orgC not included
+		assertEquals(3, result.getIncludes().size());
+		assertEquals(
+				Set.of(e1.getIdElement().getIdPart(), e2.getIdElement().getIdPart(), e3.getIdElement().getIdPart()),
+				result.getIncludes().stream().map(r -> r.getIdElement().getIdPart()).collect(Collectors.toSet()));
+		assertTrue(result.getIncludes().stream().allMatch(r -> r instanceof Endpoint));
+	}
+
 	@Override
 	@Test
 	public void testReadAccessTriggerAll() throws Exception
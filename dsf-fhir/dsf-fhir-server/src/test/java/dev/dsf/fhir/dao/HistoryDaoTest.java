@@ -2,8 +2,15 @@ package dev.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import org.apache.commons.dbcp2.BasicDataSource;
@@ -23,10 +30,12 @@ import dev.dsf.fhir.dao.jdbc.HistroyDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
 import dev.dsf.fhir.history.AtParameter;
 import dev.dsf.fhir.history.History;
+import dev.dsf.fhir.history.HistoryEntry;
 import dev.dsf.fhir.history.SinceParameter;
 import dev.dsf.fhir.history.filter.HistoryIdentityFilterFactory;
 import dev.dsf.fhir.history.filter.HistoryIdentityFilterFactoryImpl;
 import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PageCursor;
 
 public class HistoryDaoTest extends AbstractDbTest
 {
@@ -125,4 +134,126 @@ public class HistoryDaoTest extends AbstractDbTest
 		assertNotNull(history.getEntries());
 		assertEquals(1, history.getEntries().size());
 	}
+
+	@Test
+	public void testReadHistoryOrganizationWithIdUpdatedAndDeleted() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.getMeta().addTag("http://dsf.dev/fhir/CodeSystem/read-access-tag", "ALL", null);
+		organization.setName("Test Organization");
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("test.org");
+		Organization createdOrganization = orgDao.create(organization);
+
+		createdOrganization.setName("Test Organization Updated");
+		Organization updatedOrganization = orgDao.update(createdOrganization, 1L);
+
+		UUID id = UUID.fromString(updatedOrganization.getIdElement().getIdPart());
+		orgDao.delete(id);
+
+		// no read access entries for the version of the DELETE entry, not visible with identity filter
+		History filtered = dao.readHistory(
+				filterFactory.getIdentityFilter(TestOrganizationIdentity.local(createdOrganization),
+						Organization.class),
+				new PageAndCount(1, 1000), Collections.singletonList(new AtParameter()), new SinceParameter(),
+				Organization.class, id);
+
+		assertNotNull(filtered);
+		assertEquals(2, filtered.getTotal());
+		assertEquals(2, filtered.getEntries().size());
+		assertEquals("POST", filtered.getEntries().get(0).getMethod());
+		assertEquals("PUT", filtered.getEntries().get(1).getMethod());
+
+		assertEquals("1", filtered.getEntries().get(0).getVersion());
+		assertNotNull(filtered.getEntries().get(0).getResource());
+		assertEquals("2", filtered.getEntries().get(1).getVersion());
+		assertEquals("Test Organization Updated",
+				((Organization) filtered.getEntries().get(1).getResource()).getName());
+
+		List<String> entries = new ArrayList<>();
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"SELECT version, method, resource FROM history WHERE id = ? ORDER BY version"))
+		{
+			statement.setObject(1, id);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+					entries.add(result.getLong(1) + " " + result.getString(2) + " "
+							+ (result.getString(3) == null ? "without resource" : "with resource"));
+			}
+		}
+
+		assertEquals(List.of("1 POST with resource", "2 PUT with resource", "3 DELETE without resource"), entries);
+	}
+
+	@Test
+	public void testReadHistoryOrganizationWithIdUsingCursor() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.getMeta().addTag("http://dsf.dev/fhir/CodeSystem/read-access-tag", "ALL", null);
+		organization.setName("Test Organization");
+		Organization createdOrganization = orgDao.create(organization);
+
+		createdOrganization.setName("Test Organization Updated");
+		Organization updatedOrganization = orgDao.update(createdOrganization, 1L);
+
+		updatedOrganization.setName("Test Organization Updated Again");
+		orgDao.update(updatedOrganization, 2L);
+
+		UUID id = UUID.fromString(updatedOrganization.getIdElement().getIdPart());
+
+		History firstPage = dao.readHistory(
+				filterFactory.getIdentityFilter(TestOrganizationIdentity.local(createdOrganization),
+						Organization.class),
+				new PageAndCount(1, 2), Collections.singletonList(new AtParameter()), new SinceParameter(),
+				Organization.class, id);
+
+		assertNotNull(firstPage);
+		assertEquals(3, firstPage.getTotal());
+		assertEquals(2, firstPage.getEntries().size());
+		assertEquals("1", firstPage.getEntries().get(0).getVersion());
+		assertEquals("2", firstPage.getEntries().get(1).getVersion());
+		assertNotNull(firstPage.getNextCursor());
+
+		PageCursor cursor = PageCursor.fromToken(firstPage.getNextCursor().toToken());
+		History secondPage = dao.readHistory(
+				filterFactory.getIdentityFilter(TestOrganizationIdentity.local(createdOrganization),
+						Organization.class),
+				new PageAndCount(2, 2, cursor), Collections.singletonList(new AtParameter()), new SinceParameter(),
+				Organization.class, id);
+
+		assertNotNull(secondPage);
+		assertEquals(3, secondPage.getTotal());
+		assertEquals(1, secondPage.getEntries().size());
+		assertEquals("PUT", secondPage.getEntries().get(0).getMethod());
+		assertEquals("3", secondPage.getEntries().get(0).getVersion());
+		assertNull(secondPage.getNextCursor());
+	}
+
+	@Test
+	public void testReadHistoryStreamed() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.getMeta().addTag("http://dsf.dev/fhir/CodeSystem/read-access-tag", "ALL", null);
+		organization.setName("Test Organization");
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("test.org");
+		Organization createdOrganization = orgDao.create(organization);
+
+		createdOrganization.setName("Test Organization Updated");
+		orgDao.update(createdOrganization);
+
+		List<HistoryEntry> entries = new ArrayList<>();
+		History history = dao.readHistory(
+				filterFactory.getIdentityFilter(TestOrganizationIdentity.local(createdOrganization),
+						Organization.class),
+				new PageAndCount(1, 1), Collections.singletonList(new AtParameter()), new SinceParameter(),
+				Organization.class, UUID.fromString(createdOrganization.getIdElement().getIdPart()), entries::add);
+
+		assertNotNull(history);
+		assertEquals(2, history.getTotal());
+		assertTrue(history.getEntries().isEmpty());
+		assertEquals(1, entries.size());
+		assertEquals("1", entries.get(0).getVersion());
+		assertNotNull(history.getNextCursor());
+	}
 }
@@ -0,0 +1,236 @@
+package dev.dsf.fhir.dao;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import de.hsheilbronn.mi.utils.test.PostgreSqlContainerLiquibaseTemplateClassRule;
+import de.hsheilbronn.mi.utils.test.PostgresTemplateRule;
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.search.SearchQueryIdentityFilter;
+import dev.dsf.fhir.search.filter.OrganizationIdentityFilter;
+import dev.dsf.fhir.search.filter.ResearchStudyIdentityFilter;
+import dev.dsf.fhir.search.filter.TaskIdentityFilter;
+
+/**
+ * Benchmarks the identity filters on generated data, logs query plans and execution times of the count queries and
+ * checks the plan shapes the filters are designed for. Data set size can be configured via the system properties
+ * <code>dev.dsf.fhir.dao.benchmark.organizations</code>, <code>dev.dsf.fhir.dao.benchmark.research.studies</code> and
+ * <code>dev.dsf.fhir.dao.benchmark.tasks</code>.
+ */
+public class IdentityFilterBenchmarkDaoTest extends AbstractDbTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(IdentityFilterBenchmarkDaoTest.class);
+
+	private static final int ORGANIZATIONS = Integer.getInteger("dev.dsf.fhir.dao.benchmark.organizations", 2_000);
+	private static final int RESEARCH_STUDIES = Integer.getInteger("dev.dsf.fhir.dao.benchmark.research.studies",
+			100_000);
+	private static final int TASKS = Integer.getInteger("dev.dsf.fhir.dao.benchmark.tasks", 1_000_000);
+
+	// organization ids are derived from the organization number, generated resources can reference organizations
+	// without a lookup
+	private static final String ORGANIZATION_ID_SQL = "md5('organization' || ?)::uuid";
+
+	private static final String INSERT_ORGANIZATIONS_SQL = "INSERT INTO organizations (organization_id, organization) "
+			+ "SELECT md5('organization' || i)::uuid, jsonb_build_object('resourceType', 'Organization', 'active', true, "
+			+ "'identifier', jsonb_build_array(jsonb_build_object('system', 'http://dsf.dev/sid/organization-identifier', "
+			+ "'value', 'organization' || i || '.test'))) FROM generate_series(1, ?) AS i";
+	private static final String INSERT_ORGANIZATIONS_READ_ACCESS_SQL = "INSERT INTO read_access "
+			+ "(resource_id, resource_version, access_type) SELECT organization_id, version, 'ALL' FROM organizations";
+
+	private static final String INSERT_RESEARCH_STUDIES_SQL = "INSERT INTO research_studies (research_study_id, research_study) "
+			+ "SELECT gen_random_uuid(), jsonb_build_object('resourceType', 'ResearchStudy', 'status', 'active', "
+			+ "'title', 'Study ' || i) FROM generate_series(1, ?) AS i";
+	private static final String INSERT_RESEARCH_STUDIES_READ_ACCESS_SQL = "INSERT INTO read_access "
+			+ "(resource_id, resource_version, access_type, organization_id) "
+			+ "SELECT research_study_id, version, 'ORGANIZATION', md5('organization' || (row_number() OVER () % ? + 1))::uuid "
+			+ "FROM research_studies";
+
+	private static final String INSERT_TASKS_SQL = "INSERT INTO tasks (task_id, task) "
+			+ "SELECT gen_random_uuid(), jsonb_build_object('resourceType', 'Task', 'status', 'completed', "
+			+ "'intent', 'order', 'requester', jsonb_build_object('reference', 'Organization/' || md5('organization' || (i % ? + 1))::uuid), "
+			+ "'restriction', jsonb_build_object('recipient', jsonb_build_array(jsonb_build_object('reference', "
+			+ "'Organization/' || md5('organization' || ((i + 1) % ? + 1))::uuid)))) FROM generate_series(1, ?) AS i";
+
+	@ClassRule
+	public static final PostgreSqlContainerLiquibaseTemplateClassRule liquibaseRule = new PostgreSqlContainerLiquibaseTemplateClassRule(
+			DockerImageName.parse("postgres:15"), ROOT_USER, "fhir", "fhir_template", CHANGE_LOG_FILE,
+			CHANGE_LOG_PARAMETERS, true);
+
+	@Rule
+	public final PostgresTemplateRule templateRule = new PostgresTemplateRule(liquibaseRule);
+
+	private static BasicDataSource defaultDataSource;
+
+	@BeforeClass
+	public static void beforeClass() throws Exception
+	{
+		defaultDataSource = createDefaultDataSource(liquibaseRule.getHost(), liquibaseRule.getMappedPort(5432),
+				liquibaseRule.getDatabaseName());
+		defaultDataSource.start();
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception
+	{
+		if (defaultDataSource != null)
+			defaultDataSource.close();
+	}
+
+	@Test
+	public void testIdentityFilters() throws Exception
+	{
+		createData();
+
+		Organization organization = organization(ORGANIZATIONS / 2);
+
+		for (Identity identity : new Identity[] { TestOrganizationIdentity.local(organization),
+				TestOrganizationIdentity.remote(organization) })
+		{
+			String identityType = identity.isLocalIdentity() ? "local" : "remote";
+
+			String organizationPlan = benchmark("Organization " + identityType, "current_organizations",
+					new OrganizationIdentityFilter(identity));
+			assertSemiJoin(organizationPlan);
+
+			String researchStudyPlan = benchmark("ResearchStudy " + identityType, "current_research_studies",
+					new ResearchStudyIdentityFilter(identity));
+			assertSemiJoin(researchStudyPlan);
+
+			String taskPlan = benchmark("Task " + identityType, "current_tasks", new TaskIdentityFilter(identity));
+			assertTrue(taskPlan, taskPlan.contains("Bitmap Index Scan on task_latest_index"));
+		}
+
+		// previous count(*) > 0 form of the read_access filter for comparison
+		benchmark("Organization remote (count)", "current_organizations",
+				countFilter("current_organizations", "organization_id", organization));
+		benchmark("ResearchStudy remote (count)", "current_research_studies",
+				countFilter("current_research_studies", "research_study_id", organization));
+	}
+
+	private void assertSemiJoin(String plan)
+	{
+		assertTrue(plan, plan.contains("Semi Join"));
+		assertFalse(plan, plan.contains("SubPlan"));
+	}
+
+	private Organization organization(int number) throws SQLException
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT " + ORGANIZATION_ID_SQL))
+		{
+			statement.setInt(1, number);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				result.next();
+				UUID id = (UUID) result.getObject(1);
+
+				return (Organization) new Organization().setActive(true)
+						.setIdElement(new IdType(ResourceType.Organization.name(), id.toString(), "1"));
+			}
+		}
+	}
+
+	private void createData() throws SQLException
+	{
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+
+			long start = System.currentTimeMillis();
+
+			execute(connection, INSERT_ORGANIZATIONS_SQL, ORGANIZATIONS);
+			execute(connection, INSERT_ORGANIZATIONS_READ_ACCESS_SQL);
+			execute(connection, INSERT_RESEARCH_STUDIES_SQL, RESEARCH_STUDIES);
+			execute(connection, INSERT_RESEARCH_STUDIES_READ_ACCESS_SQL, ORGANIZATIONS);
+			execute(connection, INSERT_TASKS_SQL, ORGANIZATIONS, ORGANIZATIONS, TASKS);
+
+			logger.info("Created {} organizations, {} research studies and {} tasks in {} ms", ORGANIZATIONS,
+					RESEARCH_STUDIES, TASKS, System.currentTimeMillis() - start);
+		}
+	}
+
+	private void execute(Connection connection, String sql, int... parameters) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(sql))
+		{
+			for (int i = 0; i < parameters.length; i++)
+				statement.setInt(i + 1, parameters[i]);
+
+			statement.execute();
+		}
+	}
+
+	private String benchmark(String name, String resourceTable, SearchQueryIdentityFilter filter) throws SQLException
+	{
+		String query = "SELECT count(*) FROM " + resourceTable + " WHERE " + filter.getFilterQuery();
+
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + query))
+		{
+			for (int i = 1; i <= filter.getSqlParameterCount(); i++)
+				filter.modifyStatement(i, i, statement);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				StringBuilder plan = new StringBuilder();
+				while (result.next())
+					plan.append(result.getString(1)).append('\n');
+
+				String executionTime = plan.toString().lines().filter(l -> l.startsWith("Execution Time"))
+						.collect(Collectors.joining());
+				logger.info("{}: {}\n{}\n{}", name, executionTime, query, plan);
+
+				return plan.toString();
+			}
+		}
+	}
+
+	private SearchQueryIdentityFilter countFilter(String resourceTable, String resourceIdColumn,
+			Organization organization)
+	{
+		return new SearchQueryIdentityFilter()
+		{
+			@Override
+			public String getFilterQuery()
+			{
+				return "(SELECT count(*) FROM read_access WHERE read_access.resource_id = " + resourceTable + "."
+						+ resourceIdColumn + " AND read_access.resource_version = " + resourceTable + ".version"
+						+ " AND (read_access.organization_id = ?::uuid OR read_access.access_type = 'ALL')) > 0";
+			}
+
+			@Override
+			public int getSqlParameterCount()
+			{
+				return 1;
+			}
+
+			@Override
+			public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement)
+					throws SQLException
+			{
+				statement.setString(parameterIndex, organization.getIdElement().getIdPart());
+			}
+		};
+	}
+}
@@ -0,0 +1,194 @@
+package dev.dsf.fhir.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import ca.uhn.fhir.context.FhirContext;
+import de.hsheilbronn.mi.utils.test.PostgreSqlContainerLiquibaseTemplateClassRule;
+import de.hsheilbronn.mi.utils.test.PostgresTemplateRule;
+import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.TaskDaoJdbc;
+import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.search.SearchQuery;
+
+/**
+ * Benchmarks include resolution by one query per page against the previous per row <code>jsonb_agg</code> column with
+ * all include resources parsed for every matched row, both on the same data. Data set size can be configured via the
+ * system properties <code>dev.dsf.fhir.dao.benchmark.include.organizations</code>,
+ * <code>dev.dsf.fhir.dao.benchmark.include.tasks</code> and <code>dev.dsf.fhir.dao.benchmark.include.iterations</code>.
+ */
+public class IncludeBenchmarkDaoTest extends AbstractDbTest
+{
+	private static final Logger logger = LoggerFactory.getLogger(IncludeBenchmarkDaoTest.class);
+
+	private static final int ORGANIZATIONS = Integer.getInteger("dev.dsf.fhir.dao.benchmark.include.organizations", 20);
+	private static final int TASKS = Integer.getInteger("dev.dsf.fhir.dao.benchmark.include.tasks", 1_000);
+	private static final int ITERATIONS = Integer.getInteger("dev.dsf.fhir.dao.benchmark.include.iterations", 10);
+
+	private static final String PER_ROW_INCLUDE_SQL = "SELECT task, "
+			+ "(SELECT jsonb_agg(organization) FROM current_organizations WHERE organization_id IN "
+			+ "(SELECT target_id FROM resource_references WHERE source_id = task_id AND path = 'Task.requester')) "
+			+ "FROM current_tasks WHERE task_id = ANY (?)";
+
+	@ClassRule
+	public static final PostgreSqlContainerLiquibaseTemplateClassRule liquibaseRule = new PostgreSqlContainerLiquibaseTemplateClassRule(
+			DockerImageName.parse("postgres:15"), ROOT_USER, "fhir", "fhir_template", CHANGE_LOG_FILE,
+			CHANGE_LOG_PARAMETERS, true);
+
+	@Rule
+	public final PostgresTemplateRule templateRule = new PostgresTemplateRule(liquibaseRule);
+
+	private static BasicDataSource defaultDataSource;
+	private static BasicDataSource permanentDeleteDataSource;
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+
+	@BeforeClass
+	public static void beforeClass() throws Exception
+	{
+		defaultDataSource = createDefaultDataSource(liquibaseRule.getHost(), liquibaseRule.getMappedPort(5432),
+				liquibaseRule.getDatabaseName());
+		defaultDataSource.start();
+
+		permanentDeleteDataSource = createPermanentDeleteDataSource(liquibaseRule.getHost(),
+				liquibaseRule.getMappedPort(5432), liquibaseRule.getDatabaseName());
+		permanentDeleteDataSource.start();
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception
+	{
+		if (defaultDataSource != null)
+			defaultDataSource.close();
+
+		if (permanentDeleteDataSource != null)
+			permanentDeleteDataSource.close();
+	}
+
+	@Test
+	public void testIncludeBatchVersusPerRow() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+		TaskDao taskDao = new TaskDaoJdbc(defaultDataSource, permanentDeleteDataSource, fhirContext);
+
+		List<Organization> organizations = new ArrayList<>();
+		for (int i = 0; i < ORGANIZATIONS; i++)
+		{
+			Organization organization = new Organization();
+			organization.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+			organization.setActive(true);
+			organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier")
+					.setValue("organization" + i + ".test");
+			organizations.add(organizationDao.create(organization));
+		}
+
+		Organization recipient = organizations.get(0);
+		List<String> taskIds = new ArrayList<>();
+		for (int i = 0; i < TASKS; i++)
+		{
+			Task task = new Task().setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+			task.getRequester()
+					.setReference("Organization/" + organizations.get(i % ORGANIZATIONS).getIdElement().getIdPart());
+			task.getRestriction().addRecipient().setReference("Organization/" + recipient.getIdElement().getIdPart());
+			taskIds.add(taskDao.create(task).getIdElement().getIdPart());
+		}
+
+		long batchNanos = 0, perRowNanos = 0;
+		for (int i = 0; i < ITERATIONS + 1; i++)
+		{
+			long start = System.nanoTime();
+			SearchQuery<Task> query = taskDao.createSearchQuery(TestOrganizationIdentity.local(recipient), 1, TASKS);
+			query.configureParameters(Map.of("_include", List.of("Task:requester:Organization")));
+			PartialResult<Task> batch = taskDao.search(query);
+			long batchTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			List<Resource> perRow = searchIncludeRequesterPerRow(taskIds);
+			long perRowTime = System.nanoTime() - start;
+
+			// same matches and same distinct includes, per row path parses one include for every matched task
+			assertEquals(TASKS, batch.getPartialResult().size());
+			assertEquals(TASKS, perRow.size());
+			Set<String> batchIncludeIds = ids(batch.getIncludes());
+			assertEquals(batch.getIncludes().size(), batchIncludeIds.size());
+			assertEquals(ids(perRow), batchIncludeIds);
+			assertEquals(ids(organizations), batchIncludeIds);
+
+			// first iteration warm up
+			if (i > 0)
+			{
+				batchNanos += batchTime;
+				perRowNanos += perRowTime;
+			}
+		}
+
+		logger.info(
+				"Include of {} Organizations by {} Tasks, average of {} iterations: batch {} ms, per row jsonb_agg {} ms",
+				ORGANIZATIONS, TASKS, ITERATIONS, batchNanos / ITERATIONS / 1_000_000d,
+				perRowNanos / ITERATIONS / 1_000_000d);
+	}
+
+	private Set<String> ids(List<? extends Resource> resources)
+	{
+		return resources.stream().map(r -> r.getIdElement().getIdPart()).collect(Collectors.toSet());
+	}
+
+	/**
+	 * Include resolution as executed before the include resources were loaded by a separate query per page, a
+	 * <code>jsonb_agg</code> column per matched row with all include resources parsed for every row.
+	 */
+	private List<Resource> searchIncludeRequesterPerRow(List<String> taskIds) throws Exception
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(PER_ROW_INCLUDE_SQL))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", taskIds.toArray()));
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<Resource> includes = new ArrayList<>();
+				while (result.next())
+				{
+					fhirContext.newJsonParser().parseResource(Task.class, result.getString(1));
+
+					String json = result.getString(2);
+					if (json == null)
+						continue;
+
+					for (JsonElement element : (JsonArray) JsonParser.parseString(json))
+						includes.add((Resource) fhirContext.newJsonParser().parseResource(element.toString()));
+				}
+
+				return includes;
+			}
+		}
+	}
+}
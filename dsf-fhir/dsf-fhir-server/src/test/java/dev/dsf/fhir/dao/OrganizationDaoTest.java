@@ -1,17 +1,30 @@
 package dev.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.dbcp2.BasicDataSource;
 import org.hl7.fhir.r4.model.Binary;
 import org.hl7.fhir.r4.model.CodeSystem;
 import org.hl7.fhir.r4.model.Organization;
@@ -21,9 +34,17 @@ import org.postgresql.util.PGobject;
 
 import dev.dsf.fhir.authorization.read.ReadAccessHelper;
 import dev.dsf.fhir.authorization.read.ReadAccessHelperImpl;
+import dev.dsf.fhir.dao.ResourceDao.ExportJson;
+import dev.dsf.fhir.dao.ResourceDao.SearchMatches;
+import dev.dsf.fhir.dao.cache.ResourceCache;
+import dev.dsf.fhir.dao.exception.ResourceDeletedException;
 import dev.dsf.fhir.dao.jdbc.BinaryDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.CodeSystemDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import dev.dsf.fhir.history.SinceParameter;
+import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.search.SearchQuery;
+import dev.dsf.fhir.search.SearchQueryParameterError;
 
 public class OrganizationDaoTest extends AbstractResourceDaoTest<Organization, OrganizationDao>
 		implements ReadAccessDaoTest<Organization>
@@ -63,6 +84,157 @@ public class OrganizationDaoTest extends AbstractResourceDaoTest<Organization, O
 		assertEquals(active, resource.getActive());
 	}
 
+	@Test
+	public void testReadWithResourceCache() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 10);
+		((OrganizationDaoJdbc) dao).setResourceCache(cache);
+
+		Organization created = dao.create(createResource());
+		UUID uuid = UUID.fromString(created.getIdElement().getIdPart());
+
+		Optional<Organization> read1 = dao.read(uuid);
+		assertTrue(read1.isPresent());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		Optional<Organization> read2 = dao.read(uuid);
+		assertTrue(read2.isPresent());
+		assertNotSame(read1.get(), read2.get());
+		assertTrue(read1.get().equalsDeep(read2.get()));
+		assertEquals(1, cache.getHitCount());
+
+		read2.get().setName("modified");
+		assertEquals(name, dao.read(uuid).get().getName());
+		assertEquals(2, cache.getHitCount());
+
+		Organization updated = dao.update(updateResource(read1.get()));
+		assertEquals("2", updated.getMeta().getVersionId());
+		Optional<Organization> read3 = dao.read(uuid);
+		assertTrue(read3.isPresent());
+		assertEquals("2", read3.get().getMeta().getVersionId());
+		assertEquals(2, cache.getHitCount());
+
+		Optional<Organization> version1 = dao.readVersion(uuid, 1);
+		assertTrue(version1.isPresent());
+		assertEquals("1", version1.get().getMeta().getVersionId());
+
+		dao.delete(uuid);
+		assertEquals(0, cache.getSize());
+		try
+		{
+			dao.read(uuid);
+			fail();
+		}
+		catch (ResourceDeletedException e)
+		{
+		}
+	}
+
+	@Test
+	public void testResourceCacheNotInvalidatedBeforeCommit() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 10);
+		((OrganizationDaoJdbc) dao).setResourceCache(cache);
+
+		Organization created = dao.create(createResource());
+		UUID uuid = UUID.fromString(created.getIdElement().getIdPart());
+		assertEquals("1", dao.read(uuid).get().getMeta().getVersionId());
+
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			dao.updateWithTransaction(connection, updateResource(created), null);
+
+			// not committed, concurrent reads see and cache version 1
+			assertEquals("1", dao.read(uuid).get().getMeta().getVersionId());
+			assertEquals(1, cache.getSize());
+
+			connection.commit();
+		}
+
+		dao.invalidateCache(uuid);
+		assertEquals(0, cache.getSize());
+		assertEquals("2", dao.read(uuid).get().getMeta().getVersionId());
+	}
+
+	private static String toString(ExportJson json) throws IOException
+	{
+		StringWriter writer = new StringWriter();
+		json.writeTo(writer);
+		return writer.toString();
+	}
+
+	private Organization createResourceWithReadAccessAll()
+	{
+		Organization organization = createResource();
+		organization.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		return organization;
+	}
+
+	@Test
+	public void testExport() throws Exception
+	{
+		Organization created1 = dao.create(createResourceWithReadAccessAll());
+		Organization created2 = dao.create(createResourceWithReadAccessAll());
+		Organization deleted = dao.create(createResourceWithReadAccessAll());
+		dao.delete(UUID.fromString(deleted.getIdElement().getIdPart()));
+
+		List<String> exported = new ArrayList<>();
+		long count = dao.export(TestOrganizationIdentity.local(created1), null, json -> exported.add(toString(json)));
+
+		assertEquals(2, count);
+		assertEquals(2, exported.size());
+		assertTrue(exported.stream().anyMatch(json -> json.contains(created1.getIdElement().getIdPart())));
+		assertTrue(exported.stream().anyMatch(json -> json.contains(created2.getIdElement().getIdPart())));
+		assertFalse(exported.stream().anyMatch(json -> json.contains("\n")));
+
+		SinceParameter since = new SinceParameter();
+		List<SearchQueryParameterError> errors = new ArrayList<>();
+		since.configure(errors, SinceParameter.PARAMETER_NAME, "2100-01-01T00:00:00Z");
+		assertTrue(errors.isEmpty());
+
+		assertEquals(0,
+				dao.export(TestOrganizationIdentity.local(created1), since, json -> exported.add(toString(json))));
+	}
+
+	@Test
+	public void testSearchByIdentifierAndTypeUsingTokenIndex() throws Exception
+	{
+		Organization org = new Organization();
+		org.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		org.setActive(true);
+		org.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		org.addType().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/organization-type").setCode("prov");
+		Organization created = dao.create(org);
+
+		assertEquals(1, search(created, "identifier", "http://dsf.dev/sid/organization-identifier|Test_Organization"));
+		assertEquals(1, search(created, "identifier", "Test_Organization"));
+		assertEquals(0, search(created, "identifier", "|Test_Organization"));
+		assertEquals(0, search(created, "identifier:not", "Test_Organization"));
+		assertEquals(1, search(created, "type", "http://terminology.hl7.org/CodeSystem/organization-type|"));
+		assertEquals(1, search(created, "type", "prov"));
+
+		created.getIdentifierFirstRep().setValue("Other_Organization");
+		Organization updated = dao.update(created);
+
+		assertEquals(0, search(updated, "identifier", "Test_Organization"));
+		assertEquals(1, search(updated, "identifier", "Other_Organization"));
+		assertTrue(dao.readActiveNotDeletedByIdentifier("Test_Organization").isEmpty());
+		assertTrue(dao.readActiveNotDeletedByIdentifier("Other_Organization").isPresent());
+
+		dao.delete(UUID.fromString(updated.getIdElement().getIdPart()));
+
+		assertEquals(0, search(updated, "identifier", "Other_Organization"));
+	}
+
+	private int search(Organization identityOrganization, String parameterName, String value) throws Exception
+	{
+		SearchQuery<Organization> query = dao.createSearchQuery(TestOrganizationIdentity.local(identityOrganization), 1,
+				10);
+		query.configureParameters(Map.of(parameterName, List.of(value)));
+		return dao.search(query).getPartialResult().size();
+	}
+
 	@Test
 	public void testReadActiveNotDeletedByThumbprint() throws Exception
 	{
@@ -445,4 +617,244 @@ public class OrganizationDaoTest extends AbstractResourceDaoTest<Organization, O
 
 		dao.update(cretedOrg);
 	}
+
+	@Test
+	public void testSearchWithCursor() throws Exception
+	{
+		List<String> createdIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			createdIds.add(dao.create(createResource()).getIdElement().getIdPart());
+		Collections.sort(createdIds);
+
+		SearchQuery<Organization> firstQuery = dao.createSearchQueryWithoutUserFilter(1, 2);
+		firstQuery.configureParameters(Collections.emptyMap());
+		PartialResult<Organization> firstPage = dao.search(firstQuery);
+
+		assertEquals(3, firstPage.getTotal());
+		assertEquals(2, firstPage.getPartialResult().size());
+		assertNotNull(firstPage.getNextCursor());
+
+		SearchQuery<Organization> secondQuery = dao.createSearchQueryWithoutUserFilter(2, 2);
+		secondQuery.configureParameters(
+				Map.of(SearchQuery.PARAMETER_CURSOR, List.of(firstPage.getNextCursor().toToken())));
+		assertTrue(secondQuery.getUnsupportedQueryParameters().isEmpty());
+		PartialResult<Organization> secondPage = dao.search(secondQuery);
+
+		assertEquals(3, secondPage.getTotal());
+		assertEquals(1, secondPage.getPartialResult().size());
+		assertNull(secondPage.getNextCursor());
+
+		List<String> foundIds = Stream
+				.concat(firstPage.getPartialResult().stream(), secondPage.getPartialResult().stream())
+				.map(o -> o.getIdElement().getIdPart()).toList();
+		assertEquals(createdIds, foundIds);
+	}
+
+	@Test
+	public void testSearchWithLastUpdatedSortAndCursor() throws Exception
+	{
+		List<String> createdIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			createdIds.add(dao.create(createResource()).getIdElement().getIdPart());
+
+		SearchQuery<Organization> firstQuery = dao.createSearchQueryWithoutUserFilter(1, 2);
+		firstQuery.configureParameters(Map.of(SearchQuery.PARAMETER_SORT, List.of("_lastUpdated")));
+		PartialResult<Organization> firstPage = dao.search(firstQuery);
+
+		assertEquals(2, firstPage.getPartialResult().size());
+		assertNotNull(firstPage.getNextCursor());
+		assertEquals(2, firstPage.getNextCursor().size());
+
+		SearchQuery<Organization> secondQuery = dao.createSearchQueryWithoutUserFilter(2, 2);
+		secondQuery.configureParameters(Map.of(SearchQuery.PARAMETER_SORT, List.of("_lastUpdated"),
+				SearchQuery.PARAMETER_CURSOR, List.of(firstPage.getNextCursor().toToken())));
+		assertTrue(secondQuery.getUnsupportedQueryParameters().isEmpty());
+		PartialResult<Organization> secondPage = dao.search(secondQuery);
+
+		assertEquals(1, secondPage.getPartialResult().size());
+		assertNull(secondPage.getNextCursor());
+
+		List<String> foundIds = Stream
+				.concat(firstPage.getPartialResult().stream(), secondPage.getPartialResult().stream())
+				.map(o -> o.getIdElement().getIdPart()).toList();
+		assertEquals(createdIds, foundIds);
+	}
+
+	private BasicDataSource createSearchStreamingDataSource()
+	{
+		BasicDataSource dataSource = createDefaultDataSource(liquibaseRule.getHost(), liquibaseRule.getMappedPort(5432),
+				liquibaseRule.getDatabaseName());
+		dataSource.setMaxTotal(1);
+		dataSource.setMaxWait(Duration.ZERO);
+
+		return dataSource;
+	}
+
+	private SearchQuery<Organization> createStreamedSearchQuery()
+	{
+		SearchQuery<Organization> query = dao.createSearchQueryWithoutUserFilter(1, 2);
+		query.configureParameters(Map.of(SearchQuery.PARAMETER_SORT, List.of("_lastUpdated")));
+		return query;
+	}
+
+	@Test
+	public void testSearchStreamed() throws Exception
+	{
+		List<String> createdIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			createdIds.add(dao.create(createResource()).getIdElement().getIdPart());
+
+		assertFalse(dao.isSearchStreamingSupported(createStreamedSearchQuery()));
+
+		try (BasicDataSource streamingDataSource = createSearchStreamingDataSource())
+		{
+			dao.setSearchStreamingDataSource(streamingDataSource);
+
+			SearchQuery<Organization> query = createStreamedSearchQuery();
+			assertTrue(dao.isSearchStreamingSupported(query));
+
+			List<String> streamedIds = new ArrayList<>();
+			PartialResult<Organization> result;
+			try (SearchMatches<Organization> matches = dao.openSearch(query).get())
+			{
+				result = matches.read(match -> streamedIds.add(match.getIdElement().getIdPart()));
+			}
+
+			assertEquals(3, result.getTotal());
+			assertTrue(result.getPartialResult().isEmpty());
+			assertEquals(createdIds.subList(0, 2), streamedIds);
+			assertNotNull(result.getNextCursor());
+			assertEquals(0, streamingDataSource.getNumActive());
+			assertEquals(1, streamingDataSource.getNumIdle());
+		}
+	}
+
+	@Test
+	public void testSearchStreamedConnectionsInUse() throws Exception
+	{
+		dao.create(createResource());
+
+		try (BasicDataSource streamingDataSource = createSearchStreamingDataSource())
+		{
+			dao.setSearchStreamingDataSource(streamingDataSource);
+
+			try (SearchMatches<Organization> matches = dao.openSearch(createStreamedSearchQuery()).get())
+			{
+				// not waiting for the connection held by the first search
+				assertTrue(dao.openSearch(createStreamedSearchQuery()).isEmpty());
+			}
+
+			Optional<SearchMatches<Organization>> matches = dao.openSearch(createStreamedSearchQuery());
+			assertTrue(matches.isPresent());
+			matches.get().close();
+		}
+	}
+
+	@Test
+	public void testSearchStreamedConsumerFailure() throws Exception
+	{
+		for (int i = 0; i < 3; i++)
+			dao.create(createResource());
+
+		try (BasicDataSource streamingDataSource = createSearchStreamingDataSource())
+		{
+			dao.setSearchStreamingDataSource(streamingDataSource);
+
+			SearchMatches<Organization> matches = dao.openSearch(createStreamedSearchQuery()).get();
+			try
+			{
+				matches.read(match ->
+				{
+					throw new IOException("client disconnected");
+				});
+				fail("IOException expected");
+			}
+			catch (IOException e)
+			{
+				assertEquals("client disconnected", e.getMessage());
+			}
+			finally
+			{
+				matches.close();
+			}
+
+			// aborted connection not returned to the pool
+			assertEquals(0, streamingDataSource.getNumActive());
+			assertEquals(0, streamingDataSource.getNumIdle());
+
+			try (SearchMatches<Organization> next = dao.openSearch(createStreamedSearchQuery()).get())
+			{
+				List<Organization> read = new ArrayList<>();
+				next.read(read::add);
+				assertEquals(2, read.size());
+			}
+		}
+	}
+
+	@Test
+	public void testSearchWithTotalModes() throws Exception
+	{
+		for (int i = 0; i < 3; i++)
+			dao.create(createResource());
+
+		SearchQuery<Organization> noneQuery = dao.createSearchQueryWithoutUserFilter(1, 2);
+		noneQuery.configureParameters(Map.of(SearchQuery.PARAMETER_TOTAL, List.of("none")));
+		PartialResult<Organization> none = dao.search(noneQuery);
+
+		assertFalse(none.hasTotal());
+		assertEquals(2, none.getPartialResult().size());
+
+		SearchQuery<Organization> estimatedQuery = dao.createSearchQueryWithoutUserFilter(2, 2);
+		estimatedQuery.configureParameters(Map.of(SearchQuery.PARAMETER_TOTAL, List.of("estimated")));
+		PartialResult<Organization> estimated = dao.search(estimatedQuery);
+
+		assertEquals(3, estimated.getTotal());
+		assertEquals(1, estimated.getPartialResult().size());
+
+		SearchQuery<Organization> accurateQuery = dao.createSearchQueryWithoutUserFilter(1, 0);
+		accurateQuery.configureParameters(Map.of(SearchQuery.PARAMETER_TOTAL, List.of("accurate")));
+		PartialResult<Organization> accurate = dao.search(accurateQuery);
+
+		assertEquals(3, accurate.getTotal());
+		assertTrue(accurate.getPartialResult().isEmpty());
+	}
+
+	@Test
+	public void testLastUpdatedColumnMaintainedAndSearchable() throws Exception
+	{
+		Organization created = dao.create(createResource());
+		assertLastUpdated(created);
+
+		Organization updated = dao.update(updateResource(created));
+		assertLastUpdated(updated);
+
+		SearchQuery<Organization> query = dao.createSearchQueryWithoutUserFilter(1, 10);
+		query.configureParameters(
+				Map.of("_lastUpdated", List.of("ge" + updated.getMeta().getLastUpdatedElement().getValueAsString()),
+						SearchQuery.PARAMETER_SORT, List.of("-_lastUpdated")));
+		assertTrue(query.getUnsupportedQueryParameters().isEmpty());
+		PartialResult<Organization> result = dao.search(query);
+
+		assertEquals(1, result.getTotal());
+		assertEquals(updated.getIdElement().getIdPart(), result.getPartialResult().get(0).getIdElement().getIdPart());
+	}
+
+	private void assertLastUpdated(Organization organization) throws Exception
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement("SELECT last_updated FROM current_organizations WHERE organization_id = ?"))
+		{
+			PGobject organizationId = new PGobject();
+			organizationId.setType("UUID");
+			organizationId.setValue(organization.getIdElement().getIdPart());
+			statement.setObject(1, organizationId);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+				assertEquals(organization.getMeta().getLastUpdated().getTime(), result.getTimestamp(1).getTime());
+			}
+		}
+	}
 }
@@ -0,0 +1,219 @@
+package dev.dsf.fhir.dao;
+
+import static dev.dsf.fhir.authorization.read.ReadAccessHelper.ORGANIZATION_IDENTIFIER_SYSTEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.ResearchStudy;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import ca.uhn.fhir.context.FhirContext;
+import de.hsheilbronn.mi.utils.test.PostgreSqlContainerLiquibaseTemplateClassRule;
+import de.hsheilbronn.mi.utils.test.PostgresTemplateRule;
+import dev.dsf.fhir.authorization.read.ReadAccessHelper;
+import dev.dsf.fhir.authorization.read.ReadAccessHelperImpl;
+import dev.dsf.fhir.dao.jdbc.BinaryDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.OrganizationAffiliationDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.PatientDaoJdbc;
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex;
+import dev.dsf.fhir.dao.jdbc.ResearchStudyDaoJdbc;
+import dev.dsf.fhir.service.migration.ReadAccessTagsMigrationJob;
+
+/**
+ * Replaces the <code>read_access</code> entries written by the resource daos with entries computed by the former
+ * trigger function <code>on_resources_insert</code>, kept in the database by the 1.4.0 migration, and checks that
+ * entries computed by {@link ReadAccessIndex} after the read access tags migration job do not differ.
+ */
+public class ReadAccessMigrationDaoTest extends AbstractDbTest
+{
+	private static final String ROLE_SYSTEM = "http://dsf.dev/fhir/CodeSystem/organization-role";
+
+	@ClassRule
+	public static final PostgreSqlContainerLiquibaseTemplateClassRule liquibaseRule = new PostgreSqlContainerLiquibaseTemplateClassRule(
+			DockerImageName.parse("postgres:15"), ROOT_USER, "fhir", "fhir_template", CHANGE_LOG_FILE,
+			CHANGE_LOG_PARAMETERS, true);
+
+	@Rule
+	public final PostgresTemplateRule templateRule = new PostgresTemplateRule(liquibaseRule);
+
+	private static BasicDataSource defaultDataSource;
+	private static BasicDataSource permanentDeleteDataSource;
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final ReadAccessHelper readAccessHelper = new ReadAccessHelperImpl();
+
+	@BeforeClass
+	public static void beforeClass() throws Exception
+	{
+		defaultDataSource = createDefaultDataSource(liquibaseRule.getHost(), liquibaseRule.getMappedPort(5432),
+				liquibaseRule.getDatabaseName());
+		defaultDataSource.start();
+
+		permanentDeleteDataSource = createPermanentDeleteDataSource(liquibaseRule.getHost(),
+				liquibaseRule.getMappedPort(5432), liquibaseRule.getDatabaseName());
+		permanentDeleteDataSource.start();
+	}
+
+	@AfterClass
+	public static void afterClass() throws Exception
+	{
+		if (defaultDataSource != null)
+			defaultDataSource.close();
+
+		if (permanentDeleteDataSource != null)
+			permanentDeleteDataSource.close();
+	}
+
+	@Test
+	public void testCheckAfterMigrationOfTriggerEntries() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+
+		Organization parent = new Organization();
+		readAccessHelper.addAll(parent);
+		parent.setActive(true);
+		parent.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue("parent.com");
+		Organization createdParent = organizationDao.create(parent);
+
+		Organization member = new Organization();
+		readAccessHelper.addAll(member);
+		member.setActive(true);
+		member.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue("member.com");
+		Organization createdMember = organizationDao.create(member);
+
+		Organization inactive = new Organization();
+		readAccessHelper.addAll(inactive);
+		inactive.setActive(false);
+		inactive.addIdentifier().setSystem(ORGANIZATION_IDENTIFIER_SYSTEM).setValue("inactive.com");
+		organizationDao.create(inactive);
+
+		OrganizationAffiliation affiliation = new OrganizationAffiliation();
+		readAccessHelper.addAll(affiliation);
+		affiliation.setActive(true);
+		affiliation.getCodeFirstRep().getCodingFirstRep().setSystem(ROLE_SYSTEM).setCode("DIC");
+		affiliation.getOrganization().setReference("Organization/" + createdParent.getIdElement().getIdPart());
+		affiliation.getParticipatingOrganization()
+				.setReference("Organization/" + createdMember.getIdElement().getIdPart());
+		new OrganizationAffiliationDaoJdbc(defaultDataSource, permanentDeleteDataSource, fhirContext)
+				.create(affiliation);
+
+		ResearchStudy researchStudy = new ResearchStudy();
+		readAccessHelper.addOrganization(researchStudy, "member.com");
+		readAccessHelper.addOrganization(researchStudy, "inactive.com");
+		readAccessHelper.addRole(researchStudy, "parent.com", ROLE_SYSTEM, "DIC");
+		ResearchStudy createdResearchStudy = new ResearchStudyDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext).create(researchStudy);
+
+		Patient patient = new Patient();
+		readAccessHelper.addLocal(patient);
+		new PatientDaoJdbc(defaultDataSource, permanentDeleteDataSource, fhirContext).create(patient);
+
+		BinaryDao binaryDao = new BinaryDaoJdbc(defaultDataSource, permanentDeleteDataSource, fhirContext);
+
+		Binary binary = new Binary().setContentType("text/plain").setData("1234567890".getBytes());
+		binary.setSecurityContext(new Reference("ResearchStudy/" + createdResearchStudy.getIdElement().getIdPart()));
+		binaryDao.create(binary);
+
+		Binary versionSpecificBinary = new Binary().setContentType("text/plain").setData("1234567890".getBytes());
+		versionSpecificBinary
+				.setSecurityContext(new Reference("ResearchStudy/" + createdResearchStudy.getIdElement().getIdPart()
+						+ "/_history/" + createdResearchStudy.getIdElement().getVersionIdPart()));
+		binaryDao.create(versionSpecificBinary);
+
+		int entries = replaceWithTriggerEntries();
+		// ALL x 4, LOCAL x 2, ORGANIZATION x 1, ROLE x 1 and copies of the research study entries for both binaries
+		assertEquals(14, entries);
+
+		prepareReadAccessTagsMigration();
+		new ReadAccessTagsMigrationJob(defaultDataSource, fhirContext).execute();
+
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setAutoCommit(false);
+			assertEquals(0, new ReadAccessIndex().check(connection, false));
+		}
+	}
+
+	/**
+	 * Recomputes all <code>read_access</code> entries by executing the former trigger function for every resource,
+	 * organizations and organization affiliations first. Binaries receive entries of their security context resource
+	 * from the function executed for the security context resource.
+	 */
+	private int replaceWithTriggerEntries() throws Exception
+	{
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement("DELETE FROM read_access"))
+			{
+				statement.execute();
+			}
+
+			try (PreparedStatement statement = connection
+					.prepareStatement("SELECT on_resources_insert(id, version, resource) FROM all_resources "
+							+ "WHERE type NOT IN ('Binary', 'Task', 'QuestionnaireResponse') "
+							+ "ORDER BY type <> 'Organization', type <> 'OrganizationAffiliation'"))
+			{
+				statement.execute();
+			}
+
+			connection.commit();
+
+			try (PreparedStatement statement = connection.prepareStatement("SELECT count(*) FROM read_access");
+					ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+				return result.getInt(1);
+			}
+		}
+	}
+
+	private void prepareReadAccessTagsMigration() throws Exception
+	{
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+			connection.setAutoCommit(false);
+
+			for (String sql : new String[] { "DELETE FROM read_access_tags",
+					"DELETE FROM read_access_security_contexts",
+					"INSERT INTO read_access_tags_backfill (id, type) SELECT id, type FROM all_resources "
+							+ "WHERE type NOT IN ('Task', 'QuestionnaireResponse')" })
+			{
+				try (PreparedStatement statement = connection.prepareStatement(sql))
+				{
+					statement.execute();
+				}
+			}
+
+			connection.commit();
+
+			try (PreparedStatement statement = connection
+					.prepareStatement("SELECT count(*) FROM read_access_tags_backfill");
+					ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+				assertEquals(8, result.getInt(1));
+			}
+		}
+	}
+}
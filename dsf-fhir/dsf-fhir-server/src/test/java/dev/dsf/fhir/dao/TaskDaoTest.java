@@ -1,11 +1,28 @@
 package dev.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hl7.fhir.r4.model.Organization;
 import org.hl7.fhir.r4.model.Task;
 import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
 
+import dev.dsf.fhir.dao.jdbc.OrganizationDaoJdbc;
 import dev.dsf.fhir.dao.jdbc.TaskDaoJdbc;
+import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.search.SearchQuery;
 
 public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 {
@@ -43,4 +60,110 @@ public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 	{
 		assertEquals(description, resource.getDescription());
 	}
+
+	@Test
+	public void testLatestFlagMaintainedOnUpdateAndDelete() throws Exception
+	{
+		Task created = dao.create(createResource());
+		UUID uuid = UUID.fromString(created.getIdElement().getIdPart());
+		assertLatestVersion(uuid, 1L, 1);
+
+		Task updated = dao.update(updateResource(created), 1L);
+		assertLatestVersion(uuid, 2L, 1);
+
+		dao.update(updated, 2L);
+		assertLatestVersion(uuid, 3L, 1);
+
+		dao.delete(uuid);
+		assertLatestVersion(uuid, 3L, 0);
+	}
+
+	private void assertLatestVersion(UUID uuid, long expectedVersion, int expectedCurrentCount) throws Exception
+	{
+		try (Connection connection = getDefaultDataSource().getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"SELECT version, (SELECT count(*) FROM current_tasks WHERE task_id = ?::uuid) FROM tasks WHERE task_id = ?::uuid AND latest"))
+		{
+			statement.setString(1, uuid.toString());
+			statement.setString(2, uuid.toString());
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+				assertEquals(expectedVersion, result.getLong(1));
+				assertEquals(expectedCurrentCount, result.getInt(2));
+				assertFalse(result.next());
+			}
+		}
+	}
+
+	private Organization createOrganization(OrganizationDao organizationDao, String identifier) throws Exception
+	{
+		Organization organization = new Organization();
+		organization.getMeta().addTag().setSystem("http://dsf.dev/fhir/CodeSystem/read-access-tag").setCode("ALL");
+		organization.setActive(true);
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue(identifier);
+		return organizationDao.create(organization);
+	}
+
+	private Task createTask(Organization requester, Organization recipient) throws Exception
+	{
+		Task task = createResource();
+		task.getRequester().setReference("Organization/" + requester.getIdElement().getIdPart());
+		task.getRestriction().addRecipient().setReference("Organization/" + recipient.getIdElement().getIdPart());
+		return dao.create(task);
+	}
+
+	@Test
+	public void testSearchIncludeRequesterDeduplicatedAcrossRows() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+		Organization orgA = createOrganization(organizationDao, "Test_Organization_A");
+		Organization orgB = createOrganization(organizationDao, "Test_Organization_B");
+		Organization orgC = createOrganization(organizationDao, "Test_Organization_C");
+
+		List<String> taskIds = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			taskIds.add(createTask(orgA, orgA).getIdElement().getIdPart());
+		for (int i = 0; i < 2; i++)
+			taskIds.add(createTask(orgB, orgA).getIdElement().getIdPart());
+
+		SearchQuery<Task> query = dao.createSearchQuery(TestOrganizationIdentity.local(orgA), 1, 10);
+		query.configureParameters(Map.of("_include", List.of("Task:requester:Organization")));
+		PartialResult<Task> result = dao.search(query);
+
+		assertEquals(5, result.getPartialResult().size());
+		assertEquals(Set.copyOf(taskIds),
+				result.getPartialResult().stream().map(t -> t.getIdElement().getIdPart()).collect(Collectors.toSet()));
+
+		// one include per referenced organization, not per matched task, orgC not referenced
+		assertEquals(2, result.getIncludes().size());
+		assertEquals(Set.of(orgA.getIdElement().getIdPart(), orgB.getIdElement().getIdPart()),
+				result.getIncludes().stream().map(r -> r.getIdElement().getIdPart()).collect(Collectors.toSet()));
+		assertTrue(result.getIncludes().stream().allMatch(r -> r instanceof Organization));
+		assertFalse(result.getIncludes().stream()
+				.anyMatch(r -> orgC.getIdElement().getIdPart().equals(r.getIdElement().getIdPart())));
+	}
+
+	@Test
+	public void testSearchIncludeRequesterOnlyForMatchesOnPage() throws Exception
+	{
+		OrganizationDao organizationDao = new OrganizationDaoJdbc(defaultDataSource, permanentDeleteDataSource,
+				fhirContext);
+		Organization orgA = createOrganization(organizationDao, "Test_Organization_A");
+		Organization orgB = createOrganization(organizationDao, "Test_Organization_B");
+
+		Task taskA = createTask(orgA, orgA);
+		createTask(orgB, orgA);
+
+		SearchQuery<Task> query = dao.createSearchQuery(TestOrganizationIdentity.local(orgA), 1, 10);
+		query.configureParameters(Map.of("_id", List.of(taskA.getIdElement().getIdPart()), "_include",
+				List.of("Task:requester:Organization")));
+		PartialResult<Task> result = dao.search(query);
+
+		assertEquals(1, result.getPartialResult().size());
+		assertEquals(1, result.getIncludes().size());
+		assertEquals(orgA.getIdElement().getIdPart(), result.getIncludes().get(0).getIdElement().getIdPart());
+	}
 }
@@ -0,0 +1,110 @@
+package dev.dsf.fhir.dao.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.Test;
+
+import dev.dsf.fhir.event.ResourceDeletedEvent;
+import dev.dsf.fhir.event.ResourceUpdatedEvent;
+
+public class ResourceCacheTest
+{
+	private static Organization organization(UUID id, long version)
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", id.toString(), String.valueOf(version)));
+		return organization;
+	}
+
+	@Test
+	public void testGetLatestAndVersion() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 10);
+		UUID id = UUID.randomUUID();
+		Organization v1 = organization(id, 1);
+		Organization v2 = organization(id, 2);
+
+		assertNull(cache.getLatest(id));
+		cache.put(id, v1, cache.getGeneration());
+		cache.putLatest(id, v2, cache.getGeneration());
+
+		assertSame(v2, cache.getLatest(id));
+		assertSame(v1, cache.get(id, 1));
+		assertSame(v2, cache.get(id, 2));
+		assertNull(cache.get(id, 3));
+
+		assertEquals(3, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testPutIgnoredAfterInvalidation() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 10);
+		UUID id = UUID.randomUUID();
+
+		long generation = cache.getGeneration();
+		cache.invalidate(id);
+		cache.putLatest(id, organization(id, 1), generation);
+
+		assertNull(cache.getLatest(id));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testEviction() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 2);
+		UUID id1 = UUID.randomUUID();
+		UUID id2 = UUID.randomUUID();
+		UUID id3 = UUID.randomUUID();
+
+		cache.putLatest(id1, organization(id1, 1), cache.getGeneration());
+		cache.putLatest(id2, organization(id2, 1), cache.getGeneration());
+		cache.getLatest(id1);
+		cache.putLatest(id3, organization(id3, 1), cache.getGeneration());
+
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictionCount());
+		assertNull(cache.getLatest(id2));
+	}
+
+	@Test
+	public void testEventInvalidatesAllVersions() throws Exception
+	{
+		ResourceCache<Organization> cache = new ResourceCache<>(Organization.class, 10);
+		UUID id = UUID.randomUUID();
+		UUID other = UUID.randomUUID();
+
+		cache.put(id, organization(id, 1), cache.getGeneration());
+		cache.putLatest(id, organization(id, 2), cache.getGeneration());
+		cache.putLatest(other, organization(other, 1), cache.getGeneration());
+
+		cache.handleEvent(new ResourceUpdatedEvent(Organization.class, organization(id, 3)));
+
+		assertNull(cache.getLatest(id));
+		assertNull(cache.get(id, 1));
+		assertEquals(1, cache.getSize());
+		assertEquals(1, cache.getInvalidationCount());
+
+		cache.handleEvent(new ResourceDeletedEvent(Endpoint.class, other.toString()));
+		assertEquals(1, cache.getSize());
+
+		cache.handleEvent(new ResourceDeletedEvent(Organization.class, other.toString()));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testManagerInvalidSize() throws Exception
+	{
+		new ResourceCacheManager(List.of("Organization"));
+	}
+}
@@ -0,0 +1,334 @@
+package dev.dsf.fhir.dao.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.DeferredInserts;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
+import dev.dsf.fhir.dao.ReadAccessDao;
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
+import dev.dsf.fhir.help.ExceptionHandler;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+public class BatchCommandListTest
+{
+	private static final int PARALLELISM = 4;
+	private static final Runnable NOOP = () ->
+	{};
+
+	private final DataSource dataSource = mock(DataSource.class);
+	private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception
+	{
+		doAnswer(i ->
+		{
+			Connection connection = mock(Connection.class);
+			when(connection.getAutoCommit()).thenReturn(true);
+			when(connection.setSavepoint()).thenReturn(mock(Savepoint.class));
+			connections.add(connection);
+			return connection;
+		}).when(dataSource).getConnection();
+
+		executor = Executors.newFixedThreadPool(PARALLELISM - 1);
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		executor.shutdownNow();
+	}
+
+	private <C extends Command> C command(Class<C> type, int index, Runnable execute) throws Exception
+	{
+		C command = mock(type);
+		when(command.getIndex()).thenReturn(index);
+		when(command.getIdentity()).thenReturn(mock(Identity.class));
+		when(command.postExecute(any(), any())).thenReturn(Optional.empty());
+		doAnswer(i ->
+		{
+			execute.run();
+			executed.add(type.getSimpleName() + index);
+			return null;
+		}).when(command).execute(any(), any(), any(), any());
+
+		return command;
+	}
+
+	private Bundle execute(List<Command> commands, int parallelism)
+	{
+		return execute(commands, parallelism, null);
+	}
+
+	private Bundle execute(List<Command> commands, int parallelism, ReadAccessDao readAccessDao)
+	{
+		return new BatchCommandList(dataSource, mock(ExceptionHandler.class), commands, null, null, null, executor,
+				parallelism, readAccessDao).execute();
+	}
+
+	private ReadAccessDao readAccessDao(DeferredReadAccessUpdates readAccessUpdates)
+	{
+		ReadAccessDao readAccessDao = mock(ReadAccessDao.class);
+		when(readAccessDao.createDeferredUpdates()).thenReturn(readAccessUpdates);
+		return readAccessDao;
+	}
+
+	@Test
+	public void testReadCommandsExecutedInParallel() throws Exception
+	{
+		CyclicBarrier barrier = new CyclicBarrier(PARALLELISM);
+		Runnable await = () ->
+		{
+			try
+			{
+				barrier.await(10, TimeUnit.SECONDS);
+			}
+			catch (Exception e)
+			{
+				throw new RuntimeException(e);
+			}
+		};
+
+		List<Command> commands = new ArrayList<>();
+		for (int i = 0; i < PARALLELISM * 2; i++)
+			commands.add(command(ReadCommand.class, i, await));
+
+		execute(commands, PARALLELISM);
+
+		assertEquals(PARALLELISM * 2, executed.size());
+		assertEquals(PARALLELISM, connections.size());
+		assertTrue(executed.stream().allMatch(e -> e.startsWith("ReadCommand")));
+	}
+
+	@Test
+	public void testModifyingCommandsExecutedSequentially() throws Exception
+	{
+		Runnable slow = () ->
+		{
+			try
+			{
+				Thread.sleep(50);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		List<Command> commands = List.of(command(ReadCommand.class, 0, slow), command(ReadCommand.class, 1, slow),
+				command(CreateCommand.class, 2, NOOP), command(ReadCommand.class, 3, NOOP),
+				command(CreateCommand.class, 4, NOOP));
+
+		execute(commands, PARALLELISM);
+
+		assertEquals(5, executed.size());
+		assertEquals(Set.of("ReadCommand0", "ReadCommand1"), Set.copyOf(executed.subList(0, 2)));
+		assertEquals(List.of("CreateCommand2", "ReadCommand3", "CreateCommand4"), executed.subList(2, 5));
+	}
+
+	@Test
+	public void testSequentialWithoutParallelism() throws Exception
+	{
+		List<Command> commands = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			commands.add(command(ReadCommand.class, i, NOOP));
+
+		execute(commands, 1);
+
+		assertEquals(List.of("ReadCommand0", "ReadCommand1", "ReadCommand2", "ReadCommand3", "ReadCommand4"), executed);
+		assertEquals(1, connections.size());
+	}
+
+	@Test
+	public void testCreateCommandsExecutedInOneTransaction() throws Exception
+	{
+		DeferredReadAccessUpdates readAccessUpdates = mock(DeferredReadAccessUpdates.class);
+
+		List<Command> commands = List.of(command(CreateCommand.class, 0, NOOP), command(CreateCommand.class, 1, NOOP),
+				command(CreateCommand.class, 2, NOOP), command(ReadCommand.class, 3, NOOP),
+				command(CreateCommand.class, 4, NOOP));
+
+		Bundle result = execute(commands, 1, readAccessDao(readAccessUpdates));
+
+		assertEquals(0, result.getEntry().size());
+		assertEquals(List.of("CreateCommand0", "CreateCommand1", "CreateCommand2", "ReadCommand3", "CreateCommand4"),
+				executed);
+
+		Connection connection = connections.iterator().next();
+		verify(connection, times(4)).setSavepoint();
+		verify(connection, never()).rollback(any());
+		verify(readAccessUpdates, times(2)).execute(connection);
+
+		// creates 0 to 2 and create 4, mocked connection reports auto-commit for the read command
+		verify(connection, times(2)).commit();
+	}
+
+	@Test
+	public void testCreateCommandRolledBackToSavepoint() throws Exception
+	{
+		DeferredReadAccessUpdates readAccessUpdates = mock(DeferredReadAccessUpdates.class);
+		when(readAccessUpdates.size()).thenReturn(1);
+
+		Runnable fail = () ->
+		{
+			throw new WebApplicationException(Response.status(Status.FORBIDDEN).entity(new OperationOutcome()).build());
+		};
+
+		List<Command> commands = List.of(command(CreateCommand.class, 0, NOOP), command(CreateCommand.class, 1, fail),
+				command(CreateCommand.class, 2, NOOP));
+
+		Bundle result = execute(commands, 1, readAccessDao(readAccessUpdates));
+
+		assertEquals(1, result.getEntry().size());
+		assertEquals("403 Forbidden", result.getEntry().get(0).getResponse().getStatus());
+		assertEquals(List.of("CreateCommand0", "CreateCommand2"), executed);
+
+		Connection connection = connections.iterator().next();
+		verify(connection, times(1)).rollback(any());
+		verify(connection, never()).rollback();
+		verify(readAccessUpdates).truncate(1);
+		verify(readAccessUpdates, times(1)).execute(connection);
+		verify(connection, times(1)).commit();
+	}
+
+	@Test
+	public void testCreateCommandsRolledBackIfReadAccessUpdateFails() throws Exception
+	{
+		DeferredReadAccessUpdates readAccessUpdates = mock(DeferredReadAccessUpdates.class);
+		doThrow(new SQLException("test")).when(readAccessUpdates).execute(any());
+
+		List<Command> commands = List.of(command(CreateCommand.class, 0, NOOP), command(CreateCommand.class, 1, NOOP));
+
+		ExceptionHandler exceptionHandler = mock(ExceptionHandler.class);
+		when(exceptionHandler.internalServerErrorBundleBatch(any()))
+				.thenReturn(new WebApplicationException(Response.serverError().entity(new OperationOutcome()).build()));
+
+		Bundle result = new BatchCommandList(dataSource, exceptionHandler, commands, null, null, null, executor, 1,
+				readAccessDao(readAccessUpdates)).execute();
+
+		assertEquals(2, result.getEntry().size());
+		assertTrue(result.getEntry().stream().allMatch(e -> e.getResponse().getStatus().startsWith("500")));
+
+		Connection connection = connections.iterator().next();
+		verify(connection).rollback();
+		verify(connection, never()).commit();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFailedDeferredInsertReportedForEntry() throws Exception
+	{
+		DeferredReadAccessUpdates readAccessUpdates = mock(DeferredReadAccessUpdates.class);
+		AtomicInteger collected = new AtomicInteger();
+
+		DeferredInserts<Patient> inserts = mock(DeferredInserts.class);
+		when(inserts.size()).thenAnswer(i -> collected.get());
+		when(inserts.isEmpty()).thenAnswer(i -> collected.get() == 0);
+		doAnswer(i ->
+		{
+			collected.decrementAndGet();
+			throw new DeferredInsertException(1, new SQLException("duplicate"));
+		}).doAnswer(i ->
+		{
+			collected.set(0);
+			return null;
+		}).when(inserts).execute(any());
+
+		List<Command> commands = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			CreateCommand<Patient, ?> create = command(CreateCommand.class, i, collected::incrementAndGet);
+			doReturn(inserts).when(create).createDeferredInserts(any());
+			when(create.setDeferredInserts(any())).thenAnswer(a -> a.getArgument(0) != null);
+			commands.add(create);
+		}
+
+		ExceptionHandler exceptionHandler = mock(ExceptionHandler.class);
+		when(exceptionHandler.internalServerErrorBundleBatch(any()))
+				.thenReturn(new WebApplicationException(Response.serverError().entity(new OperationOutcome()).build()));
+
+		Bundle result = new BatchCommandList(dataSource, exceptionHandler, commands, null, null, null, executor, 1,
+				readAccessDao(readAccessUpdates)).execute();
+
+		// only the entry of the failed insert reports an error, other resources inserted with the retried batch
+		assertEquals(1, result.getEntry().size());
+		assertTrue(result.getEntry().get(0).getResponse().getStatus().startsWith("500"));
+		verify(commands.get(1), never()).postExecute(any(), any());
+		verify(commands.get(0)).postExecute(any(), any());
+		verify(commands.get(2)).postExecute(any(), any());
+		verify(commands.get(1), never()).postCommit();
+
+		Connection connection = connections.iterator().next();
+		verify(inserts, times(2)).execute(connection);
+		verify(readAccessUpdates).execute(connection);
+		verify(connection, never()).rollback();
+		verify(connection).commit();
+	}
+
+	@Test
+	public void testPostCommitAfterCommitOfSuccessfulCommands() throws Exception
+	{
+		Connection connection = mock(Connection.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+
+		Runnable fail = () ->
+		{
+			throw new WebApplicationException(Response.status(Status.FORBIDDEN).entity(new OperationOutcome()).build());
+		};
+
+		UpdateCommand<?, ?> update = command(UpdateCommand.class, 0, NOOP);
+		DeleteCommand delete = command(DeleteCommand.class, 1, fail);
+
+		execute(List.of(update, delete), 1);
+
+		InOrder inOrder = inOrder(update, connection);
+		inOrder.verify(update).execute(any(), any(), any(), any());
+		inOrder.verify(connection).commit();
+		inOrder.verify(update).postCommit();
+
+		verify(connection).rollback();
+		verify(delete, never()).postCommit();
+	}
+}
@@ -0,0 +1,148 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.dao.DeferredInserts;
+import dev.dsf.fhir.dao.DeferredReadAccessUpdates;
+import dev.dsf.fhir.dao.exception.DeferredInsertException;
+
+public class DeferredInsertsTest
+{
+	private final PatientDaoJdbc dao = new PatientDaoJdbc(mock(DataSource.class), mock(DataSource.class),
+			FhirContext.forR4());
+
+	private final Connection connection = mock(Connection.class);
+	private final Savepoint savepoint = mock(Savepoint.class);
+	private final PreparedStatement resourceStatement = mock(PreparedStatement.class);
+	private final PreparedStatement historyStatement = mock(PreparedStatement.class);
+	private final PreparedStatement tokenStatement = mock(PreparedStatement.class);
+	private final DeferredReadAccessUpdates readAccessUpdates = mock(DeferredReadAccessUpdates.class);
+
+	@Before
+	public void before() throws Exception
+	{
+		when(connection.setSavepoint()).thenReturn(savepoint);
+		when(connection.prepareStatement(startsWith("INSERT INTO patients"))).thenReturn(resourceStatement);
+		when(connection.prepareStatement(startsWith("INSERT INTO history_entries"))).thenReturn(historyStatement);
+		when(connection.prepareStatement(startsWith("INSERT INTO resource_tokens"))).thenReturn(tokenStatement);
+		when(readAccessUpdates.add(any(), any(), anyLong())).thenReturn(true);
+	}
+
+	private Patient createPatient(String identifier)
+	{
+		Patient patient = new Patient();
+		patient.addIdentifier().setSystem("http://foo").setValue(identifier);
+		return patient;
+	}
+
+	@Test
+	public void testInsertsExecutedAsMultiRowBatch() throws Exception
+	{
+		DeferredInserts<Patient> inserts = dao.createDeferredInserts(readAccessUpdates);
+		for (int i = 0; i < 3; i++)
+			dao.createWithTransactionAndId(connection, createPatient("p" + i), UUID.randomUUID(), inserts);
+
+		assertEquals(3, inserts.size());
+		verify(connection, never()).prepareStatement(any());
+
+		inserts.execute(connection);
+
+		assertTrue(inserts.isEmpty());
+		verify(connection, times(1)).prepareStatement(startsWith("INSERT INTO patients"));
+		verify(resourceStatement, times(3)).addBatch();
+		verify(resourceStatement).executeBatch();
+		verify(resourceStatement, never()).execute();
+		verify(historyStatement, times(3)).addBatch();
+		verify(historyStatement).executeBatch();
+		verify(tokenStatement, times(3)).addBatch();
+		verify(tokenStatement).executeBatch();
+		verify(readAccessUpdates, times(3)).add(any(), any(), eq(1L));
+		verify(connection).releaseSavepoint(savepoint);
+		verify(connection, never()).rollback(any());
+	}
+
+	@Test
+	public void testFailedInsertMappedToResource() throws Exception
+	{
+		when(readAccessUpdates.size()).thenReturn(0);
+		when(resourceStatement.executeBatch()).thenThrow(new BatchUpdateException("test", "23505", 0,
+				new int[] { 1, Statement.EXECUTE_FAILED, Statement.EXECUTE_FAILED }, new SQLException("duplicate")))
+				.thenReturn(new int[] { 1, 1 });
+
+		DeferredInserts<Patient> inserts = dao.createDeferredInserts(readAccessUpdates);
+		for (int i = 0; i < 3; i++)
+			dao.createWithTransactionAndId(connection, createPatient("p" + i), UUID.randomUUID(), inserts);
+
+		try
+		{
+			inserts.execute(connection);
+			fail("DeferredInsertException expected");
+		}
+		catch (DeferredInsertException e)
+		{
+			assertEquals(1, e.getIndex());
+		}
+
+		verify(connection).rollback(savepoint);
+		verify(readAccessUpdates).truncate(0);
+		verify(historyStatement, never()).executeBatch();
+		assertEquals(2, inserts.size());
+
+		inserts.execute(connection);
+
+		assertTrue(inserts.isEmpty());
+		verify(resourceStatement, times(5)).addBatch();
+		verify(historyStatement, times(2)).addBatch();
+		verify(historyStatement).executeBatch();
+	}
+
+	@Test
+	public void testCreateWithoutDeferredInserts() throws Exception
+	{
+		Patient created = dao.createWithTransactionAndId(connection, createPatient("p"), UUID.randomUUID(),
+				readAccessUpdates);
+
+		assertEquals("1", created.getMeta().getVersionId());
+		verify(resourceStatement, times(1)).addBatch();
+		verify(resourceStatement).executeBatch();
+		verify(historyStatement, times(1)).addBatch();
+		verify(tokenStatement, times(1)).addBatch();
+		verify(readAccessUpdates).add(any(), any(), eq(1L));
+		verify(connection, never()).setSavepoint();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDeferredInsertsOfOtherDao() throws Exception
+	{
+		PatientDaoJdbc other = new PatientDaoJdbc(mock(DataSource.class), mock(DataSource.class), FhirContext.forR4());
+
+		dao.createWithTransactionAndId(connection, createPatient("p"), UUID.randomUUID(),
+				other.createDeferredInserts(readAccessUpdates));
+	}
+}
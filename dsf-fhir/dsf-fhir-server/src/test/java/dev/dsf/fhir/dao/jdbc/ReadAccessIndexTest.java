@@ -0,0 +1,76 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.ResearchStudy;
+import org.junit.Test;
+
+import dev.dsf.fhir.authorization.read.ReadAccessHelper;
+import dev.dsf.fhir.authorization.read.ReadAccessHelperImpl;
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex.SecurityContext;
+import dev.dsf.fhir.dao.jdbc.ReadAccessIndex.Tag;
+
+public class ReadAccessIndexTest
+{
+	private static final String ROLE_SYSTEM = "http://dsf.dev/fhir/CodeSystem/organization-role";
+
+	private final ReadAccessIndex index = new ReadAccessIndex();
+	private final ReadAccessHelper readAccessHelper = new ReadAccessHelperImpl();
+
+	@Test
+	public void testGetTags() throws Exception
+	{
+		ResearchStudy researchStudy = new ResearchStudy();
+		readAccessHelper.addOrganization(researchStudy, "org1.com");
+		readAccessHelper.addOrganization(researchStudy, "org2.com");
+		readAccessHelper.addRole(researchStudy, "parent.com", ROLE_SYSTEM, "DIC");
+		readAccessHelper.addRole(researchStudy, "parent.com", ROLE_SYSTEM, "DIC");
+
+		assertEquals(List.of(new Tag("LOCAL", null, null, null), new Tag("ORGANIZATION", "org1.com", null, null),
+				new Tag("ORGANIZATION", "org2.com", null, null), new Tag("ROLE", "parent.com", ROLE_SYSTEM, "DIC")),
+				index.getTags(researchStudy));
+
+		assertEquals(List.of(new Tag("ALL", null, null, null)),
+				index.getTags(readAccessHelper.addAll(new ResearchStudy())));
+	}
+
+	@Test
+	public void testGetTagsInvalid() throws Exception
+	{
+		ResearchStudy researchStudy = new ResearchStudy();
+		researchStudy.getMeta().addTag().setSystem("http://foo").setCode("ALL");
+		researchStudy.getMeta().addTag().setSystem(ReadAccessHelper.READ_ACCESS_TAG_SYSTEM).setCode("FOO");
+		researchStudy.getMeta().addTag().setSystem(ReadAccessHelper.READ_ACCESS_TAG_SYSTEM).setCode("ORGANIZATION")
+				.addExtension().setUrl(ReadAccessHelper.EXTENSION_READ_ACCESS_ORGANIZATION)
+				.setValue(new Identifier().setSystem("http://foo").setValue("org.com"));
+
+		assertTrue(index.getTags(researchStudy).isEmpty());
+		assertTrue(index.getTags(new ResearchStudy()).isEmpty());
+	}
+
+	@Test
+	public void testGetSecurityContext() throws Exception
+	{
+		UUID id = UUID.randomUUID();
+
+		assertEquals(new SecurityContext(id, null),
+				index.getSecurityContext(new Binary().setSecurityContext(new Reference("ResearchStudy/" + id))));
+		assertEquals(new SecurityContext(id, 2L), index.getSecurityContext(
+				new Binary().setSecurityContext(new Reference("ResearchStudy/" + id + "/_history/2"))));
+		assertEquals(new SecurityContext(id, null), index.getSecurityContext(
+				new Binary().setSecurityContext(new Reference("https://foo.bar/fhir/ResearchStudy/" + id))));
+
+		assertNull(index.getSecurityContext(new Binary().setSecurityContext(new Reference("ResearchStudy/foo"))));
+		assertNull(index.getSecurityContext(new Binary()));
+		assertNull(index.getSecurityContext(new OrganizationAffiliation()));
+	}
+}
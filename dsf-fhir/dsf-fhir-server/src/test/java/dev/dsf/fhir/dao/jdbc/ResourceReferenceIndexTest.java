@@ -0,0 +1,55 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.junit.Test;
+
+import dev.dsf.fhir.dao.jdbc.ResourceReferenceIndex.IndexedReference;
+import dev.dsf.fhir.service.ReferenceExtractorImpl;
+
+public class ResourceReferenceIndexTest
+{
+	private final ResourceReferenceIndex index = new ResourceReferenceIndex(new ReferenceExtractorImpl());
+
+	@Test
+	public void testGetReferences() throws Exception
+	{
+		UUID parent = UUID.randomUUID();
+		UUID member = UUID.randomUUID();
+		UUID endpoint = UUID.randomUUID();
+
+		OrganizationAffiliation affiliation = new OrganizationAffiliation();
+		affiliation.getOrganization().setReference("Organization/" + parent);
+		affiliation.getParticipatingOrganization().setReference("Organization/" + member + "/_history/2");
+		affiliation.addEndpoint().setReference("Endpoint/" + endpoint);
+		affiliation.addEndpoint().setReference("Endpoint/" + endpoint);
+
+		List<IndexedReference> references = index.getReferences(affiliation);
+
+		assertEquals(
+				List.of(new IndexedReference("OrganizationAffiliation.organization", "Organization", parent, null),
+						new IndexedReference("OrganizationAffiliation.participatingOrganization", "Organization",
+								member, 2L),
+						new IndexedReference("OrganizationAffiliation.endpoint", "Endpoint", endpoint, null)),
+				references);
+	}
+
+	@Test
+	public void testGetReferencesNotIndexed() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.addEndpoint().setReference("https://foo.bar/fhir/Endpoint/" + UUID.randomUUID());
+		organization.addEndpoint().setReference("Endpoint/not-a-uuid");
+		organization.addEndpoint().setReference("urn:uuid:" + UUID.randomUUID());
+		organization.addEndpoint().setReference("Endpoint?identifier=http://foo|bar");
+		organization.addEndpoint().setType("Endpoint").getIdentifier().setSystem("http://foo").setValue("bar");
+
+		assertTrue(index.getReferences(organization).isEmpty());
+	}
+}
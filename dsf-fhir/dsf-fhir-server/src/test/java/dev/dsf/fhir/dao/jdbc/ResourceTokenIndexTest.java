@@ -0,0 +1,64 @@
+package dev.dsf.fhir.dao.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.DocumentReference;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import dev.dsf.fhir.dao.jdbc.ResourceTokenIndex.IndexedToken;
+
+public class ResourceTokenIndexTest
+{
+	private final ResourceTokenIndex index = new ResourceTokenIndex();
+
+	@Test
+	public void testGetTokens() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Org");
+		organization.addIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Org");
+		organization.addIdentifier().setValue("no-system");
+		organization.addType().addCoding().setSystem("http://terminology.hl7.org/CodeSystem/organization-type")
+				.setCode("prov");
+		organization.addType().addCoding().setCode("no-system");
+
+		List<IndexedToken> tokens = index.getTokens(organization);
+
+		assertEquals(List.of(new IndexedToken("identifier", "http://dsf.dev/sid/organization-identifier", "Test_Org"),
+				new IndexedToken("identifier", null, "no-system"),
+				new IndexedToken("type", "http://terminology.hl7.org/CodeSystem/organization-type", "prov"),
+				new IndexedToken("type", null, "no-system")), tokens);
+	}
+
+	@Test
+	public void testGetTokensSingleAndMasterIdentifier() throws Exception
+	{
+		Bundle bundle = new Bundle();
+		bundle.getIdentifier().setSystem("http://foo").setValue("bar");
+
+		assertEquals(List.of(new IndexedToken("identifier", "http://foo", "bar")), index.getTokens(bundle));
+
+		DocumentReference documentReference = new DocumentReference();
+		documentReference.addIdentifier().setSystem("http://foo").setValue("bar");
+		documentReference.getMasterIdentifier().setSystem("http://foo").setValue("baz");
+
+		assertEquals(List.of(new IndexedToken("identifier", "http://foo", "bar"),
+				new IndexedToken("identifier", "http://foo", "baz")), index.getTokens(documentReference));
+	}
+
+	@Test
+	public void testGetTokensNotIndexed() throws Exception
+	{
+		Task task = new Task();
+		task.addIdentifier().setType(null);
+		task.addInput().getType().addCoding().setSystem("http://foo").setCode("bar");
+
+		assertTrue(index.getTokens(task).isEmpty());
+	}
+}
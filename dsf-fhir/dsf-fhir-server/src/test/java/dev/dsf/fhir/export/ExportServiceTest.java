@@ -0,0 +1,184 @@
+package dev.dsf.fhir.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.ResourceDao.ExportConsumer;
+import dev.dsf.fhir.dao.ResourceDao.ExportJson;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.export.ExportJob.ExportJobStatus;
+
+public class ExportServiceTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final DaoProvider daoProvider = mock(DaoProvider.class);
+	private final ResourceDao<?> organizationDao = mock(ResourceDao.class);
+	private final ResourceDao<?> endpointDao = mock(ResourceDao.class);
+
+	private final Identity identity = identity("identity");
+	private final Identity otherIdentity = identity("other");
+
+	private ExportServiceImpl service;
+
+	private static Identity identity(String name)
+	{
+		Identity identity = mock(Identity.class);
+		when(identity.getName()).thenReturn(name);
+		return identity;
+	}
+
+	@Before
+	public void before() throws Exception
+	{
+		doAnswer(i -> Optional.of(organizationDao)).when(daoProvider).getDao("Organization");
+		doAnswer(i -> Optional.of(endpointDao)).when(daoProvider).getDao("Endpoint");
+
+		service = new ExportServiceImpl(daoProvider, folder.getRoot().toPath().resolve("export"), 1,
+				Duration.ofHours(1));
+		service.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		service.destroy();
+	}
+
+	private ExportJob awaitDone(ExportJob job) throws Exception
+	{
+		for (int i = 0; i < 500 && !job.getStatus().isDone(); i++)
+			Thread.sleep(10);
+
+		return job;
+	}
+
+	@Test
+	public void testExport() throws Exception
+	{
+		doAnswer(i ->
+		{
+			ExportConsumer consumer = i.getArgument(2);
+			consumer.accept(ExportJson.of("{\"resourceType\":\"Organization\",\"id\":\"1\"}"));
+			consumer.accept(ExportJson.of("{\"resourceType\":\"Organization\",\"id\":\"2\"}"));
+			return 2L;
+		}).when(organizationDao).export(any(), isNull(), any());
+		when(endpointDao.export(any(), isNull(), any())).thenReturn(0L);
+
+		ExportJob job = service
+				.start(identity, "https://localhost/fhir/$export", List.of("Organization", "Endpoint"), null).get();
+		assertEquals(ExportJobStatus.COMPLETED, awaitDone(job).getStatus());
+
+		assertEquals(1, job.getOutputs().size());
+		assertEquals(2, job.getResourceTypesDone());
+		assertEquals("Organization.ndjson", job.getOutputs().get(0).getFileName());
+		assertEquals(2, job.getOutputs().get(0).getCount());
+
+		Path file = service.getFile(identity, job.getId(), "Organization.ndjson").get();
+		assertEquals(
+				List.of("{\"resourceType\":\"Organization\",\"id\":\"1\"}",
+						"{\"resourceType\":\"Organization\",\"id\":\"2\"}"),
+				Files.readAllLines(file, StandardCharsets.UTF_8));
+
+		assertTrue(service.getFile(identity, job.getId(), "Endpoint.ndjson").isEmpty());
+		assertTrue(service.getFile(identity, job.getId(), "../Organization.ndjson").isEmpty());
+		assertTrue(service.getFile(otherIdentity, job.getId(), "Organization.ndjson").isEmpty());
+		assertTrue(service.getJob(otherIdentity, job.getId()).isEmpty());
+
+		ExportManifest manifest = new ExportManifest(job, "https://localhost/fhir");
+		assertEquals(1, manifest.getOutput().size());
+		assertEquals("https://localhost/fhir/$export-file/" + job.getId() + "/Organization.ndjson",
+				manifest.getOutput().get(0).getUrl());
+
+		assertTrue(service.delete(identity, job.getId()));
+		assertFalse(Files.exists(file));
+		assertTrue(service.getJob(identity, job.getId()).isEmpty());
+	}
+
+	@Test
+	public void testOneActiveJobPerIdentityAndCancel() throws Exception
+	{
+		CountDownLatch started = new CountDownLatch(1);
+		doAnswer(i ->
+		{
+			started.countDown();
+			ExportConsumer consumer = i.getArgument(2);
+			while (true)
+			{
+				consumer.accept(ExportJson.of("{}"));
+				Thread.sleep(1);
+			}
+		}).when(organizationDao).export(any(), isNull(), any());
+
+		ExportJob job = service.start(identity, "https://localhost/fhir/$export", List.of("Organization"), null).get();
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		assertEquals(ExportJobStatus.RUNNING, job.getStatus());
+
+		assertTrue(service.start(identity, "https://localhost/fhir/$export", List.of("Organization"), null).isEmpty());
+
+		assertTrue(service.delete(identity, job.getId()));
+		assertEquals(ExportJobStatus.CANCELLED, awaitDone(job).getStatus());
+	}
+
+	@Test
+	public void testFailed() throws Exception
+	{
+		when(organizationDao.export(any(), isNull(), any())).thenThrow(new SQLException("test"));
+
+		ExportJob job = service.start(identity, "https://localhost/fhir/$export", List.of("Organization"), null)
+				.get();
+
+		assertEquals(ExportJobStatus.FAILED, awaitDone(job).getStatus());
+		assertTrue(service.getFile(identity, job.getId(), "Organization.ndjson").isEmpty());
+	}
+
+	@Test
+	public void testStartupDeletesOnlyJobDirectories() throws Exception
+	{
+		Path directory = folder.getRoot().toPath().resolve("export");
+		Path jobDirectory = Files.createDirectories(directory.resolve(UUID.randomUUID().toString()));
+		Files.writeString(jobDirectory.resolve("Organization.ndjson"), "{}");
+		Path otherDirectory = Files.createDirectories(directory.resolve("conf"));
+		Files.writeString(otherDirectory.resolve("config.properties"), "test");
+		Path otherFile = Files.writeString(directory.resolve(UUID.randomUUID().toString()), "test");
+
+		ExportServiceImpl restarted = new ExportServiceImpl(daoProvider, directory, 1, Duration.ofHours(1));
+		restarted.afterPropertiesSet();
+		try
+		{
+			assertFalse(Files.exists(jobDirectory));
+			assertTrue(Files.exists(otherDirectory.resolve("config.properties")));
+			assertTrue(Files.exists(otherFile));
+		}
+		finally
+		{
+			restarted.destroy();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package dev.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.Test;
+
+import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+import dev.dsf.fhir.search.parameters.ResourceId;
+import dev.dsf.fhir.search.parameters.ResourceLastUpdated;
+
+public class SearchQueryCursorTest
+{
+	private SearchQuery<Organization> query(Map<String, List<String>> parameters)
+	{
+		return SearchQueryBuilder
+				.create(Organization.class, "current_organizations", "organization_id", "organization", 1, 2)
+				.with(new SearchQueryParameterFactory<>(ResourceId.PARAMETER_NAME,
+						() -> new ResourceId<>(Organization.class, "organization_id")),
+						new SearchQueryParameterFactory<>(ResourceLastUpdated.PARAMETER_NAME,
+								() -> new ResourceLastUpdated<>(Organization.class)))
+				.build().configureParameters(parameters);
+	}
+
+	private Organization createOrganization(String id, Date lastUpdated)
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", id, "1"));
+		organization.getMeta().setLastUpdated(lastUpdated);
+		return organization;
+	}
+
+	@Test
+	public void testLastUpdatedSortCursor() throws Exception
+	{
+		String id1 = UUID.randomUUID().toString();
+		String id2 = UUID.randomUUID().toString();
+		Date lastUpdated = new Date();
+
+		SearchQuery<Organization> firstQuery = query(
+				Map.of(SearchQuery.PARAMETER_SORT, List.of(ResourceLastUpdated.PARAMETER_NAME)));
+		assertTrue(firstQuery.getSearchSql().contains(" ORDER BY (last_updated)::timestamp, organization_id"));
+
+		PageCursor cursor = firstQuery
+				.createNextCursor(List.of(createOrganization(id1, lastUpdated), createOrganization(id2, lastUpdated)));
+		assertNotNull(cursor);
+		assertEquals(2, cursor.size());
+		assertEquals(new Timestamp(lastUpdated.getTime()).toLocalDateTime(), LocalDateTime.parse(cursor.getValue(0)));
+		assertEquals(id2, cursor.getValue(1));
+
+		SearchQuery<Organization> secondQuery = query(Map.of(SearchQuery.PARAMETER_SORT,
+				List.of(ResourceLastUpdated.PARAMETER_NAME), SearchQuery.PARAMETER_CURSOR, List.of(cursor.toToken())));
+		assertTrue(secondQuery.getUnsupportedQueryParameters().isEmpty());
+		assertTrue(secondQuery.getSearchSql().contains("(last_updated, organization_id) > (?, ?)"));
+		assertTrue(secondQuery.getSearchSql().endsWith(" LIMIT ?"));
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		secondQuery.modifySearchStatement(statement, null);
+		verify(statement).setTimestamp(1, new Timestamp(lastUpdated.getTime()));
+		verify(statement).setObject(eq(2), any());
+		verify(statement).setInt(3, 2);
+	}
+
+	@Test
+	public void testLastUpdatedSortDescendingCursor() throws Exception
+	{
+		PageCursor cursor = PageCursor.of(LocalDateTime.now().toString(), UUID.randomUUID().toString());
+
+		SearchQuery<Organization> query = query(
+				Map.of(SearchQuery.PARAMETER_SORT, List.of("-" + ResourceLastUpdated.PARAMETER_NAME),
+						SearchQuery.PARAMETER_CURSOR, List.of(cursor.toToken())));
+		assertTrue(query.getUnsupportedQueryParameters().isEmpty());
+		assertTrue(query.getSearchSql().contains(" ORDER BY (last_updated)::timestamp DESC, organization_id DESC"));
+		assertTrue(query.getSearchSql().contains("(last_updated, organization_id) < (?, ?)"));
+	}
+
+	@Test
+	public void testLastUpdatedSortCursorWithIdCursorValue() throws Exception
+	{
+		PageCursor cursor = PageCursor.of(UUID.randomUUID().toString());
+
+		SearchQuery<Organization> query = query(Map.of(SearchQuery.PARAMETER_SORT,
+				List.of(ResourceLastUpdated.PARAMETER_NAME), SearchQuery.PARAMETER_CURSOR, List.of(cursor.toToken())));
+		assertEquals(1, query.getUnsupportedQueryParameters().size());
+		assertTrue(query.getSearchSql().endsWith(" LIMIT ? OFFSET ?"));
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		query.modifySearchStatement(statement, null);
+		verify(statement, never()).setTimestamp(anyInt(), any());
+	}
+
+	@Test
+	public void testLastUpdatedSortWithoutLastUpdatedNoCursor() throws Exception
+	{
+		SearchQuery<Organization> query = query(
+				Map.of(SearchQuery.PARAMETER_SORT, List.of(ResourceLastUpdated.PARAMETER_NAME)));
+
+		assertNull(query.createNextCursor(List.of(createOrganization(UUID.randomUUID().toString(), null),
+				createOrganization(UUID.randomUUID().toString(), null))));
+	}
+}
@@ -0,0 +1,110 @@
+package dev.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.help.SummaryMode;
+import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+
+public class SearchQueryProjectionTest
+{
+	@Test
+	public void testSummaryTrue() throws Exception
+	{
+		String sql = SearchQueryProjection.summary(Organization.class, "organization", SummaryMode.TRUE).getSql();
+
+		assertTrue(sql, sql.startsWith("(SELECT jsonb_object_agg(key, value) FROM jsonb_each(organization)"));
+		assertTrue(sql, sql.contains("'resourceType'"));
+		assertTrue(sql, sql.contains("'id'"));
+		assertTrue(sql, sql.contains("'meta'"));
+		assertTrue(sql, sql.contains("'identifier'"));
+		assertTrue(sql, sql.contains("'active'"));
+		assertTrue(sql, sql.contains("'_active'"));
+		assertFalse(sql, sql.contains("'text'"));
+		assertFalse(sql, sql.contains("'contact'"));
+	}
+
+	@Test
+	public void testSummaryText() throws Exception
+	{
+		String sql = SearchQueryProjection.summary(Task.class, "task", SummaryMode.TEXT).getSql();
+
+		assertTrue(sql, sql.contains("'text'"));
+		assertTrue(sql, sql.contains("'status'"));
+		assertTrue(sql, sql.contains("'intent'"));
+		assertFalse(sql, sql.contains("'input'"));
+	}
+
+	@Test
+	public void testSummaryDataCountFalse() throws Exception
+	{
+		assertEquals("(organization - 'text')",
+				SearchQueryProjection.summary(Organization.class, "organization", SummaryMode.DATA).getSql());
+		assertNull(SearchQueryProjection.summary(Organization.class, "organization", SummaryMode.COUNT));
+		assertNull(SearchQueryProjection.summary(Organization.class, "organization", SummaryMode.FALSE));
+		assertNull(SearchQueryProjection.summary(Organization.class, "organization", null));
+	}
+
+	@Test
+	public void testElements() throws Exception
+	{
+		List<String> unknown = new ArrayList<>();
+		SearchQueryProjection projection = SearchQueryProjection.elements(Task.class, "task",
+				List.of("Task.input", " output", "foo"), unknown::add);
+
+		assertNotNull(projection);
+		assertEquals(List.of("foo"), unknown);
+
+		String sql = projection.getSql();
+		assertTrue(sql, sql.contains("'input'"));
+		assertTrue(sql, sql.contains("'output'"));
+		assertTrue(sql, sql.contains("'status'"));
+		assertFalse(sql, sql.contains("'foo'"));
+		assertFalse(sql, sql.contains("'restriction'"));
+
+		Task task = new Task();
+		projection.modifyResource(task);
+		projection.modifyResource(task);
+		assertEquals(1, task.getMeta().getTag().size());
+		assertNotNull(task.getMeta().getTag(Constants.TAG_SUBSETTED_SYSTEM_R4, Constants.TAG_SUBSETTED_CODE));
+
+		assertNull(SearchQueryProjection.elements(Task.class, "task", List.of("foo"), unknown::add));
+	}
+
+	@Test
+	public void testSearchQuery() throws Exception
+	{
+		SearchQuery<Task> query = SearchQueryBuilder.create(Task.class, "tasks", "task_id", "task", 1, 20).build()
+				.configureParameters(Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("input,bar")));
+
+		assertTrue(query.getSearchSql(), query.getSearchSql().startsWith("SELECT (SELECT jsonb_object_agg"));
+		assertEquals(1, query.getUnsupportedQueryParameters().size());
+		assertFalse(query.isSummaryCount());
+
+		SearchQuery<Task> countQuery = SearchQueryBuilder.create(Task.class, "tasks", "task_id", "task", 1, 20).build()
+				.configureParameters(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("count")));
+
+		assertTrue(countQuery.isSummaryCount());
+		assertNull(countQuery.getProjection());
+
+		SearchQuery<Binary> binaryQuery = SearchQueryBuilder
+				.create(Binary.class, "binaries", "binary_id", "binary_json", 1, 20).build()
+				.configureParameters(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("true")));
+
+		assertNull(binaryQuery.getProjection());
+		assertTrue(binaryQuery.getSearchSql().startsWith("SELECT binary_json FROM"));
+	}
+}
@@ -0,0 +1,201 @@
+package dev.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.Test;
+
+import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+import dev.dsf.fhir.search.parameters.OrganizationIdentifier;
+import dev.dsf.fhir.search.parameters.ResourceId;
+
+public class SearchQuerySqlCacheTest
+{
+	private static final class CountingResourceId extends ResourceId<Organization>
+	{
+		final AtomicInteger filterQueryCount;
+
+		CountingResourceId(AtomicInteger filterQueryCount)
+		{
+			super(Organization.class, "organization_id");
+
+			this.filterQueryCount = filterQueryCount;
+		}
+
+		@Override
+		public String getFilterQuery()
+		{
+			filterQueryCount.incrementAndGet();
+			return super.getFilterQuery();
+		}
+	}
+
+	private static final class IdentityFilter implements SearchQueryIdentityFilter
+	{
+		final String filterQuery;
+		final AtomicInteger filterQueryCount;
+
+		IdentityFilter(String filterQuery, AtomicInteger filterQueryCount)
+		{
+			this.filterQuery = filterQuery;
+			this.filterQueryCount = filterQueryCount;
+		}
+
+		@Override
+		public String getFilterQuery()
+		{
+			filterQueryCount.incrementAndGet();
+			return filterQuery;
+		}
+
+		@Override
+		public String getFilterQueryKind()
+		{
+			return filterQuery.isEmpty() ? "NONE" : "FALSE";
+		}
+
+		@Override
+		public int getSqlParameterCount()
+		{
+			return 0;
+		}
+
+		@Override
+		public void modifyStatement(int parameterIndex, int subqueryParameterIndex, PreparedStatement statement)
+		{
+		}
+	}
+
+	private SearchQuery<Organization> query(SearchQuerySqlCache cache, int page, Map<String, List<String>> parameters)
+	{
+		return query(cache, null, new AtomicInteger(), page, parameters);
+	}
+
+	private SearchQuery<Organization> query(SearchQuerySqlCache cache, SearchQueryIdentityFilter identityFilter,
+			AtomicInteger filterQueryCount, int page, Map<String, List<String>> parameters)
+	{
+		return SearchQueryBuilder
+				.create(Organization.class, "organizations", "organization_id", "organization", page, 20).with(cache)
+				.with(identityFilter)
+				.with(new SearchQueryParameterFactory<>(ResourceId.PARAMETER_NAME,
+						() -> new CountingResourceId(filterQueryCount)))
+				.with(new SearchQueryParameterFactory<>(OrganizationIdentifier.PARAMETER_NAME,
+						OrganizationIdentifier::new, OrganizationIdentifier.getNameModifiers()))
+				.build().configureParameters(parameters);
+	}
+
+	@Test
+	public void testSameShapeSharesSql() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 10);
+
+		SearchQuery<Organization> query1 = query(cache, 1,
+				Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString())));
+		SearchQuery<Organization> query2 = query(cache, 3,
+				Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString())));
+
+		assertSame(query1.getSearchSql(), query2.getSearchSql());
+		assertSame(query1.getCountSql(), query2.getCountSql());
+		assertTrue(query1.getSearchSql().endsWith(" LIMIT ? OFFSET ?"));
+
+		assertEquals(1, cache.getSize());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.5, cache.getHitRate(), 0.001);
+	}
+
+	@Test
+	public void testDifferentShape() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 10);
+
+		SearchQuery<Organization> query1 = query(cache, 1,
+				Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString())));
+		SearchQuery<Organization> query2 = query(cache, 1, Map.of());
+
+		assertNotEquals(query1.getSearchSql(), query2.getSearchSql());
+		assertEquals(2, cache.getSize());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testMaxSize() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 1);
+
+		query(cache, 1, Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString()))).getSearchSql();
+		query(cache, 1, Map.of()).getSearchSql();
+
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void testCacheHitWithoutFilterQuery() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 10);
+		AtomicInteger filterQueryCount = new AtomicInteger();
+
+		query(cache, null, filterQueryCount, 1,
+				Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString()))).getSearchSql();
+		assertEquals(1, filterQueryCount.get());
+
+		query(cache, null, filterQueryCount, 1,
+				Map.of(ResourceId.PARAMETER_NAME, List.of(UUID.randomUUID().toString()))).getSearchSql();
+		assertEquals(1, filterQueryCount.get());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testValueFormShape() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 10);
+
+		SearchQuery<Organization> code1 = query(cache, 1,
+				Map.of(OrganizationIdentifier.PARAMETER_NAME, List.of("code1")));
+		SearchQuery<Organization> code2 = query(cache, 1,
+				Map.of(OrganizationIdentifier.PARAMETER_NAME, List.of("code2")));
+		SearchQuery<Organization> systemAndCode = query(cache, 1,
+				Map.of(OrganizationIdentifier.PARAMETER_NAME, List.of("http://system|code")));
+		SearchQuery<Organization> notCode = query(cache, 1,
+				Map.of(OrganizationIdentifier.PARAMETER_NAME + ":not", List.of("code1")));
+
+		assertSame(code1.getSearchSql(), code2.getSearchSql());
+		assertNotEquals(code1.getSearchSql(), systemAndCode.getSearchSql());
+		assertNotEquals(code1.getSearchSql(), notCode.getSearchSql());
+		assertTrue(systemAndCode.getSearchSql().contains("code = ? AND system = ?"));
+
+		assertEquals(3, cache.getSize());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testIdentityFilterKindShape() throws Exception
+	{
+		SearchQuerySqlCache cache = new SearchQuerySqlCache("Organization", 10);
+		AtomicInteger filterQueryCount = new AtomicInteger();
+
+		SearchQuery<Organization> none = query(cache, new IdentityFilter("", filterQueryCount), new AtomicInteger(), 1,
+				Map.of());
+		SearchQuery<Organization> denied = query(cache, new IdentityFilter("FALSE", filterQueryCount),
+				new AtomicInteger(), 1, Map.of());
+
+		assertNotEquals(none.getSearchSql(), denied.getSearchSql());
+		assertTrue(denied.getCountSql().endsWith(" WHERE FALSE"));
+
+		int count = filterQueryCount.get();
+		query(cache, new IdentityFilter("FALSE", filterQueryCount), new AtomicInteger(), 1, Map.of()).getSearchSql();
+		assertEquals(count, filterQueryCount.get());
+
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getHitCount());
+	}
+}
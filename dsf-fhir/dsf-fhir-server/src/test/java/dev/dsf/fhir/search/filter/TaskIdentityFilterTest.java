@@ -0,0 +1,78 @@
+package dev.dsf.fhir.search.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Organization;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.authentication.FhirServerRole;
+
+public class TaskIdentityFilterTest
+{
+	@Test
+	public void testContainmentParametersEscaped() throws Exception
+	{
+		Organization organization = new Organization();
+		organization.setIdElement(new IdType("Organization", "a\"b\\c", "1"));
+
+		Identity identity = mock(Identity.class);
+		when(identity.hasDsfRole(FhirServerRole.READ)).thenReturn(true);
+		when(identity.getOrganization()).thenReturn(organization);
+
+		TaskIdentityFilter filter = new TaskIdentityFilter(identity);
+		assertEquals(4, filter.getSqlParameterCount());
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		for (int i = 1; i <= filter.getSqlParameterCount(); i++)
+			filter.modifyStatement(i, i, statement);
+
+		ArgumentCaptor<String> values = ArgumentCaptor.forClass(String.class);
+		verify(statement, times(4)).setString(anyInt(), values.capture());
+		List<String> json = values.getAllValues();
+
+		String reference = "Organization/a\"b\\c/_history/1";
+		String versionlessReference = "Organization/a\"b\\c";
+
+		assertEquals(reference, parse(json.get(0)).getAsJsonObject("requester").get("reference").getAsString());
+		assertEquals(versionlessReference,
+				parse(json.get(1)).getAsJsonObject("requester").get("reference").getAsString());
+		assertEquals(reference, parse(json.get(2)).getAsJsonObject("restriction").getAsJsonArray("recipient").get(0)
+				.getAsJsonObject().get("reference").getAsString());
+		assertEquals(versionlessReference, parse(json.get(3)).getAsJsonObject("restriction").getAsJsonArray("recipient")
+				.get(0).getAsJsonObject().get("reference").getAsString());
+	}
+
+	@Test
+	public void testNoReadRole() throws Exception
+	{
+		Identity identity = mock(Identity.class);
+
+		TaskIdentityFilter filter = new TaskIdentityFilter(identity);
+		assertEquals("FALSE", filter.getFilterQuery());
+		assertEquals(0, filter.getSqlParameterCount());
+
+		PreparedStatement statement = mock(PreparedStatement.class);
+		filter.modifyStatement(1, 1, statement);
+		verify(statement, times(0)).setString(anyInt(), anyString());
+	}
+
+	private static JsonObject parse(String json)
+	{
+		return JsonParser.parseString(json).getAsJsonObject();
+	}
+}
@@ -0,0 +1,151 @@
+package dev.dsf.fhir.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Connection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.hl7.fhir.common.hapi.validation.support.CommonCodeSystemsTerminologyService;
+import org.hl7.fhir.common.hapi.validation.support.InMemoryTerminologyServerValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.validation.ValidationResult;
+import dev.dsf.fhir.dao.CodeSystemDao;
+import dev.dsf.fhir.dao.StructureDefinitionDao;
+import dev.dsf.fhir.dao.ValueSetDao;
+import dev.dsf.fhir.service.TransactionValidatorPool.PooledValidator;
+import dev.dsf.fhir.validation.ResourceValidator;
+import dev.dsf.fhir.validation.ResourceValidatorImpl;
+import dev.dsf.fhir.validation.SnapshotGeneratorImpl;
+
+/**
+ * Compares the throughput of simulated transactions creating a validation support chain, resource validator and
+ * snapshot generator per transaction with transactions using shared base FHIR profiles and pooled validators. The
+ * number of transactions can be configured via the system property
+ * <code>dev.dsf.fhir.service.benchmark.transactions</code>. Executed with the integration tests, base FHIR profiles are
+ * parsed for every transaction without pooling.
+ */
+public class TransactionValidatorPoolBenchmarkIntegrationTest
+{
+	private static final Logger logger = LoggerFactory
+			.getLogger(TransactionValidatorPoolBenchmarkIntegrationTest.class);
+
+	private static final int TRANSACTIONS = Integer.getInteger("dev.dsf.fhir.service.benchmark.transactions", 10);
+	private static final int WARMUP_TRANSACTIONS = 2;
+
+	private static final FhirContext context = FhirContext.forR4();
+
+	private final StructureDefinitionDao structureDefinitionDao = mock(StructureDefinitionDao.class);
+	private final StructureDefinitionDao structureDefinitionSnapshotDao = mock(StructureDefinitionDao.class);
+	private final CodeSystemDao codeSystemDao = mock(CodeSystemDao.class);
+	private final ValueSetDao valueSetDao = mock(ValueSetDao.class);
+	private final Connection connection = mock(Connection.class);
+
+	private static DefaultProfileValidationSupport createDefaultProfileValidationSupport()
+	{
+		DefaultProfileValidationSupport dpvs = new DefaultProfileValidationSupport(context);
+		dpvs.fetchCodeSystem("");
+		dpvs.fetchAllStructureDefinitions();
+		return dpvs;
+	}
+
+	private IValidationSupport createTransactionValidationSupport(DefaultProfileValidationSupport dpvs)
+	{
+		ValidationSupportWithCache validationSupport = new ValidationSupportWithCache(context,
+				new ValidationSupportChain(new InMemoryTerminologyServerValidationSupport(context),
+						new ValidationSupportWithFetchFromDbWithTransaction(context, structureDefinitionDao,
+								structureDefinitionSnapshotDao, codeSystemDao, valueSetDao, connection),
+						dpvs, new CommonCodeSystemsTerminologyService(context)));
+
+		return validationSupport.populateCache(List.of());
+	}
+
+	private static Task createTask()
+	{
+		Task task = new Task();
+		task.setStatus(TaskStatus.REQUESTED);
+		task.setIntent(TaskIntent.ORDER);
+		task.setAuthoredOn(new Date());
+		task.setRequester(new Reference("Organization/1"));
+		return task;
+	}
+
+	private static ValidationResult validate(ResourceValidator validator)
+	{
+		ValidationResult result = validator.validate(createTask());
+		assertNotNull(result);
+		return result;
+	}
+
+	private static double run(String name, Runnable transaction)
+	{
+		for (int i = 0; i < WARMUP_TRANSACTIONS; i++)
+			transaction.run();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < TRANSACTIONS; i++)
+			transaction.run();
+		long nanos = System.nanoTime() - start;
+
+		double perSecond = TRANSACTIONS / (nanos / 1_000_000_000d);
+		logger.info("{}: {} transactions in {} ms, {} transactions/s", name, TRANSACTIONS, nanos / 1_000_000,
+				String.format(Locale.ROOT, "%.1f", perSecond));
+
+		return perSecond;
+	}
+
+	@Test
+	public void testTransactionThroughput() throws Exception
+	{
+		Supplier<Integer> messageCount = () -> validate(new ResourceValidatorImpl(context,
+				createTransactionValidationSupport(createDefaultProfileValidationSupport()))).getMessages().size();
+		int expectedMessages = messageCount.get();
+
+		double perTransaction = run("Validator per transaction", () ->
+		{
+			IValidationSupport validationSupport = createTransactionValidationSupport(
+					createDefaultProfileValidationSupport());
+			ResourceValidator validator = new ResourceValidatorImpl(context, validationSupport);
+			new SnapshotGeneratorImpl(context, validationSupport);
+
+			assertEquals(expectedMessages, validate(validator).getMessages().size());
+		});
+
+		DefaultProfileValidationSupport dpvs = createDefaultProfileValidationSupport();
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 1);
+
+		double pooled = run("Pooled validator", () ->
+		{
+			PooledValidator validator = pool.borrow(createTransactionValidationSupport(dpvs));
+			try
+			{
+				assertEquals(expectedMessages, validate(validator.getResourceValidator()).getMessages().size());
+			}
+			finally
+			{
+				pool.release(validator, true);
+			}
+		});
+
+		logger.info("Pooled validator speedup: {}, {}", String.format(Locale.ROOT, "%.1f", pooled / perTransaction),
+				pool);
+
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(TRANSACTIONS + WARMUP_TRANSACTIONS - 1, pool.getReusedCount());
+	}
+}
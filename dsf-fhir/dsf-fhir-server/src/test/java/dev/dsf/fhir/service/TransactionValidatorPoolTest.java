@@ -0,0 +1,162 @@
+package dev.dsf.fhir.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventHandler;
+import dev.dsf.fhir.event.ResourceCreatedEvent;
+import dev.dsf.fhir.event.ResourceDeletedEvent;
+import dev.dsf.fhir.service.TransactionValidatorPool.PooledValidator;
+
+public class TransactionValidatorPoolTest
+{
+	private static final FhirContext context = FhirContext.forR4();
+
+	private static Event structureDefinitionCreated()
+	{
+		StructureDefinition structureDefinition = new StructureDefinition();
+		structureDefinition.setIdElement(new IdType("StructureDefinition", "1", "1"));
+		return new ResourceCreatedEvent(StructureDefinition.class, structureDefinition);
+	}
+
+	@Test
+	public void testReuse() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 2);
+		IValidationSupport support1 = mock(IValidationSupport.class);
+		IValidationSupport support2 = mock(IValidationSupport.class);
+
+		PooledValidator v1 = pool.borrow(support1);
+		v1.getValidationSupport().fetchStructureDefinition("http://test/1");
+		verify(support1).fetchStructureDefinition("http://test/1");
+		pool.release(v1, true);
+		assertEquals(1, pool.getIdleCount());
+
+		PooledValidator v2 = pool.borrow(support2);
+		assertSame(v1, v2);
+		v2.getValidationSupport().fetchStructureDefinition("http://test/2");
+		verify(support2).fetchStructureDefinition("http://test/2");
+
+		assertEquals(1, pool.getCreatedCount());
+		assertEquals(1, pool.getReusedCount());
+		assertEquals(0.5d, pool.getReuseRate(), 0d);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReleasedValidatorDetached() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 2);
+		PooledValidator validator = pool.borrow(mock(IValidationSupport.class));
+		pool.release(validator, true);
+
+		validator.getValidationSupport().fetchStructureDefinition("http://test");
+	}
+
+	@Test
+	public void testAbortedTransactionDiscarded() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 2);
+
+		PooledValidator v1 = pool.borrow(mock(IValidationSupport.class));
+		pool.release(v1, false);
+
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getDiscardedCount());
+		assertNotSame(v1, pool.borrow(mock(IValidationSupport.class)));
+	}
+
+	@Test
+	public void testConformanceResourceModifiedInTransactionDiscarded() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 2);
+		IValidationSupport support = mock(IValidationSupport.class, withSettings().extraInterfaces(EventHandler.class));
+
+		PooledValidator v1 = pool.borrow(support);
+
+		Event taskEvent = new ResourceDeletedEvent(Task.class, "1");
+		v1.getValidationSupport().handleEvent(taskEvent);
+		verify((EventHandler) support).handleEvent(taskEvent);
+		assertFalse(v1.getValidationSupport().isConformanceResourcesModified());
+
+		Event structureDefinitionEvent = structureDefinitionCreated();
+		v1.getValidationSupport().handleEvent(structureDefinitionEvent);
+		verify((EventHandler) support).handleEvent(structureDefinitionEvent);
+		assertTrue(v1.getValidationSupport().isConformanceResourcesModified());
+
+		pool.release(v1, true);
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getDiscardedCount());
+	}
+
+	@Test
+	public void testEventDiscardsIdleAndBorrowedValidators() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 2);
+
+		PooledValidator v1 = pool.borrow(mock(IValidationSupport.class));
+		PooledValidator v2 = pool.borrow(mock(IValidationSupport.class));
+		pool.release(v1, true);
+
+		pool.handleEvent(new ResourceDeletedEvent(Task.class, "1"));
+		assertEquals(1, pool.getIdleCount());
+
+		pool.handleEvent(structureDefinitionCreated());
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getInvalidationCount());
+
+		pool.release(v2, true);
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(2, pool.getDiscardedCount());
+
+		PooledValidator v3 = pool.borrow(mock(IValidationSupport.class));
+		pool.release(v3, true);
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	public void testMaxIdle() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 1);
+
+		PooledValidator v1 = pool.borrow(mock(IValidationSupport.class));
+		PooledValidator v2 = pool.borrow(mock(IValidationSupport.class));
+		pool.release(v1, true);
+		pool.release(v2, true);
+
+		assertEquals(1, pool.getIdleCount());
+		assertEquals(1, pool.getDiscardedCount());
+	}
+
+	@Test
+	public void testDisabled() throws Exception
+	{
+		TransactionValidatorPool pool = new TransactionValidatorPool(context, 0);
+
+		PooledValidator v1 = pool.borrow(mock(IValidationSupport.class));
+		pool.release(v1, true);
+
+		assertEquals(0, pool.getIdleCount());
+		assertNotSame(v1, pool.borrow(mock(IValidationSupport.class)));
+		assertEquals(2, pool.getCreatedCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSize() throws Exception
+	{
+		new TransactionValidatorPool(context, -1);
+	}
+}
@@ -0,0 +1,141 @@
+package dev.dsf.fhir.webservice.jaxrs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.dsf.fhir.help.ParameterConverter;
+import dev.dsf.fhir.webservice.specification.BinaryService;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+public class BinaryServiceJaxrsTest
+{
+	private static final String DATA = "0123456789";
+
+	private final BinaryService delegate = mock(BinaryService.class);
+	private final ParameterConverter parameterConverter = mock(ParameterConverter.class);
+	private final UriInfo uri = mock(UriInfo.class);
+	private final HttpHeaders headers = mock(HttpHeaders.class);
+
+	private final BinaryServiceJaxrs service = new BinaryServiceJaxrs(delegate, parameterConverter);
+
+	@Before
+	public void before() throws Exception
+	{
+		Binary binary = new Binary();
+		binary.setIdElement(binary.getIdElement().setValue("Binary/id/_history/1"));
+		binary.getMeta().setVersionId("1").setLastUpdated(new Date());
+		binary.setContentType(MediaType.TEXT_PLAIN);
+		binary.setData(DATA.getBytes(StandardCharsets.UTF_8));
+
+		when(delegate.read(eq("id"), any(), any())).thenReturn(Response.ok(binary).build());
+		when(parameterConverter.isValidFhirRequest(any(), any())).thenReturn(false);
+		when(uri.getRequestUri()).thenReturn(URI.create("https://localhost/fhir/Binary/id"));
+		when(headers.getAcceptableMediaTypes()).thenReturn(List.of(MediaType.TEXT_PLAIN_TYPE));
+	}
+
+	private Response read(String range, String ifRange)
+	{
+		when(headers.getHeaderString("Range")).thenReturn(range);
+		when(headers.getHeaderString("If-Range")).thenReturn(ifRange);
+
+		return service.read("id", uri, headers);
+	}
+
+	private static String body(Response response) throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testReadWithoutRange() throws Exception
+	{
+		Response response = read(null, null);
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals(DATA, body(response));
+		assertEquals("bytes", response.getHeaderString("Accept-Ranges"));
+		assertNull(response.getHeaderString("Content-Range"));
+	}
+
+	@Test
+	public void testReadRange() throws Exception
+	{
+		Response response = read("bytes=2-5", null);
+
+		assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), response.getStatus());
+		assertEquals("2345", body(response));
+		assertEquals("bytes 2-5/10", response.getHeaderString("Content-Range"));
+		assertEquals("4", response.getHeaderString(HttpHeaders.CONTENT_LENGTH));
+	}
+
+	@Test
+	public void testReadOpenAndSuffixRange() throws Exception
+	{
+		Response open = read("bytes=7-", null);
+		assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), open.getStatus());
+		assertEquals("789", body(open));
+		assertEquals("bytes 7-9/10", open.getHeaderString("Content-Range"));
+
+		Response suffix = read("bytes=-3", null);
+		assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), suffix.getStatus());
+		assertEquals("789", body(suffix));
+		assertEquals("bytes 7-9/10", suffix.getHeaderString("Content-Range"));
+	}
+
+	@Test
+	public void testReadIfRangeMatches() throws Exception
+	{
+		Response response = read("bytes=0-1", "\"1\"");
+
+		assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), response.getStatus());
+		assertEquals("01", body(response));
+	}
+
+	@Test
+	public void testReadIfRangeDoesNotMatch() throws Exception
+	{
+		Response otherVersion = read("bytes=0-1", "\"2\"");
+		assertEquals(Status.OK.getStatusCode(), otherVersion.getStatus());
+		assertEquals(DATA, body(otherVersion));
+
+		// weak entity tags never match
+		Response weak = read("bytes=0-1", "W/\"1\"");
+		assertEquals(Status.OK.getStatusCode(), weak.getStatus());
+		assertEquals(DATA, body(weak));
+
+		Response date = read("bytes=0-1", "Wed, 21 Oct 2015 07:28:00 GMT");
+		assertEquals(Status.OK.getStatusCode(), date.getStatus());
+		assertEquals(DATA, body(date));
+	}
+
+	@Test
+	public void testReadRangeNotSatisfiable() throws Exception
+	{
+		Response response = read("bytes=10-", null);
+
+		assertEquals(Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), response.getStatus());
+		assertEquals("bytes */10", response.getHeaderString("Content-Range"));
+		assertNull(response.getEntity());
+	}
+}